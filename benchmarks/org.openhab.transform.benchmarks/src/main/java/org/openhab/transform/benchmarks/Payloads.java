@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.benchmarks;
+
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Payload corpora and transformation functions modelled on real devices.
+ *
+ * Every corpus consists of {@link #VARIANTS} payloads with changing measurements, so caches keyed by the payload see
+ * the same hit rate as a channel receiving a new value with every update.
+ *
+ * @author Jan N. Klug - Initial contribution
+ */
+@NonNullByDefault
+final class Payloads {
+
+    /** Number of variants of every payload, a power of two */
+    static final int VARIANTS = 1024;
+
+    /** Tasmota energy monitoring plug, as published on its SENSOR topic */
+    static final String[] DEVICE_JSON = IntStream.range(0, VARIANTS).mapToObj(i -> String.format(Locale.ROOT, """
+            {"Time":"2023-05-04T10:%02d:%02d","ENERGY":{"TotalStartTime":"2022-11-20T17:22:41","Total":%d.%03d,\
+            "Yesterday":3.184,"Today":1.207,"Period":%d,"Power":%d,"ApparentPower":%d,"ReactivePower":32,\
+            "Factor":0.94,"Voltage":%d,"Current":%d.%03d},"ANALOG":{"Temperature":%d.%d},"TempUnit":"C"}""",
+            i / 60 % 60, i % 60, 1234 + i, i % 1000, i % 17, 300 + i, 320 + i, 228 + i % 5, 1 + i / 700, i % 1000,
+            20 + i % 5, i % 10)).toArray(String[]::new);
+
+    /** UPnP AVTransport GetPositionInfo response of a media renderer */
+    static final String[] UPNP_XML = IntStream.range(0, VARIANTS).mapToObj(i -> String.format(Locale.ROOT, """
+            <?xml version="1.0"?>
+            <s:Envelope xmlns:s="http://schemas.xmlsoap.org/soap/envelope/" \
+            s:encodingStyle="http://schemas.xmlsoap.org/soap/encoding/"><s:Body>\
+            <u:GetPositionInfoResponse xmlns:u="urn:schemas-upnp-org:service:AVTransport:1">\
+            <Track>%d</Track><TrackDuration>0:03:25</TrackDuration>\
+            <TrackMetaData>&lt;DIDL-Lite xmlns:dc=&quot;http://purl.org/dc/elements/1.1/&quot;&gt;&lt;item id=&quot;-1\
+            &quot; parentID=&quot;-1&quot;&gt;&lt;dc:title&gt;Track %d&lt;/dc:title&gt;&lt;/item&gt;&lt;/DIDL-Lite&gt;\
+            </TrackMetaData><TrackURI>x-sonos-spotify:spotify%%3atrack%%3a%08x</TrackURI>\
+            <RelTime>0:%02d:%02d</RelTime><AbsTime>NOT_IMPLEMENTED</AbsTime><RelCount>2147483647</RelCount>\
+            <AbsCount>2147483647</AbsCount></u:GetPositionInfoResponse></s:Body></s:Envelope>""", 1 + i % 12, i,
+            i * 7919, i / 60 % 4, i % 60)).toArray(String[]::new);
+
+    /** 64 byte frame of a serial sensor, see {@link #SERIAL_FRAME_SYNTAX} */
+    static final byte[][] SERIAL_FRAME = IntStream.range(0, VARIANTS).mapToObj(i -> HexFormat.of().parseHex(
+            String.format(Locale.ROOT, "AA40%04X%08X%04X%04X%04X%04X%04X%04X%04X%04X%04X%04X%04X%04X5A%02X%016X"
+                    + "%08X0001%08X0002%08X00000000%04X", i, 1683195330 + i, 210 + i % 30, 220, 230, -10 & 0xFFFF, 10,
+                    20, 30, 40, 500 + i % 100, 510, 520, 530, i % 100, 123456789L + i, 1234 + i, i, 2 * i, i)))
+            .toArray(byte[][]::new);
+
+    static final String[] SERIAL_FRAME_HEX = IntStream.range(0, VARIANTS)
+            .mapToObj(i -> HexFormat.of().withUpperCase().formatHex(SERIAL_FRAME[i])).toArray(String[]::new);
+
+    static final String SERIAL_FRAME_SYNTAX = "ubyte header; ubyte length; ushort deviceId; int timestamp;"
+            + " short[8] temperatures; ushort[4] humidities; bit:4 mode; bit:4 status; ubyte battery; long energy;"
+            + " int power; meters[2]{ushort id; int value;} byte[4] reserved; ushort crc;";
+
+    /** Readings of a power meter in W */
+    static final String[] POWER_READINGS = IntStream.range(0, VARIANTS)
+            .mapToObj(i -> String.format(Locale.ROOT, "%d.%d", (i * 37) % 6500, i % 10)).toArray(String[]::new);
+
+    /** Status values of a device */
+    static final String[] DEVICE_STATUS = { "ONLINE", "OFFLINE", "0", "1", "OPEN", "CLOSED", "UNKNOWN_STATE" };
+
+    static final String JSONPATH_POWER = "$.ENERGY.Power";
+    static final String[] JSONPATH_CHANNELS = { "$.ENERGY.Power", "$.ENERGY.Voltage", "$.ENERGY.Current",
+            "$.ENERGY.Total", "$.ANALOG.Temperature" };
+
+    static final String XPATH_STREAMING = "//RelTime/text()";
+    static final String XPATH_DOM = "//*[local-name()='RelTime']/text()";
+
+    static final String REGEX_EXTRACTION = ".*\"Power\":([0-9]+).*";
+    static final String REGEX_SUBSTITUTION = "s/:([0-9]+)\\./:$1,/g";
+
+    static final String JINJA_TEMPLATE = "{{ (value_json.ENERGY.Power | float / 1000) | round(3) }}";
+
+    static final String VAT_COUNTRY = "DE";
+
+    static final String MAP_FILE = "status.map";
+    static final String MAP = """
+            ONLINE=Online
+            OFFLINE=Offline
+            0=Off
+            1=On
+            OPEN=Open
+            CLOSED=Closed
+            UNDEF=Undefined
+            NULL=Unknown
+            =Unknown""";
+
+    static final String SCALE_FILE = "power.scale";
+    /** 65 ranges of 100 W each, as used to translate power readings into operating states */
+    static final String SCALE = IntStream.range(0, 65)
+            .mapToObj(i -> String.format(Locale.ROOT, "[%d..%d[=Level %d", i * 100, (i + 1) * 100, i))
+            .collect(Collectors.joining("\n", "", "\n[6500..]=Overload\nNaN=-\nformat=%label% (%value% W)\n"));
+
+    static final String XSLT_FILE = "position.xsl";
+    static final String XSLT = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <xsl:stylesheet version="1.0" xmlns:xsl="http://www.w3.org/1999/XSL/Transform"
+              xmlns:u="urn:schemas-upnp-org:service:AVTransport:1">
+              <xsl:output method="text" encoding="UTF-8"/>
+              <xsl:template match="/">
+                <xsl:value-of select="//u:GetPositionInfoResponse/Track"/>
+                <xsl:text>/</xsl:text>
+                <xsl:value-of select="//u:GetPositionInfoResponse/RelTime"/>
+              </xsl:template>
+            </xsl:stylesheet>
+            """;
+
+    private Payloads() {
+        // prevent instantiation
+    }
+}
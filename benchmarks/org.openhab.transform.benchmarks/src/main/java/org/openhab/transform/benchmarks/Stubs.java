@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.config.core.Configuration;
+import org.openhab.core.i18n.LocaleProvider;
+import org.openhab.core.service.WatchService;
+import org.openhab.core.thing.profiles.ProfileCallback;
+import org.openhab.core.thing.profiles.ProfileContext;
+import org.openhab.core.transform.Transformation;
+import org.openhab.core.transform.TransformationRegistry;
+
+/**
+ * Minimal implementations of the OSGi services the transformation services and profiles depend on.
+ *
+ * The stubs are dynamic proxies which only implement the methods used by the benchmarked code, and return default
+ * values for all other methods. Unlike mocks, they don't record invocations, so they neither grow the heap nor add
+ * allocations to the measured operations beyond the argument arrays of the proxy calls.
+ *
+ * @author Jan N. Klug - Initial contribution
+ */
+@NonNullByDefault
+final class Stubs {
+
+    /**
+     * Creates a {@link TransformationRegistry} holding the given transformation functions.
+     *
+     * @param functions the content of the transformation files by their UID
+     * @param type the type of the transformations, e.g. <code>map</code>
+     */
+    static TransformationRegistry transformationRegistry(Map<String, String> functions, String type) {
+        Map<String, Transformation> transformations = functions.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> new Transformation(e.getKey(), e.getKey(), type,
+                        Map.of(Transformation.FUNCTION, e.getValue()))));
+        return stub(TransformationRegistry.class, (method, args) -> "get".equals(method.getName()) && args != null
+                ? transformations.get(args[0])
+                : null);
+    }
+
+    static WatchService watchService() {
+        return stub(WatchService.class, (method, args) -> null);
+    }
+
+    static LocaleProvider localeProvider(Locale locale) {
+        return stub(LocaleProvider.class, (method, args) -> "getLocale".equals(method.getName()) ? locale : null);
+    }
+
+    static ProfileContext profileContext(Map<String, Object> configuration) {
+        Configuration config = new Configuration(configuration);
+        return stub(ProfileContext.class,
+                (method, args) -> "getConfiguration".equals(method.getName()) ? config : null);
+    }
+
+    /**
+     * A {@link ProfileCallback} keeping the last state or command sent by the profile.
+     */
+    static class CapturingCallback {
+        private volatile @Nullable Object last;
+
+        final ProfileCallback callback = stub(ProfileCallback.class, (method, args) -> {
+            if (args != null && args.length == 1) {
+                last = args[0];
+            }
+            return null;
+        });
+
+        @Nullable
+        Object getLast() {
+            return last;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Answer {
+        @Nullable
+        Object answer(Method method, @Nullable Object @Nullable [] args);
+    }
+
+    private static <T> T stub(Class<T> type, Answer answer) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> type.getSimpleName() + " stub";
+                };
+            }
+            Object result = answer.answer(method, args);
+            return result == null ? defaultValue(method.getReturnType()) : result;
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    private static @Nullable Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == char.class) {
+            return '\0';
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == float.class) {
+            return 0f;
+        } else if (type == double.class) {
+            return 0d;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+
+    private Stubs() {
+        // prevent instantiation
+    }
+}
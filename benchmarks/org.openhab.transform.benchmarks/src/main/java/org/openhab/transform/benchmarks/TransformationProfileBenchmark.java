@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.benchmarks;
+
+import static org.openhab.transform.benchmarks.Payloads.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.OpenHAB;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.thing.profiles.ProfileContext;
+import org.openhab.core.thing.profiles.StateProfile;
+import org.openhab.core.transform.TransformationService;
+import org.openhab.core.types.State;
+import org.openhab.transform.jinja.internal.JinjaTransformationService;
+import org.openhab.transform.jinja.internal.profiles.JinjaTransformationProfile;
+import org.openhab.transform.jsonpath.internal.JSonPathTransformationService;
+import org.openhab.transform.jsonpath.internal.profiles.JSonPathTransformationProfile;
+import org.openhab.transform.map.internal.MapTransformationService;
+import org.openhab.transform.map.internal.profiles.MapTransformationProfile;
+import org.openhab.transform.regex.internal.RegExTransformationService;
+import org.openhab.transform.regex.internal.profiles.RegexTransformationProfile;
+import org.openhab.transform.scale.internal.ScaleTransformationService;
+import org.openhab.transform.scale.internal.profiles.ScaleTransformationProfile;
+import org.openhab.transform.vat.internal.VATTransformationService;
+import org.openhab.transform.vat.internal.profile.VATTransformationProfile;
+import org.openhab.transform.xpath.internal.XPathTransformationService;
+import org.openhab.transform.xpath.internal.profiles.XPathTransformationProfile;
+import org.openhab.transform.xslt.internal.XsltTransformationService;
+import org.openhab.transform.xslt.internal.profiles.XSLTTransformationProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of a state update passing a transformation profile, including the conversion of the state to and
+ * from the transformation input and output.
+ *
+ * Each invocation sends the next variant of a payload corpus from {@link Payloads} as state update from the handler.
+ *
+ * @author Jan N. Klug - Initial contribution
+ */
+@NonNullByDefault
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TransformationProfileBenchmark {
+
+    private final Stubs.CapturingCallback callback = new Stubs.CapturingCallback();
+
+    private @NonNullByDefault({}) Path configFolder;
+    private @NonNullByDefault({}) StateProfile map;
+    private @NonNullByDefault({}) StateProfile scale;
+    private @NonNullByDefault({}) StateProfile regex;
+    private @NonNullByDefault({}) StateProfile jsonPath;
+    private @NonNullByDefault({}) StateProfile xpath;
+    private @NonNullByDefault({}) StateProfile xslt;
+    private @NonNullByDefault({}) StateProfile jinja;
+    private @NonNullByDefault({}) StateProfile vat;
+
+    private final State[] deviceStatus = new State[DEVICE_STATUS.length];
+    private final State[] deviceJson = new State[VARIANTS];
+    private final State[] upnpXml = new State[VARIANTS];
+    private final State[] powerReadings = new State[VARIANTS];
+
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        configFolder = Files.createTempDirectory("openhab-benchmark");
+        Path transformFolder = Files
+                .createDirectories(configFolder.resolve(TransformationService.TRANSFORM_FOLDER_NAME));
+        Files.writeString(transformFolder.resolve(XSLT_FILE), XSLT);
+        System.setProperty(OpenHAB.CONFIG_DIR_PROG_ARGUMENT, configFolder.toString());
+
+        map = new MapTransformationProfile(callback.callback, context(MAP_FILE),
+                new MapTransformationService(Stubs.transformationRegistry(Map.of(MAP_FILE, MAP), "map")));
+        scale = new ScaleTransformationProfile(callback.callback, context(SCALE_FILE),
+                new ScaleTransformationService(Stubs.transformationRegistry(Map.of(SCALE_FILE, SCALE), "scale")));
+        regex = new RegexTransformationProfile(callback.callback, context(REGEX_EXTRACTION),
+                new RegExTransformationService());
+        jsonPath = new JSonPathTransformationProfile(callback.callback, context(JSONPATH_POWER),
+                new JSonPathTransformationService());
+        xpath = new XPathTransformationProfile(callback.callback, context(XPATH_STREAMING),
+                new XPathTransformationService());
+        xslt = new XSLTTransformationProfile(callback.callback, context(XSLT_FILE),
+                new XsltTransformationService(Stubs.watchService()));
+        jinja = new JinjaTransformationProfile(callback.callback, context(JINJA_TEMPLATE),
+                new JinjaTransformationService());
+        vat = new VATTransformationProfile(callback.callback, new VATTransformationService(),
+                Stubs.profileContext(Map.of()), Stubs.localeProvider(Locale.GERMANY));
+
+        for (int i = 0; i < DEVICE_STATUS.length; i++) {
+            deviceStatus[i] = new StringType(DEVICE_STATUS[i]);
+        }
+        for (int i = 0; i < VARIANTS; i++) {
+            deviceJson[i] = new StringType(DEVICE_JSON[i]);
+            upnpXml[i] = new StringType(UPNP_XML[i]);
+            powerReadings[i] = new DecimalType(POWER_READINGS[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.clearProperty(OpenHAB.CONFIG_DIR_PROG_ARGUMENT);
+        Files.delete(configFolder.resolve(TransformationService.TRANSFORM_FOLDER_NAME).resolve(XSLT_FILE));
+        Files.delete(configFolder.resolve(TransformationService.TRANSFORM_FOLDER_NAME));
+        Files.delete(configFolder);
+    }
+
+    private static ProfileContext context(String function) {
+        return Stubs.profileContext(Map.of("function", function, "sourceFormat", "%s"));
+    }
+
+    private int next() {
+        return index++ & (VARIANTS - 1);
+    }
+
+    private @Nullable Object update(StateProfile profile, State state) {
+        profile.onStateUpdateFromHandler(state);
+        return callback.getLast();
+    }
+
+    @Benchmark
+    public @Nullable Object map() {
+        return update(map, deviceStatus[next() % deviceStatus.length]);
+    }
+
+    @Benchmark
+    public @Nullable Object scale() {
+        return update(scale, powerReadings[next()]);
+    }
+
+    @Benchmark
+    public @Nullable Object regex() {
+        return update(regex, deviceJson[next()]);
+    }
+
+    @Benchmark
+    public @Nullable Object jsonPath() {
+        return update(jsonPath, deviceJson[next()]);
+    }
+
+    @Benchmark
+    public @Nullable Object xpath() {
+        return update(xpath, upnpXml[next()]);
+    }
+
+    @Benchmark
+    public @Nullable Object xslt() {
+        return update(xslt, upnpXml[next()]);
+    }
+
+    @Benchmark
+    public @Nullable Object jinja() {
+        return update(jinja, deviceJson[next()]);
+    }
+
+    @Benchmark
+    public @Nullable Object vat() {
+        return update(vat, powerReadings[next()]);
+    }
+}
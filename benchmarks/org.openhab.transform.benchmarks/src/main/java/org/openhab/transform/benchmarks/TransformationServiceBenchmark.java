@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.benchmarks;
+
+import static org.openhab.transform.benchmarks.Payloads.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.OpenHAB;
+import org.openhab.core.transform.TransformationException;
+import org.openhab.core.transform.TransformationService;
+import org.openhab.transform.bin2json.internal.Bin2JsonTransformationService;
+import org.openhab.transform.jinja.internal.JinjaTransformationService;
+import org.openhab.transform.jsonpath.internal.JSonPathTransformationService;
+import org.openhab.transform.map.internal.MapTransformationService;
+import org.openhab.transform.regex.internal.RegExTransformationService;
+import org.openhab.transform.scale.internal.ScaleTransformationService;
+import org.openhab.transform.vat.internal.VATTransformationService;
+import org.openhab.transform.xpath.internal.XPathTransformationService;
+import org.openhab.transform.xslt.internal.XsltTransformationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the cost of a single call of each transformation service, as made for every channel update.
+ *
+ * Each invocation transforms the next variant of a payload corpus from {@link Payloads}.
+ *
+ * @author Jan N. Klug - Initial contribution
+ */
+@NonNullByDefault
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TransformationServiceBenchmark {
+
+    private @NonNullByDefault({}) Path configFolder;
+    private @NonNullByDefault({}) TransformationService map;
+    private @NonNullByDefault({}) TransformationService scale;
+    private @NonNullByDefault({}) TransformationService regex;
+    private @NonNullByDefault({}) TransformationService jsonPath;
+    private @NonNullByDefault({}) TransformationService xpath;
+    private @NonNullByDefault({}) TransformationService xslt;
+    private @NonNullByDefault({}) TransformationService jinja;
+    private @NonNullByDefault({}) Bin2JsonTransformationService bin2json;
+    private @NonNullByDefault({}) TransformationService vat;
+
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        configFolder = Files.createTempDirectory("openhab-benchmark");
+        Path transformFolder = Files
+                .createDirectories(configFolder.resolve(TransformationService.TRANSFORM_FOLDER_NAME));
+        Files.writeString(transformFolder.resolve(XSLT_FILE), XSLT);
+        System.setProperty(OpenHAB.CONFIG_DIR_PROG_ARGUMENT, configFolder.toString());
+
+        map = new MapTransformationService(Stubs.transformationRegistry(Map.of(MAP_FILE, MAP), "map"));
+        scale = new ScaleTransformationService(Stubs.transformationRegistry(Map.of(SCALE_FILE, SCALE), "scale"));
+        regex = new RegExTransformationService();
+        jsonPath = new JSonPathTransformationService();
+        xpath = new XPathTransformationService();
+        xslt = new XsltTransformationService(Stubs.watchService());
+        jinja = new JinjaTransformationService();
+        bin2json = new Bin2JsonTransformationService();
+        vat = new VATTransformationService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.clearProperty(OpenHAB.CONFIG_DIR_PROG_ARGUMENT);
+        Files.delete(configFolder.resolve(TransformationService.TRANSFORM_FOLDER_NAME).resolve(XSLT_FILE));
+        Files.delete(configFolder.resolve(TransformationService.TRANSFORM_FOLDER_NAME));
+        Files.delete(configFolder);
+    }
+
+    private int next() {
+        return index++ & (VARIANTS - 1);
+    }
+
+    @Benchmark
+    public @Nullable String map() throws TransformationException {
+        return map.transform(MAP_FILE, DEVICE_STATUS[next() % DEVICE_STATUS.length]);
+    }
+
+    @Benchmark
+    public @Nullable String scale() throws TransformationException {
+        return scale.transform(SCALE_FILE, POWER_READINGS[next()]);
+    }
+
+    @Benchmark
+    public @Nullable String regexExtraction() throws TransformationException {
+        return regex.transform(REGEX_EXTRACTION, DEVICE_JSON[next()]);
+    }
+
+    @Benchmark
+    public @Nullable String regexSubstitution() throws TransformationException {
+        return regex.transform(REGEX_SUBSTITUTION, DEVICE_JSON[next()]);
+    }
+
+    @Benchmark
+    public @Nullable String jsonPath() throws TransformationException {
+        return jsonPath.transform(JSONPATH_POWER, DEVICE_JSON[next()]);
+    }
+
+    /**
+     * One payload feeding several channels, as for a device publishing all its values on one topic. Like MQTT channels,
+     * each channel decodes its own copy of the payload.
+     */
+    @Benchmark
+    public void jsonPathChannels(Blackhole blackhole) throws TransformationException {
+        byte[] payload = DEVICE_JSON[next()].getBytes(StandardCharsets.UTF_8);
+        for (String expression : JSONPATH_CHANNELS) {
+            blackhole.consume(jsonPath.transform(expression, new String(payload, StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Benchmark
+    public @Nullable String xpathStreaming() throws TransformationException {
+        return xpath.transform(XPATH_STREAMING, UPNP_XML[next()]);
+    }
+
+    @Benchmark
+    public @Nullable String xpathDom() throws TransformationException {
+        return xpath.transform(XPATH_DOM, UPNP_XML[next()]);
+    }
+
+    @Benchmark
+    public @Nullable String xslt() throws TransformationException {
+        return xslt.transform(XSLT_FILE, UPNP_XML[next()]);
+    }
+
+    @Benchmark
+    public @Nullable String jinja() throws TransformationException {
+        return jinja.transform(JINJA_TEMPLATE, DEVICE_JSON[next()]);
+    }
+
+    @Benchmark
+    public @Nullable String bin2jsonHex() throws TransformationException {
+        return bin2json.transform(SERIAL_FRAME_SYNTAX, SERIAL_FRAME_HEX[next()]);
+    }
+
+    @Benchmark
+    public @Nullable String vat() throws TransformationException {
+        return vat.transform(VAT_COUNTRY, POWER_READINGS[next()]);
+    }
+}
@@ -44,6 +44,13 @@ public class ChannelConfig {
     public boolean trigger = false;
     public String unit = "";
 
+    /** If true, a received state that equals the current state is not propagated. */
+    public boolean suppressUnchanged = false;
+    /** Minimum time in milliseconds between two propagated states. Only the latest state of an interval is kept. */
+    public int minInterval = 0;
+    /** Numeric states that differ less than this from the last propagated state are not propagated. */
+    public @Nullable BigDecimal deadband;
+
     public String transformationPattern = "";
     public String transformationPatternOut = "";
     public String formatBeforePublish = "%s";
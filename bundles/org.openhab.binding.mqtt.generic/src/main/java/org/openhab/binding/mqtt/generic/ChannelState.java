@@ -12,6 +12,7 @@
  */
 package org.openhab.binding.mqtt.generic;
 
+import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.IllegalFormatException;
@@ -28,17 +29,25 @@ import org.openhab.binding.mqtt.generic.values.TextValue;
 import org.openhab.binding.mqtt.generic.values.Value;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.QuantityType;
 import org.openhab.core.library.types.StringType;
 import org.openhab.core.thing.ChannelUID;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.State;
 import org.openhab.core.types.TypeParser;
+import org.openhab.core.types.UnDefType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This object consists of a {@link Value}, which is updated on the respective MQTT topic change.
  * Updates to the value are propagated via the {@link ChannelStateUpdateListener}.
+ * <p>
+ * Depending on the {@link ChannelConfig}, unchanged states, numeric states within a deadband of the last propagated
+ * state and states arriving faster than the minimum interval are not propagated. In the latter case only the latest
+ * state of an interval is propagated once the interval has elapsed.
  *
  * @author David Graeff - Initial contribution
  */
@@ -56,6 +65,7 @@ public class ChannelState implements MqttMessageSubscriber {
 
     // Runtime variables
     private @Nullable MqttBrokerConnection connection;
+    private @Nullable MqttTopicRouter topicRouter;
     protected final List<ChannelStateTransformation> transformationsIn = new ArrayList<>();
     protected final List<ChannelStateTransformation> transformationsOut = new ArrayList<>();
     private @Nullable ChannelStateUpdateListener channelStateUpdateListener;
@@ -64,6 +74,14 @@ public class ChannelState implements MqttMessageSubscriber {
     private CompletableFuture<@Nullable Void> future = CompletableFuture.completedFuture(null);
     private final Object futureLock = new Object();
 
+    // State propagation filter
+    private final Object dispatchLock = new Object();
+    private @Nullable ScheduledExecutorService scheduler;
+    private @Nullable State lastDispatchedState;
+    private long lastDispatchNanos;
+    private @Nullable State pendingState;
+    private @Nullable ScheduledFuture<?> pendingDispatch;
+
     /**
      * Creates a new channel state.
      *
@@ -164,8 +182,9 @@ public class ChannelState implements MqttMessageSubscriber {
         }
 
         if (cachedValue.isBinary()) {
+            State previousState = cachedValue.getChannelState();
             cachedValue.update(payload);
-            channelStateUpdateListener.updateChannelState(channelUID, cachedValue.getChannelState());
+            dispatchState(previousState, cachedValue.getChannelState());
             receivedOrTimeout();
             return;
         }
@@ -215,14 +234,123 @@ public class ChannelState implements MqttMessageSubscriber {
             receivedOrTimeout();
             return;
         }
+        State previousState = cachedValue.getChannelState();
         cachedValue.update((State) parsedCommand);
 
-        if (config.postCommand) {
-            channelStateUpdateListener.postChannelCommand(channelUID, (Command) cachedValue.getChannelState());
+        dispatchState(previousState, cachedValue.getChannelState());
+        receivedOrTimeout();
+    }
+
+    /**
+     * Propagates a received state to the listener, unless it arrives within the minimum interval after the last
+     * propagated state. In that case it replaces any other state waiting for the end of the interval.
+     *
+     * @param previousState The cached state before the received state has been applied
+     * @param state The received state
+     */
+    private void dispatchState(State previousState, State state) {
+        final ChannelStateUpdateListener channelStateUpdateListener;
+        synchronized (dispatchLock) {
+            if (previousState instanceof UnDefType) {
+                // The cache has been reset, the item state has to be restored in any case
+                lastDispatchedState = null;
+            }
+            final ScheduledExecutorService scheduler = this.scheduler;
+            if (config.minInterval > 0 && scheduler != null && lastDispatchedState != null) {
+                long remaining = lastDispatchNanos + TimeUnit.MILLISECONDS.toNanos(config.minInterval)
+                        - nanoTime();
+                if (remaining > 0) {
+                    pendingState = state;
+                    if (pendingDispatch == null) {
+                        pendingDispatch = scheduler.schedule(this::dispatchPendingState, remaining,
+                                TimeUnit.NANOSECONDS);
+                    }
+                    return;
+                }
+            }
+            channelStateUpdateListener = this.channelStateUpdateListener;
+            if (channelStateUpdateListener == null || !acceptForDispatch(state)) {
+                return;
+            }
+        }
+        // The listener is called without holding the lock, it may block or call back into this channel
+        notifyListener(channelStateUpdateListener, state);
+    }
+
+    private void dispatchPendingState() {
+        final ChannelStateUpdateListener channelStateUpdateListener;
+        final State state;
+        synchronized (dispatchLock) {
+            pendingDispatch = null;
+            state = pendingState;
+            channelStateUpdateListener = this.channelStateUpdateListener;
+            if (state == null || channelStateUpdateListener == null || !acceptForDispatch(state)) {
+                return;
+            }
+        }
+        notifyListener(channelStateUpdateListener, state);
+    }
+
+    /**
+     * Decides whether a state is propagated and records it as the last propagated state if so. Must be called while
+     * holding the dispatch lock.
+     *
+     * @return true if the state has to be passed to the listener
+     */
+    private boolean acceptForDispatch(State state) {
+        pendingState = null;
+        final State lastState = lastDispatchedState;
+        if (lastState != null && isFiltered(lastState, state)) {
+            logger.trace("Suppressed state {} of channel {}, last propagated state is {}", state, channelUID,
+                    lastState);
+            return false;
+        }
+        lastDispatchedState = state;
+        lastDispatchNanos = nanoTime();
+        return true;
+    }
+
+    // Visible for testing
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    private void notifyListener(ChannelStateUpdateListener channelStateUpdateListener, State state) {
+        if (config.postCommand && !cachedValue.isBinary()) {
+            channelStateUpdateListener.postChannelCommand(channelUID, (Command) state);
         } else {
-            channelStateUpdateListener.updateChannelState(channelUID, cachedValue.getChannelState());
+            channelStateUpdateListener.updateChannelState(channelUID, state);
         }
-        receivedOrTimeout();
+    }
+
+    private boolean isFiltered(State lastState, State state) {
+        if (config.suppressUnchanged && lastState.equals(state)) {
+            return true;
+        }
+        final BigDecimal deadband = config.deadband;
+        if (deadband != null && deadband.signum() > 0) {
+            BigDecimal delta = numericDelta(lastState, state);
+            return delta != null && delta.compareTo(deadband) < 0;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the absolute difference of two numeric states in the unit of the first one or null if the states
+     * can't be compared numerically.
+     */
+    private static @Nullable BigDecimal numericDelta(State lastState, State state) {
+        if (lastState instanceof HSBType || state instanceof HSBType) {
+            return null;
+        }
+        if (lastState instanceof QuantityType<?> lastQuantity && state instanceof QuantityType<?> quantity) {
+            QuantityType<?> converted = quantity.toUnit(lastQuantity.getUnit());
+            return converted == null ? null : converted.toBigDecimal().subtract(lastQuantity.toBigDecimal()).abs();
+        }
+        if (lastState instanceof DecimalType lastDecimal && state instanceof DecimalType decimal) {
+            return decimal.toBigDecimal().subtract(lastDecimal.toBigDecimal()).abs();
+        }
+        return null;
     }
 
     /**
@@ -261,7 +389,10 @@ public class ChannelState implements MqttMessageSubscriber {
      */
     public CompletableFuture<@Nullable Void> stop() {
         final MqttBrokerConnection connection = this.connection;
-        if (connection != null && !config.stateTopic.isBlank()) {
+        final MqttTopicRouter topicRouter = this.topicRouter;
+        if (topicRouter != null && !config.stateTopic.isBlank()) {
+            return topicRouter.unsubscribe(config.stateTopic, this).thenRun(this::internalStop);
+        } else if (connection != null && !config.stateTopic.isBlank()) {
             return connection.unsubscribe(config.stateTopic, this).thenRun(this::internalStop);
         } else {
             internalStop();
@@ -272,9 +403,19 @@ public class ChannelState implements MqttMessageSubscriber {
     private void internalStop() {
         logger.debug("Unsubscribed channel {} from topic: {}", this.channelUID, config.stateTopic);
         this.connection = null;
+        this.topicRouter = null;
         this.channelStateUpdateListener = null;
         hasSubscribed = false;
         cachedValue.resetState();
+        synchronized (dispatchLock) {
+            final ScheduledFuture<?> pendingDispatch = this.pendingDispatch;
+            if (pendingDispatch != null) {
+                pendingDispatch.cancel(false);
+                this.pendingDispatch = null;
+            }
+            pendingState = null;
+            lastDispatchedState = null;
+        }
     }
 
     private void receivedOrTimeout() {
@@ -307,6 +448,23 @@ public class ChannelState implements MqttMessageSubscriber {
      */
     public CompletableFuture<@Nullable Void> start(MqttBrokerConnection connection, ScheduledExecutorService scheduler,
             int timeout) {
+        return start(connection, null, scheduler, timeout);
+    }
+
+    /**
+     * Subscribes to the state topic via the given router and informs about updates on the given listener.
+     *
+     * @param connection A broker connection
+     * @param topicRouter A router sharing the subscriptions on the broker connection with other channels. If null,
+     *            the state topic is subscribed on the connection directly.
+     * @param scheduler A scheduler to realize the timeout
+     * @param timeout A timeout in milliseconds. Can be 0 to disable the timeout and let the future return earlier.
+     * @return A future that completes with true if the subscribing worked, with false if the stateTopic is not set
+     *         and exceptionally otherwise.
+     */
+    public CompletableFuture<@Nullable Void> start(MqttBrokerConnection connection,
+            @Nullable MqttTopicRouter topicRouter, ScheduledExecutorService scheduler, int timeout) {
+        final MqttTopicRouter previousTopicRouter;
         synchronized (futureLock) {
             // if the connection is still the same, the subscription is still present, otherwise we need to renew
             if ((hasSubscribed || !future.isDone()) && connection.equals(this.connection)) {
@@ -314,7 +472,10 @@ public class ChannelState implements MqttMessageSubscriber {
             }
             hasSubscribed = false;
 
+            previousTopicRouter = this.topicRouter;
             this.connection = connection;
+            this.topicRouter = topicRouter;
+            this.scheduler = scheduler;
 
             if (config.stateTopic.isBlank()) {
                 return CompletableFuture.completedFuture(null);
@@ -322,7 +483,15 @@ public class ChannelState implements MqttMessageSubscriber {
 
             this.future = new CompletableFuture<>();
         }
-        connection.subscribe(config.stateTopic, this).thenRun(() -> {
+        if (previousTopicRouter != null && previousTopicRouter != topicRouter) {
+            // The connection has changed without a stop, e.g. on a reconnect of the bridge. Leave the router of the
+            // previous connection, so it becomes empty and can be discarded.
+            previousTopicRouter.unsubscribe(config.stateTopic, this);
+        }
+        CompletableFuture<Boolean> subscribed = topicRouter != null
+                ? topicRouter.subscribe(config.stateTopic, this, !config.trigger)
+                : connection.subscribe(config.stateTopic, this);
+        subscribed.thenRun(() -> {
             hasSubscribed = true;
             logger.debug("Subscribed channel {} to topic: {}", this.channelUID, config.stateTopic);
             if (timeout > 0 && !future.isDone()) {
@@ -0,0 +1,294 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.mqtt.generic.tools.TopicTrie;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares the subscriptions of many {@link MqttMessageSubscriber}s on one {@link MqttBrokerConnection}.
+ * <p>
+ * Only topic filters that are not covered by another requested topic filter are subscribed on the broker, so
+ * channels with the same state topic share one subscription and a channel subscribed to "sensors/+/temperature"
+ * makes the subscription of "sensors/kitchen/temperature" unnecessary. Received messages are dispatched to the
+ * subscribers via a {@link TopicTrie}.
+ * <p>
+ * The broker only sends retained messages when a topic filter is subscribed. A subscriber joining an existing
+ * subscription therefore receives the last message of each matching topic that this router has seen.
+ *
+ * @author David Graeff - Initial contribution
+ */
+@NonNullByDefault
+public class MqttTopicRouter {
+    private static final int MAX_LAST_MESSAGES = 16384;
+
+    private final Logger logger = LoggerFactory.getLogger(MqttTopicRouter.class);
+
+    private final MqttBrokerConnection connection;
+    private final Object lock = new Object();
+    /** The requested topic filters and their subscribers */
+    private final TopicTrie<MqttMessageSubscriber> subscribers = new TopicTrie<>();
+    /** The topic filters subscribed on the broker */
+    private final Map<String, Subscription> subscriptions = new HashMap<>();
+    private final TopicTrie<Subscription> subscriptionTrie = new TopicTrie<>();
+    /** The broker subscription that delivers the messages of a requested topic filter */
+    private final Map<String, Subscription> assignments = new HashMap<>();
+
+    /**
+     * A topic filter subscribed on the broker. It dispatches received messages to the subscribers of all
+     * requested topic filters assigned to it.
+     */
+    private class Subscription implements MqttMessageSubscriber {
+        private final String topicFilter;
+        private final Map<String, byte[]> lastMessages = new LinkedHashMap<>();
+        private CompletableFuture<Boolean> future = CompletableFuture.completedFuture(false);
+
+        Subscription(String topicFilter) {
+            this.topicFilter = topicFilter;
+        }
+
+        @Override
+        public void processMessage(String topic, byte[] payload) {
+            List<MqttMessageSubscriber> receivers = new ArrayList<>();
+            synchronized (lock) {
+                if (subscriptions.get(topicFilter) != this) {
+                    return;
+                }
+                if (lastMessages.size() >= MAX_LAST_MESSAGES && !lastMessages.containsKey(topic)) {
+                    lastMessages.clear();
+                }
+                lastMessages.put(topic, payload);
+                subscribers.match(topic, (filter, values) -> {
+                    if (assignments.get(filter) == this) {
+                        receivers.addAll(values);
+                    }
+                });
+            }
+            for (MqttMessageSubscriber receiver : receivers) {
+                receiver.processMessage(topic, payload);
+            }
+        }
+    }
+
+    public MqttTopicRouter(MqttBrokerConnection connection) {
+        this.connection = connection;
+    }
+
+    public MqttBrokerConnection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Subscribes to a topic filter.
+     *
+     * @param topicFilter A topic filter, may contain wildcards
+     * @param subscriber The subscriber of the received messages
+     * @param replayLastMessages If the subscriber should receive the last message of each matching topic, if the
+     *            topic filter is already covered by an existing subscription. This replaces the retained messages
+     *            that the broker would send for a new subscription.
+     * @return A future that completes with true if the subscription on the broker succeeded.
+     */
+    public CompletableFuture<Boolean> subscribe(String topicFilter, MqttMessageSubscriber subscriber,
+            boolean replayLastMessages) {
+        final Subscription subscription;
+        synchronized (lock) {
+            if (!subscribers.get(topicFilter).contains(subscriber)) {
+                subscribers.add(topicFilter, subscriber);
+            }
+            Subscription existing = assignments.get(topicFilter);
+            if (existing == null) {
+                existing = findCoveringSubscription(topicFilter);
+            }
+            if (existing == null) {
+                Subscription added = new Subscription(topicFilter);
+                assignments.put(topicFilter, added);
+                startSubscription(added);
+                return added.future;
+            }
+            assignments.put(topicFilter, existing);
+            subscription = existing;
+        }
+        if (!replayLastMessages) {
+            return subscription.future;
+        }
+        return subscription.future.thenApply(subscribed -> {
+            replay(subscription, topicFilter, subscriber);
+            return subscribed;
+        });
+    }
+
+    /**
+     * Unsubscribes from a topic filter. The broker subscription is only removed if no other subscriber needs it.
+     *
+     * @param topicFilter A topic filter, may contain wildcards
+     * @param subscriber The subscriber
+     * @return A future that completes with true if unsubscribing on the broker succeeded or was not necessary.
+     */
+    public CompletableFuture<Boolean> unsubscribe(String topicFilter, MqttMessageSubscriber subscriber) {
+        synchronized (lock) {
+            if (!subscribers.remove(topicFilter, subscriber) || !subscribers.get(topicFilter).isEmpty()) {
+                return CompletableFuture.completedFuture(true);
+            }
+            Subscription subscription = assignments.remove(topicFilter);
+            if (subscription == null) {
+                return CompletableFuture.completedFuture(true);
+            }
+            if (!subscription.topicFilter.equals(topicFilter)) {
+                return CompletableFuture.completedFuture(true);
+            }
+
+            removeSubscription(subscription);
+            if (!hasWildcards(topicFilter)) {
+                return connection.unsubscribe(topicFilter, subscription);
+            }
+
+            // The topic filters covered by the removed subscription need a new one. Broader topic filters are
+            // subscribed first, so they can cover the remaining ones.
+            List<String> orphans = new ArrayList<>();
+            for (Entry<String, Subscription> entry : assignments.entrySet()) {
+                if (entry.getValue() == subscription) {
+                    orphans.add(entry.getKey());
+                }
+            }
+            orphans.sort(Comparator.comparingInt(MqttTopicRouter::specificity));
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            for (String orphan : orphans) {
+                Subscription covering = findCoveringSubscription(orphan);
+                if (covering != null) {
+                    assignments.put(orphan, covering);
+                } else {
+                    Subscription added = new Subscription(orphan);
+                    assignments.put(orphan, added);
+                    startSubscription(added);
+                    futures.add(added.future);
+                }
+            }
+            // A failed re-subscription has already released its topic filters, the removed one is unsubscribed anyway
+            return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).handle((v, e) -> v)
+                    .thenCompose(v -> connection.unsubscribe(topicFilter, subscription));
+        }
+    }
+
+    /**
+     * Returns the number of topic filters subscribed on the broker.
+     */
+    public int getSubscriptionCount() {
+        synchronized (lock) {
+            return subscriptions.size();
+        }
+    }
+
+    /**
+     * Returns true if there are no subscribers left.
+     */
+    public boolean isEmpty() {
+        synchronized (lock) {
+            return subscribers.isEmpty();
+        }
+    }
+
+    private @Nullable Subscription findCoveringSubscription(String topicFilter) {
+        Subscription subscription = subscriptions.get(topicFilter);
+        if (subscription != null) {
+            return subscription;
+        }
+        List<Subscription> covering = new ArrayList<>(1);
+        subscriptionTrie.match(topicFilter, (filter, values) -> covering.addAll(values));
+        return covering.isEmpty() ? null : covering.get(0);
+    }
+
+    private void removeSubscription(Subscription subscription) {
+        if (subscriptions.remove(subscription.topicFilter, subscription)) {
+            subscriptionTrie.remove(subscription.topicFilter, subscription);
+        }
+    }
+
+    private static boolean hasWildcards(String topicFilter) {
+        return topicFilter.contains("+") || topicFilter.contains("#");
+    }
+
+    /**
+     * Orders topic filters with a multi level wildcard before those with single level wildcards and those without.
+     */
+    private static int specificity(String topicFilter) {
+        return topicFilter.contains("#") ? 0 : topicFilter.contains("+") ? 1 : 2;
+    }
+
+    /**
+     * Subscribes a new topic filter on the broker. Once subscribed, the topic filters assigned to existing
+     * subscriptions covered by the new one are moved to it and the covered subscriptions are removed. If
+     * subscribing fails, the topic filters assigned to the new subscription are released, so they are subscribed
+     * again by the next call of {@link #subscribe(String, MqttMessageSubscriber, boolean)}.
+     */
+    private void startSubscription(Subscription subscription) {
+        final String topicFilter = subscription.topicFilter;
+        subscriptions.put(topicFilter, subscription);
+        subscriptionTrie.add(topicFilter, subscription);
+        logger.trace("Subscribing to {}", topicFilter);
+        subscription.future = connection.subscribe(topicFilter, subscription).thenApply(subscribed -> {
+            List<Subscription> covered = new ArrayList<>();
+            synchronized (lock) {
+                if (subscriptions.get(topicFilter) == subscription && hasWildcards(topicFilter)) {
+                    for (Subscription other : subscriptions.values()) {
+                        if (other != subscription && TopicTrie.covers(topicFilter, other.topicFilter)) {
+                            covered.add(other);
+                        }
+                    }
+                }
+                if (!covered.isEmpty()) {
+                    covered.forEach(MqttTopicRouter.this::removeSubscription);
+                    assignments.replaceAll((filter, assigned) -> covered.contains(assigned) ? subscription : assigned);
+                }
+            }
+            covered.forEach(other -> connection.unsubscribe(other.topicFilter, other));
+            return subscribed;
+        });
+        subscription.future.whenComplete((subscribed, e) -> {
+            if (e != null) {
+                logger.debug("Subscribing to {} failed: {}", topicFilter, e.getMessage());
+                synchronized (lock) {
+                    removeSubscription(subscription);
+                    assignments.values().removeIf(assigned -> assigned == subscription);
+                }
+            }
+        });
+    }
+
+    private void replay(Subscription subscription, String topicFilter, MqttMessageSubscriber subscriber) {
+        List<Entry<String, byte[]>> messages = new ArrayList<>();
+        synchronized (lock) {
+            for (Entry<String, byte[]> message : subscription.lastMessages.entrySet()) {
+                if (TopicTrie.covers(topicFilter, message.getKey())) {
+                    messages.add(Map.entry(message.getKey(), message.getValue()));
+                }
+            }
+        }
+        for (Entry<String, byte[]> message : messages) {
+            subscriber.processMessage(message.getKey(), message.getValue());
+        }
+    }
+}
@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.mqtt.generic.internal;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -19,8 +21,10 @@ import java.util.stream.Stream;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.mqtt.generic.MqttChannelStateDescriptionProvider;
+import org.openhab.binding.mqtt.generic.MqttTopicRouter;
 import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
 import org.openhab.binding.mqtt.generic.internal.handler.GenericMQTTThingHandler;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.core.thing.Thing;
 import org.openhab.core.thing.ThingTypeUID;
 import org.openhab.core.thing.binding.BaseThingHandlerFactory;
@@ -46,6 +50,7 @@ public class MqttThingHandlerFactory extends BaseThingHandlerFactory implements
     private @NonNullByDefault({}) MqttChannelStateDescriptionProvider stateDescriptionProvider;
     private static final Set<ThingTypeUID> SUPPORTED_THING_TYPES_UIDS = Stream
             .of(MqttBindingConstants.GENERIC_MQTT_THING).collect(Collectors.toSet());
+    private final Map<MqttBrokerConnection, MqttTopicRouter> topicRouters = new HashMap<>();
 
     @Override
     public boolean supportsThingType(ThingTypeUID thingTypeUID) {
@@ -78,11 +83,22 @@ public class MqttThingHandlerFactory extends BaseThingHandlerFactory implements
         ThingTypeUID thingTypeUID = thing.getThingTypeUID();
 
         if (thingTypeUID.equals(MqttBindingConstants.GENERIC_MQTT_THING)) {
-            return new GenericMQTTThingHandler(thing, stateDescriptionProvider, this, 1500);
+            return new GenericMQTTThingHandler(thing, stateDescriptionProvider, this, 1500, this::getTopicRouter);
         }
         return null;
     }
 
+    /**
+     * Returns the router shared by all generic things of the given broker connection. Routers of other connections
+     * without any subscribers are discarded.
+     */
+    private MqttTopicRouter getTopicRouter(MqttBrokerConnection connection) {
+        synchronized (topicRouters) {
+            topicRouters.entrySet().removeIf(e -> e.getKey() != connection && e.getValue().isEmpty());
+            return topicRouters.computeIfAbsent(connection, MqttTopicRouter::new);
+        }
+    }
+
     @Override
     public @Nullable TransformationService getTransformationService(String type) {
         return TransformationHelper.getTransformationService(bundleContext, type);
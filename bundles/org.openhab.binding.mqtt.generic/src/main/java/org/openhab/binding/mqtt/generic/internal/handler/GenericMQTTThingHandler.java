@@ -18,6 +18,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.measure.Unit;
@@ -29,6 +30,7 @@ import org.openhab.binding.mqtt.generic.ChannelConfig;
 import org.openhab.binding.mqtt.generic.ChannelState;
 import org.openhab.binding.mqtt.generic.ChannelStateUpdateListener;
 import org.openhab.binding.mqtt.generic.MqttChannelStateDescriptionProvider;
+import org.openhab.binding.mqtt.generic.MqttTopicRouter;
 import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
 import org.openhab.binding.mqtt.generic.internal.MqttBindingConstants;
 import org.openhab.binding.mqtt.generic.utils.FutureCollector;
@@ -60,6 +62,7 @@ public class GenericMQTTThingHandler extends AbstractMQTTThingHandler implements
     final Map<ChannelUID, ChannelState> channelStateByChannelUID = new HashMap<>();
     protected final MqttChannelStateDescriptionProvider stateDescProvider;
     protected final TransformationServiceProvider transformationServiceProvider;
+    private final @Nullable Function<MqttBrokerConnection, MqttTopicRouter> topicRouterProvider;
 
     /**
      * Creates a new Thing handler for generic MQTT channels.
@@ -71,9 +74,26 @@ public class GenericMQTTThingHandler extends AbstractMQTTThingHandler implements
      */
     public GenericMQTTThingHandler(Thing thing, MqttChannelStateDescriptionProvider stateDescProvider,
             TransformationServiceProvider transformationServiceProvider, int subscribeTimeout) {
+        this(thing, stateDescProvider, transformationServiceProvider, subscribeTimeout, null);
+    }
+
+    /**
+     * Creates a new Thing handler for generic MQTT channels.
+     *
+     * @param thing The thing of this handler
+     * @param stateDescProvider A channel state provider
+     * @param transformationServiceProvider The transformation service provider
+     * @param subscribeTimeout The subscribe timeout
+     * @param topicRouterProvider Returns the router shared by all things of a broker connection. If null, every
+     *            channel subscribes to its state topic on the broker connection directly.
+     */
+    public GenericMQTTThingHandler(Thing thing, MqttChannelStateDescriptionProvider stateDescProvider,
+            TransformationServiceProvider transformationServiceProvider, int subscribeTimeout,
+            @Nullable Function<MqttBrokerConnection, MqttTopicRouter> topicRouterProvider) {
         super(thing, subscribeTimeout);
         this.stateDescProvider = stateDescProvider;
         this.transformationServiceProvider = transformationServiceProvider;
+        this.topicRouterProvider = topicRouterProvider;
     }
 
     @Override
@@ -92,7 +112,13 @@ public class GenericMQTTThingHandler extends AbstractMQTTThingHandler implements
         // availability topics are also started asynchronously, so no problem here
         clearAllAvailabilityTopics();
         initializeAvailabilityTopicsFromConfig();
-        return channelStateByChannelUID.values().stream().map(c -> c.start(connection, scheduler, 0))
+        final Function<MqttBrokerConnection, MqttTopicRouter> topicRouterProvider = this.topicRouterProvider;
+        final @Nullable MqttTopicRouter topicRouter = topicRouterProvider != null
+                ? topicRouterProvider.apply(connection)
+                : null;
+        return channelStateByChannelUID.values().stream()
+                .map(c -> topicRouter != null ? c.start(connection, topicRouter, scheduler, 0)
+                        : c.start(connection, scheduler, 0))
                 .collect(FutureCollector.allOf()).thenRun(this::calculateThingStatus);
     }
 
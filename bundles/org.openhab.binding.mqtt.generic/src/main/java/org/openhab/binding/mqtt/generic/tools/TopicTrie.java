@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * <p>
+ * Stores values by MQTT topic filter, one trie level per topic level.
+ * </p>
+ *
+ * <p>
+ * Finding all filters matching a received topic via {@link #match(String, BiConsumer)} only follows the topic
+ * levels and the "+" and "#" wildcards, so its cost depends on the depth of the topic and not on the number of
+ * stored filters. The same lookup also finds all stored filters covering a given topic filter. As required by the
+ * MQTT specification, wildcards on the first level do not match topics starting with "$".
+ * </p>
+ *
+ * This class is not thread-safe.
+ *
+ * @author David Graeff - Initial contribution
+ *
+ * @param <T> Any object
+ */
+@NonNullByDefault
+public class TopicTrie<T> {
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+    private static final String MULTI_LEVEL_WILDCARD = "#";
+
+    private static class Node<T> {
+        private final Map<String, Node<T>> children = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+        private @Nullable String filter;
+    }
+
+    private final Node<T> root = new Node<>();
+    private int size = 0;
+
+    /**
+     * Adds a value for the given topic filter. The same value may be added more than once.
+     *
+     * @param filter A topic filter, may contain wildcards
+     * @param value The value
+     */
+    public void add(String filter, T value) {
+        Node<T> node = root;
+        for (String level : levels(filter)) {
+            node = node.children.computeIfAbsent(level, l -> new Node<>());
+        }
+        node.filter = filter;
+        node.values.add(value);
+        size++;
+    }
+
+    /**
+     * Removes one occurrence of the value for the given topic filter.
+     *
+     * @param filter A topic filter, may contain wildcards
+     * @param value The value
+     * @return True if the value was stored for this filter
+     */
+    public boolean remove(String filter, T value) {
+        return remove(root, levels(filter), 0, value);
+    }
+
+    private boolean remove(Node<T> node, String[] levels, int index, T value) {
+        if (index == levels.length) {
+            if (!node.values.remove(value)) {
+                return false;
+            }
+            size--;
+            if (node.values.isEmpty()) {
+                node.filter = null;
+            }
+            return true;
+        }
+        Node<T> child = node.children.get(levels[index]);
+        if (child == null || !remove(child, levels, index + 1, value)) {
+            return false;
+        }
+        if (child.values.isEmpty() && child.children.isEmpty()) {
+            node.children.remove(levels[index]);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the values stored for exactly this topic filter.
+     *
+     * @param filter A topic filter, may contain wildcards
+     */
+    public List<T> get(String filter) {
+        Node<T> node = root;
+        for (String level : levels(filter)) {
+            node = node.children.get(level);
+            if (node == null) {
+                return List.of();
+            }
+        }
+        return List.copyOf(node.values);
+    }
+
+    /**
+     * Calls the consumer for every stored topic filter that matches the given topic. If a topic filter is given
+     * instead, the consumer is called for every stored topic filter that {@link #covers(String, String)} it.
+     *
+     * @param topic A topic as received from the broker or a topic filter
+     * @param consumer Called with the matching filter and the values stored for it
+     */
+    public void match(String topic, BiConsumer<String, List<T>> consumer) {
+        String[] levels = levels(topic);
+        match(root, levels, 0, !topic.startsWith("$"), consumer);
+    }
+
+    private void match(Node<T> node, String[] levels, int index, boolean wildcards,
+            BiConsumer<String, List<T>> consumer) {
+        if (wildcards) {
+            // "a/#" also matches "a"
+            emit(node.children.get(MULTI_LEVEL_WILDCARD), consumer);
+        }
+        if (index == levels.length) {
+            emit(node, consumer);
+            return;
+        }
+        String level = levels[index];
+        if (MULTI_LEVEL_WILDCARD.equals(level)) {
+            // only covered by the multi level wildcard
+            return;
+        }
+        Node<T> child;
+        if (wildcards) {
+            child = node.children.get(SINGLE_LEVEL_WILDCARD);
+            if (child != null) {
+                match(child, levels, index + 1, true, consumer);
+            }
+        }
+        if (!SINGLE_LEVEL_WILDCARD.equals(level)) {
+            child = node.children.get(level);
+            if (child != null) {
+                match(child, levels, index + 1, true, consumer);
+            }
+        }
+    }
+
+    private void emit(@Nullable Node<T> node, BiConsumer<String, List<T>> consumer) {
+        if (node != null) {
+            String filter = node.filter;
+            if (filter != null) {
+                consumer.accept(filter, node.values);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of stored values.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if every topic matched by the topic filter <code>covered</code> is also matched by the topic
+     * filter <code>filter</code>.
+     *
+     * @param filter A topic filter, may contain wildcards
+     * @param covered A topic filter, may contain wildcards
+     */
+    public static boolean covers(String filter, String covered) {
+        String[] levels = levels(filter);
+        String[] coveredLevels = levels(covered);
+        if (covered.startsWith("$") && !filter.startsWith("$")) {
+            return false;
+        }
+        for (int i = 0; i < levels.length; i++) {
+            if (MULTI_LEVEL_WILDCARD.equals(levels[i])) {
+                return i <= coveredLevels.length;
+            }
+            if (i == coveredLevels.length || MULTI_LEVEL_WILDCARD.equals(coveredLevels[i])) {
+                return false;
+            }
+            if (!SINGLE_LEVEL_WILDCARD.equals(levels[i]) && !levels[i].equals(coveredLevels[i])) {
+                return false;
+            }
+        }
+        return levels.length == coveredLevels.length;
+    }
+
+    private static String[] levels(String topic) {
+        return topic.split("/", -1);
+    }
+}
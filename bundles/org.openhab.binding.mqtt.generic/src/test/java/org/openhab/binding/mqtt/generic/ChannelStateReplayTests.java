@@ -0,0 +1,231 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.mqtt.generic.values.NumberValue;
+import org.openhab.binding.mqtt.generic.values.OnOffValue;
+import org.openhab.binding.mqtt.generic.values.Value;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
+
+/**
+ * Replays one hour of telemetry, as published by Zigbee2MQTT and Tasmota devices every second, through
+ * {@link ChannelState}s and checks the number of state updates propagated to the framework with the different
+ * filter options of the {@link ChannelConfig}.
+ *
+ * The replay runs on a virtual clock: the channels read the time from it and the tasks of the mocked scheduler are
+ * run when the clock passes their due time, so the result does not depend on the speed of the machine.
+ *
+ * @author David Graeff - Initial contribution
+ */
+@NonNullByDefault
+public class ChannelStateReplayTests {
+
+    private static final int CAPTURE_SECONDS = 3600;
+
+    private static final String TEMPERATURE_TOPIC = "zigbee2mqtt/livingroom/temperature";
+    private static final String POWER_TOPIC = "tele/plug/SENSOR/power";
+    private static final String SWITCH_TOPIC = "stat/plug/POWER";
+
+    private record Message(int second, String topic, byte[] payload) {
+    }
+
+    private record Task(long due, long sequence, Runnable runnable) {
+    }
+
+    private final PriorityQueue<Task> tasks = new PriorityQueue<>(
+            Comparator.comparingLong(Task::due).thenComparingLong(Task::sequence));
+    private long sequence;
+    private long clock;
+
+    private @NonNullByDefault({}) MqttBrokerConnection connection;
+    private @NonNullByDefault({}) ScheduledExecutorService scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        connection = mock(MqttBrokerConnection.class);
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).subscribe(any(), any());
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).unsubscribe(any(), any());
+
+        scheduler = mock(ScheduledExecutorService.class);
+        doAnswer(invocation -> {
+            TimeUnit unit = invocation.getArgument(2);
+            long delay = invocation.getArgument(1);
+            tasks.add(new Task(clock + unit.toNanos(delay), sequence++, invocation.getArgument(0)));
+            return mock(ScheduledFuture.class);
+        }).when(scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void unfilteredPropagatesEveryMessage() throws Exception {
+        assertThat(replay(builder -> {
+        }, false), is(CAPTURE_SECONDS * 3));
+    }
+
+    @Test
+    public void minIntervalPropagatesAtMostOneStatePerInterval() throws Exception {
+        // 3 channels with 360 intervals each, the first message of every channel is propagated immediately
+        assertThat(replay(builder -> builder.withMinInterval(10_000), false), is(1083));
+    }
+
+    @Test
+    public void filterOptionsReduceEvents() throws Exception {
+        int unfiltered = replay(builder -> {
+        }, false);
+        int unchanged = replay(builder -> builder.withSuppressUnchanged(true), false);
+        int deadband = replay(builder -> builder.withSuppressUnchanged(true), true);
+        int interval = replay(builder -> builder.withMinInterval(10_000), false);
+        int combined = replay(builder -> builder.withSuppressUnchanged(true).withMinInterval(10_000), true);
+
+        assertTrue(unchanged < unfiltered);
+        assertTrue(deadband < unchanged);
+        assertTrue(interval < unfiltered);
+        assertTrue(combined < deadband);
+        assertTrue(combined < interval);
+    }
+
+    /**
+     * Creates a capture with a temperature reported with one decimal and some sensor noise, a power reading
+     * fluctuating around a few load levels and a switch state that is repeated every second and toggled every
+     * quarter of an hour.
+     */
+    private static List<Message> createCapture() {
+        Random random = new Random(42);
+        List<Message> capture = new ArrayList<>(CAPTURE_SECONDS * 3);
+        for (int second = 0; second < CAPTURE_SECONDS; second++) {
+            double temperature = 21.0 + Math.sin(second / 600.0) + (random.nextInt(3) - 1) * 0.1;
+            int load = (second / 300) % 3 == 0 ? 60 : (second / 300) % 3 == 1 ? 5 : 1200;
+            int power = Math.max(0, load + random.nextInt(5) - 2);
+            String switchState = (second / 900) % 2 == 0 ? "ON" : "OFF";
+            capture.add(new Message(second, TEMPERATURE_TOPIC,
+                    payload(String.format(Locale.ROOT, "%.1f", temperature))));
+            capture.add(new Message(second, POWER_TOPIC, payload(Integer.toString(power))));
+            capture.add(new Message(second, SWITCH_TOPIC, payload(switchState)));
+        }
+        return capture;
+    }
+
+    private static byte[] payload(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Replays the capture on the virtual clock and returns the number of propagated events.
+     *
+     * @param options Applies the filter options to the configuration of every channel
+     * @param deadband If a deadband should be applied to the numeric channels
+     */
+    private int replay(Consumer<ChannelConfigBuilder> options, boolean deadband) throws Exception {
+        tasks.clear();
+        clock = 0;
+        CountingListener listener = new CountingListener();
+
+        @Nullable BigDecimal temperatureDeadband = deadband ? new BigDecimal("0.2") : null;
+        @Nullable BigDecimal powerDeadband = deadband ? new BigDecimal("10") : null;
+        Map<String, ChannelState> channels = Map.of( //
+                TEMPERATURE_TOPIC, channel("temperature", TEMPERATURE_TOPIC, new NumberValue(null, null, null, null),
+                        options, temperatureDeadband, listener), //
+                POWER_TOPIC, channel("power", POWER_TOPIC, new NumberValue(null, null, null, null), options,
+                        powerDeadband, listener), //
+                SWITCH_TOPIC, channel("switch", SWITCH_TOPIC, new OnOffValue(), options, null, listener));
+        for (ChannelState channel : channels.values()) {
+            channel.start(connection, scheduler, 0).get(1, TimeUnit.SECONDS);
+        }
+
+        for (Message message : createCapture()) {
+            advanceTo(TimeUnit.SECONDS.toNanos(message.second()));
+            ChannelState channel = channels.get(message.topic());
+            if (channel != null) {
+                channel.processMessage(message.topic(), message.payload());
+            }
+        }
+        // let pending states of the last interval be propagated
+        advanceTo(TimeUnit.SECONDS.toNanos(CAPTURE_SECONDS + 60));
+
+        for (ChannelState channel : channels.values()) {
+            channel.stop().get(1, TimeUnit.SECONDS);
+        }
+        return listener.events;
+    }
+
+    /**
+     * Runs the scheduled tasks that are due until the given time, each at its due time, and then moves the clock.
+     */
+    private void advanceTo(long nanos) {
+        Task task;
+        while ((task = tasks.peek()) != null && task.due() <= nanos) {
+            tasks.poll();
+            clock = Math.max(clock, task.due());
+            task.runnable().run();
+        }
+        clock = nanos;
+    }
+
+    private ChannelState channel(String id, String topic, Value value, Consumer<ChannelConfigBuilder> options,
+            @Nullable BigDecimal deadband, ChannelStateUpdateListener listener) {
+        ChannelConfigBuilder builder = ChannelConfigBuilder.create(topic, null).withDeadband(deadband);
+        options.accept(builder);
+        return new ChannelState(builder.build(), new ChannelUID("mqtt:topic:broker:thing:" + id), value, listener) {
+            @Override
+            protected long nanoTime() {
+                return clock;
+            }
+        };
+    }
+
+    private static class CountingListener implements ChannelStateUpdateListener {
+        private int events;
+
+        @Override
+        public void updateChannelState(ChannelUID channelUID, State value) {
+            events++;
+        }
+
+        @Override
+        public void postChannelCommand(ChannelUID channelUID, Command value) {
+            events++;
+        }
+
+        @Override
+        public void triggerChannel(ChannelUID channelUID, String eventPayload) {
+            events++;
+        }
+    }
+}
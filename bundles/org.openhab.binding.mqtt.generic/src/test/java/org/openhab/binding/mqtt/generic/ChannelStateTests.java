@@ -371,4 +371,92 @@ public class ChannelStateTests {
         assertThat(value.getChannelState(), is(instanceOf(RawType.class)));
         assertThat(((RawType) value.getChannelState()).getMimeType(), is("image/jpeg"));
     }
+
+    @Test
+    public void suppressUnchangedTest() {
+        ChannelConfig config = ChannelConfigBuilder.create("state", "command").withSuppressUnchanged(true).build();
+        ChannelState c = spy(new ChannelState(config, channelUIDMock, textValue, channelStateUpdateListenerMock));
+        c.start(connectionMock, mock(ScheduledExecutorService.class), 100);
+
+        c.processMessage("state", "A".getBytes());
+        c.processMessage("state", "A".getBytes());
+        c.processMessage("state", "B".getBytes());
+        c.processMessage("state", "B".getBytes());
+        c.processMessage("state", "A".getBytes());
+
+        verify(channelStateUpdateListenerMock, times(2)).updateChannelState(eq(channelUIDMock),
+                eq(new StringType("A")));
+        verify(channelStateUpdateListenerMock, times(1)).updateChannelState(eq(channelUIDMock),
+                eq(new StringType("B")));
+    }
+
+    @Test
+    public void suppressUnchangedAfterStopTest() throws Exception {
+        ChannelConfig config = ChannelConfigBuilder.create("state", "command").withSuppressUnchanged(true).build();
+        ChannelState c = spy(new ChannelState(config, channelUIDMock, textValue, channelStateUpdateListenerMock));
+        c.start(connectionMock, scheduler, 0).get(50, TimeUnit.MILLISECONDS);
+        c.processMessage("state", "A".getBytes());
+        c.stop().get();
+
+        // The cache has been reset, the same value has to restore the item state
+        c.setChannelStateUpdateListener(channelStateUpdateListenerMock);
+        c.start(connectionMock, scheduler, 0).get(50, TimeUnit.MILLISECONDS);
+        c.processMessage("state", "A".getBytes());
+
+        verify(channelStateUpdateListenerMock, times(2)).updateChannelState(eq(channelUIDMock),
+                eq(new StringType("A")));
+    }
+
+    @Test
+    public void deadbandTest() {
+        ChannelConfig config = ChannelConfigBuilder.create("state", "command").withDeadband(new BigDecimal("0.5"))
+                .build();
+        NumberValue value = new NumberValue(null, null, null, Units.WATT);
+        ChannelState c = spy(new ChannelState(config, channelUIDMock, value, channelStateUpdateListenerMock));
+        c.start(connectionMock, mock(ScheduledExecutorService.class), 100);
+
+        c.processMessage("state", "20.0".getBytes()); // first value
+        c.processMessage("state", "20.2".getBytes()); // within deadband
+        c.processMessage("state", "20.4".getBytes()); // within deadband
+        c.processMessage("state", "20.6".getBytes()); // 0.6 from 20.0
+        c.processMessage("state", "20.1".getBytes()); // 0.5 from 20.6
+
+        verify(channelStateUpdateListenerMock, times(3)).updateChannelState(eq(channelUIDMock), any());
+        assertThat(value.getChannelState().toString(), is("20.1 W"));
+    }
+
+    @Test
+    public void minIntervalTest() throws Exception {
+        ChannelConfig config = ChannelConfigBuilder.create("state", "command").withMinInterval(200).build();
+        ChannelState c = spy(new ChannelState(config, channelUIDMock, textValue, channelStateUpdateListenerMock));
+        c.start(connectionMock, scheduler, 0).get(50, TimeUnit.MILLISECONDS);
+
+        c.processMessage("state", "1".getBytes());
+        c.processMessage("state", "2".getBytes());
+        c.processMessage("state", "3".getBytes());
+
+        verify(channelStateUpdateListenerMock).updateChannelState(eq(channelUIDMock), eq(new StringType("1")));
+        verify(channelStateUpdateListenerMock, timeout(1000)).updateChannelState(eq(channelUIDMock),
+                eq(new StringType("3")));
+        verify(channelStateUpdateListenerMock, never()).updateChannelState(eq(channelUIDMock),
+                eq(new StringType("2")));
+        assertThat(textValue.getChannelState().toString(), is("3"));
+    }
+
+    @Test
+    public void listenerIsCalledWithoutDispatchLockTest() throws Exception {
+        ChannelConfig config = ChannelConfigBuilder.create("state", "command").withMinInterval(200).build();
+        ChannelState c = spy(new ChannelState(config, channelUIDMock, textValue, channelStateUpdateListenerMock));
+        c.start(connectionMock, scheduler, 0).get(50, TimeUnit.MILLISECONDS);
+        // The listener waits for a message received on another thread, which must not block on the dispatch lock
+        doAnswer(invocation -> {
+            CompletableFuture.runAsync(() -> c.processMessage("state", "2".getBytes())).get(1, TimeUnit.SECONDS);
+            return null;
+        }).when(channelStateUpdateListenerMock).updateChannelState(eq(channelUIDMock), eq(new StringType("1")));
+
+        c.processMessage("state", "1".getBytes());
+
+        verify(channelStateUpdateListenerMock, timeout(1000)).updateChannelState(eq(channelUIDMock),
+                eq(new StringType("2")));
+    }
 }
@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.binding.mqtt.generic.tools.TopicTrie;
+import org.openhab.binding.mqtt.generic.values.NumberValue;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
+import org.openhab.core.thing.ChannelUID;
+
+/**
+ * Tests the {@link MqttTopicRouter} class.
+ *
+ * @author David Graeff - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@NonNullByDefault
+public class MqttTopicRouterTests {
+
+    private static final byte[] PAYLOAD = "21.5".getBytes();
+
+    private @Mock @NonNullByDefault({}) MqttBrokerConnection connectionMock;
+    private @Mock @NonNullByDefault({}) MqttMessageSubscriber first;
+    private @Mock @NonNullByDefault({}) MqttMessageSubscriber second;
+
+    /** The subscribers of the broker connection by topic filter */
+    private final Map<String, MqttMessageSubscriber> brokerSubscriptions = new HashMap<>();
+
+    private @NonNullByDefault({}) MqttTopicRouter router;
+
+    @BeforeEach
+    public void setUp() {
+        doAnswer(invocation -> {
+            brokerSubscriptions.put(invocation.getArgument(0), invocation.getArgument(1));
+            return CompletableFuture.completedFuture(true);
+        }).when(connectionMock).subscribe(any(), any());
+        doAnswer(invocation -> {
+            brokerSubscriptions.remove(invocation.getArgument(0), invocation.getArgument(1));
+            return CompletableFuture.completedFuture(true);
+        }).when(connectionMock).unsubscribe(any(), any());
+        router = new MqttTopicRouter(connectionMock);
+    }
+
+    /**
+     * Delivers a message to every broker subscription matching the topic, like the broker connection does.
+     */
+    private void publish(String topic, byte[] payload) {
+        Map.copyOf(brokerSubscriptions).forEach((filter, subscriber) -> {
+            if (TopicTrie.covers(filter, topic)) {
+                subscriber.processMessage(topic, payload);
+            }
+        });
+    }
+
+    @Test
+    public void sharedTopicIsSubscribedOnce() throws Exception {
+        router.subscribe("tele/plug/SENSOR", first, true).get();
+        router.subscribe("tele/plug/SENSOR", second, true).get();
+
+        verify(connectionMock, times(1)).subscribe(eq("tele/plug/SENSOR"), any());
+        assertThat(router.getSubscriptionCount(), is(1));
+
+        publish("tele/plug/SENSOR", PAYLOAD);
+        verify(first).processMessage("tele/plug/SENSOR", PAYLOAD);
+        verify(second).processMessage("tele/plug/SENSOR", PAYLOAD);
+    }
+
+    @Test
+    public void coveredTopicUsesWildcardSubscription() throws Exception {
+        router.subscribe("sensors/+/temperature", first, true).get();
+        router.subscribe("sensors/kitchen/temperature", second, true).get();
+
+        verify(connectionMock, never()).subscribe(eq("sensors/kitchen/temperature"), any());
+        assertThat(router.getSubscriptionCount(), is(1));
+
+        publish("sensors/kitchen/temperature", PAYLOAD);
+        publish("sensors/bath/temperature", PAYLOAD);
+        verify(first).processMessage("sensors/kitchen/temperature", PAYLOAD);
+        verify(first).processMessage("sensors/bath/temperature", PAYLOAD);
+        verify(second).processMessage("sensors/kitchen/temperature", PAYLOAD);
+        verify(second, never()).processMessage(eq("sensors/bath/temperature"), any());
+    }
+
+    @Test
+    public void wildcardSubscriptionReplacesCoveredSubscriptions() throws Exception {
+        router.subscribe("sensors/kitchen/temperature", second, true).get();
+        router.subscribe("sensors/#", first, true).get();
+
+        verify(connectionMock).unsubscribe(eq("sensors/kitchen/temperature"), any());
+        assertThat(router.getSubscriptionCount(), is(1));
+
+        publish("sensors/kitchen/temperature", PAYLOAD);
+        verify(first, times(1)).processMessage("sensors/kitchen/temperature", PAYLOAD);
+        verify(second, times(1)).processMessage("sensors/kitchen/temperature", PAYLOAD);
+    }
+
+    @Test
+    public void overlappingSubscriptionsDeliverOnce() throws Exception {
+        router.subscribe("a/+/c", first, true).get();
+        router.subscribe("a/b/+", second, true).get();
+        assertThat(router.getSubscriptionCount(), is(2));
+
+        publish("a/b/c", PAYLOAD);
+        verify(first, times(1)).processMessage("a/b/c", PAYLOAD);
+        verify(second, times(1)).processMessage("a/b/c", PAYLOAD);
+    }
+
+    @Test
+    public void joiningSubscriberReceivesLastMessage() throws Exception {
+        router.subscribe("sensors/+/temperature", first, true).get();
+        publish("sensors/kitchen/temperature", PAYLOAD);
+
+        router.subscribe("sensors/kitchen/temperature", second, true).get();
+        verify(second).processMessage("sensors/kitchen/temperature", PAYLOAD);
+
+        MqttMessageSubscriber trigger = mock(MqttMessageSubscriber.class);
+        router.subscribe("sensors/kitchen/temperature", trigger, false).get();
+        verify(trigger, never()).processMessage(any(), any());
+    }
+
+    @Test
+    public void unsubscribe() throws Exception {
+        router.subscribe("sensors/#", first, true).get();
+        router.subscribe("sensors/kitchen/temperature", second, true).get();
+        router.subscribe("sensors/bath/temperature", second, true).get();
+
+        // The covered topics need their own subscriptions now
+        router.unsubscribe("sensors/#", first).get();
+        verify(connectionMock).unsubscribe(eq("sensors/#"), any());
+        assertThat(router.getSubscriptionCount(), is(2));
+
+        publish("sensors/kitchen/temperature", PAYLOAD);
+        verify(first, never()).processMessage(any(), any());
+        verify(second).processMessage("sensors/kitchen/temperature", PAYLOAD);
+
+        router.unsubscribe("sensors/kitchen/temperature", second).get();
+        router.unsubscribe("sensors/bath/temperature", second).get();
+        assertThat(router.getSubscriptionCount(), is(0));
+        assertTrue(router.isEmpty());
+        assertTrue(brokerSubscriptions.isEmpty());
+    }
+
+    @Test
+    public void failedSubscriptionIsRetried() throws Exception {
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("Client not connected")))
+                .when(connectionMock).subscribe(eq("sensors/kitchen/temperature"), any());
+        assertTrue(router.subscribe("sensors/kitchen/temperature", first, true).isCompletedExceptionally());
+        assertThat(router.getSubscriptionCount(), is(0));
+
+        doReturn(CompletableFuture.completedFuture(true)).when(connectionMock)
+                .subscribe(eq("sensors/kitchen/temperature"), any());
+        assertThat(router.subscribe("sensors/kitchen/temperature", first, true).get(), is(true));
+        assertThat(router.getSubscriptionCount(), is(1));
+    }
+
+    @Test
+    public void unsubscribeRemovesWildcardSubscriptionIfOrphanFailsToSubscribe() throws Exception {
+        router.subscribe("sensors/#", first, true).get();
+        router.subscribe("sensors/kitchen/temperature", second, true).get();
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("Client not connected")))
+                .when(connectionMock).subscribe(eq("sensors/kitchen/temperature"), any());
+
+        ChannelStateUpdateListener listener = mock(ChannelStateUpdateListener.class);
+        ChannelState state = new ChannelState(ChannelConfigBuilder.create("sensors/#", null).build(),
+                new ChannelUID("mqtt:topic:broker:thing:sensors"), new NumberValue(null, null, null, null), listener);
+        state.start(connectionMock, router, mock(ScheduledExecutorService.class), 0).get(1, TimeUnit.SECONDS);
+        router.unsubscribe("sensors/#", first).get();
+
+        state.stop().get(1, TimeUnit.SECONDS);
+        verify(connectionMock).unsubscribe(eq("sensors/#"), any());
+        assertThat(router.getSubscriptionCount(), is(0));
+        assertTrue(brokerSubscriptions.isEmpty());
+
+        // The orphaned topic filter was released and is subscribed again by the next subscriber
+        doReturn(CompletableFuture.completedFuture(true)).when(connectionMock)
+                .subscribe(eq("sensors/kitchen/temperature"), any());
+        router.subscribe("sensors/kitchen/temperature", second, true).get();
+        assertThat(router.getSubscriptionCount(), is(1));
+    }
+
+    @Test
+    public void reconnectLeavesRouterOfPreviousConnection() throws Exception {
+        ChannelStateUpdateListener listener = mock(ChannelStateUpdateListener.class);
+        ChannelState state = new ChannelState(ChannelConfigBuilder.create("tele/plug/SENSOR", null).build(),
+                new ChannelUID("mqtt:topic:broker:plug:power"), new NumberValue(null, null, null, null), listener);
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        state.start(connectionMock, router, scheduler, 0).get(1, TimeUnit.SECONDS);
+        assertThat(router.getSubscriptionCount(), is(1));
+
+        MqttBrokerConnection reconnected = mock(MqttBrokerConnection.class);
+        doReturn(CompletableFuture.completedFuture(true)).when(reconnected).subscribe(any(), any());
+        MqttTopicRouter reconnectedRouter = new MqttTopicRouter(reconnected);
+        state.start(reconnected, reconnectedRouter, scheduler, 0).get(1, TimeUnit.SECONDS);
+
+        assertTrue(router.isEmpty());
+        assertThat(router.getSubscriptionCount(), is(0));
+        assertThat(reconnectedRouter.getSubscriptionCount(), is(1));
+        verify(reconnected).subscribe(eq("tele/plug/SENSOR"), any());
+    }
+
+    @Test
+    public void manyChannelsShareFewSubscriptions() throws Exception {
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        ChannelStateUpdateListener listener = mock(ChannelStateUpdateListener.class);
+        for (int device = 0; device < 1000; device++) {
+            for (String property : new String[] { "temperature", "humidity", "battery", "linkquality", "voltage" }) {
+                ChannelState state = new ChannelState(
+                        ChannelConfigBuilder.create("zigbee2mqtt/device" + device, null).build(),
+                        new ChannelUID("mqtt:topic:broker:device" + device + ":" + property),
+                        new NumberValue(null, null, new BigDecimal(1), null), listener);
+                state.start(connectionMock, router, scheduler, 0).get(1, TimeUnit.SECONDS);
+            }
+        }
+
+        assertThat(router.getSubscriptionCount(), is(1000));
+        verify(connectionMock, times(1000)).subscribe(any(), any());
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link TopicTrie} class.
+ *
+ * @author David Graeff - Initial contribution
+ */
+@NonNullByDefault
+public class TopicTrieTests {
+
+    private final TopicTrie<String> trie = new TopicTrie<>();
+
+    private List<String> match(String topic) {
+        List<String> values = new ArrayList<>();
+        trie.match(topic, (filter, filterValues) -> values.addAll(filterValues));
+        return values;
+    }
+
+    @Test
+    public void matchTopics() {
+        trie.add("a/b/c", "exact");
+        trie.add("a/+/c", "single");
+        trie.add("a/#", "multi");
+        trie.add("#", "all");
+        trie.add("b/+", "other");
+
+        assertThat(match("a/b/c"), containsInAnyOrder("exact", "single", "multi", "all"));
+        assertThat(match("a/x/c"), containsInAnyOrder("single", "multi", "all"));
+        assertThat(match("a"), containsInAnyOrder("multi", "all"));
+        assertThat(match("b/x"), containsInAnyOrder("other", "all"));
+        assertThat(match("b/x/y"), containsInAnyOrder("all"));
+        assertThat(match("b"), containsInAnyOrder("all"));
+    }
+
+    @Test
+    public void matchEmptyLevels() {
+        trie.add("a//c", "empty");
+        trie.add("a/+/c", "single");
+
+        assertThat(match("a//c"), containsInAnyOrder("empty", "single"));
+        assertThat(match("a/c"), is(empty()));
+    }
+
+    @Test
+    public void wildcardsDoNotMatchSystemTopics() {
+        trie.add("#", "all");
+        trie.add("+/broker", "single");
+        trie.add("$SYS/#", "system");
+
+        assertThat(match("$SYS/broker"), containsInAnyOrder("system"));
+        assertThat(match("x/broker"), containsInAnyOrder("all", "single"));
+    }
+
+    @Test
+    public void matchCoveringFilters() {
+        trie.add("a/b/c", "exact");
+        trie.add("a/+/c", "single");
+        trie.add("a/#", "multi");
+
+        assertThat(match("a/+/c"), containsInAnyOrder("single", "multi"));
+        assertThat(match("a/b/#"), containsInAnyOrder("multi"));
+        assertThat(match("+/b/c"), is(empty()));
+    }
+
+    @Test
+    public void addAndRemove() {
+        trie.add("a/b", "first");
+        trie.add("a/b", "second");
+        trie.add("a/b/c", "third");
+        assertThat(trie.size(), is(3));
+
+        assertTrue(trie.remove("a/b", "first"));
+        assertFalse(trie.remove("a/b", "first"));
+        assertFalse(trie.remove("a/x", "second"));
+        assertThat(trie.get("a/b"), is(List.of("second")));
+        assertThat(match("a/b"), is(List.of("second")));
+
+        assertTrue(trie.remove("a/b", "second"));
+        assertThat(match("a/b"), is(empty()));
+        assertThat(match("a/b/c"), is(List.of("third")));
+
+        assertTrue(trie.remove("a/b/c", "third"));
+        assertTrue(trie.isEmpty());
+        assertThat(trie.get("a/b/c"), is(empty()));
+    }
+
+    @Test
+    public void covers() {
+        assertTrue(TopicTrie.covers("a/b", "a/b"));
+        assertTrue(TopicTrie.covers("a/+", "a/b"));
+        assertTrue(TopicTrie.covers("a/+", "a/+"));
+        assertTrue(TopicTrie.covers("a/#", "a"));
+        assertTrue(TopicTrie.covers("a/#", "a/+/c"));
+        assertTrue(TopicTrie.covers("a/#", "a/#"));
+        assertTrue(TopicTrie.covers("#", "a/b"));
+        assertTrue(TopicTrie.covers("$SYS/#", "$SYS/broker"));
+
+        assertFalse(TopicTrie.covers("a/b", "a/+"));
+        assertFalse(TopicTrie.covers("a/+", "a/#"));
+        assertFalse(TopicTrie.covers("a/+", "a/b/c"));
+        assertFalse(TopicTrie.covers("a/+", "a"));
+        assertFalse(TopicTrie.covers("a/b/#", "a"));
+        assertFalse(TopicTrie.covers("#", "$SYS/broker"));
+        assertFalse(TopicTrie.covers("+/broker", "$SYS/broker"));
+    }
+}
@@ -0,0 +1,349 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+
+/**
+ * Writes DTOs to DynamoDB in batches.
+ *
+ * DTOs are put into a bounded queue and written by a dedicated thread using BatchWriteItem requests of up to 25 items,
+ * the maximum supported by DynamoDB. A batch is sent when it is full or when its first DTO has waited for the maximum
+ * latency. Items reported back as unprocessed, typically because the provisioned throughput is exceeded, are retried
+ * with exponential backoff.
+ *
+ * If a table does not exist yet, the DTOs of the batch are written one by one with {@link TableCreatingPutItem},
+ * which creates the table first.
+ *
+ * A failed request is not retried as a whole like in the MongoDB writer: DynamoDB reports the items it could not write,
+ * typically because of throttling, and only these are retried. Any other error fails the whole batch.
+ *
+ * When the queue is full, the oldest queued DTO is discarded.
+ *
+ * @author Sami Salonen - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class DynamoDBBatchWriter {
+    /**
+     * Maximum number of items in a BatchWriteItem request, defined by DynamoDB
+     */
+    public static final int MAX_BATCH_SIZE = 25;
+    public static final int DEFAULT_QUEUE_SIZE = 10000;
+    public static final Duration DEFAULT_MAX_LATENCY = Duration.ofMillis(500);
+
+    private static final int MAX_RETRIES = 8;
+    private static final long INITIAL_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+    private static final String THREAD_POOL_NAME = "persistence-dynamodb";
+    private static final int STOP_TIMEOUT_SECONDS = 30;
+    // the longest time the writer waits without checking whether it has been stopped
+    private static final long STOP_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Logger logger = LoggerFactory.getLogger(DynamoDBBatchWriter.class);
+
+    private final DynamoDBPersistenceService service;
+    private final BlockingQueue<DynamoDBItem<?>> queue;
+    private final long maxLatencyNanos;
+    private final Future<?> writer;
+
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    private final AtomicLong storedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    public DynamoDBBatchWriter(DynamoDBPersistenceService service, int queueSize, Duration maxLatency) {
+        this.service = service;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.maxLatencyNanos = maxLatency.toNanos();
+        this.writer = ThreadPoolManager.getPool(THREAD_POOL_NAME).submit(this::run);
+    }
+
+    /**
+     * Queues a DTO for writing. If the queue is full, the oldest queued DTO is discarded.
+     *
+     * @param dto the DTO to write
+     * @return true if the DTO was queued
+     */
+    public boolean enqueue(DynamoDBItem<?> dto) {
+        if (!running) {
+            return false;
+        }
+        while (!queue.offer(dto)) {
+            DynamoDBItem<?> dropped = queue.poll();
+            if (dropped != null) {
+                droppedCount.incrementAndGet();
+                logger.debug("Write queue is full, discarding oldest DTO {}", dropped);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting DTOs, writes everything still queued and terminates the writer thread.
+     */
+    public void stop() {
+        running = false;
+        try {
+            writer.get(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Writer did not finish in time, {} queued DTOs are lost", queue.size());
+            writer.cancel(true);
+        } catch (ExecutionException e) {
+            logger.warn("Writer failed, {} queued DTOs are lost", queue.size(), e.getCause());
+        } catch (InterruptedException e) {
+            writer.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return number of DTOs waiting in the queue
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * @return number of DTOs in the request currently sent to DynamoDB
+     */
+    public int getInFlightCount() {
+        return inFlightCount.get();
+    }
+
+    public long getStoredCount() {
+        return storedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return number of BatchWriteItem requests sent, including retries
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    private void run() {
+        List<DynamoDBItem<?>> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                DynamoDBItem<?> first = queue.poll(STOP_CHECK_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxLatencyNanos;
+                while (batch.size() < MAX_BATCH_SIZE) {
+                    queue.drainTo(batch, MAX_BATCH_SIZE - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= MAX_BATCH_SIZE || remaining <= 0 || !running) {
+                        break;
+                    }
+                    DynamoDBItem<?> next = queue.poll(Math.min(remaining, STOP_CHECK_INTERVAL_NANOS),
+                            TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedCount.addAndGet(batch.size() + queue.size());
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Unexpected error while writing batch of {} DTOs", batch.size(), e);
+                failedCount.addAndGet(batch.size());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<DynamoDBItem<?>> batch) throws InterruptedException {
+        DynamoDbEnhancedAsyncClient client = service.getClient();
+        if (client == null) {
+            logger.warn("Not connected, cannot write {} DTOs", batch.size());
+            failedCount.addAndGet(batch.size());
+            return;
+        }
+        DynamoDbAsyncTable<DynamoDBBigDecimalItem> numberTable = service.getTable(DynamoDBBigDecimalItem.class);
+        DynamoDbAsyncTable<DynamoDBStringItem> stringTable = service.getTable(DynamoDBStringItem.class);
+
+        // DynamoDB rejects a batch with two puts for the same key, keep only the latest one
+        Map<String, DynamoDBItem<?>> pending = new LinkedHashMap<>();
+        for (DynamoDBItem<?> dto : batch) {
+            pending.put(key(dto.accept(new DynamoDBItemVisitor<String>() {
+                @Override
+                public String visit(DynamoDBBigDecimalItem dynamoBigDecimalItem) {
+                    return numberTable.tableName();
+                }
+
+                @Override
+                public String visit(DynamoDBStringItem dynamoStringItem) {
+                    return stringTable.tableName();
+                }
+            }), dto), dto);
+        }
+        int uniqueCount = pending.size();
+
+        Instant start = Instant.now();
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        for (int attempt = 0;; attempt++) {
+            List<DynamoDBBigDecimalItem> numbers = new ArrayList<>();
+            List<DynamoDBStringItem> strings = new ArrayList<>();
+            for (DynamoDBItem<?> dto : pending.values()) {
+                dto.accept(new DynamoDBItemVisitor<@Nullable Void>() {
+                    @Override
+                    public @Nullable Void visit(DynamoDBBigDecimalItem dynamoBigDecimalItem) {
+                        numbers.add(dynamoBigDecimalItem);
+                        return null;
+                    }
+
+                    @Override
+                    public @Nullable Void visit(DynamoDBStringItem dynamoStringItem) {
+                        strings.add(dynamoStringItem);
+                        return null;
+                    }
+                });
+            }
+            BatchWriteItemEnhancedRequest.Builder request = BatchWriteItemEnhancedRequest.builder();
+            addWriteBatch(request, DynamoDBBigDecimalItem.class, numberTable, numbers);
+            addWriteBatch(request, DynamoDBStringItem.class, stringTable, strings);
+
+            BatchWriteResult result;
+            inFlightCount.set(pending.size());
+            requestCount.incrementAndGet();
+            try {
+                result = client.batchWriteItem(request.build()).get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof ResourceNotFoundException) {
+                    logger.trace("BatchWriteItem: table does not exist, writing {} DTOs one by one", pending.size());
+                    putItemsCreatingTable(pending.values());
+                } else {
+                    logger.warn("BatchWriteItem: failed (final) with {} {}. {} DTOs are lost.",
+                            cause == null ? e.getClass().getSimpleName() : cause.getClass().getSimpleName(),
+                            cause == null ? e.getMessage() : cause.getMessage(), pending.size());
+                    failedCount.addAndGet(pending.size());
+                }
+                return;
+            } finally {
+                inFlightCount.set(0);
+            }
+
+            Map<String, DynamoDBItem<?>> unprocessed = new LinkedHashMap<>();
+            collectUnprocessed(result, numberTable, pending, unprocessed);
+            collectUnprocessed(result, stringTable, pending, unprocessed);
+            storedCount.addAndGet(pending.size() - unprocessed.size());
+            if (unprocessed.isEmpty()) {
+                logger.trace("BatchWriteItem: {} DTOs written in {} ms with {} attempts", uniqueCount,
+                        Duration.between(start, Instant.now()).toMillis(), attempt + 1);
+                return;
+            }
+            if (attempt >= MAX_RETRIES) {
+                logger.warn("BatchWriteItem: {} DTOs still unprocessed after {} attempts, giving up",
+                        unprocessed.size(), attempt + 1);
+                failedCount.addAndGet(unprocessed.size());
+                return;
+            }
+            logger.debug("BatchWriteItem: {} DTOs unprocessed, retrying in {} ms", unprocessed.size(), backoff);
+            Thread.sleep(backoff);
+            backoff = Math.min(MAX_BACKOFF_MILLIS, backoff * 2);
+            pending = unprocessed;
+        }
+    }
+
+    /**
+     * Maps the unprocessed items reported for a table back to the DTOs that were sent.
+     *
+     * With the new table schema number and string DTOs share one table, and the unprocessed items of that table are
+     * read back with the schema of the given table only. Their keys are correct, their states may not be, so the
+     * original DTOs are retried instead.
+     */
+    private static void collectUnprocessed(BatchWriteResult result, DynamoDbAsyncTable<? extends DynamoDBItem<?>> table,
+            Map<String, DynamoDBItem<?>> sent, Map<String, DynamoDBItem<?>> unprocessed) {
+        for (DynamoDBItem<?> item : result.unprocessedPutItemsForTable(table)) {
+            String key = key(table.tableName(), item);
+            DynamoDBItem<?> dto = sent.get(key);
+            if (dto != null) {
+                unprocessed.put(key, dto);
+            }
+        }
+    }
+
+    /**
+     * @return the primary key of a DTO in the given table, with the millisecond precision of the stored timestamp
+     */
+    private static String key(String tableName, DynamoDBItem<?> dto) {
+        return tableName + "/" + dto.getName() + "/" + dto.getTime().toInstant().toEpochMilli();
+    }
+
+    private static <T extends DynamoDBItem<?>> void addWriteBatch(BatchWriteItemEnhancedRequest.Builder request,
+            Class<T> dtoClass, DynamoDbAsyncTable<T> table, List<T> dtos) {
+        if (dtos.isEmpty()) {
+            return;
+        }
+        WriteBatch.Builder<T> writeBatch = WriteBatch.builder(dtoClass).mappedTableResource(table);
+        dtos.forEach(writeBatch::addPutItem);
+        request.addWriteBatch(writeBatch.build());
+    }
+
+    private void putItemsCreatingTable(Collection<DynamoDBItem<?>> dtos) throws InterruptedException {
+        for (DynamoDBItem<?> dto : dtos) {
+            try {
+                service.putItemCreatingTable(dto).get();
+                storedCount.incrementAndGet();
+            } catch (ExecutionException e) {
+                // logged by TableCreatingPutItem
+                failedCount.incrementAndGet();
+            }
+        }
+    }
+}
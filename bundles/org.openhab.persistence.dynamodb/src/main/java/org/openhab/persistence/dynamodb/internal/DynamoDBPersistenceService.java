@@ -98,6 +98,8 @@ import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
 @ConfigurableService(category = "persistence", label = "DynamoDB Persistence Service", description_uri = DynamoDBPersistenceService.CONFIG_URI)
 public class DynamoDBPersistenceService implements QueryablePersistenceService {
 
+    public static final String SERVICE_ID = "dynamodb";
+
     private static final int MAX_CONCURRENCY = 100;
 
     protected static final String CONFIG_URI = "persistence:dynamodb";
@@ -112,6 +114,7 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
     private boolean isProperlyConfigured;
     private @Nullable DynamoDBConfig dbConfig;
     private @Nullable DynamoDBTableNameResolver tableNameResolver;
+    private @Nullable DynamoDBBatchWriter batchWriter;
     private final ExecutorService executor = ThreadPoolManager.getPool(DYNAMODB_THREADPOOL_NAME);
     private static final Duration TIMEOUT_API_CALL = Duration.ofSeconds(60);
     private static final Duration TIMEOUT_API_CALL_ATTEMPT = Duration.ofSeconds(5);
@@ -176,8 +179,18 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
         return dbConfig;
     }
 
+    @Nullable
+    DynamoDbEnhancedAsyncClient getClient() {
+        return client;
+    }
+
+    public @Nullable DynamoDBBatchWriter getBatchWriter() {
+        return batchWriter;
+    }
+
     @Activate
     public void activate(final @Nullable BundleContext bundleContext, final Map<String, Object> config) {
+        stopBatchWriter();
         disconnect();
         DynamoDBConfig localDbConfig = dbConfig = DynamoDBConfig.fromConfig(config);
         if (localDbConfig == null) {
@@ -197,6 +210,8 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
             return;
         }
 
+        batchWriter = new DynamoDBBatchWriter(this, DynamoDBBatchWriter.DEFAULT_QUEUE_SIZE,
+                DynamoDBBatchWriter.DEFAULT_MAX_LATENCY);
         isProperlyConfigured = true;
         logger.debug("dynamodb persistence service activated");
     }
@@ -205,9 +220,19 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
     public void deactivate() {
         logger.debug("dynamodb persistence service deactivated");
         logIfManyQueuedTasks();
+        stopBatchWriter();
         disconnect();
     }
 
+    private void stopBatchWriter() {
+        DynamoDBBatchWriter localBatchWriter = batchWriter;
+        if (localBatchWriter != null) {
+            // Flush queued DTOs while the client is still connected
+            localBatchWriter.stop();
+            batchWriter = null;
+        }
+    }
+
     /**
      * Initializes Dynamo DB client and determines schema
      *
@@ -277,7 +302,7 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
         }
     }
 
-    private <T extends DynamoDBItem<?>> DynamoDbAsyncTable<T> getTable(Class<T> dtoClass) {
+    <T extends DynamoDBItem<?>> DynamoDbAsyncTable<T> getTable(Class<T> dtoClass) {
         DynamoDbEnhancedAsyncClient localClient = client;
         DynamoDBTableNameResolver localTableNameResolver = tableNameResolver;
         if (!ensureClient() || localClient == null || localTableNameResolver == null) {
@@ -296,6 +321,29 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
         return table;
     }
 
+    /**
+     * Puts a single DTO, creating the table first if it does not exist
+     *
+     * @param dto the DTO to write
+     * @return future completing when the DTO has been written
+     */
+    CompletableFuture<Void> putItemCreatingTable(DynamoDBItem<?> dto) {
+        return dto.accept(new DynamoDBItemVisitor<TableCreatingPutItem<? extends DynamoDBItem<?>>>() {
+
+            @Override
+            public TableCreatingPutItem<? extends DynamoDBItem<?>> visit(DynamoDBBigDecimalItem dynamoBigDecimalItem) {
+                return new TableCreatingPutItem<DynamoDBBigDecimalItem>(DynamoDBPersistenceService.this,
+                        dynamoBigDecimalItem, getTable(DynamoDBBigDecimalItem.class));
+            }
+
+            @Override
+            public TableCreatingPutItem<? extends DynamoDBItem<?>> visit(DynamoDBStringItem dynamoStringItem) {
+                return new TableCreatingPutItem<DynamoDBStringItem>(DynamoDBPersistenceService.this,
+                        dynamoStringItem, getTable(DynamoDBStringItem.class));
+            }
+        }).putItemAsync();
+    }
+
     private static <T extends DynamoDBItem<?>> TableSchema<T> getDynamoDBTableSchema(Class<T> dtoClass,
             ExpectedTableSchema expectedTableSchemaRevision) {
         if (dtoClass.equals(DynamoDBBigDecimalItem.class)) {
@@ -335,7 +383,7 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
 
     @Override
     public String getId() {
-        return "dynamodb";
+        return SERVICE_ID;
     }
 
     @Override
@@ -540,8 +588,9 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
             DynamoDbAsyncClient localLowlevelClient = lowLevelClient;
             DynamoDBConfig localConfig = dbConfig;
             DynamoDBTableNameResolver localTableNameResolver = tableNameResolver;
+            DynamoDBBatchWriter localBatchWriter = batchWriter;
             if (!isProperlyConfigured || localClient == null || localLowlevelClient == null || localConfig == null
-                    || localTableNameResolver == null) {
+                    || localTableNameResolver == null || localBatchWriter == null) {
                 logger.warn("Not ready to store (config error?), not storing item {}.", item.getName());
                 return;
             }
@@ -561,21 +610,7 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
             }
             logger.trace("store() called with item {} {} '{}', which was converted to DTO {}",
                     copiedItem.getClass().getSimpleName(), effectiveName, copiedItem.getState(), dto);
-            dto.accept(new DynamoDBItemVisitor<TableCreatingPutItem<? extends DynamoDBItem<?>>>() {
-
-                @Override
-                public TableCreatingPutItem<? extends DynamoDBItem<?>> visit(
-                        DynamoDBBigDecimalItem dynamoBigDecimalItem) {
-                    return new TableCreatingPutItem<DynamoDBBigDecimalItem>(DynamoDBPersistenceService.this,
-                            dynamoBigDecimalItem, getTable(DynamoDBBigDecimalItem.class));
-                }
-
-                @Override
-                public TableCreatingPutItem<? extends DynamoDBItem<?>> visit(DynamoDBStringItem dynamoStringItem) {
-                    return new TableCreatingPutItem<DynamoDBStringItem>(DynamoDBPersistenceService.this,
-                            dynamoStringItem, getTable(DynamoDBStringItem.class));
-                }
-            }).putItemAsync();
+            localBatchWriter.enqueue(dto);
         }, executor).exceptionally(e -> {
             logger.error("Unexcepted error", e);
             return null;
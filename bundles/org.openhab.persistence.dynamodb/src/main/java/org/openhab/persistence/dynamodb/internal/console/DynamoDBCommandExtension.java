@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal.console;
+
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.io.console.Console;
+import org.openhab.core.io.console.ConsoleCommandCompleter;
+import org.openhab.core.io.console.StringsCompleter;
+import org.openhab.core.io.console.extensions.AbstractConsoleCommandExtension;
+import org.openhab.core.io.console.extensions.ConsoleCommandExtension;
+import org.openhab.core.persistence.PersistenceService;
+import org.openhab.core.persistence.PersistenceServiceRegistry;
+import org.openhab.persistence.dynamodb.internal.DynamoDBBatchWriter;
+import org.openhab.persistence.dynamodb.internal.DynamoDBPersistenceService;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+/**
+ * The {@link DynamoDBCommandExtension} is responsible for handling console commands
+ *
+ * @author Sami Salonen - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = ConsoleCommandExtension.class)
+public class DynamoDBCommandExtension extends AbstractConsoleCommandExtension implements ConsoleCommandCompleter {
+
+    private static final String CMD_BATCH = "batch";
+    private static final StringsCompleter CMD_COMPLETER = new StringsCompleter(List.of(CMD_BATCH), false);
+
+    private final PersistenceServiceRegistry persistenceServiceRegistry;
+
+    @Activate
+    public DynamoDBCommandExtension(final @Reference PersistenceServiceRegistry persistenceServiceRegistry) {
+        super(DynamoDBPersistenceService.SERVICE_ID, "Interact with the DynamoDB persistence service.");
+        this.persistenceServiceRegistry = persistenceServiceRegistry;
+    }
+
+    @Override
+    public void execute(String[] args, Console console) {
+        DynamoDBPersistenceService persistenceService = getPersistenceService();
+        if (persistenceService == null) {
+            console.println("No DynamoDB persistence service installed.");
+            return;
+        }
+        if (args.length == 1 && CMD_BATCH.equalsIgnoreCase(args[0])) {
+            showBatchStatistics(persistenceService, console);
+            return;
+        }
+        printUsage(console);
+    }
+
+    private @Nullable DynamoDBPersistenceService getPersistenceService() {
+        for (PersistenceService persistenceService : persistenceServiceRegistry.getAll()) {
+            if (persistenceService instanceof DynamoDBPersistenceService service) {
+                return service;
+            }
+        }
+        return null;
+    }
+
+    private void showBatchStatistics(DynamoDBPersistenceService persistenceService, Console console) {
+        DynamoDBBatchWriter batchWriter = persistenceService.getBatchWriter();
+        if (batchWriter == null) {
+            console.println("Service is not configured.");
+            return;
+        }
+        console.println(String.format("Queued states:       %d", batchWriter.getQueuedCount()));
+        console.println(String.format("In-flight states:    %d", batchWriter.getInFlightCount()));
+        console.println(String.format("Requests sent:       %d", batchWriter.getRequestCount()));
+        console.println(String.format("States stored:       %d", batchWriter.getStoredCount()));
+        console.println(String.format("States dropped:      %d", batchWriter.getDroppedCount()));
+        console.println(String.format("States failed:       %d", batchWriter.getFailedCount()));
+    }
+
+    @Override
+    public List<String> getUsages() {
+        return List.of(buildCommandUsage(CMD_BATCH, "show write queue statistics"));
+    }
+
+    @Override
+    public @Nullable ConsoleCommandCompleter getCompleter() {
+        return this;
+    }
+
+    @Override
+    public boolean complete(String[] args, int cursorArgumentIndex, int cursorPosition, List<String> candidates) {
+        if (cursorArgumentIndex <= 0) {
+            return CMD_COMPLETER.complete(args, cursorArgumentIndex, cursorPosition, candidates);
+        }
+        return false;
+    }
+}
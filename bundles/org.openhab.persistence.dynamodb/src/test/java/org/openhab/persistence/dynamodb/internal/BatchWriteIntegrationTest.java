@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+
+/**
+ * Stores more states than fit into a single BatchWriteItem request
+ *
+ * @author Sami Salonen - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class BatchWriteIntegrationTest extends BaseIntegrationTest {
+
+    public static final boolean LEGACY_MODE = false;
+    private static final String NAME = "number";
+    private static final int STATE_COUNT = DynamoDBBatchWriter.MAX_BATCH_SIZE * 2 + 10;
+
+    private static @Nullable ZonedDateTime storeStart;
+
+    @SuppressWarnings("null")
+    @BeforeAll
+    public static void populateData() {
+        storeStart = ZonedDateTime.now();
+
+        NumberItem item = (NumberItem) ITEMS.get(NAME);
+        for (int i = 0; i < STATE_COUNT; i++) {
+            item.setState(new DecimalType(i));
+            try {
+                // Add some delay to enforce different timestamps in ms accuracy
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                fail("Interrupted");
+                return;
+            }
+            service.store(item);
+        }
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    public void testAllStatesStored() {
+        waitForAssert(() -> {
+            FilterCriteria criteria = new FilterCriteria();
+            criteria.setItemName(NAME);
+            criteria.setBeginDate(Objects.requireNonNull(storeStart));
+            criteria.setOrdering(Ordering.ASCENDING);
+            criteria.setPageSize(STATE_COUNT * 2);
+            List<DecimalType> expectedStates = new ArrayList<>();
+            List<DecimalType> actualStates = new ArrayList<>();
+            for (int i = 0; i < STATE_COUNT; i++) {
+                expectedStates.add(new DecimalType(i));
+            }
+            for (HistoricItem historicItem : BaseIntegrationTest.service.query(criteria)) {
+                actualStates.add((DecimalType) historicItem.getState());
+            }
+            assertEquals(expectedStates, actualStates);
+        });
+    }
+
+    @Test
+    public void testWriterStatistics() {
+        DynamoDBBatchWriter writer = Objects
+                .requireNonNull(Objects.requireNonNull(BaseIntegrationTest.service).getBatchWriter());
+        waitForAssert(() -> {
+            assertEquals(0, writer.getQueuedCount());
+            assertEquals(0, writer.getInFlightCount());
+            assertTrue(writer.getStoredCount() >= STATE_COUNT);
+            assertEquals(0, writer.getDroppedCount());
+            assertEquals(0, writer.getFailedCount());
+        });
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+/**
+ * Tests {@link DynamoDBBatchWriter} with a mocked client. Writing to a DynamoDB server is covered by
+ * {@link BatchWriteIntegrationTest}.
+ *
+ * @author Sami Salonen - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class DynamoDBBatchWriterTest {
+
+    private final DynamoDBPersistenceService service = mock(DynamoDBPersistenceService.class);
+    private final DynamoDbEnhancedAsyncClient client = mock(DynamoDbEnhancedAsyncClient.class);
+    // only creates the table objects, which are not used to send requests
+    private final DynamoDbEnhancedAsyncClient tables = DynamoDbEnhancedAsyncClient.builder()
+            .dynamoDbClient(mock(DynamoDbAsyncClient.class)).build();
+
+    @Test
+    public void queuedDtosAreHandledOnStopWithoutWaitingForMaxLatency() {
+        DynamoDBBatchWriter writer = new DynamoDBBatchWriter(service, 100, Duration.ofMinutes(1));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(writer.enqueue(dto(i)));
+        }
+
+        long start = System.nanoTime();
+        writer.stop();
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+        assertEquals(0, writer.getQueuedCount());
+        // the service is not connected, so the DTOs are counted as failed
+        assertEquals(3, writer.getFailedCount());
+        assertFalse(writer.enqueue(dto(3)));
+    }
+
+    @Test
+    public void oldestDtosAreDroppedWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // the writer blocks in its first batch until released, so the queue fills up
+        when(service.getClient()).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        });
+        DynamoDBBatchWriter writer = new DynamoDBBatchWriter(service, 2, Duration.ZERO);
+        writer.enqueue(dto(0));
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(writer.enqueue(dto(i)));
+        }
+        assertEquals(2, writer.getQueuedCount());
+        assertEquals(2, writer.getDroppedCount());
+
+        release.countDown();
+        writer.stop();
+
+        assertEquals(0, writer.getQueuedCount());
+        assertEquals(3, writer.getFailedCount());
+    }
+
+    @Test
+    public void unprocessedDtosOfSharedTableAreRetriedUnchanged() {
+        // with the new table schema number and string DTOs are written to the same table
+        useTables(tables.table("openhab", DynamoDBBigDecimalItem.TABLE_SCHEMA_NEW),
+                tables.table("openhab", DynamoDBStringItem.TABLE_SCHEMA_NEW));
+        ZonedDateTime time = ZonedDateTime.now();
+        DynamoDBBigDecimalItem number = new DynamoDBBigDecimalItem("number", BigDecimal.TEN, time, null);
+        DynamoDBStringItem string = new DynamoDBStringItem("string", "text", time, null);
+        Map<String, AttributeValue> numberItem = DynamoDBBigDecimalItem.TABLE_SCHEMA_NEW.itemToMap(number, true);
+        Map<String, AttributeValue> stringItem = DynamoDBStringItem.TABLE_SCHEMA_NEW.itemToMap(string, true);
+        when(client.batchWriteItem(any(BatchWriteItemEnhancedRequest.class))).thenReturn(
+                result(Map.of("openhab", List.of(putRequest(numberItem), putRequest(stringItem)))), result(Map.of()));
+
+        DynamoDBBatchWriter writer = new DynamoDBBatchWriter(service, 100, Duration.ofMinutes(1));
+        writer.enqueue(number);
+        writer.enqueue(string);
+        writer.stop();
+
+        List<BatchWriteItemEnhancedRequest> requests = sentRequests(2);
+        // the retry contains each DTO once and with its state
+        List<Map<String, AttributeValue>> retried = putItems(requests.get(1));
+        assertEquals(2, retried.size());
+        assertEquals(Set.of(numberItem, stringItem), new HashSet<>(retried));
+        assertEquals(2, writer.getRequestCount());
+        assertEquals(2, writer.getStoredCount());
+        assertEquals(0, writer.getFailedCount());
+    }
+
+    @Test
+    public void onlyUnprocessedDtosAreRetried() {
+        useTables(tables.table("openhab-bigdecimal", DynamoDBBigDecimalItem.TABLE_SCHEMA_LEGACY),
+                tables.table("openhab-string", DynamoDBStringItem.TABLE_SCHEMA_LEGACY));
+        ZonedDateTime time = ZonedDateTime.now();
+        DynamoDBBigDecimalItem number = new DynamoDBBigDecimalItem("number", BigDecimal.TEN, time, null);
+        DynamoDBStringItem string = new DynamoDBStringItem("string", "text", time, null);
+        Map<String, AttributeValue> stringItem = DynamoDBStringItem.TABLE_SCHEMA_LEGACY.itemToMap(string, true);
+        when(client.batchWriteItem(any(BatchWriteItemEnhancedRequest.class)))
+                .thenReturn(result(Map.of("openhab-string", List.of(putRequest(stringItem)))), result(Map.of()));
+
+        DynamoDBBatchWriter writer = new DynamoDBBatchWriter(service, 100, Duration.ofMinutes(1));
+        writer.enqueue(number);
+        writer.enqueue(string);
+        writer.stop();
+
+        List<BatchWriteItemEnhancedRequest> requests = sentRequests(2);
+        assertEquals(2, putItems(requests.get(0)).size());
+        assertEquals(List.of(stringItem), putItems(requests.get(1)));
+        assertEquals(2, writer.getStoredCount());
+        assertEquals(0, writer.getFailedCount());
+    }
+
+    private void useTables(DynamoDbAsyncTable<DynamoDBBigDecimalItem> numberTable,
+            DynamoDbAsyncTable<DynamoDBStringItem> stringTable) {
+        when(service.getClient()).thenReturn(client);
+        when(service.getTable(DynamoDBBigDecimalItem.class)).thenReturn(numberTable);
+        when(service.getTable(DynamoDBStringItem.class)).thenReturn(stringTable);
+    }
+
+    private List<BatchWriteItemEnhancedRequest> sentRequests(int count) {
+        ArgumentCaptor<BatchWriteItemEnhancedRequest> captor = ArgumentCaptor
+                .forClass(BatchWriteItemEnhancedRequest.class);
+        verify(client, times(count)).batchWriteItem(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static List<Map<String, AttributeValue>> putItems(BatchWriteItemEnhancedRequest request) {
+        return request.writeBatches().stream().flatMap(writeBatch -> writeBatch.writeRequests().stream())
+                .map(writeRequest -> writeRequest.putRequest().item()).collect(Collectors.toList());
+    }
+
+    private static CompletableFuture<BatchWriteResult> result(Map<String, List<WriteRequest>> unprocessed) {
+        return CompletableFuture.completedFuture(BatchWriteResult.builder().unprocessedRequests(unprocessed).build());
+    }
+
+    private static WriteRequest putRequest(Map<String, AttributeValue> item) {
+        return WriteRequest.builder().putRequest(PutRequest.builder().item(item).build()).build();
+    }
+
+    private static DynamoDBItem<?> dto(int value) {
+        return new DynamoDBBigDecimalItem("item", BigDecimal.valueOf(value), ZonedDateTime.now(), null);
+    }
+}
@@ -14,6 +14,8 @@ package org.openhab.persistence.influxdb;
 
 import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -25,21 +27,28 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.OpenHAB;
 import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.config.core.ConfigurableService;
+import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemFactory;
 import org.openhab.core.items.ItemRegistry;
 import org.openhab.core.items.ItemUtil;
+import org.openhab.core.library.items.ColorItem;
+import org.openhab.core.library.items.DimmerItem;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.items.RollershutterItem;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.ModifiablePersistenceService;
@@ -51,12 +60,15 @@ import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
 import org.openhab.persistence.influxdb.internal.FilterCriteriaQueryCreator;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
+import org.openhab.persistence.influxdb.internal.InfluxDBFilterCriteria;
 import org.openhab.persistence.influxdb.internal.InfluxDBHistoricItem;
 import org.openhab.persistence.influxdb.internal.InfluxDBMetadataService;
 import org.openhab.persistence.influxdb.internal.InfluxDBPersistentItemInfo;
 import org.openhab.persistence.influxdb.internal.InfluxDBRepository;
 import org.openhab.persistence.influxdb.internal.InfluxDBStateConvertUtils;
 import org.openhab.persistence.influxdb.internal.InfluxPoint;
+import org.openhab.persistence.influxdb.internal.InfluxPointSpool;
+import org.openhab.persistence.influxdb.internal.OverflowPolicy;
 import org.openhab.persistence.influxdb.internal.influx1.InfluxDB1RepositoryImpl;
 import org.openhab.persistence.influxdb.internal.influx2.InfluxDB2RepositoryImpl;
 import org.osgi.framework.Constants;
@@ -99,6 +111,8 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
     private final Logger logger = LoggerFactory.getLogger(InfluxDBPersistenceService.class);
 
     private static final int COMMIT_INTERVAL = 3; // in s
+    private static final int BLOCK_TIMEOUT = 10; // in s
+    private static final int REPLAY_BATCH_SIZE = 5000;
     protected static final String CONFIG_URI = "persistence:influxdb";
 
     // External dependencies
@@ -111,7 +125,11 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
 
     // storage
     private final ScheduledFuture<?> storeJob;
-    private final BlockingQueue<InfluxPoint> pointsQueue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<InfluxPoint> pointsQueue;
+    private final @Nullable InfluxPointSpool pointsSpool;
+    private final AtomicLong droppedPoints = new AtomicLong();
+    private long reportedDroppedPoints;
+    private volatile double replayRate;
 
     // conversion
     private final Set<ItemFactory> itemFactories = new HashSet<>();
@@ -124,6 +142,8 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
         this.influxDBMetadataService = influxDBMetadataService;
         this.configuration = new InfluxDBConfiguration(config);
         if (configuration.isValid()) {
+            this.pointsQueue = new ArrayBlockingQueue<>(configuration.getQueueSize());
+            this.pointsSpool = configuration.isSpool() ? createSpool() : null;
             this.influxDBRepository = createInfluxDBRepository();
             this.influxDBRepository.connect();
             this.storeJob = ThreadPoolManager.getScheduledPool("org.openhab.influxdb")
@@ -145,6 +165,23 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
         };
     }
 
+    // Visible for testing
+    protected Path getSpoolDirectory() {
+        return Path.of(OpenHAB.getUserDataFolder(), "persistence", SERVICE_NAME);
+    }
+
+    private @Nullable InfluxPointSpool createSpool() {
+        Path directory = getSpoolDirectory();
+        try {
+            return new InfluxPointSpool(directory, configuration.getSpoolMaxSize() * 1024L * 1024L,
+                    configuration.getOverflowPolicy());
+        } catch (IOException e) {
+            logger.warn("Failed to open spool in {}, points will only be queued in memory: {}", directory,
+                    e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Disconnect from database when service is deactivated
      */
@@ -155,7 +192,17 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
         storeJob.cancel(false);
         commit(); // ensure we at least tried to store the data;
 
-        if (!pointsQueue.isEmpty()) {
+        InfluxPointSpool spool = pointsSpool;
+        if (spool != null) {
+            List<InfluxPoint> points = new ArrayList<>();
+            pointsQueue.drainTo(points);
+            spool.append(points);
+            spool.close();
+            if (!spool.isEmpty()) {
+                logger.info("InfluxDB spooled {} points, they will be written after the next start.",
+                        spool.getPointCount());
+            }
+        } else if (!pointsQueue.isEmpty()) {
             logger.warn("InfluxDB failed to finally store {} points.", pointsQueue.size());
         }
 
@@ -209,14 +256,43 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
                 logger.trace("Ignoring item {}, conversion to an InfluxDB point failed.", item.getName());
                 return;
             }
-            if (pointsQueue.offer(point)) {
+            if (enqueue(point)) {
                 logger.trace("Queued {} for item {}", point, item);
             } else {
-                logger.warn("Failed to queue {} for item {}", point, item);
+                logger.debug("Failed to queue {} for item {}, queue is full", point, item);
             }
         });
     }
 
+    private boolean enqueue(InfluxPoint point) {
+        switch (configuration.getOverflowPolicy()) {
+            case BLOCK:
+                try {
+                    if (pointsQueue.offer(point, BLOCK_TIMEOUT, TimeUnit.SECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                break;
+            case DROP_OLDEST:
+                while (!pointsQueue.offer(point)) {
+                    if (pointsQueue.poll() != null) {
+                        droppedPoints.incrementAndGet();
+                    }
+                }
+                return true;
+            case DROP_NEWEST:
+            default:
+                if (pointsQueue.offer(point)) {
+                    return true;
+                }
+                break;
+        }
+        droppedPoints.incrementAndGet();
+        return false;
+    }
+
     @Override
     public boolean remove(FilterCriteria filter) throws IllegalArgumentException {
         if (serviceActivated && checkConnection()) {
@@ -243,7 +319,13 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
                 return List.of();
             }
 
-            List<InfluxDBRepository.InfluxRow> results = influxDBRepository.query(filter,
+            FilterCriteria queryFilter = filter;
+            if (filter instanceof InfluxDBFilterCriteria influxFilter && influxFilter.getWindowSeconds() > 0
+                    && !isDownsamplingSupported(influxFilter.getItemName())) {
+                logger.debug("Downsampling is not supported for item {}, querying all points.", filter.getItemName());
+                queryFilter = influxFilter.toRawCriteria();
+            }
+            List<InfluxDBRepository.InfluxRow> results = influxDBRepository.query(queryFilter,
                     configuration.getRetentionPolicy());
             return results.stream().map(this::mapRowToHistoricItem).collect(Collectors.toList());
         } else {
@@ -252,6 +334,15 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
         }
     }
 
+    private boolean isDownsamplingSupported(@Nullable String itemName) {
+        Item item = itemName != null ? itemRegistry.get(itemName) : null;
+        if (item instanceof GroupItem groupItem) {
+            item = groupItem.getBaseItem();
+        }
+        return item instanceof NumberItem || item instanceof RollershutterItem
+                || (item instanceof DimmerItem && !(item instanceof ColorItem));
+    }
+
     private HistoricItem mapRowToHistoricItem(InfluxDBRepository.InfluxRow row) {
         State state = InfluxDBStateConvertUtils.objectToState(row.value(), row.itemName(), itemRegistry);
         return new InfluxDBHistoricItem(row.itemName(), state,
@@ -278,17 +369,123 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
         return false;
     }
 
-    private void commit() {
-        if (!pointsQueue.isEmpty() && checkConnection()) {
-            List<InfluxPoint> points = new ArrayList<>();
-            pointsQueue.drainTo(points);
-            if (!influxDBRepository.write(points)) {
-                logger.warn("Re-queuing {} elements, failed to write batch.", points.size());
-                pointsQueue.addAll(points);
-            } else {
-                logger.trace("Wrote {} elements to database", points.size());
+    private synchronized void commit() {
+        InfluxPointSpool spool = pointsSpool;
+        boolean hasSpooledPoints = spool != null && !spool.isEmpty();
+        if (pointsQueue.isEmpty() && !hasSpooledPoints) {
+            reportDroppedPoints();
+            return;
+        }
+
+        List<InfluxPoint> points = new ArrayList<>();
+        pointsQueue.drainTo(points);
+        if (!checkConnection()) {
+            keepPoints(points);
+        } else {
+            if (spool != null && hasSpooledPoints) {
+                replay(spool);
+            }
+            if (spool != null && !spool.isEmpty()) {
+                // keep the order of points by appending them behind the points not replayed yet
+                keepPoints(points);
+            } else if (!points.isEmpty()) {
+                if (influxDBRepository.write(points)) {
+                    logger.trace("Wrote {} elements to database", points.size());
+                } else {
+                    logger.warn("Failed to write batch of {} elements, keeping them for the next attempt.",
+                            points.size());
+                    keepPoints(points);
+                }
             }
         }
+        logger.debug("Queue depth {}, spool size {} bytes ({} points)", pointsQueue.size(), getSpoolSize(),
+                getSpooledPointCount());
+        reportDroppedPoints();
+    }
+
+    private void keepPoints(List<InfluxPoint> points) {
+        if (points.isEmpty()) {
+            return;
+        }
+        InfluxPointSpool spool = pointsSpool;
+        if (spool != null) {
+            spool.append(points);
+            return;
+        }
+
+        // re-queue in front of points stored in the meantime and apply the overflow policy to the excess
+        List<InfluxPoint> pending = new ArrayList<>(points);
+        pointsQueue.drainTo(pending);
+        int excess = pending.size() - configuration.getQueueSize();
+        if (excess > 0) {
+            droppedPoints.addAndGet(excess);
+            pending = configuration.getOverflowPolicy() == OverflowPolicy.DROP_OLDEST
+                    ? pending.subList(excess, pending.size())
+                    : pending.subList(0, configuration.getQueueSize());
+        }
+        for (InfluxPoint point : pending) {
+            if (!pointsQueue.offer(point)) {
+                droppedPoints.incrementAndGet();
+            }
+        }
+    }
+
+    private void replay(InfluxPointSpool spool) {
+        long start = System.nanoTime();
+        int replayed = spool.replay(REPLAY_BATCH_SIZE, influxDBRepository::write);
+        if (replayed > 0) {
+            long elapsed = Math.max(1, System.nanoTime() - start);
+            replayRate = replayed * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+            logger.info("Replayed {} spooled points in {} ms ({} points/s), {} points remaining.", replayed,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), Math.round(replayRate), spool.getPointCount());
+        }
+    }
+
+    private void reportDroppedPoints() {
+        long dropped = getDroppedPointCount();
+        if (dropped > reportedDroppedPoints) {
+            logger.warn("Discarded {} points because the queue or the spool is full.",
+                    dropped - reportedDroppedPoints);
+            reportedDroppedPoints = dropped;
+        }
+    }
+
+    /**
+     * @return the number of points waiting in memory to be written
+     */
+    public int getQueueDepth() {
+        return pointsQueue.size();
+    }
+
+    /**
+     * @return the number of bytes used by the spool, 0 if the spool is disabled
+     */
+    public long getSpoolSize() {
+        InfluxPointSpool spool = pointsSpool;
+        return spool != null ? spool.getSize() : 0;
+    }
+
+    /**
+     * @return the number of points waiting in the spool to be written, 0 if the spool is disabled
+     */
+    public long getSpooledPointCount() {
+        InfluxPointSpool spool = pointsSpool;
+        return spool != null ? spool.getPointCount() : 0;
+    }
+
+    /**
+     * @return the number of points per second written during the last replay of the spool
+     */
+    public double getReplayRate() {
+        return replayRate;
+    }
+
+    /**
+     * @return the number of points discarded because the queue or the spool was full
+     */
+    public long getDroppedPointCount() {
+        InfluxPointSpool spool = pointsSpool;
+        return droppedPoints.get() + (spool != null ? spool.getDroppedCount() : 0);
     }
 
     /**
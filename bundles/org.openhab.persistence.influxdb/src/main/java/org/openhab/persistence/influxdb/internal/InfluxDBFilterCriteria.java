@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.persistence.FilterCriteria;
+
+/**
+ * The {@link InfluxDBFilterCriteria} extends {@link FilterCriteria} with a resolution or point budget for downsampled
+ * queries.
+ *
+ * When a begin date and a resolution or a maximum number of points is set, the time range is divided into windows and
+ * InfluxDB returns one aggregated value per window instead of every stored point. This is only done for numeric items,
+ * for all other items the raw points are returned.
+ *
+ * @author Joan Pujol Espinar - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBFilterCriteria extends FilterCriteria {
+
+    /**
+     * Function used to aggregate all values within one window. All values are timestamped with the start of the
+     * window.
+     */
+    public enum Aggregation {
+        MEAN,
+        MIN,
+        MAX,
+        LAST
+    }
+
+    private @Nullable Duration resolution;
+    private int maxPoints;
+    private Aggregation aggregation = Aggregation.MEAN;
+
+    public @Nullable Duration getResolution() {
+        return resolution;
+    }
+
+    public InfluxDBFilterCriteria setResolution(@Nullable Duration resolution) {
+        this.resolution = resolution;
+        return this;
+    }
+
+    public int getMaxPoints() {
+        return maxPoints;
+    }
+
+    /**
+     * Sets the maximum number of points returned for the time range, 0 for no limit.
+     */
+    public InfluxDBFilterCriteria setMaxPoints(int maxPoints) {
+        this.maxPoints = maxPoints;
+        return this;
+    }
+
+    public Aggregation getAggregation() {
+        return aggregation;
+    }
+
+    public InfluxDBFilterCriteria setAggregation(Aggregation aggregation) {
+        this.aggregation = aggregation;
+        return this;
+    }
+
+    /**
+     * Calculates the length of the aggregation windows. If both a resolution and a maximum number of points are set,
+     * the longer window is used.
+     *
+     * @return the window length in seconds, or 0 if the query is not downsampled
+     */
+    public long getWindowSeconds() {
+        ZonedDateTime begin = getBeginDate();
+        if (begin == null) {
+            return 0;
+        }
+        long seconds = 0;
+        Duration resolution = this.resolution;
+        if (resolution != null && !resolution.isNegative() && !resolution.isZero()) {
+            seconds = Math.max(1, (resolution.toMillis() + 999) / 1000);
+        }
+        if (maxPoints > 0) {
+            ZonedDateTime end = Objects.requireNonNullElse(getEndDate(), ZonedDateTime.now());
+            long rangeSeconds = Math.max(0, Duration.between(begin, end).toSeconds());
+            seconds = Math.max(seconds, Math.max(1, (rangeSeconds + maxPoints - 1) / maxPoints));
+        }
+        return seconds;
+    }
+
+    /**
+     * Creates a copy of this filter without downsampling.
+     */
+    public FilterCriteria toRawCriteria() {
+        FilterCriteria criteria = new FilterCriteria();
+        criteria.setItemName(getItemName());
+        criteria.setBeginDate(getBeginDate());
+        criteria.setEndDate(getEndDate());
+        criteria.setPageNumber(getPageNumber());
+        criteria.setPageSize(getPageSize());
+        criteria.setOperator(getOperator());
+        criteria.setOrdering(getOrdering());
+        criteria.setState(getState());
+        return criteria;
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + " [resolution=" + resolution + ", maxPoints=" + maxPoints + ", aggregation="
+                + aggregation + "]";
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.FIELD_VALUE_NAME;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Encodes {@link InfluxPoint}s in the InfluxDB line protocol with millisecond precision
+ *
+ * All points of a batch are written into a single reused buffer, which avoids creating the intermediate point
+ * objects of the client libraries. Field types match those written by the client libraries: decimals are written as
+ * float, other integral numbers as integer.
+ *
+ * @author Joan Pujol Espinar - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxLineProtocolEncoder {
+    // buffers grown beyond this size by an unusually large batch are not kept
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(InfluxLineProtocolEncoder.class);
+
+    private StringBuilder buffer = new StringBuilder(INITIAL_CAPACITY);
+
+    /**
+     * Encodes the points, one line per point. Points whose value cannot be represented are skipped.
+     *
+     * @param points the points to encode
+     * @return the encoded lines, empty if no point could be encoded
+     */
+    public synchronized String encode(List<InfluxPoint> points) {
+        StringBuilder sb = buffer;
+        sb.setLength(0);
+        for (InfluxPoint point : points) {
+            int lineStart = sb.length();
+            if (lineStart > 0) {
+                sb.append('\n');
+            }
+            if (!appendPoint(sb, point)) {
+                logger.warn("Could not convert {}, discarding this datapoint", point);
+                sb.setLength(lineStart);
+            }
+        }
+        String lines = sb.toString();
+        if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+            buffer = new StringBuilder(INITIAL_CAPACITY);
+        }
+        return lines;
+    }
+
+    private boolean appendPoint(StringBuilder sb, InfluxPoint point) {
+        appendEscaped(sb, point.getMeasurementName(), false);
+        for (Map.Entry<String, String> tag : point.getTags().entrySet()) {
+            String value = tag.getValue();
+            if (!tag.getKey().isEmpty() && !value.isEmpty()) {
+                sb.append(',');
+                appendEscaped(sb, tag.getKey(), true);
+                sb.append('=');
+                appendEscaped(sb, value, true);
+            }
+        }
+        sb.append(' ').append(FIELD_VALUE_NAME).append('=');
+        if (!appendValue(sb, point.getValue())) {
+            return false;
+        }
+        sb.append(' ').append(point.getTime().toEpochMilli());
+        return true;
+    }
+
+    private boolean appendValue(StringBuilder sb, @Nullable Object value) {
+        if (value instanceof BigDecimal decimal) {
+            sb.append(decimal.toPlainString());
+        } else if (value instanceof Double || value instanceof Float) {
+            double doubleValue = ((Number) value).doubleValue();
+            if (!Double.isFinite(doubleValue)) {
+                return false;
+            }
+            sb.append(BigDecimal.valueOf(doubleValue).toPlainString());
+        } else if (value instanceof Number number) {
+            sb.append(number.longValue()).append('i');
+        } else if (value instanceof Boolean booleanValue) {
+            sb.append(booleanValue.booleanValue());
+        } else {
+            String string = String.valueOf(value);
+            sb.append('"');
+            for (int i = 0; i < string.length(); i++) {
+                char c = string.charAt(i);
+                if (c == '"' || c == '\\') {
+                    sb.append('\\');
+                }
+                sb.append(c);
+            }
+            sb.append('"');
+        }
+        return true;
+    }
+
+    private static void appendEscaped(StringBuilder sb, String key, boolean escapeEquals) {
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            switch (c) {
+                case '\n':
+                    sb.append("\\n");
+                    continue;
+                case '\r':
+                    sb.append("\\r");
+                    continue;
+                case '\t':
+                    sb.append("\\t");
+                    continue;
+                case ' ':
+                case ',':
+                    sb.append('\\');
+                    break;
+                case '=':
+                    if (escapeEquals) {
+                        sb.append('\\');
+                    }
+                    break;
+                default:
+                    break;
+            }
+            sb.append(c);
+        }
+    }
+}
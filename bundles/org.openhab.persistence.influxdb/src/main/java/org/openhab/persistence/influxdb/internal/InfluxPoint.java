@@ -14,8 +14,8 @@ package org.openhab.persistence.influxdb.internal;
 
 import java.time.Instant;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 import org.eclipse.jdt.annotation.DefaultLocation;
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -63,7 +63,8 @@ public class InfluxPoint {
         private final String measurementName;
         private Instant time;
         private Object value;
-        private final Map<String, String> tags = new HashMap<>();
+        // sorted by key as recommended for the line protocol
+        private final Map<String, String> tags = new TreeMap<>();
 
         private Builder(String measurementName) {
             this.measurementName = measurementName;
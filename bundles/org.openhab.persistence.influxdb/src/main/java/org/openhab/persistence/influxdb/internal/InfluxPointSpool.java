@@ -0,0 +1,398 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only on-disk spool for points that could not be written to InfluxDB
+ *
+ * Points are appended to fixed-size segment files which are written through a memory mapping. Each record consists
+ * of its length followed by the encoded point, a length of zero marks the end of the written part of a segment.
+ * Segments are replayed in the order they were written and deleted as soon as all their points have been written
+ * to the database. Points of a partially replayed segment may be written again after a restart, which is harmless
+ * because InfluxDB overwrites points with the same series and timestamp.
+ *
+ * @author Joan Pujol Espinar - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxPointSpool {
+    static final int SEGMENT_SIZE = 1024 * 1024; // Visible for testing
+    private static final String SEGMENT_FILE_FORMAT = "segment-%019d.spool";
+    private static final Pattern SEGMENT_FILE_PATTERN = Pattern.compile("segment-(\\d{19})\\.spool");
+    private static final int LENGTH_BYTES = Integer.BYTES;
+
+    private static final byte TYPE_STRING = 0;
+    private static final byte TYPE_DECIMAL = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_INTEGER = 3;
+    private static final byte TYPE_DOUBLE = 4;
+    private static final byte TYPE_BOOLEAN = 5;
+
+    private final Logger logger = LoggerFactory.getLogger(InfluxPointSpool.class);
+
+    private final Path directory;
+    private final int maxSegments;
+    private final OverflowPolicy overflowPolicy;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+
+    private @Nullable MappedByteBuffer writeBuffer;
+    private @Nullable ByteBuffer readBuffer;
+    private int readOffset;
+    private long nextSequence;
+    private long droppedCount;
+
+    /**
+     * Opens the spool and recovers the points left in the given directory.
+     *
+     * @param directory the directory holding the segment files
+     * @param maxSize the maximum size of all segment files in bytes
+     * @param overflowPolicy {@link OverflowPolicy#DROP_OLDEST} discards the oldest segment when the spool is full,
+     *            all other policies discard the points being appended
+     * @throws IOException if the directory cannot be created or read
+     */
+    public InfluxPointSpool(Path directory, long maxSize, OverflowPolicy overflowPolicy) throws IOException {
+        this.directory = directory;
+        this.maxSegments = (int) Math.min(Integer.MAX_VALUE, Math.max(2, maxSize / SEGMENT_SIZE));
+        this.overflowPolicy = overflowPolicy;
+
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(InfluxPointSpool::isSegmentFile).sorted().toList();
+        }
+        for (Path file : files) {
+            Matcher matcher = SEGMENT_FILE_PATTERN.matcher(file.getFileName().toString());
+            if (matcher.matches()) {
+                nextSequence = Long.parseLong(matcher.group(1)) + 1;
+            }
+            Segment segment = new Segment(file);
+            scan(ByteBuffer.wrap(Files.readAllBytes(file)), segment);
+            if (segment.pointCount > 0) {
+                segments.addLast(segment);
+            } else {
+                delete(file);
+            }
+        }
+        if (!segments.isEmpty()) {
+            logger.info("Found {} spooled points in {}, they will be written when InfluxDB is available.",
+                    getPointCount(), directory);
+        }
+    }
+
+    /**
+     * Appends points to the spool and flushes them to disk.
+     *
+     * @param points the points to append in the order they should be replayed
+     * @return the number of points appended, all others have been discarded
+     */
+    public synchronized int append(List<InfluxPoint> points) {
+        int appended = 0;
+        try {
+            for (InfluxPoint point : points) {
+                byte[] record = encode(point);
+                if (LENGTH_BYTES + record.length > SEGMENT_SIZE - LENGTH_BYTES) {
+                    logger.warn("Point {} is too large to be spooled, discarding it.", point);
+                    continue;
+                }
+                MappedByteBuffer buffer = writeBuffer;
+                Segment tail = segments.peekLast();
+                if (buffer == null || tail == null
+                        || tail.size + LENGTH_BYTES + record.length > SEGMENT_SIZE - LENGTH_BYTES) {
+                    buffer = startSegment();
+                    tail = segments.peekLast();
+                    if (buffer == null || tail == null) {
+                        logger.debug("Spool is full, discarding {}", point);
+                        continue;
+                    }
+                }
+                // the length is written last, so a partially written record is never read
+                buffer.put(tail.size + LENGTH_BYTES, record);
+                buffer.putInt(tail.size, record.length);
+                tail.size += LENGTH_BYTES + record.length;
+                tail.pointCount++;
+                appended++;
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to spool points to {}: {}", directory, e.getMessage());
+        }
+        MappedByteBuffer buffer = writeBuffer;
+        if (buffer != null) {
+            buffer.force();
+        }
+        droppedCount += points.size() - appended;
+        return appended;
+    }
+
+    /**
+     * Replays the spooled points in the order they were appended.
+     *
+     * @param batchSize the maximum number of points passed to the writer at once
+     * @param writer writes a batch of points and returns <code>true</code> on success
+     * @return the number of points written, replaying stops at the first batch that could not be written
+     */
+    public synchronized int replay(int batchSize, Predicate<List<InfluxPoint>> writer) {
+        int replayed = 0;
+        List<InfluxPoint> batch = new ArrayList<>(batchSize);
+        try {
+            while (!segments.isEmpty()) {
+                Segment head = segments.getFirst();
+                boolean isWriteSegment = head == segments.getLast() && writeBuffer != null;
+                ByteBuffer buffer = isWriteSegment ? writeBuffer : readBuffer;
+                if (buffer == null) {
+                    buffer = ByteBuffer.wrap(Files.readAllBytes(head.file));
+                    readBuffer = buffer;
+                }
+                int offset = readOffset;
+                while (batch.size() < batchSize && offset < head.size) {
+                    int length = buffer.getInt(offset);
+                    batch.add(decode(buffer.slice(offset + LENGTH_BYTES, length)));
+                    offset += LENGTH_BYTES + length;
+                }
+                if (!batch.isEmpty()) {
+                    if (!writer.test(batch)) {
+                        break;
+                    }
+                    replayed += batch.size();
+                    head.pointCount -= batch.size();
+                    readOffset = offset;
+                    batch.clear();
+                }
+                if (offset >= head.size) {
+                    if (isWriteSegment) {
+                        // keep appending to the current segment
+                        break;
+                    }
+                    segments.removeFirst();
+                    delete(head.file);
+                    readBuffer = null;
+                    readOffset = 0;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to replay spooled points from {}: {}", directory, e.getMessage());
+        }
+        return replayed;
+    }
+
+    /**
+     * Flushes the spool to disk and removes segments which have been replayed completely.
+     */
+    public synchronized void close() {
+        MappedByteBuffer buffer = writeBuffer;
+        if (buffer != null) {
+            buffer.force();
+            writeBuffer = null;
+        }
+        segments.removeIf(segment -> {
+            if (segment.pointCount == 0) {
+                delete(segment.file);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    public synchronized boolean isEmpty() {
+        return getPointCount() == 0;
+    }
+
+    /**
+     * @return the number of points waiting to be replayed
+     */
+    public synchronized long getPointCount() {
+        return segments.stream().mapToLong(segment -> segment.pointCount).sum();
+    }
+
+    /**
+     * @return the number of bytes used by all segment files
+     */
+    public synchronized long getSize() {
+        return segments.stream().mapToLong(segment -> segment.size).sum();
+    }
+
+    /**
+     * @return the number of points discarded because the spool was full or the point could not be written
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    private @Nullable MappedByteBuffer startSegment() throws IOException {
+        writeBuffer = null;
+        if (segments.size() >= maxSegments) {
+            if (overflowPolicy != OverflowPolicy.DROP_OLDEST) {
+                return null;
+            }
+            Segment oldest = segments.removeFirst();
+            logger.warn("Spool is full, discarding {} oldest spooled points.", oldest.pointCount);
+            droppedCount += oldest.pointCount;
+            delete(oldest.file);
+            readBuffer = null;
+            readOffset = 0;
+        }
+        Path file = directory.resolve(String.format(SEGMENT_FILE_FORMAT, nextSequence++));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+            segments.addLast(new Segment(file));
+            writeBuffer = buffer;
+            return buffer;
+        }
+    }
+
+    private void scan(ByteBuffer buffer, Segment segment) {
+        int offset = 0;
+        while (offset + LENGTH_BYTES <= buffer.limit()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || length > buffer.limit() - offset - LENGTH_BYTES) {
+                break;
+            }
+            try {
+                decode(buffer.slice(offset + LENGTH_BYTES, length));
+            } catch (RuntimeException e) {
+                logger.warn("Ignoring corrupt spool segment {} after {} points.", segment.file, segment.pointCount);
+                break;
+            }
+            offset += LENGTH_BYTES + length;
+            segment.pointCount++;
+        }
+        segment.size = offset;
+    }
+
+    private byte[] encode(InfluxPoint point) throws IOException {
+        recordBytes.reset();
+        DataOutputStream out = new DataOutputStream(recordBytes);
+        writeString(out, point.getMeasurementName());
+        out.writeLong(point.getTime().getEpochSecond());
+        out.writeInt(point.getTime().getNano());
+        Object value = point.getValue();
+        if (value instanceof BigDecimal decimal) {
+            out.writeByte(TYPE_DECIMAL);
+            writeString(out, decimal.toString());
+        } else if (value instanceof Long longValue) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong(longValue);
+        } else if (value instanceof Integer intValue) {
+            out.writeByte(TYPE_INTEGER);
+            out.writeInt(intValue);
+        } else if (value instanceof Double doubleValue) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble(doubleValue);
+        } else if (value instanceof Boolean booleanValue) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean(booleanValue);
+        } else {
+            out.writeByte(TYPE_STRING);
+            writeString(out, String.valueOf(value));
+        }
+        Map<String, String> tags = point.getTags();
+        out.writeInt(tags.size());
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            writeString(out, tag.getKey());
+            writeString(out, tag.getValue());
+        }
+        out.flush();
+        return recordBytes.toByteArray();
+    }
+
+    private static InfluxPoint decode(ByteBuffer buffer) {
+        InfluxPoint.Builder builder = InfluxPoint.newBuilder(readString(buffer));
+        long epochSecond = buffer.getLong();
+        builder.withTime(Instant.ofEpochSecond(epochSecond, buffer.getInt()));
+        byte type = buffer.get();
+        Object value = switch (type) {
+            case TYPE_DECIMAL -> new BigDecimal(readString(buffer));
+            case TYPE_LONG -> buffer.getLong();
+            case TYPE_INTEGER -> buffer.getInt();
+            case TYPE_DOUBLE -> buffer.getDouble();
+            case TYPE_BOOLEAN -> buffer.get() != 0;
+            case TYPE_STRING -> readString(buffer);
+            default -> throw new IllegalArgumentException("Unknown value type " + type);
+        };
+        builder.withValue(value);
+        int tagCount = buffer.getInt();
+        for (int i = 0; i < tagCount; i++) {
+            String name = readString(buffer);
+            builder.withTag(name, readString(buffer));
+        }
+        return builder.build();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isSegmentFile(Path file) {
+        return SEGMENT_FILE_PATTERN.matcher(file.getFileName().toString()).matches();
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // a segment that is still mapped cannot be deleted on some platforms, it is replayed again on next start
+            logger.debug("Failed to delete spool segment {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static class Segment {
+        private final Path file;
+        private int size;
+        private int pointCount;
+
+        Segment(Path file) {
+            this.file = file;
+        }
+    }
+}
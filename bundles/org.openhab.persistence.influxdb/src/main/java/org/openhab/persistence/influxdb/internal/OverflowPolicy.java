@@ -0,0 +1,30 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Defines what happens when a point is stored while the write queue or the spool is full
+ *
+ * @author Joan Pujol Espinar - Initial contribution
+ */
+@NonNullByDefault
+public enum OverflowPolicy {
+    /** Discard the point being stored */
+    DROP_NEWEST,
+    /** Discard the oldest queued point to make room */
+    DROP_OLDEST,
+    /** Wait for a limited time until there is room in the queue, then discard the point being stored */
+    BLOCK
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal.console;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.io.console.Console;
+import org.openhab.core.io.console.ConsoleCommandCompleter;
+import org.openhab.core.io.console.StringsCompleter;
+import org.openhab.core.io.console.extensions.AbstractConsoleCommandExtension;
+import org.openhab.core.io.console.extensions.ConsoleCommandExtension;
+import org.openhab.core.items.Item;
+import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.core.persistence.PersistenceService;
+import org.openhab.core.persistence.PersistenceServiceRegistry;
+import org.openhab.persistence.influxdb.InfluxDBPersistenceService;
+import org.openhab.persistence.influxdb.internal.InfluxDBFilterCriteria;
+import org.openhab.persistence.influxdb.internal.InfluxDBFilterCriteria.Aggregation;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+/**
+ * The {@link InfluxDBCommandExtension} is responsible for handling console commands
+ *
+ * @author Joan Pujol Espinar - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = ConsoleCommandExtension.class)
+public class InfluxDBCommandExtension extends AbstractConsoleCommandExtension implements ConsoleCommandCompleter {
+
+    private static final String CMD_QUERY = "query";
+    private static final String CMD_QUEUE = "queue";
+    private static final StringsCompleter CMD_COMPLETER = new StringsCompleter(List.of(CMD_QUERY, CMD_QUEUE), false);
+
+    private final PersistenceServiceRegistry persistenceServiceRegistry;
+    private final ItemRegistry itemRegistry;
+
+    @Activate
+    public InfluxDBCommandExtension(final @Reference PersistenceServiceRegistry persistenceServiceRegistry,
+            final @Reference ItemRegistry itemRegistry) {
+        super(InfluxDBPersistenceService.SERVICE_NAME, "Interact with the InfluxDB persistence service.");
+        this.persistenceServiceRegistry = persistenceServiceRegistry;
+        this.itemRegistry = itemRegistry;
+    }
+
+    @Override
+    public void execute(String[] args, Console console) {
+        InfluxDBPersistenceService persistenceService = getPersistenceService();
+        if (persistenceService == null) {
+            console.println("No InfluxDB persistence service installed.");
+            return;
+        }
+        if (args.length >= 3 && args.length <= 5 && CMD_QUERY.equalsIgnoreCase(args[0])
+                && query(persistenceService, console, args)) {
+            return;
+        } else if (args.length == 1 && CMD_QUEUE.equalsIgnoreCase(args[0])) {
+            showQueueStatistics(persistenceService, console);
+            return;
+        }
+        printUsage(console);
+    }
+
+    private @Nullable InfluxDBPersistenceService getPersistenceService() {
+        for (PersistenceService persistenceService : persistenceServiceRegistry.getAll()) {
+            if (persistenceService instanceof InfluxDBPersistenceService service) {
+                return service;
+            }
+        }
+        return null;
+    }
+
+    private boolean query(InfluxDBPersistenceService persistenceService, Console console, String[] args) {
+        InfluxDBFilterCriteria filter = new InfluxDBFilterCriteria();
+        try {
+            long hours = Long.parseLong(args[2]);
+            filter.setBeginDate(ZonedDateTime.now().minusHours(hours));
+            if (args.length >= 4) {
+                filter.setResolution(Duration.ofSeconds(Long.parseLong(args[3])));
+            }
+            if (args.length == 5) {
+                filter.setAggregation(Aggregation.valueOf(args[4].toUpperCase(Locale.ROOT)));
+            }
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        filter.setItemName(args[1]);
+        filter.setOrdering(Ordering.ASCENDING);
+        int count = 0;
+        for (HistoricItem historicItem : persistenceService.query(filter)) {
+            console.println(historicItem.getTimestamp() + "  " + historicItem.getState());
+            count++;
+        }
+        console.println(count + " values");
+        return true;
+    }
+
+    private void showQueueStatistics(InfluxDBPersistenceService persistenceService, Console console) {
+        console.println(String.format("Queue depth:         %d", persistenceService.getQueueDepth()));
+        console.println(String.format("Spooled points:      %d", persistenceService.getSpooledPointCount()));
+        console.println(String.format("Spool size:          %d bytes", persistenceService.getSpoolSize()));
+        console.println(String.format("Last replay rate:    %.0f points/s", persistenceService.getReplayRate()));
+        console.println(String.format("Points dropped:      %d", persistenceService.getDroppedPointCount()));
+    }
+
+    @Override
+    public List<String> getUsages() {
+        return List.of(
+                buildCommandUsage(CMD_QUERY + " <itemName> <hours> [<resolution> [MEAN|MIN|MAX|LAST]]",
+                        "show values of the last hours, aggregated per resolution seconds"),
+                buildCommandUsage(CMD_QUEUE, "show write queue and spool statistics"));
+    }
+
+    @Override
+    public @Nullable ConsoleCommandCompleter getCompleter() {
+        return this;
+    }
+
+    @Override
+    public boolean complete(String[] args, int cursorArgumentIndex, int cursorPosition, List<String> candidates) {
+        if (cursorArgumentIndex <= 0) {
+            return CMD_COMPLETER.complete(args, cursorArgumentIndex, cursorPosition, candidates);
+        } else if (cursorArgumentIndex == 1 && CMD_QUERY.equalsIgnoreCase(args[0])) {
+            return new StringsCompleter(itemRegistry.getItems().stream().map(Item::getName).toList(), true)
+                    .complete(args, cursorArgumentIndex, cursorPosition, candidates);
+        }
+        return false;
+    }
+}
@@ -16,6 +16,8 @@ import static org.influxdb.querybuilder.BuiltQuery.QueryBuilder.*;
 import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.*;
 import static org.openhab.persistence.influxdb.internal.InfluxDBStateConvertUtils.stateToObject;
 
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
 import java.util.Objects;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -29,6 +31,7 @@ import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.types.State;
 import org.openhab.persistence.influxdb.internal.FilterCriteriaQueryCreator;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
+import org.openhab.persistence.influxdb.internal.InfluxDBFilterCriteria;
 import org.openhab.persistence.influxdb.internal.InfluxDBMetadataService;
 import org.openhab.persistence.influxdb.internal.InfluxDBVersion;
 
@@ -55,6 +58,10 @@ public class InfluxDB1FilterCriteriaQueryCreatorImpl implements FilterCriteriaQu
         final String tableName = getTableName(itemName);
         final boolean hasCriteriaName = itemName != null;
 
+        if (criteria instanceof InfluxDBFilterCriteria influxCriteria && influxCriteria.getWindowSeconds() > 0) {
+            return createDownsampledQuery(influxCriteria, retentionPolicy, itemName, tableName);
+        }
+
         Select select = select().column("\"" + COLUMN_VALUE_NAME_V1 + "\"::field")
                 .column("\"" + TAG_ITEM_NAME + "\"::tag")
                 .fromRaw(null, fullQualifiedTableName(retentionPolicy, tableName, hasCriteriaName));
@@ -94,6 +101,61 @@ public class InfluxDB1FilterCriteriaQueryCreatorImpl implements FilterCriteriaQu
         return ((Query) select).getCommand();
     }
 
+    /**
+     * Creates a query returning one aggregated value per time window. The query is written by hand because the query
+     * builder does not support aliases for functions.
+     */
+    private String createDownsampledQuery(InfluxDBFilterCriteria criteria, String retentionPolicy, String itemName,
+            String tableName) {
+        StringBuilder query = new StringBuilder("SELECT ");
+        query.append(criteria.getAggregation().name()).append("(\"").append(COLUMN_VALUE_NAME_V1).append("\") AS \"")
+                .append(COLUMN_VALUE_NAME_V1).append("\" FROM ")
+                .append(fullQualifiedTableName(retentionPolicy, tableName, true));
+
+        query.append(" WHERE ").append(COLUMN_TIME_NAME_V1).append(" >= '")
+                .append(Objects.requireNonNull(criteria.getBeginDate()).toInstant()).append('\'');
+        ZonedDateTime endDate = criteria.getEndDate();
+        if (endDate != null) {
+            query.append(" AND ").append(COLUMN_TIME_NAME_V1).append(" <= '").append(endDate.toInstant()).append('\'');
+        }
+        if (!tableName.equals(itemName)) {
+            query.append(" AND \"").append(TAG_ITEM_NAME).append("\" = ").append(toLiteral(itemName));
+        }
+        State filterState = criteria.getState();
+        FilterCriteria.Operator operator = criteria.getOperator();
+        if (filterState != null && operator != null) {
+            query.append(" AND \"").append(COLUMN_VALUE_NAME_V1).append("\" ")
+                    .append(getOperationSymbol(operator, InfluxDBVersion.V1)).append(' ')
+                    .append(toLiteral(stateToObject(filterState)));
+        }
+
+        // grouping by the item tag returns it with each series
+        query.append(" GROUP BY time(").append(criteria.getWindowSeconds()).append("s),\"").append(TAG_ITEM_NAME)
+                .append("\" fill(none)");
+
+        if (criteria.getOrdering() == FilterCriteria.Ordering.DESCENDING) {
+            query.append(" ORDER BY time DESC");
+        } else if (criteria.getOrdering() == FilterCriteria.Ordering.ASCENDING) {
+            query.append(" ORDER BY time ASC");
+        }
+        if (criteria.getPageSize() != Integer.MAX_VALUE) {
+            query.append(" LIMIT ").append(criteria.getPageSize());
+            if (criteria.getPageNumber() != 0) {
+                query.append(" OFFSET ").append((long) criteria.getPageSize() * criteria.getPageNumber());
+            }
+        }
+        return query.append(';').toString();
+    }
+
+    private static String toLiteral(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        } else if (value instanceof Number) {
+            return value.toString();
+        }
+        return "'" + value.toString().replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
+
     private String getTableName(@Nullable String itemName) {
         if (itemName == null) {
             return "/.*/";
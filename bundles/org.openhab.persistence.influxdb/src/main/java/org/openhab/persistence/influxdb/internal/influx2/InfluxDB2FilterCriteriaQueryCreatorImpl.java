@@ -18,6 +18,9 @@ import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.*;
 import static org.openhab.persistence.influxdb.internal.InfluxDBStateConvertUtils.stateToObject;
 
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -25,6 +28,7 @@ import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.types.State;
 import org.openhab.persistence.influxdb.internal.FilterCriteriaQueryCreator;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
+import org.openhab.persistence.influxdb.internal.InfluxDBFilterCriteria;
 import org.openhab.persistence.influxdb.internal.InfluxDBMetadataService;
 import org.openhab.persistence.influxdb.internal.InfluxDBVersion;
 
@@ -65,17 +69,28 @@ public class InfluxDB2FilterCriteriaQueryCreatorImpl implements FilterCriteriaQu
         }
         flux = range;
 
+        long windowSeconds = criteria instanceof InfluxDBFilterCriteria influxCriteria
+                ? influxCriteria.getWindowSeconds()
+                : 0;
+
         String itemName = Objects.requireNonNull(criteria.getItemName()); // we checked non-null before
         String name = influxDBMetadataService.getMeasurementNameOrDefault(itemName, itemName);
         String measurementName = configuration.isReplaceUnderscore() ? name.replace('_', '.') : name;
         flux = flux.filter(measurement().equal(measurementName));
+        List<String> columns = new ArrayList<>();
+        columns.add(FIELD_MEASUREMENT_NAME);
+        if (windowSeconds > 0) {
+            // aggregateWindow() needs the window bounds of the range
+            columns.add(COLUMN_START_NAME_V2);
+            columns.add(COLUMN_STOP_NAME_V2);
+        }
+        columns.add(COLUMN_TIME_NAME_V2);
+        columns.add(COLUMN_VALUE_NAME_V2);
         if (!measurementName.equals(itemName)) {
             flux = flux.filter(tag(TAG_ITEM_NAME).equal(itemName));
-            flux = flux.keep(
-                    new String[] { FIELD_MEASUREMENT_NAME, COLUMN_TIME_NAME_V2, COLUMN_VALUE_NAME_V2, TAG_ITEM_NAME });
-        } else {
-            flux = flux.keep(new String[] { FIELD_MEASUREMENT_NAME, COLUMN_TIME_NAME_V2, COLUMN_VALUE_NAME_V2 });
+            columns.add(TAG_ITEM_NAME);
         }
+        flux = flux.keep(columns.toArray(String[]::new));
 
         State filterState = criteria.getState();
         if (filterState != null && criteria.getOperator() != null) {
@@ -85,6 +100,12 @@ public class InfluxDB2FilterCriteriaQueryCreatorImpl implements FilterCriteriaQu
             flux = flux.filter(restrictions);
         }
 
+        if (windowSeconds > 0) {
+            String function = ((InfluxDBFilterCriteria) criteria).getAggregation().name().toLowerCase(Locale.ROOT);
+            flux = flux.aggregateWindow(windowSeconds, ChronoUnit.SECONDS, function)
+                    .withPropertyValue("createEmpty", false).withPropertyValueEscaped("timeSrc", COLUMN_START_NAME_V2);
+        }
+
         flux = applyOrderingAndPageSize(criteria, flux);
 
         return flux.toString();
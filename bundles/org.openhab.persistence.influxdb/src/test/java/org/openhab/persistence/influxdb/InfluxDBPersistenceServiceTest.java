@@ -12,31 +12,50 @@
  */
 package org.openhab.persistence.influxdb;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.openhab.persistence.influxdb.internal.InfluxDBConfiguration.DATABASE_PARAM;
 import static org.openhab.persistence.influxdb.internal.InfluxDBConfiguration.PASSWORD_PARAM;
 import static org.openhab.persistence.influxdb.internal.InfluxDBConfiguration.RETENTION_POLICY_PARAM;
+import static org.openhab.persistence.influxdb.internal.InfluxDBConfiguration.SPOOL_PARAM;
 import static org.openhab.persistence.influxdb.internal.InfluxDBConfiguration.TOKEN_PARAM;
 import static org.openhab.persistence.influxdb.internal.InfluxDBConfiguration.URL_PARAM;
 import static org.openhab.persistence.influxdb.internal.InfluxDBConfiguration.USER_PARAM;
 import static org.openhab.persistence.influxdb.internal.InfluxDBConfiguration.VERSION_PARAM;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.items.ItemRegistry;
 import org.openhab.core.items.MetadataRegistry;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.items.SwitchItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.persistence.influxdb.internal.InfluxDBFilterCriteria;
 import org.openhab.persistence.influxdb.internal.InfluxDBMetadataService;
 import org.openhab.persistence.influxdb.internal.InfluxDBRepository;
+import org.openhab.persistence.influxdb.internal.InfluxDBRepository.InfluxRow;
 import org.openhab.persistence.influxdb.internal.InfluxDBVersion;
+import org.openhab.persistence.influxdb.internal.InfluxPoint;
 import org.openhab.persistence.influxdb.internal.ItemTestHelper;
 import org.openhab.persistence.influxdb.internal.UnexpectedConditionException;
 
@@ -75,6 +94,7 @@ public class InfluxDBPersistenceServiceTest {
             RETENTION_POLICY_PARAM, "default");
 
     private @Mock @NonNullByDefault({}) InfluxDBRepository influxDBRepositoryMock;
+    private @TempDir @NonNullByDefault({}) Path spoolDirectory;
 
     private final InfluxDBMetadataService influxDBMetadataService = new InfluxDBMetadataService(
             mock(MetadataRegistry.class));
@@ -124,12 +144,90 @@ public class InfluxDBPersistenceServiceTest {
         verify(influxDBRepositoryMock, never()).write(any());
     }
 
+    @Test
+    public void pointsStoredWhileDisconnectedAreSpooledAndReplayedAfterRestart()
+            throws UnexpectedConditionException, InterruptedException {
+        Map<String, Object> config = new HashMap<>(VALID_V2_CONFIGURATION);
+        config.put(SPOOL_PARAM, true);
+        InfluxDBPersistenceService instance = getService(config);
+        when(influxDBRepositoryMock.isConnected()).thenReturn(false);
+        instance.store(ItemTestHelper.createNumberItem("number", 5));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (instance.getQueueDepth() + instance.getSpooledPointCount() == 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        instance.deactivate();
+        verify(influxDBRepositoryMock, never()).write(any());
+
+        when(influxDBRepositoryMock.isConnected()).thenReturn(true);
+        when(influxDBRepositoryMock.write(any())).thenReturn(true);
+        InfluxDBPersistenceService restarted = getService(config);
+        assertThat(restarted.getSpooledPointCount(), is(1L));
+        verify(influxDBRepositoryMock, timeout(5000)).write(argThat((List<InfluxPoint> points) -> points.size() == 1
+                && "number".equals(points.get(0).getMeasurementName())));
+        restarted.deactivate();
+    }
+
+    @Test
+    public void downsampledQueryOfNumberItemIsAggregated() throws ItemNotFoundException {
+        NumberItem item = ItemTestHelper.createNumberItem("number", 5);
+        ItemRegistry itemRegistry = mock(ItemRegistry.class);
+        when(itemRegistry.get("number")).thenReturn(item);
+        when(itemRegistry.getItem("number")).thenReturn(item);
+        when(influxDBRepositoryMock.isConnected()).thenReturn(true);
+        when(influxDBRepositoryMock.query(any(), any()))
+                .thenReturn(List.of(new InfluxRow(Instant.ofEpochSecond(3600), "number", 5.0)));
+        InfluxDBPersistenceService instance = getService(VALID_V2_CONFIGURATION, itemRegistry);
+
+        List<HistoricItem> result = new ArrayList<>();
+        instance.query(downsampledCriteria("number")).forEach(result::add);
+
+        assertThat(result.size(), is(1));
+        assertThat(result.get(0).getState(), is(new DecimalType(5.0)));
+        verify(influxDBRepositoryMock).query(argThat(filter -> filter instanceof InfluxDBFilterCriteria), any());
+        instance.deactivate();
+    }
+
+    @Test
+    public void downsampledQueryOfUnsupportedItemReturnsAllPoints() {
+        ItemRegistry itemRegistry = mock(ItemRegistry.class);
+        when(itemRegistry.get("switch")).thenReturn(new SwitchItem("switch"));
+        when(influxDBRepositoryMock.isConnected()).thenReturn(true);
+        when(influxDBRepositoryMock.query(any(), any())).thenReturn(List.of());
+        InfluxDBPersistenceService instance = getService(VALID_V2_CONFIGURATION, itemRegistry);
+
+        instance.query(downsampledCriteria("switch"));
+
+        verify(influxDBRepositoryMock).query(
+                argThat(filter -> !(filter instanceof InfluxDBFilterCriteria) && "switch".equals(filter.getItemName())),
+                any());
+        instance.deactivate();
+    }
+
+    private InfluxDBFilterCriteria downsampledCriteria(String itemName) {
+        InfluxDBFilterCriteria criteria = new InfluxDBFilterCriteria();
+        criteria.setItemName(itemName);
+        criteria.setBeginDate(ZonedDateTime.now().minusDays(1));
+        criteria.setResolution(Duration.ofHours(1));
+        return criteria;
+    }
+
     private InfluxDBPersistenceService getService(Map<String, Object> config) {
-        return new InfluxDBPersistenceService(mock(ItemRegistry.class), influxDBMetadataService, config) {
+        return getService(config, mock(ItemRegistry.class));
+    }
+
+    private InfluxDBPersistenceService getService(Map<String, Object> config, ItemRegistry itemRegistry) {
+        return new InfluxDBPersistenceService(itemRegistry, influxDBMetadataService, config) {
             @Override
             protected InfluxDBRepository createInfluxDBRepository() {
                 return influxDBRepositoryMock;
             }
+
+            @Override
+            protected Path getSpoolDirectory() {
+                return spoolDirectory;
+            }
         };
     }
 }
@@ -16,6 +16,7 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -227,4 +228,60 @@ public class InfluxFilterCriteriaQueryCreatorImplTest {
                 \t|> keep(columns:["_measurement", "_time", "_value"])
                 \t|> sort(desc:true, columns:["_time"])"""));
     }
+
+    @Test
+    public void testDownsampledQuery() {
+        ZonedDateTime end = ZonedDateTime.now();
+        ZonedDateTime begin = end.minusDays(1);
+        InfluxDBFilterCriteria criteria = new InfluxDBFilterCriteria().setResolution(Duration.ofMinutes(1));
+        criteria.setItemName(ITEM_NAME);
+        criteria.setBeginDate(begin);
+        criteria.setEndDate(end);
+
+        String queryV1 = instanceV1.createQuery(criteria, RETENTION_POLICY);
+        assertThat(queryV1, equalTo(String.format(
+                "SELECT MEAN(\"value\") AS \"value\" FROM \"origin\".\"sampleItem\" WHERE time >= '%s' AND time <= '%s' GROUP BY time(60s),\"item\" fill(none) ORDER BY time DESC;",
+                begin.toInstant(), end.toInstant())));
+
+        String queryV2 = instanceV2.createQuery(criteria, RETENTION_POLICY);
+        assertThat(queryV2, equalTo(String.format("""
+                from(bucket:"origin")
+                \t|> range(start:%s, stop:%s)
+                \t|> filter(fn: (r) => r["_measurement"] == "sampleItem")
+                \t|> keep(columns:["_measurement", "_start", "_stop", "_time", "_value"])
+                \t|> aggregateWindow(every:60s, fn:mean, createEmpty:false, timeSrc:"_start")
+                \t|> sort(desc:true, columns:["_time"])""", INFLUX2_DATE_FORMATTER.format(begin.toInstant()),
+                INFLUX2_DATE_FORMATTER.format(end.toInstant()))));
+    }
+
+    @Test
+    public void testDownsampledQueryWithPointBudgetAndValueFilter() {
+        ZonedDateTime end = ZonedDateTime.now();
+        ZonedDateTime begin = end.minusDays(1);
+        InfluxDBFilterCriteria criteria = new InfluxDBFilterCriteria().setMaxPoints(288)
+                .setAggregation(InfluxDBFilterCriteria.Aggregation.MAX);
+        criteria.setItemName(ITEM_NAME);
+        criteria.setBeginDate(begin);
+        criteria.setEndDate(end);
+        criteria.setOrdering(FilterCriteria.Ordering.ASCENDING);
+        criteria.setOperator(FilterCriteria.Operator.GT);
+        criteria.setState(new PercentType(10));
+        criteria.setPageSize(100);
+
+        String queryV1 = instanceV1.createQuery(criteria, RETENTION_POLICY);
+        assertThat(queryV1, equalTo(String.format(
+                "SELECT MAX(\"value\") AS \"value\" FROM \"origin\".\"sampleItem\" WHERE time >= '%s' AND time <= '%s' AND \"value\" > 10 GROUP BY time(300s),\"item\" fill(none) ORDER BY time ASC LIMIT 100;",
+                begin.toInstant(), end.toInstant())));
+    }
+
+    @Test
+    public void testResolutionWithoutBeginDateIsIgnored() {
+        InfluxDBFilterCriteria criteria = new InfluxDBFilterCriteria().setResolution(Duration.ofMinutes(1));
+        criteria.setItemName(ITEM_NAME);
+
+        assertThat(criteria.getWindowSeconds(), equalTo(0L));
+        String queryV1 = instanceV1.createQuery(criteria, RETENTION_POLICY);
+        assertThat(queryV1,
+                equalTo("SELECT \"value\"::field,\"item\"::tag FROM \"origin\".\"sampleItem\" ORDER BY time DESC;"));
+    }
 }
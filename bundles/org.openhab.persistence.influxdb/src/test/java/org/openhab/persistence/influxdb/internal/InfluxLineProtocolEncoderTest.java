@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link InfluxLineProtocolEncoder}
+ *
+ * @author Joan Pujol Espinar - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxLineProtocolEncoderTest {
+    private static final Instant TIME = Instant.ofEpochMilli(1680000000123L);
+
+    private final InfluxLineProtocolEncoder encoder = new InfluxLineProtocolEncoder();
+
+    @Test
+    public void encodesValueTypesLikeClientLibraries() {
+        assertThat(encoder.encode(List.of(point("m", new BigDecimal("21.50")))),
+                is("m,item=test value=21.50 1680000000123"));
+        assertThat(encoder.encode(List.of(point("m", new BigDecimal("1E+3")))),
+                is("m,item=test value=1000 1680000000123"));
+        assertThat(encoder.encode(List.of(point("m", 1))), is("m,item=test value=1i 1680000000123"));
+        assertThat(encoder.encode(List.of(point("m", 1680000000000L))),
+                is("m,item=test value=1680000000000i 1680000000123"));
+        assertThat(encoder.encode(List.of(point("m", 2.5))), is("m,item=test value=2.5 1680000000123"));
+        assertThat(encoder.encode(List.of(point("m", true))), is("m,item=test value=true 1680000000123"));
+        assertThat(encoder.encode(List.of(point("m", "say \"hi\" \\o/"))),
+                is("m,item=test value=\"say \\\"hi\\\" \\\\o/\" 1680000000123"));
+    }
+
+    @Test
+    public void escapesMeasurementAndTags() {
+        InfluxPoint point = InfluxPoint.newBuilder("living room,1=a").withTime(TIME).withValue(1)
+                .withTag("item", "test").withTag("a label", "x=1,y").withTag("empty", "").build();
+
+        assertThat(encoder.encode(List.of(point)),
+                is("living\\ room\\,1=a,a\\ label=x\\=1\\,y,item=test value=1i 1680000000123"));
+    }
+
+    @Test
+    public void encodesOneLinePerPointAndSkipsInvalidValues() {
+        String lines = encoder.encode(List.of(point("a", 1), point("b", Double.NaN), point("c", 2)));
+
+        assertThat(lines, is("a,item=test value=1i 1680000000123\nc,item=test value=2i 1680000000123"));
+        assertThat(encoder.encode(List.of(point("b", Double.POSITIVE_INFINITY))), is(""));
+    }
+
+    private static InfluxPoint point(String measurement, Object value) {
+        return InfluxPoint.newBuilder(measurement).withTime(TIME).withValue(value).withTag("item", "test").build();
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the {@link InfluxPointSpool}
+ *
+ * @author Joan Pujol Espinar - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxPointSpoolTest {
+    private static final long MAX_SIZE = 2L * InfluxPointSpool.SEGMENT_SIZE;
+    private static final String LARGE_VALUE = "x".repeat(10000);
+
+    private @TempDir @NonNullByDefault({}) Path tempDir;
+
+    @Test
+    public void replayReturnsPointsInOrderWithValueTypes() throws Exception {
+        InfluxPointSpool spool = new InfluxPointSpool(tempDir, MAX_SIZE, OverflowPolicy.DROP_OLDEST);
+        Instant time = Instant.ofEpochSecond(1680000000L, 123456789);
+        List<Object> values = List.of(new BigDecimal("21.5"), 1, 1680000000000L, 2.5, true, "ON");
+        spool.append(values.stream().map(value -> point("measurement", time, value)).toList());
+
+        List<InfluxPoint> replayed = new ArrayList<>();
+        assertThat(spool.replay(2, replayed::addAll), is(values.size()));
+
+        assertThat(replayed.stream().map(InfluxPoint::getValue).toList(), is(values));
+        assertThat(replayed.get(0).getMeasurementName(), is("measurement"));
+        assertThat(replayed.get(0).getTime(), is(time));
+        assertThat(replayed.get(0).getTags(), is(point("measurement", time, 0).getTags()));
+        assertThat(spool.isEmpty(), is(true));
+    }
+
+    @Test
+    public void failedWriteKeepsPointsForNextReplay() throws Exception {
+        InfluxPointSpool spool = new InfluxPointSpool(tempDir, MAX_SIZE, OverflowPolicy.DROP_OLDEST);
+        spool.append(points(0, 10));
+
+        assertThat(spool.replay(4, batch -> false), is(0));
+        assertThat(spool.getPointCount(), is(10L));
+
+        List<InfluxPoint> replayed = new ArrayList<>();
+        assertThat(spool.replay(4, batch -> replayed.size() < 4 && replayed.addAll(batch)), is(4));
+        assertThat(spool.getPointCount(), is(6L));
+
+        assertThat(spool.replay(4, replayed::addAll), is(6));
+        assertThat(indexes(replayed), is(IntStream.range(0, 10).boxed().toList()));
+    }
+
+    @Test
+    public void pointsSurviveReopening() throws Exception {
+        InfluxPointSpool spool = new InfluxPointSpool(tempDir, MAX_SIZE, OverflowPolicy.DROP_OLDEST);
+        spool.append(points(0, 5));
+        spool.close();
+
+        InfluxPointSpool reopened = new InfluxPointSpool(tempDir, MAX_SIZE, OverflowPolicy.DROP_OLDEST);
+        assertThat(reopened.getPointCount(), is(5L));
+        reopened.append(points(5, 10));
+
+        List<InfluxPoint> replayed = new ArrayList<>();
+        reopened.replay(100, replayed::addAll);
+        reopened.close();
+
+        assertThat(indexes(replayed), is(IntStream.range(0, 10).boxed().toList()));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.count(), is(0L));
+        }
+    }
+
+    @Test
+    public void dropOldestDiscardsOldestSegmentWhenFull() throws Exception {
+        InfluxPointSpool spool = new InfluxPointSpool(tempDir, MAX_SIZE, OverflowPolicy.DROP_OLDEST);
+        assertThat(spool.append(largePoints(300)), is(300));
+
+        List<InfluxPoint> replayed = new ArrayList<>();
+        spool.replay(1000, replayed::addAll);
+
+        assertThat(spool.getDroppedCount(), is(greaterThan(0L)));
+        assertThat(replayed.size() + spool.getDroppedCount(), is(300L));
+        assertThat(indexes(replayed).get(0), is(greaterThan(0)));
+        assertThat(indexes(replayed).get(replayed.size() - 1), is(299));
+    }
+
+    @Test
+    public void dropNewestDiscardsAppendedPointsWhenFull() throws Exception {
+        InfluxPointSpool spool = new InfluxPointSpool(tempDir, MAX_SIZE, OverflowPolicy.DROP_NEWEST);
+        int appended = spool.append(largePoints(300));
+
+        List<InfluxPoint> replayed = new ArrayList<>();
+        spool.replay(1000, replayed::addAll);
+
+        assertThat(appended, is(lessThan(300)));
+        assertThat(spool.getDroppedCount(), is((long) (300 - appended)));
+        assertThat(indexes(replayed), is(IntStream.range(0, appended).boxed().toList()));
+    }
+
+    private static List<InfluxPoint> points(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> point("item" + i, Instant.ofEpochMilli(i), i)).toList();
+    }
+
+    private static List<InfluxPoint> largePoints(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> InfluxPoint.newBuilder("item" + i).withTime(Instant.ofEpochMilli(i))
+                        .withValue(LARGE_VALUE).withTag(InfluxDBConstants.TAG_ITEM_NAME, "item" + i).build())
+                .toList();
+    }
+
+    private static InfluxPoint point(String measurement, Instant time, Object value) {
+        return InfluxPoint.newBuilder(measurement).withTime(time).withValue(value)
+                .withTag(InfluxDBConstants.TAG_ITEM_NAME, "item").withTag("floor", "ground").build();
+    }
+
+    private static List<Integer> indexes(List<InfluxPoint> points) {
+        return points.stream().map(point -> Integer.parseInt(point.getMeasurementName().substring(4))).toList();
+    }
+}
@@ -0,0 +1,398 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.inmemory.internal;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
+
+import javax.measure.Quantity;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.types.State;
+
+/**
+ * The {@link StateRingBuffer} holds the stored states of a single item, ordered by timestamp.
+ *
+ * Timestamps are kept as epoch microseconds in a primitive array, so range queries are answered with a binary search.
+ * Plain {@link DecimalType} and {@link QuantityType} states whose value is exactly representable as a double are kept
+ * in a primitive array as well, next to a shared state of the same type, scale and unit used to restore them. All other
+ * states are referenced directly and marked with {@link Double#NaN} in the value array. Once the maximum number of
+ * entries is reached the arrays are used as a ring, so appending a state drops the oldest one without moving data.
+ *
+ * Writers are serialized by a {@link StampedLock}. Readers use an optimistic read and only take the read lock if a
+ * write happened while they were copying the requested range.
+ *
+ * @author Jan N. Klug - Initial contribution
+ */
+@NonNullByDefault
+public class StateRingBuffer {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    public record Entry(ZonedDateTime timestamp, State state) {
+    }
+
+    private final StampedLock lock = new StampedLock();
+
+    private long[] timestamps = new long[0];
+    private double[] values = new double[0];
+    private State[] states = new State[0];
+    private int head = 0;
+    private int size = 0;
+    private int maxEntries;
+    private @Nullable State lastPrototype;
+
+    /**
+     * @param maxEntries the maximum number of retained entries, 0 for no limit
+     */
+    public StateRingBuffer(long maxEntries) {
+        this.maxEntries = toCapacity(maxEntries);
+    }
+
+    /**
+     * Stores a state. A state with the same timestamp as an existing entry replaces it.
+     *
+     * @param timestamp the timestamp of the state
+     * @param state the state to store
+     */
+    public void put(ZonedDateTime timestamp, State state) {
+        long time = toMicros(timestamp);
+        long stamp = lock.writeLock();
+        try {
+            int index = upperBound(time);
+            if (index > 0 && timestamps[physical(index - 1)] == time) {
+                set(physical(index - 1), state);
+                return;
+            }
+            if (size == timestamps.length && !grow()) {
+                if (index == 0) {
+                    // older than everything retained, it would be dropped right away
+                    return;
+                }
+                head = physical(1);
+                size--;
+                index--;
+            }
+            for (int i = size; i > index; i--) {
+                int to = physical(i);
+                int from = physical(i - 1);
+                timestamps[to] = timestamps[from];
+                values[to] = values[from];
+                states[to] = states[from];
+            }
+            int position = physical(index);
+            timestamps[position] = time;
+            set(position, state);
+            size++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns all entries between the given timestamps in ascending order.
+     *
+     * @param begin the earliest timestamp to include or null for no lower bound
+     * @param end the latest timestamp to include or null for no upper bound
+     * @return the matching entries
+     */
+    public List<Entry> query(@Nullable ZonedDateTime begin, @Nullable ZonedDateTime end) {
+        long from = begin == null ? Long.MIN_VALUE : toMicros(begin);
+        long to = end == null ? Long.MAX_VALUE : toMicros(end);
+
+        Range range = null;
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                range = copyRange(from, to);
+            } catch (RuntimeException e) {
+                // inconsistent view caused by a concurrent write, retried below
+            }
+        }
+        if (range == null || !lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                range = copyRange(from, to);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        List<Entry> entries = new ArrayList<>(range.timestamps().length);
+        for (int i = 0; i < range.timestamps().length; i++) {
+            entries.add(new Entry(toZonedDateTime(range.timestamps()[i]), decode(range.values()[i], range.states()[i])));
+        }
+        return entries;
+    }
+
+    /**
+     * Removes all entries between the given timestamps whose state matches the filter.
+     *
+     * @param begin the earliest timestamp to include or null for no lower bound
+     * @param end the latest timestamp to include or null for no upper bound
+     * @param filter selects the states to remove
+     * @return the number of removed entries
+     */
+    public int remove(@Nullable ZonedDateTime begin, @Nullable ZonedDateTime end, Predicate<State> filter) {
+        long from = begin == null ? Long.MIN_VALUE : toMicros(begin);
+        long to = end == null ? Long.MAX_VALUE : toMicros(end);
+        long stamp = lock.writeLock();
+        try {
+            int first = lowerBound(from);
+            int last = upperBound(to);
+            int target = first;
+            for (int i = first; i < size; i++) {
+                int source = physical(i);
+                if (i < last && filter.test(decode(values[source], states[source]))) {
+                    continue;
+                }
+                if (target != i) {
+                    int position = physical(target);
+                    timestamps[position] = timestamps[source];
+                    values[position] = values[source];
+                    states[position] = states[source];
+                }
+                target++;
+            }
+            int removed = size - target;
+            for (int i = target; i < size; i++) {
+                states[physical(i)] = null;
+            }
+            size = target;
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Changes the maximum number of retained entries and drops the oldest entries exceeding it.
+     *
+     * @param maxEntries the maximum number of retained entries, 0 for no limit
+     */
+    public void setMaxEntries(long maxEntries) {
+        long stamp = lock.writeLock();
+        try {
+            this.maxEntries = toCapacity(maxEntries);
+            int retained = Math.min(size, this.maxEntries);
+            if (retained < size || timestamps.length > this.maxEntries) {
+                resize(Math.min(timestamps.length, this.maxEntries), size - retained);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int result = size;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                result = size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the timestamp of the oldest entry or null if the buffer is empty
+     */
+    public @Nullable ZonedDateTime getEarliest() {
+        return getTimestamp(true);
+    }
+
+    /**
+     * @return the timestamp of the newest entry or null if the buffer is empty
+     */
+    public @Nullable ZonedDateTime getLatest() {
+        return getTimestamp(false);
+    }
+
+    private @Nullable ZonedDateTime getTimestamp(boolean earliest) {
+        long stamp = lock.readLock();
+        try {
+            return size == 0 ? null : toZonedDateTime(timestamps[physical(earliest ? 0 : size - 1)]);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Range copyRange(long from, long to) {
+        long[] currentTimestamps = timestamps;
+        double[] currentValues = values;
+        State[] currentStates = states;
+        int capacity = Math.min(currentTimestamps.length, Math.min(currentValues.length, currentStates.length));
+        int currentSize = Math.min(size, capacity);
+        int currentHead = capacity == 0 ? 0 : head % capacity;
+
+        int first = search(currentTimestamps, currentHead, currentSize, from, false);
+        int last = search(currentTimestamps, currentHead, currentSize, to, true);
+        int count = Math.max(0, last - first);
+        Range range = new Range(new long[count], new double[count], new State[count]);
+        for (int i = 0; i < count; i++) {
+            int position = (currentHead + first + i) % capacity;
+            range.timestamps()[i] = currentTimestamps[position];
+            range.values()[i] = currentValues[position];
+            range.states()[i] = currentStates[position];
+        }
+        return range;
+    }
+
+    /**
+     * @return the logical index of the first entry not older than the given time
+     */
+    private int lowerBound(long time) {
+        return search(timestamps, head, size, time, false);
+    }
+
+    /**
+     * @return the logical index of the first entry newer than the given time
+     */
+    private int upperBound(long time) {
+        return search(timestamps, head, size, time, true);
+    }
+
+    private static int search(long[] timestamps, int head, int size, long time, boolean upper) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            long midTime = timestamps[(head + mid) % timestamps.length];
+            if (midTime < time || (upper && midTime == time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int physical(int index) {
+        int position = head + index;
+        return position >= timestamps.length ? position - timestamps.length : position;
+    }
+
+    /**
+     * Grows the arrays if the maximum number of entries is not reached yet.
+     *
+     * @return true if there is room for another entry
+     */
+    private boolean grow() {
+        if (timestamps.length >= maxEntries) {
+            return false;
+        }
+        resize((int) Math.min(Math.max(INITIAL_CAPACITY, 2L * timestamps.length), maxEntries), 0);
+        return true;
+    }
+
+    private void resize(int capacity, int dropped) {
+        long[] newTimestamps = new long[capacity];
+        double[] newValues = new double[capacity];
+        State[] newStates = new State[capacity];
+        int retained = size - dropped;
+        for (int i = 0; i < retained; i++) {
+            int position = physical(dropped + i);
+            newTimestamps[i] = timestamps[position];
+            newValues[i] = values[position];
+            newStates[i] = states[position];
+        }
+        timestamps = newTimestamps;
+        values = newValues;
+        states = newStates;
+        head = 0;
+        size = retained;
+    }
+
+    private void set(int position, State state) {
+        if (state.getClass() == DecimalType.class || state.getClass() == QuantityType.class) {
+            BigDecimal decimal = state instanceof QuantityType<?> quantity ? quantity.toBigDecimal()
+                    : ((DecimalType) state).toBigDecimal();
+            double value = decimal.doubleValue();
+            if (Double.isFinite(value) && BigDecimal.valueOf(value).compareTo(decimal) == 0) {
+                values[position] = value;
+                states[position] = getPrototype(state, decimal.scale());
+                return;
+            }
+        }
+        values[position] = Double.NaN;
+        states[position] = state;
+    }
+
+    /**
+     * Returns a state that restores numeric values with the same type, scale and unit as the given state. The last used
+     * prototype is shared, so a series of similar states does not keep a reference to each of them.
+     */
+    private State getPrototype(State state, int scale) {
+        State prototype = lastPrototype;
+        if (prototype != null && prototype.getClass() == state.getClass() && getScale(prototype) == scale
+                && (!(state instanceof QuantityType<?> quantity)
+                        || quantity.getUnit().equals(((QuantityType<?>) prototype).getUnit()))) {
+            return prototype;
+        }
+        lastPrototype = state;
+        return state;
+    }
+
+    private static int getScale(State prototype) {
+        return prototype instanceof QuantityType<?> quantity ? quantity.toBigDecimal().scale()
+                : ((DecimalType) prototype).toBigDecimal().scale();
+    }
+
+    private static State decode(double value, State state) {
+        if (Double.isNaN(value)) {
+            return state;
+        }
+        BigDecimal decimal = BigDecimal.valueOf(value).setScale(getScale(state));
+        return state instanceof QuantityType<?> quantity ? withValue(quantity, decimal) : new DecimalType(decimal);
+    }
+
+    private static <T extends Quantity<T>> QuantityType<T> withValue(QuantityType<T> quantity, BigDecimal value) {
+        return new QuantityType<>(value, quantity.getUnit());
+    }
+
+    private static int toCapacity(long maxEntries) {
+        return maxEntries <= 0 ? MAX_CAPACITY : (int) Math.min(maxEntries, MAX_CAPACITY);
+    }
+
+    private static long toMicros(ZonedDateTime timestamp) {
+        long seconds = timestamp.toEpochSecond();
+        if (seconds >= Long.MAX_VALUE / MICROS_PER_SECOND) {
+            return Long.MAX_VALUE;
+        } else if (seconds <= Long.MIN_VALUE / MICROS_PER_SECOND) {
+            return Long.MIN_VALUE;
+        }
+        return seconds * MICROS_PER_SECOND + timestamp.getNano() / 1000;
+    }
+
+    private static ZonedDateTime toZonedDateTime(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                Math.floorMod(micros, MICROS_PER_SECOND) * 1000).atZone(ZoneId.systemDefault());
+    }
+
+    private record Range(long[] timestamps, double[] values, State[] states) {
+    }
+}
@@ -14,14 +14,19 @@ package org.openhab.persistence.inmemory.internal;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.when;
 
+import java.math.BigDecimal;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.TreeSet;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -36,7 +41,9 @@ import org.openhab.core.items.GenericItem;
 import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.library.types.HSBType;
 import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.QuantityType;
 import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.unit.SIUnits;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.types.State;
@@ -180,4 +187,71 @@ public class InMemoryPersistenceTests {
         assertThat(storedStates.last().getState(), is(historicState3));
         assertThat(storedStates.last().getTimestamp(), is(expectedTime.plusHours(4)));
     }
+
+    @Test
+    public void storeOutOfOrderReturnsStatesInTimeOrder() {
+        ZonedDateTime time = ZonedDateTime.of(2022, 05, 31, 10, 0, 0, 0, ZoneId.systemDefault());
+        service.store(item, time.plusHours(2), new DecimalType(3));
+        service.store(item, time, new DecimalType(1));
+        service.store(item, time.plusHours(1), new DecimalType(2));
+        service.store(item, time.plusHours(1), new DecimalType(4));
+
+        assertThat(queryStates(), contains(new DecimalType(1), new DecimalType(4), new DecimalType(3)));
+    }
+
+    @Test
+    public void queryBetweenTimesReturnsOnlyMatchingStates() {
+        ZonedDateTime time = ZonedDateTime.of(2022, 05, 31, 10, 0, 0, 0, ZoneId.systemDefault());
+        for (int i = 0; i < 10; i++) {
+            service.store(item, time.plusHours(i), new DecimalType(i));
+        }
+
+        filterCriteria.setBeginDate(time.plusHours(3));
+        filterCriteria.setEndDate(time.plusHours(5));
+
+        assertThat(queryStates(), contains(new DecimalType(3), new DecimalType(4), new DecimalType(5)));
+    }
+
+    @Test
+    public void maxEntriesDropsOldestStates() {
+        service.activate(Map.<String, Object> of("maxEntries", 3L));
+        ZonedDateTime time = ZonedDateTime.of(2022, 05, 31, 10, 0, 0, 0, ZoneId.systemDefault());
+        for (int i = 0; i < 5; i++) {
+            service.store(item, time.plusHours(i), new DecimalType(i));
+        }
+        // older than all retained states
+        service.store(item, time, new DecimalType(10));
+
+        assertThat(queryStates(), contains(new DecimalType(2), new DecimalType(3), new DecimalType(4)));
+
+        service.modified(Map.<String, Object> of("maxEntries", 2L));
+
+        assertThat(queryStates(), contains(new DecimalType(3), new DecimalType(4)));
+    }
+
+    @Test
+    public void numericStatesKeepTypeScaleAndUnit() {
+        ZonedDateTime time = ZonedDateTime.of(2022, 05, 31, 10, 0, 0, 0, ZoneId.systemDefault());
+        State decimal = new DecimalType(new BigDecimal("1.50"));
+        State precise = new DecimalType(new BigDecimal("0.10000000000000000001"));
+        State percent = new PercentType(20);
+        State quantity = new QuantityType<>("21.5 °C");
+        service.store(item, time, decimal);
+        service.store(item, time.plusHours(1), precise);
+        service.store(item, time.plusHours(2), percent);
+        service.store(item, time.plusHours(3), quantity);
+
+        List<State> states = queryStates();
+
+        assertThat(states, contains(decimal, precise, percent, quantity));
+        assertThat(states.get(0).toString(), is("1.50"));
+        assertThat(states.get(2).getClass(), is(PercentType.class));
+        assertThat(((QuantityType<?>) states.get(3)).getUnit(), is(SIUnits.CELSIUS));
+    }
+
+    private List<State> queryStates() {
+        List<State> states = new ArrayList<>();
+        service.query(filterCriteria).forEach(historicItem -> states.add(historicItem.getState()));
+        return states;
+    }
 }
@@ -0,0 +1,279 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.common.ThreadPoolManager;
+import org.openhab.persistence.jdbc.internal.dto.JdbcQueuedItemState;
+import org.openhab.persistence.jdbc.internal.exceptions.JdbcException;
+import org.openhab.persistence.jdbc.internal.utils.MovingAverage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link JdbcBatchWriter} implements the optional write-behind mode of the JDBC persistence service.
+ *
+ * States are put into a bounded queue by the caller and written by a dedicated thread, which groups them per item
+ * table and stores each group with a single multi-row insert or JDBC batch. A batch is flushed when it reaches the
+ * configured maximum size or when the oldest queued state has waited for the configured maximum latency.
+ *
+ * A batch that fails is stored again state by state, so a single invalid value or a database that does not support the
+ * multi-row statement only affects the states that cannot be stored. As with the synchronous store of the service,
+ * states are not kept for a later attempt when the database cannot be reached, they are counted as failed.
+ *
+ * @author Helmut Lehmeyer - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcBatchWriter {
+
+    /**
+     * Defines what happens when a state is stored while the queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Discard the state being stored */
+        DROP_NEWEST,
+        /** Discard the oldest queued state to make room */
+        DROP_OLDEST,
+        /** Block the caller until there is room in the queue */
+        BLOCK
+    }
+
+    private static final String THREAD_POOL_NAME = "persistence-jdbc";
+    private static final int STOP_TIMEOUT_SECONDS = 10;
+    // the longest time the writer waits without checking whether it has been stopped
+    private static final long STOP_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int STATISTICS_PERIOD = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(JdbcBatchWriter.class);
+
+    private final JdbcMapper mapper;
+    private final BlockingQueue<JdbcQueuedItemState> queue;
+    private final int queueSize;
+    private final int maxBatchSize;
+    private final long maxLatencyNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final Future<?> writer;
+
+    private final AtomicLong storedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final MovingAverage batchSizeAverage = new MovingAverage(STATISTICS_PERIOD);
+    private final MovingAverage flushLatencyAverage = new MovingAverage(STATISTICS_PERIOD);
+
+    private volatile boolean running = true;
+
+    public JdbcBatchWriter(JdbcMapper mapper, JdbcConfiguration conf) {
+        this.mapper = mapper;
+        this.queueSize = conf.getBatchQueueSize();
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.maxBatchSize = conf.getBatchMaxSize();
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(conf.getBatchMaxLatency());
+        this.overflowPolicy = conf.getBatchOverflowPolicy();
+        this.writer = ThreadPoolManager.getPool(THREAD_POOL_NAME).submit(this::run);
+        logger.debug("JDBC::JdbcBatchWriter: started with queueSize={} maxBatchSize={} maxLatency={} ms policy={}",
+                queueSize, maxBatchSize, conf.getBatchMaxLatency(), overflowPolicy);
+    }
+
+    /**
+     * Queues a state for storage.
+     *
+     * @param state the state to store
+     * @return true if the state was queued, false if it was discarded
+     */
+    public boolean enqueue(JdbcQueuedItemState state) {
+        if (!running) {
+            return false;
+        }
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    queue.put(state);
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            case DROP_OLDEST:
+                while (!queue.offer(state)) {
+                    if (queue.poll() != null) {
+                        droppedCount.incrementAndGet();
+                    }
+                }
+                return true;
+            case DROP_NEWEST:
+            default:
+                if (queue.offer(state)) {
+                    return true;
+                }
+                break;
+        }
+        droppedCount.incrementAndGet();
+        logger.debug("JDBC::enqueue: queue is full, discarding {}", state);
+        return false;
+    }
+
+    /**
+     * Stops accepting states, flushes everything still queued and terminates the writer thread.
+     */
+    public void stop() {
+        running = false;
+        try {
+            writer.get(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("JDBC::stop: writer did not finish in time, {} queued states are lost", queue.size());
+            writer.cancel(true);
+        } catch (ExecutionException e) {
+            logger.warn("JDBC::stop: writer failed, {} queued states are lost", queue.size(), e.getCause());
+        } catch (InterruptedException e) {
+            writer.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<JdbcQueuedItemState> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                JdbcQueuedItemState first = queue.poll(STOP_CHECK_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxLatencyNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    JdbcQueuedItemState next = queue.poll(Math.min(remaining, STOP_CHECK_INTERVAL_NANOS),
+                            TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                flush(batch);
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("JDBC::run: Unexpected error while writing batch", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<JdbcQueuedItemState> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (!mapper.checkDBAccessability()) {
+            logger.warn("JDBC::flush: No connection to database. Cannot persist {} queued states!", batch.size());
+            failedCount.addAndGet(batch.size());
+            return;
+        }
+        long timerStart = System.nanoTime();
+        Map<String, List<JdbcQueuedItemState>> statesByTable = new LinkedHashMap<>();
+        for (JdbcQueuedItemState state : batch) {
+            try {
+                statesByTable.computeIfAbsent(mapper.getTable(state.getItem()), t -> new ArrayList<>()).add(state);
+            } catch (JdbcException e) {
+                logger.warn("JDBC::flush: Unable to find table for item '{}'", state.getItem().getName(), e);
+                failedCount.incrementAndGet();
+            }
+        }
+        for (Entry<String, List<JdbcQueuedItemState>> entry : statesByTable.entrySet()) {
+            try {
+                mapper.storeItemValues(entry.getKey(), entry.getValue());
+                storedCount.addAndGet(entry.getValue().size());
+            } catch (JdbcException e) {
+                logger.debug("JDBC::flush: Unable to store {} values in table '{}', retrying row by row",
+                        entry.getValue().size(), entry.getKey(), e);
+                storeRowByRow(entry.getKey(), entry.getValue());
+            }
+        }
+        long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - timerStart);
+        batchCount.incrementAndGet();
+        synchronized (this) {
+            batchSizeAverage.add(batch.size());
+            flushLatencyAverage.add(latency);
+        }
+        logger.debug("JDBC::flush: Stored {} states in {} tables in {} ms", batch.size(), statesByTable.size(),
+                latency);
+    }
+
+    /**
+     * Stores the states of a failed batch one by one, so a single bad row or a multi-row statement the database does
+     * not support (e.g. {@code ON CONFLICT} on PostgreSQL before 9.5) does not drop the whole batch.
+     */
+    private void storeRowByRow(String table, List<JdbcQueuedItemState> states) {
+        for (JdbcQueuedItemState state : states) {
+            try {
+                mapper.storeItemValue(state.getItem(), state.getState(), state.getTimestamp());
+                storedCount.incrementAndGet();
+            } catch (JdbcException e) {
+                logger.warn("JDBC::flush: Unable to store value of item '{}' in table '{}'", state.getItem().getName(),
+                        table, e);
+                failedCount.incrementAndGet();
+            }
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public long getStoredCount() {
+        return storedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    public synchronized double getAverageBatchSize() {
+        return batchSizeAverage.getAverageDouble();
+    }
+
+    public synchronized double getAverageFlushLatency() {
+        return flushLatencyAverage.getAverageDouble();
+    }
+}
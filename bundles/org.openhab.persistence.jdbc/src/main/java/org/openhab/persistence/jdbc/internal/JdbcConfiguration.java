@@ -40,6 +40,8 @@ public class JdbcConfiguration {
 
     private static final Pattern EXTRACT_CONFIG_PATTERN = Pattern.compile("^(.*?)\\.([0-9.a-zA-Z]+)$");
     private static final String DB_DAO_PACKAGE = "org.openhab.persistence.jdbc.internal.db.Jdbc";
+    // keeps multi-row inserts below the bind parameter limits of the supported databases
+    private static final int MAX_BATCH_SIZE = 5000;
 
     private Map<Object, Object> configuration;
 
@@ -65,6 +67,15 @@ public class JdbcConfiguration {
 
     private int errReconnectThreshold = 0;
 
+    // write-behind queue
+    private boolean batchWrite = false;
+    private int batchMaxSize = 100;
+    private int batchMaxLatency = 1000;
+    private int batchQueueSize = 10000;
+    private JdbcBatchWriter.OverflowPolicy batchOverflowPolicy = JdbcBatchWriter.OverflowPolicy.DROP_NEWEST;
+    // streaming queries
+    private int queryFetchSize = 0;
+
     public int timerCount = 0;
     public int time1000Statements = 0;
     public long timer1000 = 0;
@@ -189,6 +200,46 @@ public class JdbcConfiguration {
             logger.debug("JDBC::updateConfig: rebuildTableNames={}", rebuildTableNames);
         }
 
+        String bw = (String) configuration.get("batchWrite");
+        if (bw != null && !bw.isBlank()) {
+            batchWrite = Boolean.parseBoolean(bw);
+            logger.debug("JDBC::updateConfig: batchWrite={}", batchWrite);
+        }
+
+        String bs = (String) configuration.get("batchMaxSize");
+        if (bs != null && !bs.isBlank() && isNumericPattern.matcher(bs).matches()) {
+            batchMaxSize = Math.max(1, Math.min(Integer.parseInt(bs), MAX_BATCH_SIZE));
+            logger.debug("JDBC::updateConfig: batchMaxSize={}", batchMaxSize);
+        }
+
+        String bl = (String) configuration.get("batchMaxLatency");
+        if (bl != null && !bl.isBlank() && isNumericPattern.matcher(bl).matches()) {
+            batchMaxLatency = Math.max(1, Integer.parseInt(bl));
+            logger.debug("JDBC::updateConfig: batchMaxLatency={}", batchMaxLatency);
+        }
+
+        String bq = (String) configuration.get("batchQueueSize");
+        if (bq != null && !bq.isBlank() && isNumericPattern.matcher(bq).matches()) {
+            batchQueueSize = Math.max(1, Integer.parseInt(bq));
+            logger.debug("JDBC::updateConfig: batchQueueSize={}", batchQueueSize);
+        }
+
+        String bo = (String) configuration.get("batchOverflowPolicy");
+        if (bo != null && !bo.isBlank()) {
+            try {
+                batchOverflowPolicy = JdbcBatchWriter.OverflowPolicy.valueOf(bo.trim().toUpperCase());
+                logger.debug("JDBC::updateConfig: batchOverflowPolicy={}", batchOverflowPolicy);
+            } catch (IllegalArgumentException e) {
+                logger.warn("JDBC::updateConfig: unknown batchOverflowPolicy '{}', using {}", bo, batchOverflowPolicy);
+            }
+        }
+
+        String qf = (String) configuration.get("queryFetchSize");
+        if (qf != null && !qf.isBlank() && isNumericPattern.matcher(qf).matches()) {
+            queryFetchSize = Math.max(0, Integer.parseInt(qf));
+            logger.debug("JDBC::updateConfig: queryFetchSize={}", queryFetchSize);
+        }
+
         // undocumented
         String ac = (String) configuration.get("maximumPoolSize");
         if (ac != null && !ac.isBlank()) {
@@ -398,6 +449,30 @@ public class JdbcConfiguration {
         return tableIdDigitCount;
     }
 
+    public boolean getBatchWrite() {
+        return batchWrite;
+    }
+
+    public int getBatchMaxSize() {
+        return batchMaxSize;
+    }
+
+    public int getBatchMaxLatency() {
+        return batchMaxLatency;
+    }
+
+    public int getBatchQueueSize() {
+        return batchQueueSize;
+    }
+
+    public JdbcBatchWriter.OverflowPolicy getBatchOverflowPolicy() {
+        return batchOverflowPolicy;
+    }
+
+    public int getQueryFetchSize() {
+        return queryFetchSize;
+    }
+
     public JdbcBaseDAO getDBDAO() {
         return dBDAO;
     }
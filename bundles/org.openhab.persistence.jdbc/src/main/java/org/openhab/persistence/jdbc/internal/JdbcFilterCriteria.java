@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import java.time.Duration;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.persistence.FilterCriteria;
+
+/**
+ * The {@link JdbcFilterCriteria} extends {@link FilterCriteria} with a resolution for downsampled queries.
+ *
+ * When a resolution is set, the time range is divided into buckets of that length and the database returns one
+ * aggregated value per bucket instead of every stored row. This is only supported for numeric items and databases
+ * providing a time bucket expression; otherwise the raw rows are returned.
+ *
+ * Core's {@link FilterCriteria} has no resolution, so this class is internal to the JDBC persistence service and is
+ * only created by the {@code jdbc query} console command.
+ *
+ * @author Helmut Lehmeyer - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcFilterCriteria extends FilterCriteria {
+
+    /**
+     * Function used to aggregate all values within one bucket.
+     */
+    public enum Aggregation {
+        /** Average of all values, timestamped with the start of the bucket */
+        AVG,
+        /** Minimum of all values, timestamped with the start of the bucket */
+        MIN,
+        /** Maximum of all values, timestamped with the start of the bucket */
+        MAX,
+        /** Last stored row of the bucket, with its original timestamp */
+        LAST
+    }
+
+    private @Nullable Duration resolution;
+    private Aggregation aggregation = Aggregation.AVG;
+
+    public @Nullable Duration getResolution() {
+        return resolution;
+    }
+
+    public JdbcFilterCriteria setResolution(@Nullable Duration resolution) {
+        this.resolution = resolution;
+        return this;
+    }
+
+    public Aggregation getAggregation() {
+        return aggregation;
+    }
+
+    public JdbcFilterCriteria setAggregation(Aggregation aggregation) {
+        this.aggregation = aggregation;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + " [resolution=" + resolution + ", aggregation=" + aggregation + "]";
+    }
+}
@@ -13,6 +13,7 @@
 package org.openhab.persistence.jdbc.internal;
 
 import java.sql.SQLInvalidAuthorizationSpecException;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -32,10 +33,12 @@ import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceItemInfo;
 import org.openhab.core.types.State;
+import org.openhab.persistence.jdbc.internal.db.JdbcBaseDAO;
 import org.openhab.persistence.jdbc.internal.dto.Column;
 import org.openhab.persistence.jdbc.internal.dto.ItemVO;
 import org.openhab.persistence.jdbc.internal.dto.ItemsVO;
 import org.openhab.persistence.jdbc.internal.dto.JdbcPersistenceItemInfo;
+import org.openhab.persistence.jdbc.internal.dto.JdbcQueuedItemState;
 import org.openhab.persistence.jdbc.internal.exceptions.JdbcException;
 import org.openhab.persistence.jdbc.internal.exceptions.JdbcSQLException;
 import org.slf4j.Logger;
@@ -225,6 +228,14 @@ public class JdbcMapper {
         errCnt = 0;
     }
 
+    protected void storeItemValues(String tableName, List<JdbcQueuedItemState> states) throws JdbcException {
+        logger.debug("JDBC::storeItemValues: table={} count={}", tableName, states.size());
+        long timerStart = System.currentTimeMillis();
+        conf.getDBDAO().doStoreItemValues(tableName, states);
+        logTime("storeItemValues", timerStart, System.currentTimeMillis());
+        errCnt = 0;
+    }
+
     public long getRowCount(String tableName) throws JdbcSQLException {
         return conf.getDBDAO().doGetRowCount(tableName);
     }
@@ -235,13 +246,30 @@ public class JdbcMapper {
                 "JDBC::getHistItemFilterQuery filter='{}' numberDecimalcount='{}' table='{}' item='{}' itemName='{}'",
                 true, numberDecimalcount, table, item, item.getName());
         long timerStart = System.currentTimeMillis();
-        List<HistoricItem> result = conf.getDBDAO().doGetHistItemFilterQuery(item, filter, numberDecimalcount, table,
-                item.getName(), timeZoneProvider.getTimeZone());
+        JdbcBaseDAO dao = conf.getDBDAO();
+        Duration resolution = filter instanceof JdbcFilterCriteria jdbcFilter ? jdbcFilter.getResolution() : null;
+        List<HistoricItem> result;
+        if (resolution != null && dao.isAggregationSupported(item)) {
+            result = dao.doGetHistItemAggregateQuery(item, filter, numberDecimalcount, table,
+                    timeZoneProvider.getTimeZone(), Math.max(1, resolution.getSeconds()),
+                    ((JdbcFilterCriteria) filter).getAggregation());
+        } else {
+            result = dao.doGetHistItemFilterQuery(item, filter, numberDecimalcount, table, item.getName(),
+                    timeZoneProvider.getTimeZone());
+        }
         logTime("getHistItemFilterQuery", timerStart, System.currentTimeMillis());
         errCnt = 0;
         return result;
     }
 
+    protected Iterable<HistoricItem> getHistItemFilterCursor(FilterCriteria filter, int numberDecimalcount,
+            String table, Item item) throws JdbcSQLException {
+        logger.debug("JDBC::getHistItemFilterCursor numberDecimalcount='{}' table='{}' itemName='{}'",
+                numberDecimalcount, table, item.getName());
+        return conf.getDBDAO().doGetHistItemFilterCursor(item, filter, numberDecimalcount, table, item.getName(),
+                timeZoneProvider.getTimeZone(), conf.getQueryFetchSize());
+    }
+
     protected void deleteItemValues(FilterCriteria filter, String table) throws JdbcSQLException {
         logger.debug("JDBC::deleteItemValues filter='{}' table='{}' itemName='{}'", true, table, filter.getItemName());
         long timerStart = System.currentTimeMillis();
@@ -43,6 +43,7 @@ import org.openhab.core.types.UnDefType;
 import org.openhab.persistence.jdbc.internal.db.JdbcBaseDAO;
 import org.openhab.persistence.jdbc.internal.dto.Column;
 import org.openhab.persistence.jdbc.internal.dto.ItemsVO;
+import org.openhab.persistence.jdbc.internal.dto.JdbcQueuedItemState;
 import org.openhab.persistence.jdbc.internal.exceptions.JdbcException;
 import org.openhab.persistence.jdbc.internal.exceptions.JdbcSQLException;
 import org.osgi.framework.BundleContext;
@@ -71,6 +72,8 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
 
     private final ItemRegistry itemRegistry;
 
+    private @Nullable JdbcBatchWriter batchWriter;
+
     @Activate
     public JdbcPersistenceService(final @Reference ItemRegistry itemRegistry,
             final @Reference TimeZoneProvider timeZoneProvider) {
@@ -115,6 +118,7 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
     public void deactivate(final int reason) {
         logger.debug("JDBC::deactivate:  persistence bundle stopping. Disconnecting from database. reason={}", reason);
         // closeConnection();
+        stopBatchWriter();
         initialized = false;
     }
 
@@ -151,6 +155,11 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
             logger.debug("JDBC::store: ignore Item '{}' because it is UnDefType", item.getName());
             return;
         }
+        JdbcBatchWriter batchWriter = this.batchWriter;
+        if (batchWriter != null) {
+            batchWriter.enqueue(new JdbcQueuedItemState(item, state, date == null ? ZonedDateTime.now() : date));
+            return;
+        }
         if (!checkDBAccessability()) {
             logger.warn(
                     "JDBC::store: No connection to database. Cannot persist state '{}' for item '{}'! Will retry connecting to database when error count:{} equals errReconnectThreshold:{}",
@@ -226,6 +235,13 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
         }
 
         try {
+            if (conf.getQueryFetchSize() > 0
+                    && !(filter instanceof JdbcFilterCriteria jdbcFilter && jdbcFilter.getResolution() != null)) {
+                logger.debug("JDBC::query: streaming rows of item '{}' with fetch size {}", itemName,
+                        conf.getQueryFetchSize());
+                return getHistItemFilterCursor(filter, conf.getNumberDecimalcount(), table, item);
+            }
+
             long timerStart = System.currentTimeMillis();
             List<HistoricItem> items = getHistItemFilterQuery(filter, conf.getNumberDecimalcount(), table, item);
             if (logger.isDebugEnabled()) {
@@ -244,7 +260,11 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
     public void updateConfig(Map<Object, Object> configuration) {
         logger.debug("JDBC::updateConfig");
 
+        stopBatchWriter();
         conf = new JdbcConfiguration(configuration);
+        if (conf.valid && conf.getBatchWrite()) {
+            batchWriter = new JdbcBatchWriter(this, conf);
+        }
         if (conf.valid && checkDBAccessability()) {
             namingStrategy = new NamingStrategy(conf);
             try {
@@ -262,6 +282,21 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
         logger.debug("JDBC::updateConfig: configuration complete for service={}.", getId());
     }
 
+    private void stopBatchWriter() {
+        JdbcBatchWriter batchWriter = this.batchWriter;
+        if (batchWriter != null) {
+            batchWriter.stop();
+            this.batchWriter = null;
+        }
+    }
+
+    /**
+     * Get the write-behind queue, if enabled.
+     */
+    public @Nullable JdbcBatchWriter getBatchWriter() {
+        return batchWriter;
+    }
+
     @Override
     public List<PersistenceStrategy> getDefaultStrategies() {
         return List.of(PersistenceStrategy.Globals.CHANGE);
@@ -12,6 +12,8 @@
  */
 package org.openhab.persistence.jdbc.internal.console;
 
+import java.time.Duration;
+import java.time.ZonedDateTime;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
@@ -28,10 +30,15 @@ import org.openhab.core.io.console.ConsoleCommandCompleter;
 import org.openhab.core.io.console.StringsCompleter;
 import org.openhab.core.io.console.extensions.AbstractConsoleCommandExtension;
 import org.openhab.core.io.console.extensions.ConsoleCommandExtension;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.PersistenceServiceRegistry;
 import org.openhab.persistence.jdbc.internal.ItemTableCheckEntry;
 import org.openhab.persistence.jdbc.internal.ItemTableCheckEntryStatus;
+import org.openhab.persistence.jdbc.internal.JdbcBatchWriter;
+import org.openhab.persistence.jdbc.internal.JdbcFilterCriteria;
+import org.openhab.persistence.jdbc.internal.JdbcFilterCriteria.Aggregation;
 import org.openhab.persistence.jdbc.internal.JdbcPersistenceService;
 import org.openhab.persistence.jdbc.internal.JdbcPersistenceServiceConstants;
 import org.openhab.persistence.jdbc.internal.exceptions.JdbcSQLException;
@@ -51,6 +58,8 @@ public class JdbcCommandExtension extends AbstractConsoleCommandExtension implem
     private static final String CMD_SCHEMA = "schema";
     private static final String CMD_TABLES = "tables";
     private static final String CMD_RELOAD = "reload";
+    private static final String CMD_BATCH = "batch";
+    private static final String CMD_QUERY = "query";
     private static final String SUBCMD_SCHEMA_CHECK = "check";
     private static final String SUBCMD_SCHEMA_FIX = "fix";
     private static final String SUBCMD_TABLES_LIST = "list";
@@ -58,7 +67,7 @@ public class JdbcCommandExtension extends AbstractConsoleCommandExtension implem
     private static final String PARAMETER_ALL = "all";
     private static final String PARAMETER_FORCE = "force";
     private static final StringsCompleter CMD_COMPLETER = new StringsCompleter(
-            List.of(CMD_SCHEMA, CMD_TABLES, CMD_RELOAD), false);
+            List.of(CMD_SCHEMA, CMD_TABLES, CMD_RELOAD, CMD_BATCH, CMD_QUERY), false);
     private static final StringsCompleter SUBCMD_SCHEMA_COMPLETER = new StringsCompleter(
             List.of(SUBCMD_SCHEMA_CHECK, SUBCMD_SCHEMA_FIX), false);
     private static final StringsCompleter SUBCMD_TABLES_COMPLETER = new StringsCompleter(
@@ -74,7 +83,7 @@ public class JdbcCommandExtension extends AbstractConsoleCommandExtension implem
 
     @Override
     public void execute(String[] args, Console console) {
-        if (args.length < 1 || args.length > 4) {
+        if (args.length < 1 || args.length > 5) {
             printUsage(console);
             return;
         }
@@ -135,6 +144,11 @@ public class JdbcCommandExtension extends AbstractConsoleCommandExtension implem
         } else if (args.length == 1 && CMD_RELOAD.equalsIgnoreCase(args[0])) {
             reload(persistenceService, console);
             return true;
+        } else if (args.length == 1 && CMD_BATCH.equalsIgnoreCase(args[0])) {
+            showBatchStatistics(persistenceService, console);
+            return true;
+        } else if (args.length >= 3 && CMD_QUERY.equalsIgnoreCase(args[0])) {
+            return query(persistenceService, console, args);
         }
         return false;
     }
@@ -252,6 +266,47 @@ public class JdbcCommandExtension extends AbstractConsoleCommandExtension implem
         console.println("Item index reloaded.");
     }
 
+    private void showBatchStatistics(JdbcPersistenceService persistenceService, Console console) {
+        JdbcBatchWriter batchWriter = persistenceService.getBatchWriter();
+        if (batchWriter == null) {
+            console.println("Write-behind queue is disabled.");
+            return;
+        }
+        console.println(String.format("Queue depth:         %d/%d", batchWriter.getQueueDepth(),
+                batchWriter.getQueueSize()));
+        console.println(String.format("Batches written:     %d", batchWriter.getBatchCount()));
+        console.println(String.format("Values stored:       %d", batchWriter.getStoredCount()));
+        console.println(String.format("Values dropped:      %d", batchWriter.getDroppedCount()));
+        console.println(String.format("Values failed:       %d", batchWriter.getFailedCount()));
+        console.println(String.format("Avg. batch size:     %.2f", batchWriter.getAverageBatchSize()));
+        console.println(String.format("Avg. flush latency:  %.2f ms", batchWriter.getAverageFlushLatency()));
+    }
+
+    private boolean query(JdbcPersistenceService persistenceService, Console console, String[] args) {
+        JdbcFilterCriteria filter = new JdbcFilterCriteria();
+        try {
+            long hours = Long.parseLong(args[2]);
+            filter.setBeginDate(ZonedDateTime.now().minusHours(hours));
+            if (args.length >= 4) {
+                filter.setResolution(Duration.ofSeconds(Long.parseLong(args[3])));
+            }
+            if (args.length == 5) {
+                filter.setAggregation(Aggregation.valueOf(args[4].toUpperCase()));
+            }
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        filter.setItemName(args[1]);
+        filter.setOrdering(Ordering.ASCENDING);
+        int count = 0;
+        for (HistoricItem historicItem : persistenceService.query(filter)) {
+            console.println(historicItem.getTimestamp() + "  " + historicItem.getState());
+            count++;
+        }
+        console.println(count + " values");
+        return true;
+    }
+
     @Override
     public List<String> getUsages() {
         return Arrays.asList(buildCommandUsage(CMD_SCHEMA + " " + SUBCMD_SCHEMA_CHECK, "check schema integrity"),
@@ -261,7 +316,10 @@ public class JdbcCommandExtension extends AbstractConsoleCommandExtension implem
                 buildCommandUsage(
                         CMD_TABLES + " " + SUBCMD_TABLES_CLEAN + " [<itemName>]" + " [" + PARAMETER_FORCE + "]",
                         "clean inconsistent items (remove from index and drop tables)"),
-                buildCommandUsage(CMD_RELOAD, "reload item index/schema"));
+                buildCommandUsage(CMD_RELOAD, "reload item index/schema"),
+                buildCommandUsage(CMD_BATCH, "show write-behind queue statistics"),
+                buildCommandUsage(CMD_QUERY + " <itemName> <hours> [<resolution> [AVG|MIN|MAX|LAST]]",
+                        "show values of the last hours, aggregated per resolution seconds"));
     }
 
     @Override
@@ -278,6 +336,12 @@ public class JdbcCommandExtension extends AbstractConsoleCommandExtension implem
                 return SUBCMD_TABLES_COMPLETER.complete(args, cursorArgumentIndex, cursorPosition, candidates);
             } else if (CMD_SCHEMA.equalsIgnoreCase(args[0])) {
                 return SUBCMD_SCHEMA_COMPLETER.complete(args, cursorArgumentIndex, cursorPosition, candidates);
+            } else if (CMD_QUERY.equalsIgnoreCase(args[0])) {
+                JdbcPersistenceService persistenceService = getPersistenceService();
+                if (persistenceService != null) {
+                    return new StringsCompleter(persistenceService.getItemNames(), true).complete(args,
+                            cursorArgumentIndex, cursorPosition, candidates);
+                }
             }
         } else if (cursorArgumentIndex == 2) {
             if (CMD_TABLES.equalsIgnoreCase(args[0])) {
@@ -13,13 +13,18 @@
 package org.openhab.persistence.jdbc.internal.db;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.SQLException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -56,10 +61,12 @@ import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.types.State;
 import org.openhab.core.types.TypeParser;
+import org.openhab.persistence.jdbc.internal.JdbcFilterCriteria.Aggregation;
 import org.openhab.persistence.jdbc.internal.dto.Column;
 import org.openhab.persistence.jdbc.internal.dto.ItemVO;
 import org.openhab.persistence.jdbc.internal.dto.ItemsVO;
 import org.openhab.persistence.jdbc.internal.dto.JdbcHistoricItem;
+import org.openhab.persistence.jdbc.internal.dto.JdbcQueuedItemState;
 import org.openhab.persistence.jdbc.internal.exceptions.JdbcSQLException;
 import org.openhab.persistence.jdbc.internal.utils.DbMetaData;
 import org.openhab.persistence.jdbc.internal.utils.StringUtilsExt;
@@ -97,6 +104,11 @@ public class JdbcBaseDAO {
     protected String sqlAlterTableColumn = "ALTER TABLE #tableName# MODIFY COLUMN #columnName# #columnType#";
     protected String sqlInsertItemValue = "INSERT INTO #tableName# (time, value) VALUES( #tablePrimaryValue#, ? ) ON DUPLICATE KEY UPDATE VALUE= ?";
     protected String sqlGetRowCount = "SELECT COUNT(*) FROM #tableName#";
+    // Multi-row insert used by the write-behind queue, null if the database should use a JDBC batch instead
+    protected @Nullable String sqlInsertItemValues = null;
+    protected String sqlInsertItemValuesRow = "( ?, ? )";
+    // Expression truncating time to the start of its #resolution# seconds bucket, null if aggregation is unsupported
+    protected @Nullable String sqlTimeBucket = "FROM_UNIXTIME(FLOOR(UNIX_TIMESTAMP(time) / #resolution#) * #resolution#)";
 
     /********
      * INIT *
@@ -456,6 +468,55 @@ public class JdbcBaseDAO {
         }
     }
 
+    /**
+     * Stores a batch of queued states into one item table. If the database supports multi-row inserts
+     * ({@link #sqlInsertItemValues}), all values are sent in a single statement, otherwise a JDBC batch is used.
+     *
+     * @param tableName the item table to store into
+     * @param states the states to store, all belonging to the same item
+     * @throws JdbcSQLException on SQL errors
+     */
+    public void doStoreItemValues(String tableName, List<JdbcQueuedItemState> states) throws JdbcSQLException {
+        if (states.isEmpty()) {
+            return;
+        }
+        List<ItemVO> storedVOs = new ArrayList<>(states.size());
+        for (JdbcQueuedItemState queuedState : states) {
+            ItemVO storedVO = storeItemValueProvider(queuedState.getItem(), queuedState.getState(),
+                    new ItemVO(tableName, null));
+            storedVO.setTime(new java.sql.Timestamp(queuedState.getTimestamp().toInstant().toEpochMilli()));
+            storedVOs.add(storedVO);
+        }
+        try {
+            if (sqlInsertItemValues != null) {
+                // a single statement must not contain the same primary key twice, the latest value wins
+                Map<Long, ItemVO> uniqueVOs = new LinkedHashMap<>();
+                for (ItemVO storedVO : storedVOs) {
+                    uniqueVOs.put(storedVO.getTime().getTime(), storedVO);
+                }
+                String sql = storeItemValuesProvider(tableName, storedVOs.get(0).getDbType(), uniqueVOs.size());
+                Object[] params = new Object[uniqueVOs.size() * 2];
+                int i = 0;
+                for (ItemVO storedVO : uniqueVOs.values()) {
+                    params[i++] = storedVO.getTime();
+                    params[i++] = storedVO.getValue();
+                }
+                logger.debug("JDBC::doStoreItemValues sql={} rows={}", sql, uniqueVOs.size());
+                Yank.execute(sql, params);
+            } else {
+                String sql = storeItemValueSqlProvider(storedVOs.get(0));
+                Object[][] params = new Object[storedVOs.size()][];
+                for (int i = 0; i < storedVOs.size(); i++) {
+                    params[i] = storeItemValueParamsProvider(storedVOs.get(i));
+                }
+                logger.debug("JDBC::doStoreItemValues sql={} batchSize={}", sql, params.length);
+                Yank.executeBatch(sql, params);
+            }
+        } catch (YankSQLException e) {
+            throw new JdbcSQLException(e);
+        }
+    }
+
     public List<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount,
             String table, String name, ZoneId timeZone) throws JdbcSQLException {
         String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name, timeZone);
@@ -478,6 +539,72 @@ public class JdbcBaseDAO {
                 .collect(Collectors.<HistoricItem> toList());
     }
 
+    /**
+     * Provides the query result as a lazily evaluated {@link Iterable}. Every iteration runs the query on its own
+     * connection and reads the rows through a {@link JdbcHistoricItemCursor}.
+     *
+     * Only unbounded queries are streamed. A cursor keeps its connection until the last row has been read, and callers
+     * of paged queries often read only the first row, so the rows of a page are read at once like in
+     * {@link #doGetHistItemFilterQuery}.
+     */
+    public Iterable<HistoricItem> doGetHistItemFilterCursor(Item item, FilterCriteria filter, int numberDecimalcount,
+            String table, String name, ZoneId timeZone, int fetchSize) throws JdbcSQLException {
+        if (filter.getPageSize() != Integer.MAX_VALUE) {
+            return doGetHistItemFilterQuery(item, filter, numberDecimalcount, table, name, timeZone);
+        }
+        String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name, timeZone);
+        // we already retrieve the unit here once as it is a very costly operation
+        String itemName = item.getName();
+        Unit<? extends Quantity<?>> unit = item instanceof NumberItem ? ((NumberItem) item).getUnit() : null;
+        return () -> {
+            logger.debug("JDBC::doGetHistItemFilterCursor sql={} fetchSize={}", sql, fetchSize);
+            try {
+                return new JdbcHistoricItemCursor(Yank.getDefaultConnectionPool().getConnection(), sql, fetchSize,
+                        (time, value) -> new JdbcHistoricItem(itemName, objectAsState(item, unit, value),
+                                objectAsZonedDateTime(time)));
+            } catch (SQLException e) {
+                logger.warn("JDBC::doGetHistItemFilterCursor: Unable to query item '{}'", itemName, e);
+                return Collections.emptyIterator();
+            }
+        };
+    }
+
+    /**
+     * Checks if the values of the given item can be aggregated by the database.
+     */
+    public boolean isAggregationSupported(Item item) {
+        return sqlTimeBucket != null && (item instanceof NumberItem || item instanceof RollershutterItem
+                || (item instanceof DimmerItem && !(item instanceof ColorItem)));
+    }
+
+    /**
+     * Queries one aggregated value per bucket of {@code resolutionSeconds} instead of all stored values.
+     */
+    public List<HistoricItem> doGetHistItemAggregateQuery(Item item, FilterCriteria filter, int numberDecimalcount,
+            String table, ZoneId timeZone, long resolutionSeconds, Aggregation aggregation) throws JdbcSQLException {
+        String sql = histItemAggregateQueryProvider(filter, numberDecimalcount, table, getItemType(item), timeZone,
+                resolutionSeconds, aggregation);
+        logger.debug("JDBC::doGetHistItemAggregateQuery sql={}", sql);
+        List<Object[]> m;
+        try {
+            m = Yank.queryObjectArrays(sql, null);
+        } catch (YankSQLException e) {
+            throw new JdbcSQLException(e);
+        }
+        if (m == null) {
+            logger.debug("JDBC::doGetHistItemAggregateQuery Query failed. Returning an empty list.");
+            return List.of();
+        }
+        String itemName = item.getName();
+        Unit<? extends Quantity<?>> unit = item instanceof NumberItem ? ((NumberItem) item).getUnit() : null;
+        boolean last = aggregation == Aggregation.LAST;
+        return m.stream().filter(o -> o[1] != null)
+                .map(o -> new JdbcHistoricItem(itemName,
+                        last ? objectAsState(item, unit, o[1]) : aggregateAsState(item, unit, o[1]),
+                        objectAsZonedDateTime(o[0])))
+                .collect(Collectors.<HistoricItem> toList());
+    }
+
     public void doDeleteItemValues(FilterCriteria filter, String table, ZoneId timeZone) throws JdbcSQLException {
         String sql = histItemFilterDeleteProvider(filter, table, timeZone);
         logger.debug("JDBC::doDeleteItemValues sql={}", sql);
@@ -513,9 +640,7 @@ public class JdbcBaseDAO {
 
         String filterString = resolveTimeFilter(filter, timeZone);
         filterString += (filter.getOrdering() == Ordering.ASCENDING) ? " ORDER BY time ASC" : " ORDER BY time DESC";
-        if (filter.getPageSize() != Integer.MAX_VALUE) {
-            filterString += " LIMIT " + filter.getPageNumber() * filter.getPageSize() + "," + filter.getPageSize();
-        }
+        filterString += pagingProvider(filter);
         // SELECT time, ROUND(value,3) FROM number_item_0114 ORDER BY time DESC LIMIT 0,1
         // rounding HALF UP
         String queryString = "NUMBERITEM".equalsIgnoreCase(simpleName) && numberDecimalcount > -1
@@ -528,6 +653,49 @@ public class JdbcBaseDAO {
         return queryString;
     }
 
+    protected String histItemAggregateQueryProvider(FilterCriteria filter, int numberDecimalcount, String table,
+            String simpleName, ZoneId timeZone, long resolutionSeconds, Aggregation aggregation) {
+        logger.debug(
+                "JDBC::histItemAggregateQueryProvider filter = {}, numberDecimalcount = {}, table = {}, simpleName = {}, resolution = {}, aggregation = {}",
+                filter, numberDecimalcount, table, simpleName, resolutionSeconds, aggregation);
+        String sqlTimeBucket = this.sqlTimeBucket;
+        if (sqlTimeBucket == null) {
+            throw new UnsupportedOperationException("Aggregation is not supported by " + getClass().getSimpleName());
+        }
+        String bucket = sqlTimeBucket.replace("#resolution#", String.valueOf(resolutionSeconds));
+        String filterString = resolveTimeFilter(filter, timeZone);
+        String direction = filter.getOrdering() == Ordering.ASCENDING ? " ASC" : " DESC";
+
+        // SELECT time, value FROM number_item_0114 WHERE time IN (SELECT MAX(time) FROM number_item_0114 GROUP BY
+        // <bucket>) ORDER BY time ASC
+        // SELECT <bucket> AS time, AVG(value) FROM number_item_0114 GROUP BY <bucket> ORDER BY 1 ASC
+        String queryString = aggregation == Aggregation.LAST
+                ? "SELECT time, value FROM " + table + " WHERE time IN (SELECT MAX(time) FROM " + table + filterString
+                        + " GROUP BY " + bucket + ") ORDER BY time" + direction
+                : "SELECT " + bucket + " AS time, "
+                        + aggregateValueProvider(aggregation, simpleName, numberDecimalcount) + " FROM " + table
+                        + filterString + " GROUP BY " + bucket + " ORDER BY 1" + direction;
+        queryString += pagingProvider(filter);
+        logger.debug("JDBC::query queryString = {}", queryString);
+        return queryString;
+    }
+
+    /**
+     * Provides the aggregated value column, rounded for number items like the plain query.
+     */
+    protected String aggregateValueProvider(Aggregation aggregation, String simpleName, int numberDecimalcount) {
+        String value = aggregation.name() + "(value)";
+        return "NUMBERITEM".equalsIgnoreCase(simpleName) && numberDecimalcount > -1
+                ? "ROUND(" + value + "," + numberDecimalcount + ")"
+                : value;
+    }
+
+    protected String pagingProvider(FilterCriteria filter) {
+        return filter.getPageSize() != Integer.MAX_VALUE
+                ? " LIMIT " + filter.getPageNumber() * filter.getPageSize() + "," + filter.getPageSize()
+                : "";
+    }
+
     protected String histItemFilterDeleteProvider(FilterCriteria filter, String table, ZoneId timeZone) {
         logger.debug("JDBC::histItemFilterDeleteProvider filter = {}, table = {}", filter, table);
 
@@ -553,6 +721,36 @@ public class JdbcBaseDAO {
         return filterString;
     }
 
+    /**
+     * Provides the single-row insert statement with a bound timestamp, used for JDBC batches.
+     */
+    protected String storeItemValueSqlProvider(ItemVO storedVO) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+                new String[] { "#tableName#", "#tablePrimaryValue#" }, new String[] { storedVO.getTableName(), "?" });
+    }
+
+    /**
+     * Provides the parameters matching {@link #storeItemValueSqlProvider(ItemVO)}.
+     */
+    protected Object[] storeItemValueParamsProvider(ItemVO storedVO) {
+        return new Object[] { storedVO.getTime(), storedVO.getValue(), storedVO.getValue() };
+    }
+
+    /**
+     * Provides the multi-row insert statement for {@code rowCount} rows, each row binding time and value.
+     */
+    protected String storeItemValuesProvider(String tableName, String dbType, int rowCount) {
+        String sqlInsertItemValues = this.sqlInsertItemValues;
+        if (sqlInsertItemValues == null) {
+            throw new UnsupportedOperationException(
+                    "Multi-row insert is not supported by " + getClass().getSimpleName());
+        }
+        String row = StringUtilsExt.replaceArrayMerge(sqlInsertItemValuesRow, new String[] { "#dbType#" },
+                new String[] { dbType });
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValues, new String[] { "#tableName#", "#valueRows#" },
+                new String[] { tableName, String.join(", ", Collections.nCopies(rowCount, row)) });
+    }
+
     private String updateItemTableNamesProvider(ItemVO itemTable) {
         String queryString = "ALTER TABLE " + itemTable.getTableName() + " RENAME TO " + itemTable.getNewTableName();
         logger.debug("JDBC::query queryString = {}", queryString);
@@ -700,6 +898,17 @@ public class JdbcBaseDAO {
         }
     }
 
+    /**
+     * Converts an aggregated value, whose SQL type may differ from the column type (e.g. AVG of an integer column).
+     */
+    protected State aggregateAsState(Item item, @Nullable Unit<? extends Quantity<?>> unit, Object v) {
+        BigDecimal value = v instanceof BigDecimal ? (BigDecimal) v : new BigDecimal(objectAsString(v));
+        if (item instanceof NumberItem) {
+            return unit == null ? new DecimalType(value) : QuantityType.valueOf(value.doubleValue(), unit);
+        }
+        return new PercentType(value.setScale(0, RoundingMode.HALF_UP));
+    }
+
     protected ZonedDateTime objectAsZonedDateTime(Object v) {
         if (v instanceof Long) {
             return ZonedDateTime.ofInstant(Instant.ofEpochMilli(((Number) v).longValue()), ZoneId.systemDefault());
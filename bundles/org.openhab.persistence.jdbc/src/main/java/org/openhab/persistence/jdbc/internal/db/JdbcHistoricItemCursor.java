@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal.db;
+
+import java.lang.ref.Cleaner;
+import java.lang.ref.Cleaner.Cleanable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.NamedThreadFactory;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.persistence.jdbc.internal.JdbcPersistenceServiceConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link JdbcHistoricItemCursor} iterates over a query result using a forward-only cursor.
+ *
+ * Rows are fetched from the database in chunks of the given fetch size and converted to {@link HistoricItem}s only
+ * when they are iterated. The connection is closed as soon as the last row has been read, when {@link #close()} is
+ * called or when the cursor becomes unreachable before it was exhausted.
+ *
+ * @author Helmut Lehmeyer - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcHistoricItemCursor implements Iterator<HistoricItem>, AutoCloseable {
+
+    private static final Cleaner CLEANER = Cleaner
+            .create(new NamedThreadFactory(JdbcPersistenceServiceConstants.SERVICE_ID + "-cursor"));
+
+    private final Resources resources;
+    private final Cleanable cleanable;
+    private final BiFunction<Object, Object, HistoricItem> rowMapper;
+    private @Nullable HistoricItem next;
+
+    /**
+     * Executes the query and takes ownership of the connection, which is closed if the query fails.
+     *
+     * @param connection the connection to run the query on
+     * @param sql the query returning time and value columns
+     * @param fetchSize the number of rows fetched from the database at once
+     * @param rowMapper converts the time and value of a row to a {@link HistoricItem}
+     * @throws SQLException if the query cannot be executed
+     */
+    public JdbcHistoricItemCursor(Connection connection, String sql, int fetchSize,
+            BiFunction<Object, Object, HistoricItem> rowMapper) throws SQLException {
+        this.rowMapper = rowMapper;
+        Statement statement = null;
+        try {
+            // PostgreSQL only uses a cursor when auto-commit is disabled
+            connection.setAutoCommit(false);
+            statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            resources = new Resources(connection, statement, statement.executeQuery(sql));
+        } catch (SQLException e) {
+            Resources.closeQuietly(statement);
+            Resources.closeQuietly(connection);
+            throw e;
+        }
+        cleanable = CLEANER.register(this, resources);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !resources.closed) {
+            try {
+                ResultSet resultSet = resources.resultSet;
+                if (resultSet.next()) {
+                    next = rowMapper.apply(resultSet.getObject(1), resultSet.getObject(2));
+                } else {
+                    close();
+                }
+            } catch (SQLException e) {
+                resources.logger.warn("JDBC::JdbcHistoricItemCursor: Unable to read next row, ending result", e);
+                close();
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public HistoricItem next() {
+        HistoricItem item = hasNext() ? next : null;
+        if (item == null) {
+            throw new NoSuchElementException();
+        }
+        next = null;
+        return item;
+    }
+
+    /**
+     * Releases the result set, statement and connection. Calling this more than once has no effect.
+     */
+    @Override
+    public void close() {
+        cleanable.clean();
+    }
+
+    public boolean isClosed() {
+        return resources.closed;
+    }
+
+    /**
+     * Holds the database resources separately from the cursor, so they can be released once the cursor is unreachable.
+     */
+    private static class Resources implements Runnable {
+        private final Logger logger = LoggerFactory.getLogger(JdbcHistoricItemCursor.class);
+
+        private final Connection connection;
+        private final Statement statement;
+        private final ResultSet resultSet;
+        private volatile boolean closed = false;
+
+        Resources(Connection connection, Statement statement, ResultSet resultSet) {
+            this.connection = connection;
+            this.statement = statement;
+            this.resultSet = resultSet;
+        }
+
+        @Override
+        public void run() {
+            closed = true;
+            closeQuietly(resultSet);
+            closeQuietly(statement);
+            closeQuietly(connection);
+            logger.debug("JDBC::JdbcHistoricItemCursor: released connection");
+        }
+
+        static void closeQuietly(@Nullable AutoCloseable closeable) {
+            if (closeable != null) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    LoggerFactory.getLogger(JdbcHistoricItemCursor.class)
+                            .debug("JDBC::JdbcHistoricItemCursor: Unable to close {}", closeable, e);
+                }
+            }
+        }
+    }
+}
@@ -36,6 +36,10 @@ public class JdbcTimescaledbDAO extends JdbcPostgresqlDAO {
 
     private final String sqlCreateHypertable = "SELECT created from create_hypertable('#tableName#', 'time')";
 
+    public JdbcTimescaledbDAO() {
+        sqlTimeBucket = "time_bucket(INTERVAL '#resolution# seconds', time)";
+    }
+
     @Override
     public Properties getConnectionProperties() {
         Properties properties = (Properties) this.databaseProps.clone();
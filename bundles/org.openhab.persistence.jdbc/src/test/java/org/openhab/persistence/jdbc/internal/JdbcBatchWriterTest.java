@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.persistence.jdbc.internal.dto.JdbcQueuedItemState;
+import org.openhab.persistence.jdbc.internal.exceptions.JdbcException;
+
+/**
+ * Tests the {@link JdbcBatchWriter}.
+ *
+ * @author Helmut Lehmeyer - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcBatchWriterTest {
+
+    private final JdbcMapper mapper = mock(JdbcMapper.class);
+    private final JdbcConfiguration conf = mock(JdbcConfiguration.class);
+    private final NumberItem good = new NumberItem("Good");
+    private final NumberItem bad = new NumberItem("Bad");
+
+    @BeforeEach
+    public void setup() throws JdbcException {
+        when(conf.getBatchQueueSize()).thenReturn(100);
+        when(conf.getBatchMaxSize()).thenReturn(10);
+        when(conf.getBatchMaxLatency()).thenReturn(10_000);
+        when(conf.getBatchOverflowPolicy()).thenReturn(JdbcBatchWriter.OverflowPolicy.DROP_NEWEST);
+        when(mapper.checkDBAccessability()).thenReturn(true);
+        when(mapper.getTable(any())).thenReturn("item0001");
+    }
+
+    @Test
+    void batchIsStoredWithOneStatement() throws JdbcException {
+        JdbcBatchWriter writer = new JdbcBatchWriter(mapper, conf);
+        writer.enqueue(state(good, 1));
+        writer.enqueue(state(good, 2));
+        writer.stop();
+
+        verify(mapper).storeItemValues(eq("item0001"), argThat(states -> states.size() == 2));
+        verify(mapper, never()).storeItemValue(any(), any(), any());
+        assertThat(writer.getStoredCount(), is(2L));
+        assertThat(writer.getFailedCount(), is(0L));
+    }
+
+    @Test
+    void failedBatchIsRetriedRowByRow() throws JdbcException {
+        doThrow(new JdbcException("ON CONFLICT not supported")).when(mapper).storeItemValues(anyString(), anyList());
+        doThrow(new JdbcException("bad row")).when(mapper).storeItemValue(eq(bad), any(), any());
+
+        JdbcBatchWriter writer = new JdbcBatchWriter(mapper, conf);
+        JdbcQueuedItemState first = state(good, 1);
+        JdbcQueuedItemState second = state(bad, 2);
+        JdbcQueuedItemState third = state(good, 3);
+        writer.enqueue(first);
+        writer.enqueue(second);
+        writer.enqueue(third);
+        writer.stop();
+
+        verify(mapper).storeItemValue(good, first.getState(), first.getTimestamp());
+        verify(mapper).storeItemValue(bad, second.getState(), second.getTimestamp());
+        verify(mapper).storeItemValue(good, third.getState(), third.getTimestamp());
+        assertThat(writer.getStoredCount(), is(2L));
+        assertThat(writer.getFailedCount(), is(1L));
+    }
+
+    @Test
+    void stopDoesNotWaitForMaxLatency() throws JdbcException {
+        JdbcBatchWriter writer = new JdbcBatchWriter(mapper, conf);
+        writer.enqueue(state(good, 1));
+
+        long start = System.nanoTime();
+        writer.stop();
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000, is(true));
+        verify(mapper).storeItemValues(eq("item0001"), argThat(states -> states.size() == 1));
+    }
+
+    @Test
+    void statesAreNotKeptWhileDatabaseIsNotReachable() throws JdbcException {
+        when(mapper.checkDBAccessability()).thenReturn(false);
+
+        JdbcBatchWriter writer = new JdbcBatchWriter(mapper, conf);
+        writer.enqueue(state(good, 1));
+        writer.enqueue(state(good, 2));
+        writer.stop();
+
+        verify(mapper, never()).storeItemValues(anyString(), anyList());
+        assertThat(writer.getFailedCount(), is(2L));
+        assertThat(writer.getQueueDepth(), is(0));
+    }
+
+    @Test
+    void newestStatesAreDroppedWhenQueueIsFull() throws JdbcException, InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(conf.getBatchQueueSize()).thenReturn(1);
+        when(conf.getBatchMaxSize()).thenReturn(1);
+        when(mapper.checkDBAccessability()).thenAnswer(invocation -> release.await(10, TimeUnit.SECONDS));
+
+        JdbcBatchWriter writer = new JdbcBatchWriter(mapper, conf);
+        int queued = 0;
+        for (int i = 0; i < 3; i++) {
+            queued += writer.enqueue(state(good, i)) ? 1 : 0;
+        }
+        release.countDown();
+        writer.stop();
+
+        assertThat(queued < 3, is(true));
+        assertThat(writer.getDroppedCount(), is((long) 3 - queued));
+        assertThat(writer.getStoredCount(), is((long) queued));
+    }
+
+    private static JdbcQueuedItemState state(NumberItem item, int value) {
+        return new JdbcQueuedItemState(item, new DecimalType(value), ZonedDateTime.now());
+    }
+}
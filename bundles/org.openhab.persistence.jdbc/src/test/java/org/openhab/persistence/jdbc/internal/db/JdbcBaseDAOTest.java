@@ -16,7 +16,9 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -56,6 +58,8 @@ import org.openhab.core.library.unit.SIUnits;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.types.State;
+import org.openhab.persistence.jdbc.internal.JdbcFilterCriteria.Aggregation;
+import org.openhab.persistence.jdbc.internal.dto.ItemVO;
 
 /**
  * Tests the {@link JdbcBaseDAO}.
@@ -275,6 +279,98 @@ public class JdbcBaseDAOTest {
                         + JdbcBaseDAO.JDBC_DATE_FORMAT.format(Objects.requireNonNull(filter.getEndDate())) + "'"));
     }
 
+    @Test
+    public void testStoreItemValueSqlProviderReturnsInsertWithBoundTime() {
+        ItemVO vo = new ItemVO(DB_TABLE_NAME, null);
+
+        String sql = jdbcBaseDAO.storeItemValueSqlProvider(vo);
+        assertThat(sql, is("INSERT INTO " + DB_TABLE_NAME
+                + " (time, value) VALUES( ?, ? ) ON DUPLICATE KEY UPDATE VALUE= ?"));
+    }
+
+    @Test
+    public void testStoreItemValuesProviderReturnsMultiRowInsertForMysql() {
+        String sql = new JdbcMysqlDAO().storeItemValuesProvider(DB_TABLE_NAME, "DOUBLE", 3);
+        assertThat(sql, is("INSERT INTO " + DB_TABLE_NAME
+                + " (time, value) VALUES ( ?, ? ), ( ?, ? ), ( ?, ? ) ON DUPLICATE KEY UPDATE VALUE=VALUES(VALUE)"));
+    }
+
+    @Test
+    public void testStoreItemValuesProviderReturnsMultiRowInsertWithCastForPostgresql() {
+        String sql = new JdbcPostgresqlDAO().storeItemValuesProvider(DB_TABLE_NAME, "DOUBLE PRECISION", 2);
+        assertThat(sql, is("INSERT INTO " + DB_TABLE_NAME
+                + " (TIME, VALUE) VALUES ( ?, CAST( ? as DOUBLE PRECISION) ), ( ?, CAST( ? as DOUBLE PRECISION) )"));
+    }
+
+    @Test
+    public void testStoreItemValuesProviderThrowsIfMultiRowInsertIsNotSupported() {
+        assertThrows(UnsupportedOperationException.class,
+                () -> jdbcBaseDAO.storeItemValuesProvider(DB_TABLE_NAME, "DOUBLE", 2));
+    }
+
+    @Test
+    public void testHistItemAggregateQueryProviderReturnsGroupedAverageQueryForMysql() {
+        filter.setBeginDate(parseDateTimeString("2022-01-10T15:01:44"));
+        filter.setOrdering(Ordering.ASCENDING);
+
+        String sql = new JdbcMysqlDAO().histItemAggregateQueryProvider(filter, -1, DB_TABLE_NAME, "NUMBERITEM",
+                UTC_ZONE_ID, 300, Aggregation.AVG);
+        String bucket = "FROM_UNIXTIME(FLOOR(UNIX_TIMESTAMP(time) / 300) * 300)";
+        assertThat(sql, is("SELECT " + bucket + " AS time, AVG(value) FROM " + DB_TABLE_NAME
+                + " WHERE TIME>='2022-01-10 15:01:44' GROUP BY " + bucket + " ORDER BY 1 ASC"));
+    }
+
+    @Test
+    public void testHistItemAggregateQueryProviderReturnsLastRowPerBucketQuery() {
+        filter.setPageSize(10);
+
+        String sql = jdbcBaseDAO.histItemAggregateQueryProvider(filter, -1, DB_TABLE_NAME, "NUMBERITEM", UTC_ZONE_ID,
+                60, Aggregation.LAST);
+        assertThat(sql, is("SELECT time, value FROM " + DB_TABLE_NAME + " WHERE time IN (SELECT MAX(time) FROM "
+                + DB_TABLE_NAME + " GROUP BY FROM_UNIXTIME(FLOOR(UNIX_TIMESTAMP(time) / 60) * 60))"
+                + " ORDER BY time DESC LIMIT 0,10"));
+    }
+
+    @Test
+    public void testHistItemAggregateQueryProviderUsesTimeBucketAndRoundingForTimescaledb() {
+        filter.setPageSize(10);
+
+        String sql = new JdbcTimescaledbDAO().histItemAggregateQueryProvider(filter, 2, DB_TABLE_NAME, "NUMBERITEM",
+                UTC_ZONE_ID, 3600, Aggregation.MAX);
+        String bucket = "time_bucket(INTERVAL '3600 seconds', time)";
+        assertThat(sql, is("SELECT " + bucket + " AS time, ROUND(CAST (MAX(value) AS numeric),2) FROM "
+                + DB_TABLE_NAME + " GROUP BY " + bucket + " ORDER BY 1 DESC OFFSET 0 LIMIT 10"));
+    }
+
+    @Test
+    public void testHistItemAggregateQueryProviderKeepsPostgresqlBucketsZoneLessForNonUtcSessionZone() {
+        filter.setBeginDate(parseDateTimeString("2022-01-10T15:01:44"));
+        filter.setOrdering(Ordering.ASCENDING);
+
+        String sql = new JdbcPostgresqlDAO().histItemAggregateQueryProvider(filter, -1, DB_TABLE_NAME, "NUMBERITEM",
+                ZoneId.of("Europe/Berlin"), 900, Aggregation.AVG);
+        String bucket = "TO_TIMESTAMP(FLOOR(EXTRACT(EPOCH FROM time) / 900) * 900) AT TIME ZONE 'UTC'";
+        assertThat(sql, is("SELECT " + bucket + " AS time, AVG(value) FROM " + DB_TABLE_NAME
+                + " WHERE TIME>='2022-01-10 16:01:44' GROUP BY " + bucket + " ORDER BY 1 ASC"));
+    }
+
+    @Test
+    public void testIsAggregationSupportedOnlyForNumericItemsAndSupportingDatabases() {
+        assertThat(jdbcBaseDAO.isAggregationSupported(new NumberItem("Number")), is(true));
+        assertThat(jdbcBaseDAO.isAggregationSupported(new DimmerItem("Dimmer")), is(true));
+        assertThat(jdbcBaseDAO.isAggregationSupported(new ColorItem("Color")), is(false));
+        assertThat(jdbcBaseDAO.isAggregationSupported(new StringItem("String")), is(false));
+        assertThat(new JdbcDerbyDAO().isAggregationSupported(new NumberItem("Number")), is(false));
+    }
+
+    @Test
+    public void testAggregateAsStateConvertsAverageOfIntegerColumn() {
+        assertThat(jdbcBaseDAO.aggregateAsState(new DimmerItem("Dimmer"), null, new BigDecimal("42.5000")),
+                is(new PercentType(43)));
+        assertThat(jdbcBaseDAO.aggregateAsState(new NumberItem("Number"), null, 12.25),
+                is(new DecimalType(new BigDecimal("12.25"))));
+    }
+
     private ZonedDateTime parseDateTimeString(String dts) {
         return ZonedDateTime.of(LocalDateTime.parse(dts, DATE_PARSER), UTC_ZONE_ID);
     }
@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal.db;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.knowm.yank.Yank;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.persistence.jdbc.internal.dto.JdbcHistoricItem;
+import org.openhab.persistence.jdbc.internal.exceptions.JdbcSQLException;
+
+/**
+ * Tests the {@link JdbcHistoricItemCursor} against an H2 database.
+ *
+ * @author Helmut Lehmeyer - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcHistoricItemCursorTest {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final BiFunction<Object, Object, HistoricItem> ROW_MAPPER = (time, value) -> new JdbcHistoricItem(
+            "Test", new DecimalType(((Number) value).doubleValue()),
+            ((Timestamp) time).toInstant().atZone(ZoneId.systemDefault()));
+
+    private @TempDir @NonNullByDefault({}) Path tempDir;
+    private @NonNullByDefault({}) String url;
+
+    @BeforeEach
+    public void setup() {
+        url = "jdbc:h2:" + tempDir.resolve("cursor").toAbsolutePath();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Yank.releaseDefaultConnectionPool();
+    }
+
+    @Test
+    public void cursorIteratesAllRowsAndClosesConnectionWhenExhausted() throws SQLException {
+        createTable(10);
+        Connection connection = DriverManager.getConnection(url);
+        JdbcHistoricItemCursor cursor = new JdbcHistoricItemCursor(connection,
+                "SELECT time, value FROM item0001 ORDER BY time ASC", FETCH_SIZE, ROW_MAPPER);
+
+        int count = 0;
+        while (cursor.hasNext()) {
+            assertThat(cursor.next().getState(), is(new DecimalType(++count)));
+        }
+
+        assertThat(count, is(10));
+        assertThat(cursor.isClosed(), is(true));
+        assertThat(connection.isClosed(), is(true));
+        assertThrows(NoSuchElementException.class, cursor::next);
+    }
+
+    @Test
+    public void closeReleasesConnectionBeforeCursorIsExhausted() throws SQLException {
+        createTable(10);
+        Connection connection = DriverManager.getConnection(url);
+        JdbcHistoricItemCursor cursor = new JdbcHistoricItemCursor(connection,
+                "SELECT time, value FROM item0001 ORDER BY time ASC", FETCH_SIZE, ROW_MAPPER);
+        cursor.next();
+
+        cursor.close();
+
+        assertThat(connection.isClosed(), is(true));
+        assertThat(cursor.hasNext(), is(false));
+    }
+
+    @Test
+    public void failingQueryClosesConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+
+        assertThrows(SQLException.class, () -> new JdbcHistoricItemCursor(connection,
+                "SELECT time, value FROM missing_table", FETCH_SIZE, ROW_MAPPER));
+        assertThat(connection.isClosed(), is(true));
+    }
+
+    @Test
+    public void rowsAreConvertedOnlyWhenIterated() throws SQLException {
+        createTable(100);
+        AtomicInteger converted = new AtomicInteger();
+        JdbcHistoricItemCursor cursor = new JdbcHistoricItemCursor(DriverManager.getConnection(url),
+                "SELECT time, value FROM item0001 ORDER BY time ASC", FETCH_SIZE, (time, value) -> {
+                    converted.incrementAndGet();
+                    return ROW_MAPPER.apply(time, value);
+                });
+
+        assertThat(converted.get(), is(0));
+        cursor.next();
+        assertThat(converted.get(), is(1));
+        cursor.hasNext();
+        cursor.hasNext();
+        assertThat(converted.get(), is(2));
+
+        cursor.close();
+        assertThat(converted.get(), is(2));
+    }
+
+    @Test
+    public void queryIsRunWithForwardOnlyCursorAndFetchSize() throws SQLException {
+        createTable(10);
+        Connection connection = spy(DriverManager.getConnection(url));
+        AtomicReference<Statement> statement = new AtomicReference<>();
+        doAnswer(invocation -> {
+            Statement spy = spy((Statement) invocation.callRealMethod());
+            statement.set(spy);
+            return spy;
+        }).when(connection).createStatement(anyInt(), anyInt());
+
+        JdbcHistoricItemCursor cursor = new JdbcHistoricItemCursor(connection,
+                "SELECT time, value FROM item0001 ORDER BY time ASC", FETCH_SIZE, ROW_MAPPER);
+
+        // without these the PostgreSQL driver reads the whole result into memory
+        verify(connection).setAutoCommit(false);
+        verify(connection).createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        verify(statement.get()).setFetchSize(FETCH_SIZE);
+        cursor.close();
+        assertThat(connection.isClosed(), is(true));
+    }
+
+    @Test
+    public void pagedQueryDoesNotHoldConnection() throws SQLException, JdbcSQLException {
+        createTable(10);
+        setupConnectionPool();
+        FilterCriteria filter = new FilterCriteria();
+        filter.setOrdering(Ordering.DESCENDING);
+        filter.setPageSize(1);
+
+        // like historicState, read the first row and drop the iterator
+        Iterator<HistoricItem> iterator = new JdbcBaseDAO().doGetHistItemFilterCursor(new NumberItem("Test"), filter,
+                -1, "item0001", "NUMBERITEM", ZoneId.systemDefault(), FETCH_SIZE).iterator();
+        assertThat(iterator.next().getState(), is(new DecimalType(10)));
+
+        assertThat(activeConnections(), is(0));
+    }
+
+    @Test
+    public void unboundedQueryReleasesConnectionWhenExhausted() throws SQLException, JdbcSQLException {
+        createTable(10);
+        setupConnectionPool();
+
+        Iterator<HistoricItem> iterator = new JdbcBaseDAO().doGetHistItemFilterCursor(new NumberItem("Test"),
+                new FilterCriteria(), -1, "item0001", "NUMBERITEM", ZoneId.systemDefault(), FETCH_SIZE).iterator();
+        iterator.next();
+        assertThat(activeConnections(), is(1));
+        iterator.forEachRemaining(item -> {
+        });
+
+        assertThat(activeConnections(), is(0));
+    }
+
+    private void setupConnectionPool() {
+        Properties properties = new Properties();
+        // the base DAO pages with LIMIT offset,count
+        properties.setProperty("jdbcUrl", url + ";MODE=MySQL");
+        properties.setProperty("maximumPoolSize", "1");
+        Yank.setupDefaultConnectionPool(properties);
+    }
+
+    private static int activeConnections() {
+        return Yank.getDefaultConnectionPool().getHikariPoolMXBean().getActiveConnections();
+    }
+
+    private void createTable(int rowCount) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url);
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE item0001 (time TIMESTAMP NOT NULL, value DOUBLE, PRIMARY KEY(time))");
+            statement.execute("INSERT INTO item0001 SELECT DATEADD('SECOND', X, TIMESTAMP '2000-01-01 00:00:00'), X"
+                    + " FROM SYSTEM_RANGE(1, " + rowCount + ")");
+        }
+    }
+}
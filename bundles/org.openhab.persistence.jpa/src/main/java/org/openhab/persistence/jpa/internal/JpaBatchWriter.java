@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jpa.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
+import org.openhab.persistence.jpa.internal.model.JpaPersistentItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link JpaBatchWriter} persists items in batches using a long-lived {@link EntityManager}.
+ *
+ * Items are put into a bounded queue and written by a dedicated thread, which persists each batch in a single
+ * transaction. A batch is flushed when it reaches the configured size or when the oldest queued item has waited for
+ * the configured maximum latency. When the queue is full, the oldest queued item is discarded.
+ *
+ * The entity manager is only used by the writer thread. It is cleared after each batch so the persistence context does
+ * not grow, and replaced after a failed transaction. The items of a failed transaction are counted as failed and not
+ * stored one by one like in the JDBC writer: all items go to the same table with string values, so a failure is caused
+ * by the database or the connection and not by a single item.
+ *
+ * @author Manfred Bergmann - Initial contribution
+ */
+@NonNullByDefault
+public class JpaBatchWriter {
+
+    private static final String THREAD_POOL_NAME = "persistence-jpa";
+    private static final int STOP_TIMEOUT_SECONDS = 10;
+    // the longest time the writer waits without checking whether it has been stopped
+    private static final long STOP_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Logger logger = LoggerFactory.getLogger(JpaBatchWriter.class);
+
+    private final Supplier<EntityManagerFactory> entityManagerFactory;
+    private final BlockingQueue<JpaPersistentItem> queue;
+    private final int batchSize;
+    private final long maxLatencyNanos;
+    private final Future<?> writer;
+
+    private final AtomicLong storedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private @Nullable EntityManager entityManager;
+    private volatile boolean running = true;
+
+    public JpaBatchWriter(Supplier<EntityManagerFactory> entityManagerFactory, JpaConfiguration config) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.queue = new ArrayBlockingQueue<>(config.queueSize);
+        this.batchSize = config.batchSize;
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(config.batchMaxLatency);
+        this.writer = ThreadPoolManager.getPool(THREAD_POOL_NAME).submit(this::run);
+    }
+
+    /**
+     * Queues an item for storage. If the queue is full, the oldest queued item is discarded.
+     *
+     * @param item the item to persist
+     * @return true if the item was queued
+     */
+    public boolean enqueue(JpaPersistentItem item) {
+        if (!running) {
+            return false;
+        }
+        while (!queue.offer(item)) {
+            if (queue.poll() != null) {
+                droppedCount.incrementAndGet();
+                logger.debug("Write queue is full, discarding oldest item");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting items, persists everything still queued and terminates the writer thread.
+     */
+    public void stop() {
+        running = false;
+        try {
+            writer.get(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Writer did not finish in time, {} queued items are lost", queue.size());
+            writer.cancel(true);
+        } catch (ExecutionException e) {
+            logger.warn("Writer failed, {} queued items are lost", queue.size(), e.getCause());
+        } catch (InterruptedException e) {
+            writer.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<JpaPersistentItem> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    JpaPersistentItem first = queue.poll(STOP_CHECK_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    long deadline = System.nanoTime() + maxLatencyNanos;
+                    while (batch.size() < batchSize) {
+                        queue.drainTo(batch, batchSize - batch.size());
+                        long remaining = deadline - System.nanoTime();
+                        if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                            break;
+                        }
+                        JpaPersistentItem next = queue.poll(Math.min(remaining, STOP_CHECK_INTERVAL_NANOS),
+                                TimeUnit.NANOSECONDS);
+                        if (next != null) {
+                            batch.add(next);
+                        }
+                    }
+                    flush(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    flush(batch);
+                    return;
+                } finally {
+                    batch.clear();
+                }
+            }
+        } finally {
+            closeEntityManager();
+        }
+    }
+
+    private void flush(List<JpaPersistentItem> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        EntityTransaction transaction = null;
+        try {
+            EntityManager em = entityManager;
+            if (em == null || !em.isOpen()) {
+                em = entityManagerFactory.get().createEntityManager();
+                entityManager = em;
+            }
+            // In RESOURCE_LOCAL calls to EntityManager require a begin/commit
+            transaction = em.getTransaction();
+            transaction.begin();
+            for (JpaPersistentItem item : batch) {
+                em.persist(item);
+            }
+            transaction.commit();
+            // detach the persisted items, they are never read back through this entity manager
+            em.clear();
+            storedCount.addAndGet(batch.size());
+            logger.debug("Persisted {} items in {} ms", batch.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            logger.error("Error while persisting {} items! Rolling back!", batch.size(), e);
+            failedCount.addAndGet(batch.size());
+            try {
+                if (transaction != null && transaction.isActive()) {
+                    transaction.rollback();
+                }
+            } catch (RuntimeException rollbackException) {
+                logger.debug("Rollback failed", rollbackException);
+            }
+            // the persistence context is unusable after a failed transaction
+            closeEntityManager();
+        }
+    }
+
+    private void closeEntityManager() {
+        EntityManager em = entityManager;
+        entityManager = null;
+        if (em != null && em.isOpen()) {
+            try {
+                em.close();
+            } catch (RuntimeException e) {
+                logger.debug("Unable to close entity manager", e);
+            }
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getStoredCount() {
+        return storedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+}
@@ -35,12 +35,22 @@ public class JpaConfiguration {
     private static final String CFG_USERNAME = "user";
     private static final String CFG_PASSWORD = "password";
     private static final String CFG_SYNCMAPPING = "syncmappings";
+    private static final String CFG_BATCH_SIZE = "batchSize";
+    private static final String CFG_BATCH_MAX_LATENCY = "batchMaxLatency";
+    private static final String CFG_QUEUE_SIZE = "queueSize";
+
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int DEFAULT_BATCH_MAX_LATENCY = 1000;
+    private static final int DEFAULT_QUEUE_SIZE = 10000;
 
     public final String dbConnectionUrl;
     public final String dbDriverClass;
     public final String dbUserName;
     public final String dbPassword;
     public final String dbSyncMapping;
+    public final int batchSize;
+    public final int batchMaxLatency;
+    public final int queueSize;
 
     public JpaConfiguration(final Map<String, @Nullable Object> properties) throws IllegalArgumentException {
         logger.debug("Creating JPA config...");
@@ -81,6 +91,27 @@ public class JpaConfiguration {
         }
         dbSyncMapping = param == null ? "" : param;
 
+        batchSize = parsePositiveInt(properties, CFG_BATCH_SIZE, DEFAULT_BATCH_SIZE);
+        batchMaxLatency = parsePositiveInt(properties, CFG_BATCH_MAX_LATENCY, DEFAULT_BATCH_MAX_LATENCY);
+        queueSize = parsePositiveInt(properties, CFG_QUEUE_SIZE, DEFAULT_QUEUE_SIZE);
+
         logger.debug("Creating JPA config... done");
     }
+
+    private static int parsePositiveInt(Map<String, @Nullable Object> properties, String key, int defaultValue)
+            throws IllegalArgumentException {
+        Object param = properties.get(key);
+        if (param == null || param.toString().isBlank()) {
+            return defaultValue;
+        }
+        try {
+            int value = param instanceof Number number ? number.intValue() : Integer.parseInt(param.toString().trim());
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // handled below
+        }
+        throw new IllegalArgumentException("Invalid value '" + param + "' for " + key + " in JPA configuration!");
+    }
 }
@@ -22,7 +22,7 @@ import java.util.Set;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
-import javax.persistence.Query;
+import javax.persistence.TypedQuery;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -69,6 +69,7 @@ public class JpaPersistenceService implements QueryablePersistenceService {
     private final ItemRegistry itemRegistry;
 
     private @Nullable EntityManagerFactory emf;
+    private @Nullable JpaBatchWriter batchWriter;
 
     private @NonNullByDefault({}) JpaConfiguration config;
 
@@ -81,6 +82,7 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         logger.debug("Activating JPA persistence service");
         try {
             config = new JpaConfiguration(properties);
+            batchWriter = new JpaBatchWriter(this::getEntityManagerFactory, config);
             initialized = true;
         } catch (IllegalArgumentException e) {
             logger.warn("{}", e.getMessage());
@@ -92,7 +94,7 @@ public class JpaPersistenceService implements QueryablePersistenceService {
      *
      * @return EntityManagerFactory
      */
-    protected EntityManagerFactory getEntityManagerFactory() {
+    protected synchronized EntityManagerFactory getEntityManagerFactory() {
         EntityManagerFactory emf = this.emf;
         if (emf == null) {
             emf = newEntityManagerFactory();
@@ -107,6 +109,12 @@ public class JpaPersistenceService implements QueryablePersistenceService {
     @Deactivate
     public void deactivate() {
         logger.debug("Deactivating JPA persistence service");
+        JpaBatchWriter batchWriter = this.batchWriter;
+        if (batchWriter != null) {
+            // persist queued items before the EntityManagerFactory is closed
+            batchWriter.stop();
+            this.batchWriter = null;
+        }
         closeEntityManagerFactory();
     }
 
@@ -134,7 +142,8 @@ public class JpaPersistenceService implements QueryablePersistenceService {
             return;
         }
 
-        if (!initialized) {
+        JpaBatchWriter batchWriter = this.batchWriter;
+        if (!initialized || batchWriter == null) {
             logger.debug("Cannot create EntityManagerFactory without a valid configuration!");
             return;
         }
@@ -155,22 +164,12 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         pItem.setRealName(item.getName());
         pItem.setTimestamp(new Date());
 
-        EntityManager em = getEntityManagerFactory().createEntityManager();
-        try {
-            logger.debug("Persisting item...");
-            // In RESOURCE_LOCAL calls to EntityManager require a begin/commit
-            em.getTransaction().begin();
-            em.persist(pItem);
-            em.getTransaction().commit();
-            logger.debug("Persisting item...done");
-        } catch (Exception e) {
-            logger.error("Error while persisting item! Rolling back!", e);
-            em.getTransaction().rollback();
-        } finally {
-            em.close();
+        if (!batchWriter.enqueue(pItem)) {
+            logger.debug("Service is shutting down, not persisting item {}", name);
+            return;
         }
 
-        logger.debug("Storing item...done");
+        logger.debug("Storing item...queued");
     }
 
     @Override
@@ -198,42 +197,24 @@ public class JpaPersistenceService implements QueryablePersistenceService {
             return List.of();
         }
 
-        String sortOrder;
-        if (filter.getOrdering() == Ordering.ASCENDING) {
-            sortOrder = "ASC";
-        } else {
-            sortOrder = "DESC";
-        }
+        boolean hasBeginDate = filter.getBeginDate() != null;
+        boolean hasEndDate = filter.getEndDate() != null;
+        String queryName = JpaPersistentItem.getQueryName(hasBeginDate, hasEndDate,
+                filter.getOrdering() == Ordering.ASCENDING);
 
-        boolean hasBeginDate = false;
-        boolean hasEndDate = false;
-        String queryString = "SELECT n FROM " + JpaPersistentItem.class.getSimpleName()
-                + " n WHERE n.realName = :itemName";
-        if (filter.getBeginDate() != null) {
-            queryString += " AND n.timestamp >= :beginDate";
-            hasBeginDate = true;
-        }
-        if (filter.getEndDate() != null) {
-            queryString += " AND n.timestamp <= :endDate";
-            hasEndDate = true;
-        }
-        queryString += " ORDER BY n.timestamp " + sortOrder;
-
-        logger.debug("The query: {}", queryString);
+        logger.debug("The query: {}", queryName);
 
+        // Read-only queries do not need a transaction, the entity manager is only used for this query
         EntityManager em = getEntityManagerFactory().createEntityManager();
         try {
-            // In RESOURCE_LOCAL calls to EntityManager require a begin/commit
-            em.getTransaction().begin();
-
             logger.debug("Creating query...");
-            Query query = em.createQuery(queryString);
-            query.setParameter("itemName", item.getName());
+            TypedQuery<JpaPersistentItem> query = em.createNamedQuery(queryName, JpaPersistentItem.class);
+            query.setParameter(JpaPersistentItem.PARAM_ITEM_NAME, item.getName());
             if (hasBeginDate) {
-                query.setParameter("beginDate", Date.from(filter.getBeginDate().toInstant()));
+                query.setParameter(JpaPersistentItem.PARAM_BEGIN_DATE, Date.from(filter.getBeginDate().toInstant()));
             }
             if (hasEndDate) {
-                query.setParameter("endDate", Date.from(filter.getEndDate().toInstant()));
+                query.setParameter(JpaPersistentItem.PARAM_END_DATE, Date.from(filter.getEndDate().toInstant()));
             }
 
             query.setFirstResult(filter.getPageNumber() * filter.getPageSize());
@@ -241,19 +222,15 @@ public class JpaPersistenceService implements QueryablePersistenceService {
             logger.debug("Creating query...done");
 
             logger.debug("Retrieving result list...");
-            @SuppressWarnings("unchecked")
             List<JpaPersistentItem> result = query.getResultList();
             logger.debug("Retrieving result list...done");
 
             List<HistoricItem> historicList = JpaHistoricItem.fromResultList(result, item);
             logger.debug("Convert to HistoricItem: {}", historicList.size());
 
-            em.getTransaction().commit();
-
             return historicList;
         } catch (Exception e) {
             logger.error("Error while querying database!", e);
-            em.getTransaction().rollback();
         } finally {
             em.close();
         }
@@ -285,6 +262,8 @@ public class JpaPersistenceService implements QueryablePersistenceService {
             logger.info("You are setting openjpa.jdbc.SynchronizeMappings, I hope you know what you're doing!");
             properties.put("openjpa.jdbc.SynchronizeMappings", config.dbSyncMapping);
         }
+        // group the inserts of a batch into JDBC statement batches, using the auto-detected dictionary
+        properties.put("openjpa.jdbc.DBDictionary", "batchLimit=" + config.batchSize);
 
         EntityManagerFactory factory = Persistence.createEntityManagerFactory(getPersistenceUnitName(), properties);
         logger.debug("Creating EntityManagerFactory...done");
@@ -22,6 +22,8 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
@@ -40,9 +42,37 @@ import org.openhab.core.types.UnDefType;
 
 @Entity
 @Table(name = "HISTORIC_ITEM")
+@NamedQueries({ //
+        @NamedQuery(name = JpaPersistentItem.QUERY_PREFIX + "Asc", query = JpaPersistentItem.SELECT
+                + JpaPersistentItem.ORDER_ASC),
+        @NamedQuery(name = JpaPersistentItem.QUERY_PREFIX + "Desc", query = JpaPersistentItem.SELECT
+                + JpaPersistentItem.ORDER_DESC),
+        @NamedQuery(name = JpaPersistentItem.QUERY_PREFIX + "BeginAsc", query = JpaPersistentItem.SELECT
+                + JpaPersistentItem.BEGIN + JpaPersistentItem.ORDER_ASC),
+        @NamedQuery(name = JpaPersistentItem.QUERY_PREFIX + "BeginDesc", query = JpaPersistentItem.SELECT
+                + JpaPersistentItem.BEGIN + JpaPersistentItem.ORDER_DESC),
+        @NamedQuery(name = JpaPersistentItem.QUERY_PREFIX + "EndAsc", query = JpaPersistentItem.SELECT
+                + JpaPersistentItem.END + JpaPersistentItem.ORDER_ASC),
+        @NamedQuery(name = JpaPersistentItem.QUERY_PREFIX + "EndDesc", query = JpaPersistentItem.SELECT
+                + JpaPersistentItem.END + JpaPersistentItem.ORDER_DESC),
+        @NamedQuery(name = JpaPersistentItem.QUERY_PREFIX + "BeginEndAsc", query = JpaPersistentItem.SELECT
+                + JpaPersistentItem.BEGIN + JpaPersistentItem.END + JpaPersistentItem.ORDER_ASC),
+        @NamedQuery(name = JpaPersistentItem.QUERY_PREFIX + "BeginEndDesc", query = JpaPersistentItem.SELECT
+                + JpaPersistentItem.BEGIN + JpaPersistentItem.END + JpaPersistentItem.ORDER_DESC) })
 @NonNullByDefault
 public class JpaPersistentItem implements HistoricItem {
 
+    public static final String PARAM_ITEM_NAME = "itemName";
+    public static final String PARAM_BEGIN_DATE = "beginDate";
+    public static final String PARAM_END_DATE = "endDate";
+
+    static final String QUERY_PREFIX = "JpaPersistentItem.find";
+    static final String SELECT = "SELECT n FROM JpaPersistentItem n WHERE n.realName = :" + PARAM_ITEM_NAME;
+    static final String BEGIN = " AND n.timestamp >= :" + PARAM_BEGIN_DATE;
+    static final String END = " AND n.timestamp <= :" + PARAM_END_DATE;
+    static final String ORDER_ASC = " ORDER BY n.timestamp ASC";
+    static final String ORDER_DESC = " ORDER BY n.timestamp DESC";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private @NonNullByDefault({}) Long id;
@@ -105,4 +135,19 @@ public class JpaPersistentItem implements HistoricItem {
     public String toString() {
         return DateFormat.getDateTimeInstance().format(getTimestamp()) + ": " + getName() + " -> " + value;
     }
+
+    /**
+     * Returns the name of the predefined query for the given filter shape. All queries take the item name as
+     * parameter {@link #PARAM_ITEM_NAME} and, if requested, the dates as {@link #PARAM_BEGIN_DATE} and
+     * {@link #PARAM_END_DATE}.
+     *
+     * @param hasBeginDate whether the query filters on the begin date
+     * @param hasEndDate whether the query filters on the end date
+     * @param ascending whether the results are sorted by ascending timestamp
+     * @return the named query name
+     */
+    public static String getQueryName(boolean hasBeginDate, boolean hasEndDate, boolean ascending) {
+        return QUERY_PREFIX + (hasBeginDate ? "Begin" : "") + (hasEndDate ? "End" : "")
+                + (ascending ? "Asc" : "Desc");
+    }
 }
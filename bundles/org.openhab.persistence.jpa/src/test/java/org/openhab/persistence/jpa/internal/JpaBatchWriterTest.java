@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jpa.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.TypedQuery;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.openhab.persistence.jpa.internal.model.JpaPersistentItem;
+
+/**
+ * Tests the {@link JpaBatchWriter} and the named queries of {@link JpaPersistentItem} against the Derby
+ * {@code default_test} persistence unit.
+ *
+ * @author Manfred Bergmann - Initial contribution
+ */
+@NonNullByDefault
+public class JpaBatchWriterTest {
+
+    private static final String ITEM_NAME = "Temperature";
+    private static final Instant START = Instant.parse("2023-01-01T00:00:00Z");
+
+    private static @NonNullByDefault({}) EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    public static void createEntityManagerFactory() {
+        entityManagerFactory = Persistence.createEntityManagerFactory("default_test",
+                Map.of("javax.persistence.jdbc.url", "jdbc:derby:memory:jpabatchwriter;create=true", "openjpa.Log",
+                        "DefaultLevel=WARN"));
+    }
+
+    @AfterAll
+    public static void closeEntityManagerFactory() {
+        entityManagerFactory.close();
+    }
+
+    @BeforeEach
+    public void deleteItems() {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.createQuery("DELETE FROM JpaPersistentItem n").executeUpdate();
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Test
+    public void fullBatchesAreStoredWithoutWaitingForMaxLatency() throws InterruptedException {
+        JpaBatchWriter writer = new JpaBatchWriter(() -> entityManagerFactory, config(10, 60_000, 100));
+        try {
+            for (int i = 0; i < 20; i++) {
+                writer.enqueue(item(ITEM_NAME, i));
+            }
+
+            assertThat(awaitCount(writer::getStoredCount, 20, Duration.ofSeconds(10)), is(20L));
+            assertThat(queryValues(JpaPersistentItem.getQueryName(false, false, true), null, null).size(), is(20));
+        } finally {
+            writer.stop();
+        }
+    }
+
+    @Test
+    public void incompleteBatchIsStoredAfterMaxLatency() throws InterruptedException {
+        JpaBatchWriter writer = new JpaBatchWriter(() -> entityManagerFactory, config(100, 300, 100));
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < 3; i++) {
+                writer.enqueue(item(ITEM_NAME, i));
+            }
+
+            assertThat(awaitCount(writer::getStoredCount, 3, Duration.ofSeconds(10)), is(3L));
+            assertThat(System.nanoTime() - start, greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(250)));
+            assertThat(queryValues(JpaPersistentItem.getQueryName(false, false, true), null, null),
+                    is(List.of("0", "1", "2")));
+        } finally {
+            writer.stop();
+        }
+    }
+
+    @Test
+    public void queuedItemsAreStoredOnStop() {
+        JpaBatchWriter writer = new JpaBatchWriter(() -> entityManagerFactory, config(100, 60_000, 100));
+        for (int i = 0; i < 5; i++) {
+            writer.enqueue(item(ITEM_NAME, i));
+        }
+
+        long start = System.nanoTime();
+        writer.stop();
+
+        // the writer must not wait for the latency of the incomplete batch
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(lessThan(5_000L)));
+        assertThat(writer.getStoredCount(), is(5L));
+        assertThat(writer.enqueue(item(ITEM_NAME, 5)), is(false));
+        assertThat(queryValues(JpaPersistentItem.getQueryName(false, false, true), null, null).size(), is(5));
+    }
+
+    @Test
+    public void oldestItemsAreDroppedWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // the writer blocks in its first batch until released, so the queue fills up
+        JpaBatchWriter writer = new JpaBatchWriter(() -> {
+            writing.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return entityManagerFactory;
+        }, config(1, 60_000, 2));
+        writer.enqueue(item(ITEM_NAME, 0));
+        assertThat(writing.await(10, TimeUnit.SECONDS), is(true));
+        for (int i = 1; i < 5; i++) {
+            assertThat(writer.enqueue(item(ITEM_NAME, i)), is(true));
+        }
+        assertThat(writer.getDroppedCount(), is(2L));
+        release.countDown();
+        writer.stop();
+
+        assertThat(writer.getStoredCount(), is(3L));
+        assertThat(queryValues(JpaPersistentItem.getQueryName(false, false, true), null, null),
+                is(List.of("0", "3", "4")));
+    }
+
+    @ParameterizedTest
+    @CsvSource({ //
+            "false, false, true,  0;1;2;3;4", //
+            "false, false, false, 4;3;2;1;0", //
+            "true,  false, true,  1;2;3;4", //
+            "true,  false, false, 4;3;2;1", //
+            "false, true,  true,  0;1;2;3", //
+            "false, true,  false, 3;2;1;0", //
+            "true,  true,  true,  1;2;3", //
+            "true,  true,  false, 3;2;1" })
+    public void namedQueryFiltersAndSortsByTimestamp(boolean hasBeginDate, boolean hasEndDate, boolean ascending,
+            String expected) {
+        JpaBatchWriter writer = new JpaBatchWriter(() -> entityManagerFactory, config(100, 60_000, 100));
+        // stored in random order, so the order of the results is determined by the query
+        for (int i : new int[] { 3, 0, 4, 1, 2 }) {
+            writer.enqueue(item(ITEM_NAME, i));
+        }
+        writer.enqueue(item("Other", 2));
+        writer.stop();
+
+        String queryName = JpaPersistentItem.getQueryName(hasBeginDate, hasEndDate, ascending);
+        List<String> values = queryValues(queryName, hasBeginDate ? Date.from(START.plusSeconds(60)) : null,
+                hasEndDate ? Date.from(START.plusSeconds(180)) : null);
+
+        assertThat(values, is(Arrays.asList(expected.split(";"))));
+    }
+
+    private static JpaConfiguration config(int batchSize, int batchMaxLatency, int queueSize) {
+        return new JpaConfiguration(Map.of("url", "jdbc:derby:memory:jpabatchwriter", "driver",
+                "org.apache.derby.jdbc.EmbeddedDriver", "batchSize", batchSize, "batchMaxLatency", batchMaxLatency,
+                "queueSize", queueSize));
+    }
+
+    /**
+     * Creates an item with the given value, stored the given number of minutes after {@link #START}.
+     */
+    private static JpaPersistentItem item(String name, int minutes) {
+        JpaPersistentItem item = new JpaPersistentItem();
+        item.setName(name);
+        item.setRealName(name);
+        item.setValue(String.valueOf(minutes));
+        item.setTimestamp(Date.from(START.plusSeconds(60L * minutes)));
+        return item;
+    }
+
+    private static List<String> queryValues(String queryName, @Nullable Date beginDate, @Nullable Date endDate) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            TypedQuery<JpaPersistentItem> query = em.createNamedQuery(queryName, JpaPersistentItem.class);
+            query.setParameter(JpaPersistentItem.PARAM_ITEM_NAME, ITEM_NAME);
+            if (beginDate != null) {
+                query.setParameter(JpaPersistentItem.PARAM_BEGIN_DATE, beginDate);
+            }
+            if (endDate != null) {
+                query.setParameter(JpaPersistentItem.PARAM_END_DATE, endDate);
+            }
+            return query.getResultList().stream().map(JpaPersistentItem::getValue).collect(Collectors.toList());
+        } finally {
+            em.close();
+        }
+    }
+
+    private static long awaitCount(LongSupplier count, long expected, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (count.getAsLong() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        return count.getAsLong();
+    }
+}
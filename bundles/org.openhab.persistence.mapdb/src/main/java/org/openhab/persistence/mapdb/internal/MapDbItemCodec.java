@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.NextPreviousType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.PlayPauseType;
+import org.openhab.core.library.types.PointType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.RawType;
+import org.openhab.core.library.types.RewindFastforwardType;
+import org.openhab.core.library.types.StringListType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.types.UpDownType;
+import org.openhab.core.types.State;
+import org.openhab.core.types.TypeParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link MapDbItemCodec} converts a {@link MapDbItem} to a compact binary form and back.
+ *
+ * The encoded item starts with a format version and the timestamp in epoch milliseconds, followed by a one byte code
+ * for the state type and the full string representation of the state. State types that are not known to the codec
+ * are written with code 0 and their class name. The item name is not encoded, because it is the key of the entry.
+ *
+ * @author Jens Viebig - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemCodec {
+
+    private static final byte VERSION = 1;
+    private static final byte UNKNOWN_TYPE = 0;
+
+    /**
+     * Known state types, the code of a type is its index plus one. New types must only be appended.
+     */
+    private static final List<Class<? extends State>> TYPES = List.of(DecimalType.class, QuantityType.class,
+            OnOffType.class, OpenClosedType.class, PercentType.class, HSBType.class, StringType.class,
+            DateTimeType.class, UpDownType.class, PlayPauseType.class, RewindFastforwardType.class,
+            NextPreviousType.class, PointType.class, StringListType.class, RawType.class);
+
+    private final Logger logger = LoggerFactory.getLogger(MapDbItemCodec.class);
+
+    public byte[] encode(MapDbItem item) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            State state = item.getState();
+            out.writeByte(VERSION);
+            out.writeLong(item.getTimestamp().toInstant().toEpochMilli());
+            int index = TYPES.indexOf(state.getClass());
+            out.writeByte(index + 1);
+            if (index < 0) {
+                writeString(out, state.getClass().getName());
+            }
+            writeString(out, state.toFullString());
+        } catch (IOException e) {
+            // cannot happen when writing to a byte array
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes an item encoded by {@link #encode(MapDbItem)}.
+     *
+     * @param name the name of the item
+     * @param data the encoded item
+     * @return the item or null if the data cannot be decoded
+     */
+    public @Nullable MapDbItem decode(String name, byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                logger.warn("Couldn't decode state of '{}': unsupported version {}", name, version);
+                return null;
+            }
+            long timestamp = in.readLong();
+            int code = in.readUnsignedByte();
+            Class<? extends State> type;
+            if (code == UNKNOWN_TYPE) {
+                type = Class.forName(readString(in)).asSubclass(State.class);
+            } else if (code <= TYPES.size()) {
+                type = TYPES.get(code - 1);
+            } else {
+                logger.warn("Couldn't decode state of '{}': unknown type code {}", name, code);
+                return null;
+            }
+            State state = TypeParser.parseState(List.of(type), readString(in));
+            if (state == null) {
+                logger.warn("Couldn't decode state of '{}' as {}", name, type.getSimpleName());
+                return null;
+            }
+            MapDbItem item = new MapDbItem();
+            item.setName(name);
+            item.setState(state);
+            item.setTimestamp(new Date(timestamp));
+            return item;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            logger.warn("Couldn't decode state of '{}': {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
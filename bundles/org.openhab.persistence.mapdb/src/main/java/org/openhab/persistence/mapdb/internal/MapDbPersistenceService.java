@@ -24,7 +24,11 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -34,6 +38,8 @@ import org.mapdb.DB;
 import org.mapdb.DBMaker;
 import org.openhab.core.OpenHAB;
 import org.openhab.core.common.ThreadPoolManager;
+import org.openhab.core.config.core.ConfigParser;
+import org.openhab.core.config.core.ConfigurableService;
 import org.openhab.core.items.Item;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
@@ -43,9 +49,11 @@ import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.persistence.strategy.PersistenceStrategy;
 import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
+import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,13 +64,24 @@ import com.google.gson.GsonBuilder;
  * This is the implementation of the MapDB {@link PersistenceService}. To learn more about MapDB please visit their
  * <a href="http://www.mapdb.org/">website</a>.
  *
+ * By default every stored state is committed on its own. With a commit interval, only the latest state of each item is
+ * kept in memory and all pending states are written with a single commit per interval and on deactivation.
+ *
  * @author Jens Viebig - Initial contribution
  * @author Martin Kühl - Port to 3.x
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class, QueryablePersistenceService.class })
+@Component(service = { PersistenceService.class,
+        QueryablePersistenceService.class }, configurationPid = "org.openhab.mapdb", //
+        property = Constants.SERVICE_PID + "=org.openhab.mapdb")
+@ConfigurableService(category = "persistence", label = "MapDB Persistence Service", description_uri = MapDbPersistenceService.CONFIG_URI)
 public class MapDbPersistenceService implements QueryablePersistenceService {
 
+    protected static final String CONFIG_URI = "persistence:mapdb";
+    private static final String CONFIG_COMMIT_INTERVAL = "commitInterval";
+    private static final String CONFIG_ENCODING = "encoding";
+    private static final String ENCODING_BINARY = "binary";
+
     private static final String SERVICE_ID = "mapdb";
     private static final String SERVICE_LABEL = "MapDB";
     private static final Path DB_DIR = new File(OpenHAB.getUserDataFolder(), "persistence").toPath().resolve("mapdb");
@@ -72,19 +91,30 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
     private final Logger logger = LoggerFactory.getLogger(MapDbPersistenceService.class);
 
     private final ExecutorService threadPool = ThreadPoolManager.getPool(getClass().getSimpleName());
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool("persist");
+
+    /**
+     * holds the latest state of each item until the next commit when a commit interval is configured
+     */
+    private final Map<String, MapDbItem> pendingItems = new ConcurrentHashMap<>();
+    private final MapDbItemCodec codec = new MapDbItemCodec();
+    private @Nullable ScheduledFuture<?> commitJob;
+    private long commitInterval = 0;
+    private boolean binaryEncoding = false;
 
     /**
      * holds the local instance of the MapDB database
      */
 
     private @NonNullByDefault({}) DB db;
-    private @NonNullByDefault({}) Map<String, String> map;
+    private @NonNullByDefault({}) Map<String, Object> map;
 
     private transient Gson mapper = new GsonBuilder().registerTypeHierarchyAdapter(State.class, new StateTypeAdapter())
             .create();
 
     @Activate
-    public void activate() {
+    public void activate(Map<String, Object> config) {
+        readConfig(config);
         logger.debug("MapDB persistence service is being activated");
 
         try {
@@ -134,19 +164,81 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
             } else {
                 logger.warn("Failed to create or open the MapDB: {}", re.getMessage());
                 logger.warn("MapDB persistence service activation has failed.");
+                return;
             }
         }
+        scheduleCommitJob();
         logger.debug("MapDB persistence service is now activated");
     }
 
+    @Modified
+    public void modified(Map<String, Object> config) {
+        cancelCommitJob();
+        if (db != null) {
+            commitPending();
+        }
+        readConfig(config);
+        if (db != null) {
+            scheduleCommitJob();
+        }
+    }
+
     @Deactivate
     public void deactivate() {
         logger.debug("MapDB persistence service deactivated");
+        cancelCommitJob();
         if (db != null) {
+            commitPending();
             db.close();
         }
     }
 
+    private void readConfig(Map<String, Object> config) {
+        commitInterval = Math.max(0, ConfigParser.valueAsOrElse(config.get(CONFIG_COMMIT_INTERVAL), Long.class, 0L));
+        binaryEncoding = ENCODING_BINARY
+                .equals(ConfigParser.valueAsOrElse(config.get(CONFIG_ENCODING), String.class, "json"));
+        logger.debug("MapDB configured with commitInterval={} ms and {} encoding", commitInterval,
+                binaryEncoding ? "binary" : "JSON");
+    }
+
+    private void scheduleCommitJob() {
+        if (commitInterval > 0) {
+            commitJob = scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    commitPending();
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to commit pending states to MapDB: {}", e.getMessage());
+                }
+            }, commitInterval, commitInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void cancelCommitJob() {
+        ScheduledFuture<?> job = commitJob;
+        if (job != null) {
+            job.cancel(false);
+            commitJob = null;
+        }
+    }
+
+    /**
+     * Writes the pending states of all items and commits them at once.
+     */
+    private synchronized void commitPending() {
+        if (pendingItems.isEmpty()) {
+            return;
+        }
+        int count = 0;
+        for (Map.Entry<String, MapDbItem> entry : pendingItems.entrySet()) {
+            map.put(entry.getKey(), serialize(entry.getValue()));
+            // keep the item pending if a newer state was stored in the meantime
+            pendingItems.remove(entry.getKey(), entry.getValue());
+            count++;
+        }
+        db.commit();
+        logger.debug("Committed {} pending states to MapDB database", count);
+    }
+
     @Override
     public String getId() {
         return SERVICE_ID;
@@ -159,7 +251,8 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
     @Override
     public Set<PersistenceItemInfo> getItemInfo() {
-        return map.values().stream().map(this::deserialize).flatMap(MapDbPersistenceService::streamOptional)
+        return Stream.concat(map.keySet().stream(), pendingItems.keySet().stream()).distinct().map(this::get)
+                .flatMap(MapDbPersistenceService::streamOptional)
                 .collect(Collectors.<PersistenceItemInfo> toUnmodifiableSet());
     }
 
@@ -183,26 +276,52 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         mItem.setName(localAlias);
         mItem.setState(state);
         mItem.setTimestamp(new Date());
+        if (commitInterval > 0) {
+            pendingItems.put(localAlias, mItem);
+            logger.debug("Queued '{}' with state '{}' for the next MapDB commit", localAlias, state);
+            return;
+        }
         threadPool.submit(() -> {
-            String json = serialize(mItem);
-            map.put(localAlias, json);
+            map.put(localAlias, serialize(mItem));
             db.commit();
-            logger.debug("Stored '{}' with state '{}' as '{}' in MapDB database", localAlias, state, json);
+            logger.debug("Stored '{}' with state '{}' in MapDB database", localAlias, state);
         });
     }
 
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
-        String json = map.get(filter.getItemName());
-        if (json == null) {
+        String itemName = filter.getItemName();
+        if (itemName == null) {
             return List.of();
         }
-        Optional<MapDbItem> item = deserialize(json);
+        Optional<MapDbItem> item = get(itemName);
         return item.isPresent() ? List.of(item.get()) : List.of();
     }
 
-    private String serialize(MapDbItem item) {
-        return mapper.toJson(item);
+    private Optional<MapDbItem> get(String name) {
+        MapDbItem pendingItem = pendingItems.get(name);
+        if (pendingItem != null) {
+            return Optional.of(pendingItem);
+        }
+        Object value = map.get(name);
+        return value == null ? Optional.empty() : deserialize(name, value);
+    }
+
+    private Object serialize(MapDbItem item) {
+        return binaryEncoding ? codec.encode(item) : mapper.toJson(item);
+    }
+
+    /**
+     * Restores an item from its stored value, which is either a JSON string or a binary encoded item.
+     */
+    private Optional<MapDbItem> deserialize(String name, Object value) {
+        if (value instanceof byte[] data) {
+            return Optional.ofNullable(codec.decode(name, data));
+        } else if (value instanceof String json) {
+            return deserialize(json);
+        }
+        logger.warn("Ignoring value of unknown type {} stored for '{}'", value.getClass().getName(), name);
+        return Optional.empty();
     }
 
     @SuppressWarnings("null")
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.PointType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.StringListType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.unit.SIUnits;
+import org.openhab.core.types.State;
+import org.openhab.core.types.UnDefType;
+import org.openhab.persistence.mapdb.internal.MapDbItem;
+import org.openhab.persistence.mapdb.internal.MapDbItemCodec;
+
+/**
+ * Tests the {@link MapDbItemCodec}.
+ *
+ * @author Jens Viebig - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemCodecTest {
+    private static final String NAME = "item";
+
+    private final MapDbItemCodec codec = new MapDbItemCodec();
+
+    @ParameterizedTest
+    @MethodSource
+    public void encodeDecodeRoundtripShouldRecreateTheItem(State state) {
+        MapDbItem item = new MapDbItem();
+        item.setName(NAME);
+        item.setState(state);
+        item.setTimestamp(new Date(1685527200123L));
+
+        MapDbItem actual = Objects.requireNonNull(codec.decode(NAME, codec.encode(item)));
+
+        assertThat(actual.getName(), is(NAME));
+        assertThat(actual.getState(), is(equalTo(state)));
+        assertThat(actual.getTimestamp(), is(item.getTimestamp()));
+    }
+
+    public static Stream<State> encodeDecodeRoundtripShouldRecreateTheItem() {
+        return Stream.of(DecimalType.ZERO, new DecimalType(1.123), new DecimalType(new BigDecimal("-12.50")),
+                new QuantityType<>(new BigDecimal("21.23"), SIUnits.CELSIUS), QuantityType.valueOf("1 kW"),
+                OnOffType.ON, PercentType.valueOf("99.999"), HSBType.fromRGB(11, 22, 33), StringType.valueOf(""),
+                StringType.valueOf("äöü @@@ \n"), new DateTimeType("2023-05-31T10:00:00.000+0200"),
+                new PointType("52.5200066,13.4049540"), new StringListType("a", "b,c"), UnDefType.UNDEF);
+    }
+
+    @Test
+    public void encodedNumberShouldBeCompact() {
+        MapDbItem item = new MapDbItem();
+        item.setName(NAME);
+        item.setState(new DecimalType(21.5));
+
+        assertThat(codec.encode(item).length, is(lessThan(20)));
+    }
+
+    @Test
+    public void decodeShouldRejectInvalidData() {
+        for (byte[] data : List.of(new byte[0], new byte[] { 2, 0, 0 }, new byte[] { 1, 0, 0, 0, 0, 0, 0, 0, 0, 99 },
+                new byte[] { 1, 0, 0, 0, 0, 0, 0, 0, 0, 1, 127, 0, 0, 0 })) {
+            assertThat(codec.decode(NAME, data), is(nullValue()));
+        }
+    }
+}
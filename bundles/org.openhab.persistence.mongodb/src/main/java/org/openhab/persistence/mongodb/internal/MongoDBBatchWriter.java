@@ -0,0 +1,310 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mongodb.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.bson.Document;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+
+/**
+ * The {@link MongoDBBatchWriter} writes documents to MongoDB from a dedicated thread.
+ *
+ * Documents are put into a bounded queue by the caller. The writer groups them per collection and inserts each group
+ * with a single unordered {@code insertMany}. A batch is flushed when it reaches the configured maximum size or when
+ * the oldest queued document has waited for the configured maximum latency.
+ *
+ * If the server cannot be reached, the documents of the failed batch are kept and retried with an increasing delay.
+ * While the writer waits, new documents keep being queued and the overflow policy decides what happens when the
+ * queue is full.
+ *
+ * Unlike the JDBC and JPA writers, which store a failed batch row by row or discard it, the whole batch is kept for a
+ * retry: {@code insertMany} reports documents rejected by the server individually, so any other failure means that
+ * the server was not reachable and retrying the same documents can succeed.
+ *
+ * @author Thorsten Hoeger - Initial contribution
+ */
+@NonNullByDefault
+public class MongoDBBatchWriter {
+
+    /**
+     * Defines what happens when a document is stored while the queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Discard the document being stored */
+        DROP_NEWEST,
+        /** Discard the oldest queued document to make room */
+        DROP_OLDEST,
+        /** Block the caller until there is room in the queue */
+        BLOCK
+    }
+
+    /**
+     * A document waiting to be inserted into a collection.
+     */
+    public record QueuedDocument(String collectionName, Document document) {
+    }
+
+    private static final String THREAD_POOL_NAME = "persistence-mongodb";
+    private static final int STOP_TIMEOUT_SECONDS = 10;
+    private static final long MIN_RETRY_DELAY_MILLIS = 1000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60000;
+    // the longest time the writer waits without checking whether it has been stopped
+    private static final long STOP_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Logger logger = LoggerFactory.getLogger(MongoDBBatchWriter.class);
+
+    private final Function<String, @Nullable MongoCollection<Document>> collectionProvider;
+    private final BlockingQueue<QueuedDocument> queue;
+    private final Deque<QueuedDocument> retries = new ArrayDeque<>();
+    private final int queueSize;
+    private final int maxBatchSize;
+    private final long maxLatencyNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final InsertManyOptions insertOptions = new InsertManyOptions().ordered(false);
+    private final Future<?> writer;
+
+    private final AtomicLong storedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private volatile boolean running = true;
+    private long retryDelayMillis = 0;
+
+    /**
+     * @param collectionProvider returns the collection with the given name or null if it is not available
+     * @param queueSize the maximum number of queued documents
+     * @param maxBatchSize the maximum number of documents inserted at once
+     * @param maxLatencyMillis the maximum time a document waits before its batch is flushed
+     * @param overflowPolicy what to do when the queue is full
+     */
+    public MongoDBBatchWriter(Function<String, @Nullable MongoCollection<Document>> collectionProvider,
+            int queueSize, int maxBatchSize, long maxLatencyMillis, OverflowPolicy overflowPolicy) {
+        this.collectionProvider = collectionProvider;
+        this.queueSize = queueSize;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.maxBatchSize = maxBatchSize;
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+        this.overflowPolicy = overflowPolicy;
+        this.writer = ThreadPoolManager.getPool(THREAD_POOL_NAME).submit(this::run);
+        logger.debug("MongoDB writer started with queueSize={} maxBatchSize={} maxLatency={} ms policy={}", queueSize,
+                maxBatchSize, maxLatencyMillis, overflowPolicy);
+    }
+
+    /**
+     * Queues a document for insertion.
+     *
+     * @param document the document to insert
+     * @return true if the document was queued, false if it was discarded
+     */
+    public boolean enqueue(QueuedDocument document) {
+        if (!running) {
+            return false;
+        }
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    queue.put(document);
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            case DROP_OLDEST:
+                while (!queue.offer(document)) {
+                    if (queue.poll() != null) {
+                        droppedCount.incrementAndGet();
+                    }
+                }
+                return true;
+            case DROP_NEWEST:
+            default:
+                if (queue.offer(document)) {
+                    return true;
+                }
+                break;
+        }
+        droppedCount.incrementAndGet();
+        logger.debug("MongoDB queue is full, discarding document for collection {}", document.collectionName());
+        return false;
+    }
+
+    /**
+     * Stops accepting documents, flushes everything still queued and terminates the writer thread.
+     */
+    public void stop() {
+        running = false;
+        try {
+            writer.get(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("MongoDB writer did not finish in time, {} queued documents are lost", queue.size());
+            writer.cancel(true);
+        } catch (ExecutionException e) {
+            logger.warn("MongoDB writer failed, {} queued documents are lost", queue.size(), e.getCause());
+        } catch (InterruptedException e) {
+            writer.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<QueuedDocument> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty() || !retries.isEmpty()) {
+            try {
+                if (retryDelayMillis > 0) {
+                    if (!running) {
+                        // the server was unreachable, don't delay the shutdown any further
+                        break;
+                    }
+                    waitForRetry();
+                }
+                QueuedDocument retry;
+                while (batch.size() < maxBatchSize && (retry = retries.poll()) != null) {
+                    batch.add(retry);
+                }
+                if (batch.isEmpty()) {
+                    QueuedDocument first = queue.poll(STOP_CHECK_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                }
+                long deadline = System.nanoTime() + maxLatencyNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    QueuedDocument next = queue.poll(Math.min(remaining, STOP_CHECK_INTERVAL_NANOS),
+                            TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                retries.addAll(batch);
+                break;
+            } catch (RuntimeException e) {
+                logger.warn("Unexpected error while writing MongoDB batch", e);
+            } finally {
+                batch.clear();
+            }
+        }
+        int lost = queue.size() + retries.size();
+        if (lost > 0) {
+            failedCount.addAndGet(lost);
+            logger.warn("MongoDB writer stopped, {} queued documents could not be written", lost);
+        }
+    }
+
+    private void waitForRetry() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryDelayMillis);
+        long remaining;
+        while (running && (remaining = deadline - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(Math.min(remaining, STOP_CHECK_INTERVAL_NANOS));
+        }
+    }
+
+    private void flush(List<QueuedDocument> batch) {
+        Map<String, List<Document>> documentsByCollection = new LinkedHashMap<>();
+        for (QueuedDocument document : batch) {
+            documentsByCollection.computeIfAbsent(document.collectionName(), c -> new ArrayList<>())
+                    .add(document.document());
+        }
+        List<QueuedDocument> unwritten = new ArrayList<>();
+        for (Map.Entry<String, List<Document>> entry : documentsByCollection.entrySet()) {
+            List<Document> documents = entry.getValue();
+            try {
+                MongoCollection<Document> collection = collectionProvider.apply(entry.getKey());
+                if (collection == null) {
+                    throw new MongoException("Collection " + entry.getKey() + " is not available");
+                }
+                collection.insertMany(documents, insertOptions);
+                storedCount.addAndGet(documents.size());
+            } catch (MongoBulkWriteException e) {
+                // the server rejected some documents, retrying them would fail again
+                int failed = e.getWriteErrors().size();
+                storedCount.addAndGet(documents.size() - failed);
+                failedCount.addAndGet(failed);
+                logger.warn("Failed to insert {} of {} documents into collection {}: {}", failed, documents.size(),
+                        entry.getKey(), e.getMessage());
+            } catch (MongoException e) {
+                logger.debug("Failed to insert {} documents into collection {}: {}", documents.size(), entry.getKey(),
+                        e.getMessage());
+                documents.forEach(document -> unwritten.add(new QueuedDocument(entry.getKey(), document)));
+            }
+        }
+        if (unwritten.isEmpty()) {
+            if (retryDelayMillis > 0) {
+                logger.info("MongoDB server is reachable again, resuming writes");
+                retryDelayMillis = 0;
+            }
+            return;
+        }
+        if (retryDelayMillis == 0) {
+            logger.warn("MongoDB server is not reachable, keeping {} documents for retry", unwritten.size());
+        }
+        retryDelayMillis = Math.min(MAX_RETRY_DELAY_MILLIS, Math.max(MIN_RETRY_DELAY_MILLIS, retryDelayMillis * 2));
+        retries.addAll(unwritten);
+        // documents waiting for a retry count towards the queue size
+        while (retries.size() + queue.size() > queueSize && !retries.isEmpty()) {
+            if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                retries.pollLast();
+            } else {
+                retries.pollFirst();
+            }
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getStoredCount() {
+        return storedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+}
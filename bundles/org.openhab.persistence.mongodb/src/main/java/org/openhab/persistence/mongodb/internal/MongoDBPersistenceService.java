@@ -21,10 +21,14 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.config.core.ConfigParser;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.items.ItemRegistry;
@@ -50,6 +54,8 @@ import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.persistence.strategy.PersistenceStrategy;
 import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
+import org.openhab.persistence.mongodb.internal.MongoDBBatchWriter.OverflowPolicy;
+import org.openhab.persistence.mongodb.internal.MongoDBBatchWriter.QueuedDocument;
 import org.osgi.framework.BundleContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -59,16 +65,21 @@ import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.mongodb.BasicDBObject;
-import com.mongodb.DBCollection;
-import com.mongodb.DBCursor;
-import com.mongodb.DBObject;
-import com.mongodb.MongoClient;
-import com.mongodb.MongoClientURI;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
 
 /**
  * This is the implementation of the MongoDB {@link PersistenceService}.
  *
+ * States are not written by the caller, but queued and inserted in batches by a {@link MongoDBBatchWriter}.
+ *
  * @author Thorsten Hoeger - Initial contribution
  * @author Stephan Brunner - Query fixes, Cleanup
  */
@@ -83,6 +94,11 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
     private static final String FIELD_TIMESTAMP = "timestamp";
     private static final String FIELD_VALUE = "value";
 
+    private static final int DEFAULT_BATCH_MAX_SIZE = 100;
+    private static final long DEFAULT_BATCH_MAX_LATENCY = 1000;
+    private static final int DEFAULT_QUEUE_SIZE = 10000;
+    private static final int QUERY_BATCH_SIZE = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(MongoDBPersistenceService.class);
 
     private String url = "";
@@ -95,6 +111,12 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
     protected final ItemRegistry itemRegistry;
 
     private @Nullable MongoClient cl;
+    private @Nullable MongoDBBatchWriter writer;
+
+    /**
+     * names of the collections whose index has already been created
+     */
+    private final Set<String> indexedCollections = ConcurrentHashMap.newKeySet();
 
     @Activate
     public MongoDBPersistenceService(final @Reference ItemRegistry itemRegistry) {
@@ -127,16 +149,39 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         collection = dbCollection == null ? "" : dbCollection;
         collectionPerItem = dbCollection == null || dbCollection.isBlank();
 
+        int batchMaxSize = Math.max(1,
+                ConfigParser.valueAsOrElse(config.get("batchMaxSize"), Integer.class, DEFAULT_BATCH_MAX_SIZE));
+        long batchMaxLatency = Math.max(0,
+                ConfigParser.valueAsOrElse(config.get("batchMaxLatency"), Long.class, DEFAULT_BATCH_MAX_LATENCY));
+        int queueSize = Math.max(1,
+                ConfigParser.valueAsOrElse(config.get("queueSize"), Integer.class, DEFAULT_QUEUE_SIZE));
+        OverflowPolicy overflowPolicy;
+        try {
+            overflowPolicy = OverflowPolicy.valueOf(
+                    ConfigParser.valueAsOrElse(config.get("overflowPolicy"), String.class, "DROP_OLDEST").trim());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid MongoDB overflowPolicy '{}', using DROP_OLDEST", config.get("overflowPolicy"));
+            overflowPolicy = OverflowPolicy.DROP_OLDEST;
+        }
+
         if (!tryConnectToDatabase()) {
             logger.warn("Failed to connect to MongoDB server. Trying to reconnect later.");
         }
 
+        writer = new MongoDBBatchWriter(this::connectToCollection, queueSize, batchMaxSize, batchMaxLatency,
+                overflowPolicy);
         initialized = true;
     }
 
     @Deactivate
     public void deactivate(final int reason) {
         logger.debug("MongoDB persistence bundle stopping. Disconnecting from database.");
+        initialized = false;
+        MongoDBBatchWriter localWriter = writer;
+        if (localWriter != null) {
+            localWriter.stop();
+            writer = null;
+        }
         disconnectFromDatabase();
     }
 
@@ -158,43 +203,27 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         }
 
         // If we've not initialized the bundle, then return
-        if (!initialized) {
+        MongoDBBatchWriter localWriter = writer;
+        if (!initialized || localWriter == null) {
             logger.warn("MongoDB not initialized");
             return;
         }
 
-        // Connect to mongodb server if we're not already connected
-        // If we can't connect, log.
-        if (!tryConnectToDatabase()) {
-            logger.warn(
-                    "mongodb: No connection to database. Cannot persist item '{}'! Will retry connecting to database next time.",
-                    item);
-            return;
-        }
-
         String realItemName = item.getName();
         String collectionName = collectionPerItem ? realItemName : this.collection;
 
-        @Nullable
-        DBCollection collection = connectToCollection(collectionName);
-
-        if (collection == null) {
-            // Logging is done in connectToCollection()
-            return;
-        }
-
         String name = (alias != null) ? alias : realItemName;
         Object value = this.convertValue(item.getState());
 
-        DBObject obj = new BasicDBObject();
+        Document obj = new Document();
         obj.put(FIELD_ID, new ObjectId());
         obj.put(FIELD_ITEM, name);
         obj.put(FIELD_REALNAME, realItemName);
         obj.put(FIELD_TIMESTAMP, new Date());
         obj.put(FIELD_VALUE, value);
-        collection.save(obj);
-
-        logger.debug("MongoDB save {}={}", name, value);
+        if (localWriter.enqueue(new QueuedDocument(collectionName, obj))) {
+            logger.debug("MongoDB queued {}={}", name, value);
+        }
     }
 
     private Object convertValue(State state) {
@@ -221,53 +250,29 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         return Collections.emptySet();
     }
 
-    /**
-     * Checks if we have a database connection.
-     * Also tests if communication with the MongoDB-Server is available.
-     *
-     * @return true if connection has been established, false otherwise
-     */
-    private synchronized boolean isConnected() {
-        if (cl == null) {
-            return false;
-        }
-
-        // Also check if the connection is valid.
-        // Network problems may cause failure sometimes,
-        // even if the connection object was successfully created before.
-        try {
-            cl.getAddress();
-            return true;
-        } catch (Exception ex) {
-            return false;
-        }
-    }
-
     /**
      * (Re)connects to the database
      *
+     * The driver keeps a pool of connections and reconnects by itself, so the client is only created once. The ping
+     * verifies that the server can actually be reached.
+     *
      * @return True, if the connection was successfully established.
      */
     private synchronized boolean tryConnectToDatabase() {
-        if (isConnected()) {
-            return true;
-        }
-
         try {
-            logger.debug("Connect MongoDB");
-            disconnectFromDatabase();
-
-            this.cl = new MongoClient(new MongoClientURI(this.url));
+            MongoClient client = cl;
+            if (client == null) {
+                logger.debug("Connect MongoDB");
+                client = MongoClients.create(this.url);
+                cl = client;
+            }
 
-            // The mongo always succeeds in creating the connection.
-            // We have to actually force it to test the connection to try to connect to the server.
-            cl.getAddress();
+            client.getDatabase(this.db).runCommand(new Document("ping", 1));
 
             logger.debug("Connect MongoDB ... done");
             return true;
         } catch (Exception e) {
             logger.error("Failed to connect to database {}: {}", this.url, e.getMessage(), e);
-            disconnectFromDatabase();
             return false;
         }
     }
@@ -284,23 +289,29 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
     /**
      * Connects to the Collection
      *
+     * The index is only created the first time a collection is used.
+     *
      * @return The collection object when collection creation was successful. Null otherwise.
      */
-    private @Nullable DBCollection connectToCollection(String collectionName) {
+    private @Nullable MongoCollection<Document> connectToCollection(String collectionName) {
         try {
             @Nullable
             MongoClient db = getDatabase();
+            if (db == null && tryConnectToDatabase()) {
+                db = getDatabase();
+            }
 
             if (db == null) {
                 logger.error("Failed to connect to collection {}: Connection not ready", collectionName);
                 return null;
             }
 
-            DBCollection mongoCollection = db.getDB(this.db).getCollection(collectionName);
+            MongoCollection<Document> mongoCollection = db.getDatabase(this.db).getCollection(collectionName);
 
-            BasicDBObject idx = new BasicDBObject();
-            idx.append(FIELD_ITEM, 1).append(FIELD_TIMESTAMP, 1);
-            mongoCollection.createIndex(idx);
+            if (!indexedCollections.contains(collectionName)) {
+                mongoCollection.createIndex(Indexes.ascending(FIELD_ITEM, FIELD_TIMESTAMP));
+                indexedCollections.add(collectionName);
+            }
 
             return mongoCollection;
         } catch (Exception e) {
@@ -313,11 +324,13 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
      * Disconnects from the database
      */
     private synchronized void disconnectFromDatabase() {
-        if (this.cl != null) {
-            this.cl.close();
+        MongoClient client = cl;
+        if (client != null) {
+            client.close();
         }
 
         cl = null;
+        indexedCollections.clear();
     }
 
     @Override
@@ -326,7 +339,7 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             return Collections.emptyList();
         }
 
-        if (!tryConnectToDatabase()) {
+        if (getDatabase() == null && !tryConnectToDatabase()) {
             return Collections.emptyList();
         }
 
@@ -338,7 +351,7 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
 
         String collectionName = collectionPerItem ? realItemName : this.collection;
         @Nullable
-        DBCollection collection = connectToCollection(collectionName);
+        MongoCollection<Document> collection = connectToCollection(collectionName);
 
         // If collection creation failed, return nothing.
         if (collection == null) {
@@ -354,84 +367,91 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             return Collections.emptyList();
         }
 
-        List<HistoricItem> items = new ArrayList<>();
-        BasicDBObject query = new BasicDBObject();
-        if (filter.getItemName() != null) {
-            query.put(FIELD_ITEM, filter.getItemName());
-        }
+        List<Bson> conditions = new ArrayList<>();
+        conditions.add(Filters.eq(FIELD_ITEM, realItemName));
         State filterState = filter.getState();
         if (filterState != null && filter.getOperator() != null) {
             @Nullable
-            String op = convertOperator(filter.getOperator());
+            Bson condition = convertOperator(filter.getOperator(), convertValue(filterState));
 
-            if (op == null) {
+            if (condition == null) {
                 logger.error("Failed to convert operator {} to MongoDB operator", filter.getOperator());
                 return Collections.emptyList();
             }
 
-            Object value = convertValue(filterState);
-            query.put(FIELD_VALUE, new BasicDBObject(op, value));
+            conditions.add(condition);
         }
 
-        BasicDBObject dateQueries = new BasicDBObject();
-        if (filter.getBeginDate() != null) {
-            dateQueries.put("$gte", Date.from(filter.getBeginDate().toInstant()));
+        ZonedDateTime beginDate = filter.getBeginDate();
+        if (beginDate != null) {
+            conditions.add(Filters.gte(FIELD_TIMESTAMP, Date.from(beginDate.toInstant())));
         }
-        if (filter.getEndDate() != null) {
-            dateQueries.put("$lte", Date.from(filter.getEndDate().toInstant()));
-        }
-        if (!dateQueries.isEmpty()) {
-            query.put(FIELD_TIMESTAMP, dateQueries);
+        ZonedDateTime endDate = filter.getEndDate();
+        if (endDate != null) {
+            conditions.add(Filters.lte(FIELD_TIMESTAMP, Date.from(endDate.toInstant())));
         }
 
+        Bson query = Filters.and(conditions);
         logger.debug("Query: {}", query);
 
-        Integer sortDir = (filter.getOrdering() == Ordering.ASCENDING) ? 1 : -1;
-        DBCursor cursor = collection.find(query).sort(new BasicDBObject(FIELD_TIMESTAMP, sortDir))
-                .skip(filter.getPageNumber() * filter.getPageSize()).limit(filter.getPageSize());
-
-        while (cursor.hasNext()) {
-            BasicDBObject obj = (BasicDBObject) cursor.next();
-
-            final State state;
-            if (item instanceof NumberItem) {
-                state = new DecimalType(obj.getDouble(FIELD_VALUE));
-            } else if (item instanceof DimmerItem) {
-                state = new PercentType(obj.getInt(FIELD_VALUE));
-            } else if (item instanceof SwitchItem) {
-                state = OnOffType.valueOf(obj.getString(FIELD_VALUE));
-            } else if (item instanceof ContactItem) {
-                state = OpenClosedType.valueOf(obj.getString(FIELD_VALUE));
-            } else if (item instanceof RollershutterItem) {
-                state = new PercentType(obj.getInt(FIELD_VALUE));
-            } else if (item instanceof DateTimeItem) {
-                state = new DateTimeType(
-                        ZonedDateTime.ofInstant(obj.getDate(FIELD_VALUE).toInstant(), ZoneId.systemDefault()));
-            } else {
-                state = new StringType(obj.getString(FIELD_VALUE));
-            }
+        Bson sort = (filter.getOrdering() == Ordering.ASCENDING) ? Sorts.ascending(FIELD_TIMESTAMP)
+                : Sorts.descending(FIELD_TIMESTAMP);
+        FindIterable<Document> documents = collection.find(query)
+                .projection(Projections.include(FIELD_TIMESTAMP, FIELD_VALUE)).sort(sort)
+                .skip(filter.getPageNumber() * filter.getPageSize()).limit(filter.getPageSize())
+                .batchSize(QUERY_BATCH_SIZE);
 
-            items.add(new MongoDBItem(realItemName, state,
-                    ZonedDateTime.ofInstant(obj.getDate(FIELD_TIMESTAMP).toInstant(), ZoneId.systemDefault())));
+        List<HistoricItem> items = new ArrayList<>();
+        try (MongoCursor<Document> cursor = documents.iterator()) {
+            while (cursor.hasNext()) {
+                Document obj = cursor.next();
+
+                final State state;
+                if (item instanceof NumberItem) {
+                    state = new DecimalType(getNumber(obj).doubleValue());
+                } else if (item instanceof DimmerItem) {
+                    state = new PercentType(getNumber(obj).intValue());
+                } else if (item instanceof SwitchItem) {
+                    state = OnOffType.valueOf(obj.getString(FIELD_VALUE));
+                } else if (item instanceof ContactItem) {
+                    state = OpenClosedType.valueOf(obj.getString(FIELD_VALUE));
+                } else if (item instanceof RollershutterItem) {
+                    state = new PercentType(getNumber(obj).intValue());
+                } else if (item instanceof DateTimeItem) {
+                    state = new DateTimeType(
+                            ZonedDateTime.ofInstant(obj.getDate(FIELD_VALUE).toInstant(), ZoneId.systemDefault()));
+                } else {
+                    state = new StringType(obj.getString(FIELD_VALUE));
+                }
+
+                items.add(new MongoDBItem(realItemName, state,
+                        ZonedDateTime.ofInstant(obj.getDate(FIELD_TIMESTAMP).toInstant(), ZoneId.systemDefault())));
+            }
         }
 
         return items;
     }
 
-    private @Nullable String convertOperator(Operator operator) {
+    private static Number getNumber(Document obj) {
+        Object value = obj.get(FIELD_VALUE);
+        return value instanceof Number number ? number : Double.valueOf(String.valueOf(value));
+    }
+
+    // Visible for testing
+    @Nullable Bson convertOperator(Operator operator, Object value) {
         switch (operator) {
             case EQ:
-                return "$eq";
+                return Filters.eq(FIELD_VALUE, value);
             case GT:
-                return "$gt";
+                return Filters.gt(FIELD_VALUE, value);
             case GTE:
-                return "$gte";
+                return Filters.gte(FIELD_VALUE, value);
             case LT:
-                return "$lt";
+                return Filters.lt(FIELD_VALUE, value);
             case LTE:
-                return "$lte";
+                return Filters.lte(FIELD_VALUE, value);
             case NEQ:
-                return "$neq";
+                return Filters.ne(FIELD_VALUE, value);
             default:
                 return null;
         }
@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mongodb.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.persistence.mongodb.internal.MongoDBBatchWriter.OverflowPolicy;
+import org.openhab.persistence.mongodb.internal.MongoDBBatchWriter.QueuedDocument;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+
+/**
+ * Tests the queueing, batching and retries of the {@link MongoDBBatchWriter}.
+ *
+ * @author Thorsten Hoeger - Initial contribution
+ */
+@NonNullByDefault
+public class MongoDBBatchWriterTest {
+
+    private static final String COLLECTION_A = "a";
+    private static final String COLLECTION_B = "b";
+
+    private final MongoCollection<Document> collectionA = mockCollection();
+    private final MongoCollection<Document> collectionB = mockCollection();
+    private final Map<String, MongoCollection<Document>> collections = Map.of(COLLECTION_A, collectionA,
+            COLLECTION_B, collectionB);
+    private final List<Integer> inserted = new CopyOnWriteArrayList<>();
+
+    private @Nullable MongoDBBatchWriter writer;
+    private @Nullable CountDownLatch writing;
+
+    @AfterEach
+    public void tearDown() {
+        MongoDBBatchWriter writer = this.writer;
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    public void documentsAreInsertedWithOneInsertManyPerCollection() {
+        MongoDBBatchWriter writer = createWriter(10, 10, 200, OverflowPolicy.DROP_NEWEST);
+        writer.enqueue(document(COLLECTION_A, 0));
+        writer.enqueue(document(COLLECTION_B, 1));
+        writer.enqueue(document(COLLECTION_A, 2));
+
+        verify(collectionA, timeout(5000)).insertMany(argThat(documents -> documents.size() == 2),
+                any(InsertManyOptions.class));
+        verify(collectionB, timeout(5000)).insertMany(argThat(documents -> documents.size() == 1),
+                any(InsertManyOptions.class));
+        assertThat(inserted, containsInAnyOrder(0, 1, 2));
+    }
+
+    @Test
+    public void fullBatchIsInsertedWithoutWaitingForMaxLatency() {
+        MongoDBBatchWriter writer = createWriter(10, 2, 60_000, OverflowPolicy.DROP_NEWEST);
+        writer.enqueue(document(COLLECTION_A, 0));
+        writer.enqueue(document(COLLECTION_A, 1));
+
+        verify(collectionA, timeout(5000)).insertMany(anyList(), any(InsertManyOptions.class));
+        assertThat(writer.getStoredCount(), is(2L));
+    }
+
+    @Test
+    public void incompleteBatchIsInsertedAfterMaxLatency() {
+        MongoDBBatchWriter writer = createWriter(10, 10, 100, OverflowPolicy.DROP_NEWEST);
+        writer.enqueue(document(COLLECTION_A, 0));
+
+        verify(collectionA, timeout(5000)).insertMany(anyList(), any(InsertManyOptions.class));
+        assertThat(inserted, contains(0));
+    }
+
+    @Test
+    public void queuedDocumentsAreInsertedOnStop() {
+        MongoDBBatchWriter writer = createWriter(10, 10, 60_000, OverflowPolicy.DROP_NEWEST);
+        for (int i = 0; i < 3; i++) {
+            writer.enqueue(document(COLLECTION_A, i));
+        }
+
+        long start = System.nanoTime();
+        writer.stop();
+
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), is(lessThan(5L)));
+        assertThat(inserted, contains(0, 1, 2));
+        assertThat(writer.getStoredCount(), is(3L));
+        assertThat(writer.enqueue(document(COLLECTION_A, 3)), is(false));
+    }
+
+    @Test
+    public void newestDocumentsAreDroppedWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch release = blockFirstInsert();
+        MongoDBBatchWriter writer = createWriter(2, 1, 0, OverflowPolicy.DROP_NEWEST);
+
+        assertThat(fillQueue(writer), contains(true, true, true, false, false));
+        release.countDown();
+        writer.stop();
+
+        assertThat(inserted, contains(0, 1, 2));
+        assertThat(writer.getDroppedCount(), is(2L));
+    }
+
+    @Test
+    public void oldestDocumentsAreDroppedWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch release = blockFirstInsert();
+        MongoDBBatchWriter writer = createWriter(2, 1, 0, OverflowPolicy.DROP_OLDEST);
+
+        assertThat(fillQueue(writer), contains(true, true, true, true, true));
+        release.countDown();
+        writer.stop();
+
+        assertThat(inserted, contains(0, 3, 4));
+        assertThat(writer.getDroppedCount(), is(2L));
+    }
+
+    @Test
+    public void batchIsRetriedWhenServerIsNotReachable() {
+        doThrow(new MongoException("Timed out while waiting for a server"))
+                .doAnswer(invocation -> addInserted(invocation.getArgument(0))).when(collectionA)
+                .insertMany(anyList(), any(InsertManyOptions.class));
+        MongoDBBatchWriter writer = createWriter(10, 10, 0, OverflowPolicy.DROP_NEWEST);
+        writer.enqueue(document(COLLECTION_A, 0));
+        writer.enqueue(document(COLLECTION_A, 1));
+
+        verify(collectionA, timeout(5000).times(2)).insertMany(anyList(), any(InsertManyOptions.class));
+        assertThat(inserted, contains(0, 1));
+        assertThat(writer.getStoredCount(), is(2L));
+        assertThat(writer.getFailedCount(), is(0L));
+    }
+
+    @Test
+    public void documentsNotWrittenUntilStopAreCountedAsFailed() {
+        MongoDBBatchWriter writer = new MongoDBBatchWriter(name -> null, 10, 10, 0, OverflowPolicy.DROP_NEWEST);
+        writer.enqueue(document(COLLECTION_A, 0));
+
+        writer.stop();
+
+        assertThat(writer.getStoredCount(), is(0L));
+        assertThat(writer.getFailedCount(), is(1L));
+    }
+
+    private MongoDBBatchWriter createWriter(int queueSize, int maxBatchSize, long maxLatencyMillis,
+            OverflowPolicy overflowPolicy) {
+        MongoDBBatchWriter writer = new MongoDBBatchWriter(collections::get, queueSize, maxBatchSize, maxLatencyMillis,
+                overflowPolicy);
+        this.writer = writer;
+        return writer;
+    }
+
+    /**
+     * Makes the first insert block until the returned latch is released, so the writer takes one document from the
+     * queue and the following ones fill it up.
+     */
+    private CountDownLatch blockFirstInsert() {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return addInserted(invocation.getArgument(0));
+        }).doAnswer(invocation -> addInserted(invocation.getArgument(0))).when(collectionA)
+                .insertMany(anyList(), any(InsertManyOptions.class));
+        this.writing = writing;
+        return release;
+    }
+
+    private List<Boolean> fillQueue(MongoDBBatchWriter writer) throws InterruptedException {
+        List<Boolean> queued = new ArrayList<>();
+        queued.add(writer.enqueue(document(COLLECTION_A, 0)));
+        CountDownLatch writing = this.writing;
+        if (writing != null) {
+            assertThat(writing.await(5, TimeUnit.SECONDS), is(true));
+        }
+        for (int i = 1; i < 5; i++) {
+            queued.add(writer.enqueue(document(COLLECTION_A, i)));
+        }
+        return queued;
+    }
+
+    private @Nullable Object addInserted(List<Document> documents) {
+        documents.forEach(document -> inserted.add(document.getInteger("value")));
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private MongoCollection<Document> mockCollection() {
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        doAnswer(invocation -> addInserted(invocation.getArgument(0))).when(collection).insertMany(anyList(),
+                any(InsertManyOptions.class));
+        return collection;
+    }
+
+    private static QueuedDocument document(String collectionName, int value) {
+        return new QueuedDocument(collectionName, new Document("value", value));
+    }
+}
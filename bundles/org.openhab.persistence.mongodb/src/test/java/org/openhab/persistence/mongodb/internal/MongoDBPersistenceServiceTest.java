@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mongodb.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.persistence.FilterCriteria.Operator;
+
+import com.mongodb.MongoClientSettings;
+
+/**
+ * Tests the conversion of filter criteria to MongoDB queries in the {@link MongoDBPersistenceService}.
+ *
+ * @author Thorsten Hoeger - Initial contribution
+ */
+@NonNullByDefault
+public class MongoDBPersistenceServiceTest {
+
+    private final MongoDBPersistenceService service = new MongoDBPersistenceService(mock(ItemRegistry.class));
+
+    @ParameterizedTest
+    @CsvSource({ //
+            "EQ, '{\"value\": 21.5}'", //
+            "NEQ, '{\"value\": {\"$ne\": 21.5}}'", //
+            "GT, '{\"value\": {\"$gt\": 21.5}}'", //
+            "GTE, '{\"value\": {\"$gte\": 21.5}}'", //
+            "LT, '{\"value\": {\"$lt\": 21.5}}'", //
+            "LTE, '{\"value\": {\"$lte\": 21.5}}'" })
+    public void operatorIsConvertedToQueryOperator(Operator operator, String expectedQuery) {
+        Bson condition = service.convertOperator(operator, 21.5);
+
+        assertNotNull(condition);
+        assertEquals(BsonDocument.parse(expectedQuery),
+                condition.toBsonDocument(BsonDocument.class, MongoClientSettings.getDefaultCodecRegistry()));
+    }
+}
@@ -20,11 +20,15 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.Executors;
@@ -32,6 +36,7 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -79,9 +84,12 @@ import org.rrd4j.DsType;
 import org.rrd4j.core.FetchData;
 import org.rrd4j.core.FetchRequest;
 import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.RrdBackendFactory;
 import org.rrd4j.core.RrdDb.Builder;
 import org.rrd4j.core.RrdDbPool;
 import org.rrd4j.core.RrdDef;
+import org.rrd4j.core.RrdNioBackendFactory;
+import org.rrd4j.core.RrdRandomAccessFileBackendFactory;
 import org.rrd4j.core.Sample;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -102,6 +110,16 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
 
     public static final String SERVICE_ID = "rrd4j";
 
+    /**
+     * The storage backends that can be selected for the database files.
+     */
+    public enum Backend {
+        /** memory-mapped files, synchronized to disk periodically */
+        NIO,
+        /** plain file access for every read and write */
+        FILE
+    }
+
     private static final String DEFAULT_OTHER = "default_other";
     private static final String DEFAULT_NUMERIC = "default_numeric";
     private static final String DEFAULT_QUANTIFIABLE = "default_quantifiable";
@@ -120,7 +138,41 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
 
     private static final Path DB_FOLDER = Path.of(OpenHAB.getUserDataFolder(), "persistence", "rrd4j").toAbsolutePath();
 
-    private static final RrdDbPool DATABASE_POOL = new RrdDbPool();
+    private static final String CONFIG_BACKEND = "backend";
+    private static final String CONFIG_POOL_CAPACITY = "poolCapacity";
+    private static final String CONFIG_KEEP_OPEN = "keepOpen";
+
+    private static volatile Backend databaseBackend = Backend.NIO;
+    private static volatile RrdBackendFactory backendFactory = createBackendFactory(Backend.NIO);
+    private static volatile RrdDbPool databasePool = new RrdDbPool(backendFactory);
+
+    private static final LongAdder POOL_HITS = new LongAdder();
+    private static final LongAdder POOL_MISSES = new LongAdder();
+
+    // number of recently written databases that are kept open in the pool between two writes
+    private volatile int keepOpen = 0;
+
+    private final Map<String, RrdDb> openDatabases = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<String, RrdDb> eldest) {
+            if (eldest != null && size() > keepOpen) {
+                closeDatabase(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // number of locks the database files are distributed on, so writes to different files do not block each other
+    private static final int WRITE_LOCK_STRIPES = 64;
+
+    private final Object[] writeLocks = Stream.generate(Object::new).limit(WRITE_LOCK_STRIPES).toArray();
+
+    // last value accepted for storage per database, used for the deadband filter
+    private final Map<String, StoredSample> lastStoredSamples = new ConcurrentHashMap<>();
+    private volatile boolean deadbandConfigured = false;
 
     private final Logger logger = LoggerFactory.getLogger(RRD4jPersistenceService.class);
     private final ItemRegistry itemRegistry;
@@ -131,7 +183,52 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     }
 
     public static RrdDbPool getDatabasePool() {
-        return DATABASE_POOL;
+        return databasePool;
+    }
+
+    public static Backend getDatabaseBackend() {
+        return databaseBackend;
+    }
+
+    /**
+     * Creates a builder using the configured pool and backend.
+     */
+    public static Builder getDatabaseBuilder() {
+        Builder builder = RrdDb.getBuilder();
+        builder.setPool(databasePool);
+        builder.setBackendFactory(backendFactory);
+        return builder;
+    }
+
+    /**
+     * Creates a builder for an existing database file using the configured pool and backend, and counts whether the
+     * file is already open in the pool.
+     */
+    public static Builder getDatabaseBuilder(Path path) {
+        Builder builder = getDatabaseBuilder();
+        builder.setPath(path.toString());
+        try {
+            if (databasePool.getOpenCount(path.toString()) > 0) {
+                POOL_HITS.increment();
+            } else {
+                POOL_MISSES.increment();
+            }
+        } catch (IOException e) {
+            POOL_MISSES.increment();
+        }
+        return builder;
+    }
+
+    public static long getPoolHits() {
+        return POOL_HITS.sum();
+    }
+
+    public static long getPoolMisses() {
+        return POOL_MISSES.sum();
+    }
+
+    private static RrdBackendFactory createBackendFactory(Backend backend) {
+        return backend == Backend.FILE ? new RrdRandomAccessFileBackendFactory() : new RrdNioBackendFactory();
     }
 
     private final ScheduledFuture<?> storeJob;
@@ -148,6 +245,9 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     protected void modified(final Map<String, Object> config) {
         // clean existing definitions
         rrdDefs.clear();
+        deadbandConfigured = false;
+
+        configurePool(config);
 
         // add default configurations
 
@@ -197,8 +297,9 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         while (keys.hasNext()) {
             String key = keys.next();
 
-            if ("service.pid".equals(key) || "component.name".equals(key)) {
-                // ignore service.pid and name
+            if ("service.pid".equals(key) || "component.name".equals(key) || CONFIG_BACKEND.equals(key)
+                    || CONFIG_POOL_CAPACITY.equals(key) || CONFIG_KEEP_OPEN.equals(key)) {
+                // ignore service.pid and name, pool settings are handled separately
                 continue;
             }
 
@@ -233,6 +334,8 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
                         rrdDef.addArchives(value);
                     } else if ("items".equals(property)) {
                         rrdDef.addItems(value);
+                    } else if ("deadband".equals(property)) {
+                        rrdDef.setDeadband(value);
                     } else {
                         logger.debug("Unknown property {} : {}", property, value);
                     }
@@ -250,6 +353,53 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
                 rrdDefs.remove(rrdDef.name);
             }
         }
+        deadbandConfigured = rrdDefs.values().stream().anyMatch(rrdDef -> rrdDef.deadband > 0);
+    }
+
+    private void configurePool(Map<String, Object> config) {
+        Backend backend = Backend.NIO;
+        if (config.get(CONFIG_BACKEND) instanceof String value && !value.isBlank()) {
+            try {
+                backend = Backend.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring unknown backend '{}', using {}", value, backend);
+            }
+        }
+        int capacity = parsePositiveInt(config.get(CONFIG_POOL_CAPACITY), RrdDbPool.INITIAL_CAPACITY);
+        // keep enough room in the pool for queries and charts
+        int newKeepOpen = Math.min(parsePositiveInt(config.get(CONFIG_KEEP_OPEN), 0), capacity / 2);
+
+        synchronized (openDatabases) {
+            keepOpen = newKeepOpen;
+            if (backend != databaseBackend) {
+                // databases of the old pool must not be kept open
+                openDatabases.values().forEach(this::closeDatabase);
+                openDatabases.clear();
+                backendFactory = createBackendFactory(backend);
+                databasePool = new RrdDbPool(backendFactory);
+                databaseBackend = backend;
+            } else {
+                Iterator<RrdDb> iterator = openDatabases.values().iterator();
+                while (openDatabases.size() > keepOpen && iterator.hasNext()) {
+                    closeDatabase(iterator.next());
+                    iterator.remove();
+                }
+            }
+            databasePool.setCapacity(capacity);
+        }
+        logger.debug("Using {} backend with a pool capacity of {}, keeping {} databases open", backend, capacity,
+                newKeepOpen);
+    }
+
+    private int parsePositiveInt(@Nullable Object value, int defaultValue) {
+        if (value instanceof String stringValue && !stringValue.isBlank()) {
+            try {
+                return Math.max(0, Integer.parseInt(stringValue.trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring illegal configuration value '{}', using {}", value, defaultValue);
+            }
+        }
+        return defaultValue;
     }
 
     @Deactivate
@@ -259,6 +409,11 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
 
         // make sure we really store everything
         doStore(true);
+
+        synchronized (openDatabases) {
+            openDatabases.values().forEach(this::closeDatabase);
+            openDatabases.clear();
+        }
     }
 
     @Override
@@ -316,6 +471,11 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         }
 
         long now = System.currentTimeMillis() / 1000;
+        if (isWithinDeadband(name, value, now)) {
+            logger.trace("Discarding value {} for item {} because it is within the deadband of the last stored value",
+                    value, name);
+            return;
+        }
         Double oldValue = storageMap.computeIfAbsent(now, t -> new ConcurrentHashMap<>()).put(name, value);
         if (oldValue != null && !oldValue.equals(value)) {
             logger.debug(
@@ -324,7 +484,30 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         }
     }
 
+    /**
+     * Checks if a value is close enough to the last stored value to be discarded. Values are never discarded if the
+     * last stored value is older than half the heartbeat, so the database does not consider them missing.
+     */
+    private boolean isWithinDeadband(String name, double value, long timestamp) {
+        if (!deadbandConfigured) {
+            return false;
+        }
+        RrdDefConfig rrdDefConfig = getRrdDefConfig(name);
+        if (rrdDefConfig == null || rrdDefConfig.deadband <= 0) {
+            return false;
+        }
+        StoredSample last = lastStoredSamples.get(name);
+        if (last != null && Math.abs(value - last.value()) <= rrdDefConfig.deadband
+                && timestamp - last.timestamp() < rrdDefConfig.heartbeat / 2) {
+            return true;
+        }
+        lastStoredSamples.put(name, new StoredSample(value, timestamp));
+        return false;
+    }
+
     private void doStore(boolean force) {
+        // collect all timestamps that are ready for storing, so each database is opened only once
+        Map<String, SortedMap<Long, Double>> pointsByName = new HashMap<>();
         while (!storageMap.isEmpty()) {
             long timestamp = storageMap.firstKey();
             long now = System.currentTimeMillis() / 1000;
@@ -332,25 +515,67 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
                 // no new elements can be added for this timestamp because we are already past that time or the service
                 // requires forced storing
                 Map<String, Double> values = storageMap.pollFirstEntry().getValue();
-                values.forEach((name, value) -> writePointToDatabase(name, value, timestamp));
+                values.forEach((name, value) -> pointsByName.computeIfAbsent(name, n -> new TreeMap<>())
+                        .put(timestamp, value));
             } else {
+                break;
+            }
+        }
+        pointsByName.forEach(this::writePointsToDatabase);
+    }
+
+    private void writePointsToDatabase(String name, SortedMap<Long, Double> points) {
+        synchronized (writeLocks[Math.floorMod(name.hashCode(), WRITE_LOCK_STRIPES)]) {
+            RrdDb db = null;
+            try {
+                db = getDB(name, true);
+            } catch (Exception e) {
+                logger.warn("Failed to open rrd4j database '{}' to store data ({})", name, e.toString());
+            }
+            if (db == null) {
                 return;
             }
+
+            ConsolFun function = getConsolidationFunction(db);
+            for (Map.Entry<Long, Double> point : points.entrySet()) {
+                writePointToDatabase(db, function, name, point.getValue(), point.getKey());
+            }
+            if (!keepDatabaseOpen(name, db)) {
+                closeDatabase(db);
+            }
         }
     }
 
-    private synchronized void writePointToDatabase(String name, double value, long timestamp) {
-        RrdDb db = null;
+    /**
+     * Keeps the database open in the pool, so the next write, query or chart does not need to open the file again.
+     *
+     * @return true if the reference to the database was taken over, false if it must be closed by the caller
+     */
+    private boolean keepDatabaseOpen(String name, RrdDb db) {
+        synchronized (openDatabases) {
+            if (keepOpen <= 0 || openDatabases.get(name) != null) {
+                return false;
+            }
+            openDatabases.put(name, db);
+            return true;
+        }
+    }
+
+    private void closeDatabase(RrdDb db) {
         try {
-            db = getDB(name, true);
-        } catch (Exception e) {
-            logger.warn("Failed to open rrd4j database '{}' to store data ({})", name, e.toString());
+            db.close();
+        } catch (IOException e) {
+            logger.debug("Error closing rrd4j database: {}", e.getMessage());
         }
-        if (db == null) {
-            return;
+    }
+
+    public int getOpenDatabaseCount() {
+        synchronized (openDatabases) {
+            return openDatabases.size();
         }
+    }
 
-        ConsolFun function = getConsolidationFunction(db);
+    private void writePointToDatabase(RrdDb db, ConsolFun function, String name, double value, long timestamp) {
         if (function != ConsolFun.AVERAGE) {
             try {
                 // we store the last value again, so that the value change
@@ -386,11 +611,6 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         } catch (Exception e) {
             logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
         }
-        try {
-            db.close();
-        } catch (IOException e) {
-            logger.debug("Error closing rrd4j database: {}", e.getMessage());
-        }
     }
 
     @Override
@@ -514,17 +734,13 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         return Set.of();
     }
 
-    protected synchronized @Nullable RrdDb getDB(String alias, boolean createFileIfAbsent) {
+    protected @Nullable RrdDb getDB(String alias, boolean createFileIfAbsent) {
         RrdDb db = null;
         Path path = getDatabasePath(alias);
         try {
-            Builder builder = RrdDb.getBuilder();
-            builder.setPool(DATABASE_POOL);
-
             if (Files.exists(path)) {
                 // recreate the RrdDb instance from the file
-                builder.setPath(path.toString());
-                db = builder.build();
+                db = getDatabaseBuilder(path).build();
             } else if (createFileIfAbsent) {
                 if (!Files.exists(DB_FOLDER)) {
                     Files.createDirectories(DB_FOLDER);
@@ -532,6 +748,7 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
                 RrdDef rrdDef = getRrdDef(alias, path);
                 if (rrdDef != null) {
                     // create a new database file
+                    Builder builder = getDatabaseBuilder();
                     builder.setRrdDef(rrdDef);
                     db = builder.build();
                 } else {
@@ -645,6 +862,9 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         }
     }
 
+    private record StoredSample(double value, long timestamp) {
+    }
+
     private static class RrdArchiveDef {
         public @Nullable ConsolFun fcn;
         public double xff;
@@ -665,6 +885,7 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         public @Nullable DsType dsType;
         public int heartbeat, step;
         public double min, max;
+        public double deadband;
         public List<RrdArchiveDef> archives;
         public List<String> itemNames;
 
@@ -749,6 +970,10 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
             }
         }
 
+        public void setDeadband(String deadbandString) {
+            deadband = Double.parseDouble(deadbandString);
+        }
+
         public void addItems(String itemsString) {
             Collections.addAll(itemNames, itemsString.split(","));
         }
@@ -769,6 +994,7 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
             sb.append(" heartbeat = ").append(heartbeat);
             sb.append(" min/max = ").append(min).append("/").append(max);
             sb.append(" step = ").append(step);
+            sb.append(" deadband = ").append(deadband);
             sb.append(" ").append(archives.size()).append(" archives(s) = [");
             for (RrdArchiveDef arc : archives) {
                 sb.append(arc.toString());
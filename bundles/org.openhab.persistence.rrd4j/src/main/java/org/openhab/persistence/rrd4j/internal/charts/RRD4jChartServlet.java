@@ -19,10 +19,17 @@ import java.awt.Font;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.imageio.ImageIO;
 import javax.servlet.Servlet;
@@ -33,6 +40,7 @@ import javax.servlet.ServletResponse;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.i18n.TimeZoneProvider;
 import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
@@ -48,8 +56,10 @@ import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.http.HttpService;
 import org.osgi.service.http.NamespaceException;
 import org.rrd4j.ConsolFun;
+import org.rrd4j.core.FetchData;
+import org.rrd4j.core.FetchRequest;
 import org.rrd4j.core.RrdDb;
-import org.rrd4j.core.RrdDb.Builder;
+import org.rrd4j.core.RrdDef;
 import org.rrd4j.graph.RrdGraph;
 import org.rrd4j.graph.RrdGraphConstants.FontTag;
 import org.rrd4j.graph.RrdGraphDef;
@@ -103,9 +113,23 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
             entry("Y", Duration.ofDays(365))//
     );
 
+    private static final String DATASOURCE_STATE = "state";
+
+    static final int MAX_CACHED_CHARTS = 20;
+
     private final HttpService httpService;
     private final ItemUIRegistry itemUIRegistry;
     private final TimeZoneProvider timeZoneProvider;
+    private final ExecutorService executor = ThreadPoolManager.getPool("rrd4j-chart");
+
+    private final Map<ChartKey, CachedChart> chartCache = new LinkedHashMap<>(MAX_CACHED_CHARTS, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<ChartKey, CachedChart> eldest) {
+            return size() > MAX_CACHED_CHARTS;
+        }
+    };
 
     @Activate
     public RRD4jChartServlet(final @Reference HttpService httpService, final @Reference ItemUIRegistry itemUIRegistry,
@@ -128,6 +152,9 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
     @Deactivate
     protected void deactivate() {
         httpService.unregister(SERVLET_NAME);
+        synchronized (chartCache) {
+            chartCache.clear();
+        }
     }
 
     @Override
@@ -177,39 +204,42 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
      *
      * @param graphDef the graph definition to fill
      * @param item the item to add a line for
+     * @param fetchData the values to draw
      * @param counter defines the number of the datasource and is used to determine the line color
      */
-    protected void addLine(RrdGraphDef graphDef, Item item, int counter) {
+    protected void addLine(RrdGraphDef graphDef, Item item, FetchData fetchData, int counter) {
         Color color = LINECOLORS[counter % LINECOLORS.length];
         String label = itemUIRegistry.getLabel(item.getName());
-        String rrdName = RRD4jPersistenceService.getDatabasePath(item.getName()).toString();
-        ConsolFun consolFun;
         if (label != null && label.contains("[") && label.contains("]")) {
             label = label.substring(0, label.indexOf('['));
         }
-        try {
-            Builder builder = RrdDb.getBuilder();
-            builder.setPool(RRD4jPersistenceService.getDatabasePool());
-            builder.setPath(rrdName);
+        graphDef.datasource(Integer.toString(counter), DATASOURCE_STATE, fetchData);
+        if (!(item instanceof NumberItem)) {
+            // we fill the area beneath the line with a transparent color
+            Color areaColor = AREACOLORS[counter % LINECOLORS.length];
+            graphDef.area(Integer.toString(counter), areaColor);
+        }
+        graphDef.line(Integer.toString(counter), color, label, 2);
+    }
 
-            RrdDb db = builder.build();
-            consolFun = db.getRrdDef().getArcDefs()[0].getConsolFun();
+    /**
+     * Fetches the values of an item from its database, using the resolution that fits the width of the chart.
+     */
+    private ChartSeries fetchSeries(Item item, long start, long end, int width) throws IOException {
+        RrdDb db = RRD4jPersistenceService.getDatabaseBuilder(getDatabasePath(item.getName())).build();
+        try {
+            RrdDef rrdDef = db.getRrdDef();
+            ConsolFun consolFun = rrdDef.getArcDefs()[0].getConsolFun();
+            FetchRequest request = db.createFetchRequest(consolFun, start, end, Math.max(1, (end - start) / width));
+            return new ChartSeries(item, request.fetchData(), rrdDef.getStep());
+        } finally {
             db.close();
-        } catch (IOException e) {
-            consolFun = ConsolFun.MAX;
         }
-        if (item instanceof NumberItem) {
-            // we only draw a line
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
-            graphDef.line(Integer.toString(counter), color, label, 2);
-        } else {
-            // we draw a line and fill the area beneath it with a transparent color
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
-            Color areaColor = AREACOLORS[counter % LINECOLORS.length];
+    }
 
-            graphDef.area(Integer.toString(counter), areaColor);
-            graphDef.line(Integer.toString(counter), color, label, 2);
-        }
+    // Visible for testing
+    protected Path getDatabasePath(String itemName) {
+        return RRD4jPersistenceService.getDatabasePath(itemName);
     }
 
     @Override
@@ -242,23 +272,26 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
     public BufferedImage createChart(@Nullable String service, @Nullable String theme, ZonedDateTime startTime,
             ZonedDateTime endTime, int height, int width, @Nullable String items, @Nullable String groups,
             @Nullable Integer dpi, @Nullable Boolean legend) throws ItemNotFoundException {
-        RrdGraphDef graphDef = new RrdGraphDef(startTime.toEpochSecond(), endTime.toEpochSecond());
-        graphDef.setWidth(width);
-        graphDef.setHeight(height);
-        graphDef.setAntiAliasing(true);
-        graphDef.setImageFormat("PNG");
-        graphDef.setTextAntiAliasing(true);
-        graphDef.setFont(FontTag.TITLE, new Font("SansSerif", Font.PLAIN, 15));
-        graphDef.setFont(FontTag.DEFAULT, new Font("SansSerif", Font.PLAIN, 11));
-
-        int seriesCounter = 0;
+        long start = startTime.toEpochSecond();
+        long end = endTime.toEpochSecond();
+        ChartKey key = new ChartKey(service, theme, end - start, height, width, items, groups, dpi, legend);
+        CachedChart cachedChart;
+        synchronized (chartCache) {
+            cachedChart = chartCache.get(key);
+        }
+        // the chart cannot change before the databases received the next step
+        if (cachedChart != null && end >= cachedChart.end() && end < cachedChart.end() + cachedChart.step()) {
+            logger.debug("Returning cached chart for {}", key);
+            return cachedChart.image();
+        }
+        long timerStart = System.currentTimeMillis();
 
+        List<Item> chartItems = new ArrayList<>();
         // Loop through all the items
         if (items != null) {
             String[] itemNames = items.split(",");
             for (String itemName : itemNames) {
-                Item item = itemUIRegistry.getItem(itemName);
-                addLine(graphDef, item, seriesCounter++);
+                chartItems.add(itemUIRegistry.getItem(itemName));
             }
         }
 
@@ -268,24 +301,67 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
             for (String groupName : groupNames) {
                 Item item = itemUIRegistry.getItem(groupName);
                 if (item instanceof GroupItem groupItem) {
-                    for (Item member : groupItem.getMembers()) {
-                        addLine(graphDef, member, seriesCounter++);
-                    }
+                    chartItems.addAll(groupItem.getMembers());
                 } else {
                     throw new ItemNotFoundException("Item '" + item.getName() + "' defined in groups is not a group.");
                 }
             }
         }
 
-        // Write the chart as a PNG image
+        // Fetch the values of all items concurrently
+        List<Future<ChartSeries>> fetches = chartItems.stream()
+                .map(item -> executor.submit(() -> fetchSeries(item, start, end, width))).toList();
+
+        RrdGraphDef graphDef = new RrdGraphDef(start, end);
+        graphDef.setWidth(width);
+        graphDef.setHeight(height);
+        graphDef.setAntiAliasing(true);
+        graphDef.setImageFormat("PNG");
+        graphDef.setTextAntiAliasing(true);
+        graphDef.setFont(FontTag.TITLE, new Font("SansSerif", Font.PLAIN, 15));
+        graphDef.setFont(FontTag.DEFAULT, new Font("SansSerif", Font.PLAIN, 11));
+
         try {
+            long step = Long.MAX_VALUE;
+            int seriesCounter = 0;
+            for (Future<ChartSeries> fetch : fetches) {
+                ChartSeries series = getSeries(fetch);
+                addLine(graphDef, series.item(), series.fetchData(), seriesCounter++);
+                step = Math.min(step, series.step());
+            }
+
+            // Write the chart as a PNG image
             RrdGraph graph = new RrdGraph(graphDef);
             BufferedImage bi = new BufferedImage(graph.getRrdGraphInfo().getWidth(),
                     graph.getRrdGraphInfo().getHeight(), BufferedImage.TYPE_INT_RGB);
             graph.render(bi.getGraphics());
+            if (!fetches.isEmpty()) {
+                synchronized (chartCache) {
+                    chartCache.put(key, new CachedChart(bi, end, step));
+                }
+            }
+            logger.debug("Rendered chart with {} series in {} ms", fetches.size(),
+                    System.currentTimeMillis() - timerStart);
             return bi;
         } catch (IOException e) {
             throw new UncheckedIOException("Error generating RrdGraph", e);
+        } finally {
+            fetches.forEach(fetch -> fetch.cancel(true));
+        }
+    }
+
+    private ChartSeries getSeries(Future<ChartSeries> fetch) throws IOException {
+        try {
+            return fetch.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IllegalStateException("Error fetching chart data", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching chart data", e);
         }
     }
 
@@ -293,4 +369,14 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
     public ImageType getChartType() {
         return ImageType.png;
     }
+
+    private record ChartKey(@Nullable String service, @Nullable String theme, long period, int height, int width,
+            @Nullable String items, @Nullable String groups, @Nullable Integer dpi, @Nullable Boolean legend) {
+    }
+
+    private record CachedChart(BufferedImage image, long end, long step) {
+    }
+
+    private record ChartSeries(Item item, FetchData fetchData, long step) {
+    }
 }
@@ -34,6 +34,7 @@ import org.openhab.persistence.rrd4j.internal.RRD4jPersistenceService;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
+import org.rrd4j.core.RrdDbPool;
 
 /**
  * The {@link RRD4jCommandExtension} is responsible for handling console commands
@@ -47,8 +48,9 @@ public class RRD4jCommandExtension extends AbstractConsoleCommandExtension imple
     private static final String CMD_LIST = "list";
     private static final String CMD_CHECK = "check";
     private static final String CMD_CLEAN = "clean";
-    private static final StringsCompleter CMD_COMPLETER = new StringsCompleter(List.of(CMD_LIST, CMD_CHECK, CMD_CLEAN),
-            false);
+    private static final String CMD_POOL = "pool";
+    private static final StringsCompleter CMD_COMPLETER = new StringsCompleter(
+            List.of(CMD_LIST, CMD_CHECK, CMD_CLEAN, CMD_POOL), false);
 
     private final PersistenceServiceRegistry persistenceServiceRegistry;
     private final ItemRegistry itemRegistry;
@@ -81,6 +83,9 @@ public class RRD4jCommandExtension extends AbstractConsoleCommandExtension imple
         } else if (args.length >= 1 && args.length <= 2 && CMD_CLEAN.equalsIgnoreCase(args[0])) {
             checkAndClean(persistenceService, console, args.length == 2 ? args[1] : null, false);
             return;
+        } else if (args.length == 1 && CMD_POOL.equalsIgnoreCase(args[0])) {
+            showPoolStatistics(persistenceService, console);
+            return;
         }
         printUsage(console);
     }
@@ -136,11 +141,27 @@ public class RRD4jCommandExtension extends AbstractConsoleCommandExtension imple
         console.println(nb + " files " + (checkOnly ? "to delete." : "deleted."));
     }
 
+    private void showPoolStatistics(RRD4jPersistenceService persistenceService, Console console) {
+        RrdDbPool pool = RRD4jPersistenceService.getDatabasePool();
+        long hits = RRD4jPersistenceService.getPoolHits();
+        long misses = RRD4jPersistenceService.getPoolMisses();
+        long requests = hits + misses;
+        console.println("RRD database pool...");
+        console.println("  - backend: " + RRD4jPersistenceService.getDatabaseBackend());
+        console.println("  - capacity: " + pool.getCapacity());
+        console.println("  - open files: " + pool.getOpenFileCount());
+        console.println("  - kept open after write: " + persistenceService.getOpenDatabaseCount());
+        console.println("  - hits: " + hits);
+        console.println("  - misses: " + misses);
+        console.println(String.format("  - hit ratio: %.1f %%", requests == 0 ? 0.0 : hits * 100.0 / requests));
+    }
+
     @Override
     public List<String> getUsages() {
         return List.of(buildCommandUsage(CMD_LIST, "list Round Robin Database files"),
                 buildCommandUsage(CMD_CHECK, "check for RRD files without existing item"),
-                buildCommandUsage(CMD_CLEAN + " [<itemName>]", "delete RRD files without existing item"));
+                buildCommandUsage(CMD_CLEAN + " [<itemName>]", "delete RRD files without existing item"),
+                buildCommandUsage(CMD_POOL, "show database pool usage and hit/miss counters"));
     }
 
     @Override
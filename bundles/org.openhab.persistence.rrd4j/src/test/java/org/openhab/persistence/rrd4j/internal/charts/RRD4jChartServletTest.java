@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal.charts;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.core.i18n.TimeZoneProvider;
+import org.openhab.core.items.ItemNotFoundException;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.ui.items.ItemUIRegistry;
+import org.osgi.service.http.HttpService;
+import org.rrd4j.ConsolFun;
+import org.rrd4j.DsType;
+import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.RrdDef;
+import org.rrd4j.core.Sample;
+
+/**
+ * Tests the cache of rendered charts in {@link RRD4jChartServlet}.
+ *
+ * @author Kai Kreuzer - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@NonNullByDefault
+public class RRD4jChartServletTest {
+
+    private static final int SERIES_COUNT = 3;
+    private static final long STEP = 60;
+    private static final ZonedDateTime END = ZonedDateTime
+            .ofInstant(Instant.ofEpochSecond(1_700_000_000L / STEP * STEP), ZoneId.of("UTC"));
+    private static final Duration PERIOD = Duration.ofDays(1);
+
+    private @Mock @NonNullByDefault({}) HttpService httpService;
+    private @Mock @NonNullByDefault({}) ItemUIRegistry itemUIRegistry;
+    private @Mock @NonNullByDefault({}) TimeZoneProvider timeZoneProvider;
+    private @TempDir @NonNullByDefault({}) Path databaseFolder;
+
+    private @NonNullByDefault({}) RRD4jChartServlet servlet;
+
+    @BeforeEach
+    public void setUp() throws IOException, ItemNotFoundException {
+        for (int i = 0; i < SERIES_COUNT; i++) {
+            String itemName = "Item" + i;
+            createDatabase(databaseFolder.resolve(itemName + ".rrd"), i);
+            when(itemUIRegistry.getItem(itemName)).thenReturn(new NumberItem(itemName));
+        }
+        when(itemUIRegistry.getLabel(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        servlet = new RRD4jChartServlet(httpService, itemUIRegistry, timeZoneProvider) {
+            @Override
+            protected Path getDatabasePath(String itemName) {
+                return databaseFolder.resolve(itemName + ".rrd");
+            }
+        };
+    }
+
+    @Test
+    public void chartIsReusedWithinOneStep() throws ItemNotFoundException {
+        BufferedImage chart = createChart(END, 480, "Item0,Item1");
+
+        assertSame(chart, createChart(END, 480, "Item0,Item1"));
+        assertSame(chart, createChart(END.plusSeconds(STEP - 1), 480, "Item0,Item1"));
+    }
+
+    @Test
+    public void chartIsRenderedAgainAfterOneStep() throws ItemNotFoundException {
+        BufferedImage chart = createChart(END, 480, "Item0,Item1");
+
+        assertNotSame(chart, createChart(END.plusSeconds(STEP), 480, "Item0,Item1"));
+    }
+
+    @Test
+    public void chartsOfOtherItemsOrSizesAreNotReused() throws ItemNotFoundException {
+        BufferedImage chart = createChart(END, 480, "Item0,Item1");
+
+        assertNotSame(chart, createChart(END, 480, "Item0,Item2"));
+        assertNotSame(chart, createChart(END, 640, "Item0,Item1"));
+        assertSame(chart, createChart(END, 480, "Item0,Item1"));
+    }
+
+    @Test
+    public void leastRecentlyUsedChartIsEvicted() throws ItemNotFoundException {
+        BufferedImage first = createChart(END, 100, "Item0");
+        BufferedImage second = createChart(END, 101, "Item0");
+        for (int i = 2; i < RRD4jChartServlet.MAX_CACHED_CHARTS; i++) {
+            createChart(END, 100 + i, "Item0");
+        }
+        // use the first chart again, so the second one is now the least recently used
+        assertSame(first, createChart(END, 100, "Item0"));
+
+        createChart(END, 100 + RRD4jChartServlet.MAX_CACHED_CHARTS, "Item0");
+
+        assertSame(first, createChart(END, 100, "Item0"));
+        assertNotSame(second, createChart(END, 101, "Item0"));
+    }
+
+    private BufferedImage createChart(ZonedDateTime end, int width, String items) throws ItemNotFoundException {
+        return servlet.createChart(null, null, end.minus(PERIOD), end, 240, width, items, null, null, null);
+    }
+
+    private void createDatabase(Path path, int offset) throws IOException {
+        long start = END.minus(PERIOD).toEpochSecond() - STEP;
+        RrdDef rrdDef = new RrdDef(path.toString(), start, STEP);
+        rrdDef.addDatasource("state", DsType.GAUGE, 2 * STEP, Double.NaN, Double.NaN);
+        rrdDef.addArchive(ConsolFun.AVERAGE, 0.5, 1, 2 * 1440);
+        try (RrdDb db = RrdDb.getBuilder().setRrdDef(rrdDef).build()) {
+            Sample sample = db.createSample();
+            for (long time = start + STEP; time <= END.toEpochSecond(); time += STEP) {
+                sample.setTime(time);
+                sample.setValue("state", offset + Math.sin(time / 3600.0));
+                sample.update();
+            }
+        }
+    }
+}
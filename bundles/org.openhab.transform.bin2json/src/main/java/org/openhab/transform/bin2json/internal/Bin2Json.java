@@ -66,14 +66,21 @@ import com.igormaznitsa.jbbp.model.JBBPFieldUShort;
  * json.toString() = {"a":3,"b":-6,"c":255}}
  * </pre>
  *
+ * The <code>convertToJsonString</code> methods produce the same JSON text without building a {@link JsonObject}
+ * first. A {@link Bin2Json} instance can be shared between threads.
+ *
  * @author Pauli Anttila - Initial contribution
  *
  */
 public class Bin2Json {
 
+    private static final String NO_NAME = "nonamed";
+    private static final int MAX_REUSED_BUILDER_CAPACITY = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(StringBuilder::new);
+
     private final Logger logger = LoggerFactory.getLogger(Bin2Json.class);
 
-    private JBBPParser parser;
+    private final JBBPParser parser;
 
     /**
      *
@@ -137,6 +144,55 @@ public class Bin2Json {
         }
     }
 
+    /**
+     * Convert {@link String} in hexadecimal string format to JSON text.
+     *
+     * @param hexString Data in hexadecimal string format. Example data: 03FAFF
+     * @return JSON text, equal to the result of {@link #convert(String)} converted to a string
+     * @throws ConversionException
+     */
+    public String convertToJsonString(String hexString) throws ConversionException {
+        try {
+            return convertToJsonString(HexUtils.hexToBytes(hexString));
+        } catch (IllegalArgumentException e) {
+            throw new ConversionException(String.format("Illegal hexstring , reason: %s", e.getMessage(), e));
+        }
+    }
+
+    /**
+     * Convert byte array to JSON text.
+     *
+     * @param data Data in byte array format.
+     * @return JSON text, equal to the result of {@link #convert(byte[])} converted to a string
+     * @throws ConversionException
+     */
+    public String convertToJsonString(byte[] data) throws ConversionException {
+        try {
+            return convertToJsonString(parser.parse(data));
+        } catch (IOException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        } catch (JBBPException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        }
+    }
+
+    private String convertToJsonString(JBBPFieldStruct data) throws ConversionException {
+        try {
+            StringBuilder builder = BUILDER.get();
+            builder.setLength(0);
+            appendStruct(builder, data);
+            String json = builder.toString();
+            if (builder.capacity() > MAX_REUSED_BUILDER_CAPACITY) {
+                // don't keep the memory of an unusually large result for the lifetime of the thread
+                BUILDER.remove();
+            }
+            logger.trace("json={}", json);
+            return json;
+        } catch (JBBPException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        }
+    }
+
     private JsonObject convert(JBBPFieldStruct data) throws ConversionException {
         try {
             LocalDateTime start = LocalDateTime.now();
@@ -158,7 +214,7 @@ public class Bin2Json {
     private JsonObject convertToJSon(final JsonObject json, final JBBPAbstractField field) throws ConversionException {
         JsonObject jsn = json == null ? new JsonObject() : json;
 
-        final String fieldName = field.getFieldName() == null ? "nonamed" : field.getFieldName();
+        final String fieldName = field.getFieldName() == null ? NO_NAME : field.getFieldName();
         if (field instanceof JBBPAbstractArrayField) {
             final JsonArray jsonArray = new JsonArray();
             if (field instanceof JBBPFieldArrayBit bit) {
@@ -234,4 +290,125 @@ public class Bin2Json {
         }
         return jsn;
     }
+
+    /**
+     * Appends a struct as JSON object in the same way as {@link #convertToJSon(JsonObject, JBBPAbstractField)}.
+     */
+    private void appendStruct(StringBuilder builder, JBBPFieldStruct struct) throws ConversionException {
+        JBBPAbstractField[] fields = struct.getArray();
+        if (hasDuplicateNames(fields)) {
+            // later fields replace earlier ones with the same name, which is rare enough to leave to Gson
+            builder.append(convertToJSon(struct));
+            return;
+        }
+        builder.append('{');
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            appendField(builder, fields[i]);
+        }
+        builder.append('}');
+    }
+
+    private void appendField(StringBuilder builder, JBBPAbstractField field) throws ConversionException {
+        appendName(builder, field.getFieldName());
+        if (field instanceof JBBPAbstractArrayField) {
+            builder.append('[');
+            if (field instanceof JBBPFieldArrayBit bit) {
+                byte[] array = bit.getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(builder, i).append(array[i]);
+                }
+            } else if (field instanceof JBBPFieldArrayBoolean boolean1) {
+                boolean[] array = boolean1.getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(builder, i).append(array[i]);
+                }
+            } else if (field instanceof JBBPFieldArrayByte byte1) {
+                byte[] array = byte1.getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(builder, i).append(array[i]);
+                }
+            } else if (field instanceof JBBPFieldArrayInt int1) {
+                int[] array = int1.getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(builder, i).append(array[i]);
+                }
+            } else if (field instanceof JBBPFieldArrayLong long1) {
+                long[] array = long1.getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(builder, i).append(array[i]);
+                }
+            } else if (field instanceof JBBPFieldArrayShort short1) {
+                short[] array = short1.getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(builder, i).append(array[i]);
+                }
+            } else if (field instanceof JBBPFieldArrayStruct array) {
+                for (int i = 0; i < array.size(); i++) {
+                    // every element is wrapped in an object holding the struct under its name
+                    appendSeparator(builder, i).append('{');
+                    appendField(builder, array.getElementAt(i));
+                    builder.append('}');
+                }
+            } else if (field instanceof JBBPFieldArrayUByte byte1) {
+                byte[] array = byte1.getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(builder, i).append(array[i] & 0xFF);
+                }
+            } else if (field instanceof JBBPFieldArrayUShort short1) {
+                short[] array = short1.getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(builder, i).append(array[i] & 0xFFFF);
+                }
+            } else {
+                throw new ConversionException(String.format("Unexpected field type '%s'", field));
+            }
+            builder.append(']');
+        } else {
+            if (field instanceof JBBPFieldBit bit) {
+                builder.append(bit.getAsInt());
+            } else if (field instanceof JBBPFieldBoolean boolean1) {
+                builder.append(boolean1.getAsBool());
+            } else if (field instanceof JBBPFieldByte byte1) {
+                builder.append(byte1.getAsInt());
+            } else if (field instanceof JBBPFieldInt int1) {
+                builder.append(int1.getAsInt());
+            } else if (field instanceof JBBPFieldLong long1) {
+                builder.append(long1.getAsLong());
+            } else if (field instanceof JBBPFieldShort short1) {
+                builder.append(short1.getAsInt());
+            } else if (field instanceof JBBPFieldStruct struct) {
+                appendStruct(builder, struct);
+            } else if (field instanceof JBBPFieldUByte byte1) {
+                builder.append(byte1.getAsInt());
+            } else if (field instanceof JBBPFieldUShort short1) {
+                builder.append(short1.getAsInt());
+            } else {
+                throw new ConversionException(String.format("Unexpected field '%s'", field));
+            }
+        }
+    }
+
+    private static StringBuilder appendSeparator(StringBuilder builder, int index) {
+        return index > 0 ? builder.append(',') : builder;
+    }
+
+    private static void appendName(StringBuilder builder, String fieldName) {
+        // JBBP only accepts identifiers as field names, so they never need to be escaped
+        builder.append('"').append(fieldName == null ? NO_NAME : fieldName).append("\":");
+    }
+
+    private static boolean hasDuplicateNames(JBBPAbstractField[] fields) {
+        // JBBP rejects duplicate field names, but all unnamed fields are written with the same name
+        int unnamed = 0;
+        for (JBBPAbstractField field : fields) {
+            String name = field.getFieldName();
+            if ((name == null || NO_NAME.equals(name)) && ++unnamed > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
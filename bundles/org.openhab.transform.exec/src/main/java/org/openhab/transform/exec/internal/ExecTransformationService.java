@@ -12,15 +12,26 @@
  */
 package org.openhab.transform.exec.internal;
 
+import java.io.IOException;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
+import org.openhab.core.config.core.ConfigParser;
+import org.openhab.core.config.core.ConfigurableService;
 import org.openhab.core.io.net.exec.ExecUtil;
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
+import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,15 +44,55 @@ import org.slf4j.LoggerFactory;
  * @author Jan N. Klug - added command whitelist service
  */
 @NonNullByDefault
-@Component(property = { "openhab.transform=EXEC" })
+@Component(configurationPid = "org.openhab.exec", property = { "openhab.transform=EXEC",
+        Constants.SERVICE_PID + "=org.openhab.exec" })
+@ConfigurableService(category = "transformation", label = "Exec Transformation Service", description_uri = ExecTransformationService.CONFIG_URI)
 public class ExecTransformationService implements TransformationService {
+    protected static final String CONFIG_URI = "transformation:exec";
+    private static final String CONFIG_WORKER_POOL_SIZE = "workerPoolSize";
+    private static final String CONFIG_WORKER_TIMEOUT = "workerTimeout";
+    private static final int DEFAULT_WORKER_POOL_SIZE = 1;
+    private static final long DEFAULT_WORKER_TIMEOUT = 5000;
+    private static final String THREAD_POOL_NAME = "transformation-exec";
+
+    /** Prefix of commands which are started once and kept running as workers */
+    static final String WORKER_PREFIX = "worker:";
+
     private final Logger logger = LoggerFactory.getLogger(ExecTransformationService.class);
     private final ExecTransformationWhitelistWatchService execTransformationWhitelistWatchService;
+    private final Runnable whitelistChangeListener = this::stopRemovedWorkers;
+    private final Map<String, ExecWorkerPool> workerPools = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(THREAD_POOL_NAME);
+
+    private int workerPoolSize = DEFAULT_WORKER_POOL_SIZE;
+    private Duration workerTimeout = Duration.ofMillis(DEFAULT_WORKER_TIMEOUT);
 
     @Activate
     public ExecTransformationService(
-            @Reference ExecTransformationWhitelistWatchService execTransformationWhitelistWatchService) {
+            @Reference ExecTransformationWhitelistWatchService execTransformationWhitelistWatchService,
+            Map<String, Object> config) {
         this.execTransformationWhitelistWatchService = execTransformationWhitelistWatchService;
+        readConfig(config);
+        execTransformationWhitelistWatchService.addChangeListener(whitelistChangeListener);
+    }
+
+    @Modified
+    public void modified(Map<String, Object> config) {
+        readConfig(config);
+        stopWorkers();
+    }
+
+    @Deactivate
+    public void deactivate() {
+        execTransformationWhitelistWatchService.removeChangeListener(whitelistChangeListener);
+        stopWorkers();
+    }
+
+    private void readConfig(Map<String, Object> config) {
+        workerPoolSize = Math.max(1, ConfigParser.valueAsOrElse(config.get(CONFIG_WORKER_POOL_SIZE), Integer.class,
+                DEFAULT_WORKER_POOL_SIZE));
+        workerTimeout = Duration.ofMillis(Math.max(1,
+                ConfigParser.valueAsOrElse(config.get(CONFIG_WORKER_TIMEOUT), Long.class, DEFAULT_WORKER_TIMEOUT)));
     }
 
     /**
@@ -63,6 +114,10 @@ public class ExecTransformationService implements TransformationService {
         }
         logger.debug("about to transform '{}' by the commandline '{}'", source, commandLine);
 
+        if (commandLine.startsWith(WORKER_PREFIX)) {
+            return transformByWorker(commandLine, source);
+        }
+
         long startTime = System.currentTimeMillis();
 
         String formattedCommandLine = String.format(commandLine, source);
@@ -72,4 +127,36 @@ public class ExecTransformationService implements TransformationService {
 
         return result;
     }
+
+    private String transformByWorker(String commandLine, String source) throws TransformationException {
+        long startTime = System.currentTimeMillis();
+
+        ExecWorkerPool pool = workerPools.computeIfAbsent(commandLine,
+                c -> new ExecWorkerPool(Arrays.asList(c.substring(WORKER_PREFIX.length()).trim().split(" ")),
+                        workerPoolSize, workerTimeout, scheduler));
+        try {
+            String result = pool.transform(source);
+            logger.trace("worker execution elapsed {} ms", System.currentTimeMillis() - startTime);
+            return result;
+        } catch (IOException e) {
+            throw new TransformationException("Worker '" + commandLine + "' failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void stopRemovedWorkers() {
+        workerPools.entrySet().removeIf(entry -> {
+            if (execTransformationWhitelistWatchService.isWhitelisted(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().close();
+            return true;
+        });
+    }
+
+    private void stopWorkers() {
+        workerPools.values().removeIf(pool -> {
+            pool.close();
+            return true;
+        });
+    }
 }
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link ExecWorker} is a long-running external process which transforms values exchanged over its standard input
+ * and output.
+ *
+ * Every message in both directions consists of the length of the UTF-8 encoded value in bytes as a decimal number,
+ * followed by a newline and the value itself. Output on the standard error stream is logged at debug level.
+ *
+ * @author Pauli Anttila - Initial contribution
+ */
+@NonNullByDefault
+class ExecWorker {
+    static final int MAX_MESSAGE_LENGTH = 16 * 1024 * 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(ExecWorker.class);
+
+    private final List<String> command;
+    private final Process process;
+    private final OutputStream toProcess;
+    private final InputStream fromProcess;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Starts the worker process.
+     *
+     * @param command the program and its arguments
+     * @param scheduler the scheduler used to stop the process when a request times out
+     * @throws IOException if the process cannot be started
+     */
+    ExecWorker(List<String> command, ScheduledExecutorService scheduler) throws IOException {
+        this.command = command;
+        this.process = new ProcessBuilder(command).start();
+        this.toProcess = new BufferedOutputStream(process.getOutputStream());
+        this.fromProcess = new BufferedInputStream(process.getInputStream());
+        this.scheduler = scheduler;
+
+        Thread errorLogger = new Thread(this::logErrors, "OH-transform-exec-worker-" + process.pid());
+        errorLogger.setDaemon(true);
+        errorLogger.start();
+    }
+
+    /**
+     * Sends a value to the process and waits for its response. Only one request must be sent at a time.
+     *
+     * If the process does not respond in time, it is stopped and the worker cannot be used anymore.
+     *
+     * @param value the value to transform
+     * @param timeout the maximum time to wait for the response
+     * @return the transformed value
+     * @throws IOException if the exchange fails or times out
+     */
+    String exchange(String value, Duration timeout) throws IOException {
+        ScheduledFuture<?> timeoutJob = scheduler.schedule(this::kill, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            byte[] request = value.getBytes(StandardCharsets.UTF_8);
+            toProcess.write((request.length + "\n").getBytes(StandardCharsets.US_ASCII));
+            toProcess.write(request);
+            toProcess.flush();
+
+            int length = readLength();
+            byte[] response = fromProcess.readNBytes(length);
+            if (response.length < length) {
+                throw new EOFException("Worker process ended before sending the complete response");
+            }
+            return new String(response, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            if (timeoutJob.isDone()) {
+                throw new IOException("Worker process did not respond within " + timeout.toMillis() + " ms", e);
+            }
+            throw e;
+        } finally {
+            timeoutJob.cancel(false);
+        }
+    }
+
+    private int readLength() throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        int b;
+        while ((b = fromProcess.read()) != '\n') {
+            if (b < 0) {
+                throw new EOFException("Worker process ended without sending a response");
+            } else if (header.size() > 10) {
+                throw new IOException("Invalid response header from worker process");
+            }
+            header.write(b);
+        }
+        String length = header.toString(StandardCharsets.US_ASCII).trim();
+        try {
+            int result = Integer.parseInt(length);
+            if (result < 0 || result > MAX_MESSAGE_LENGTH) {
+                throw new IOException("Invalid response length '" + length + "' from worker process");
+            }
+            return result;
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid response header '" + length + "' from worker process");
+        }
+    }
+
+    private void logErrors() {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                logger.debug("Worker process '{}': {}", command, line);
+            }
+        } catch (IOException e) {
+            // the stream is closed when the process ends
+        }
+    }
+
+    /**
+     * Kills the process including its children, which may hold the output stream open, e.g. if the worker is a
+     * shell script.
+     */
+    private void kill() {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    void stop() {
+        process.descendants().forEach(ProcessHandle::destroy);
+        process.destroy();
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link ExecWorkerPool} manages the {@link ExecWorker}s of one command.
+ *
+ * Workers are started on demand up to the pool size and kept running between requests. A worker which crashed, timed
+ * out or sent an invalid response is stopped and replaced by a new process on the next request.
+ *
+ * @author Pauli Anttila - Initial contribution
+ */
+@NonNullByDefault
+class ExecWorkerPool {
+    private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Logger logger = LoggerFactory.getLogger(ExecWorkerPool.class);
+
+    private final List<String> command;
+    private final int poolSize;
+    private final Duration timeout;
+    private final ScheduledExecutorService scheduler;
+    private final LinkedBlockingQueue<ExecWorker> idleWorkers = new LinkedBlockingQueue<>();
+    private int startedWorkers = 0;
+    private boolean closed = false;
+
+    ExecWorkerPool(List<String> command, int poolSize, Duration timeout, ScheduledExecutorService scheduler) {
+        this.command = command;
+        this.poolSize = poolSize;
+        this.timeout = timeout;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Transforms a value by one of the workers of this pool.
+     *
+     * @param value the value to transform
+     * @return the transformed value
+     * @throws IOException if no worker is available in time or the worker failed
+     */
+    String transform(String value) throws IOException {
+        ExecWorker worker = acquire();
+        try {
+            if (!worker.isAlive()) {
+                logger.debug("Worker process '{}' has ended, restarting it", command);
+                worker = new ExecWorker(command, scheduler);
+            }
+            String result = worker.exchange(value, timeout);
+            release(worker);
+            return result;
+        } catch (IOException e) {
+            worker.stop();
+            synchronized (this) {
+                startedWorkers--;
+            }
+            throw e;
+        }
+    }
+
+    private ExecWorker acquire() throws IOException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            ExecWorker worker = idleWorkers.poll();
+            if (worker != null) {
+                return worker;
+            }
+            synchronized (this) {
+                if (closed) {
+                    throw new IOException("Worker pool for '" + command + "' has been closed");
+                }
+                if (startedWorkers < poolSize) {
+                    startedWorkers++;
+                    logger.debug("Starting worker process '{}'", command);
+                    try {
+                        return new ExecWorker(command, scheduler);
+                    } catch (IOException e) {
+                        startedWorkers--;
+                        throw e;
+                    }
+                }
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new IOException(
+                        "No worker for '" + command + "' became available within " + timeout.toMillis() + " ms");
+            }
+            try {
+                // wake up regularly, a failed worker frees a slot without returning to the queue
+                worker = idleWorkers.poll(Math.min(remaining, POLL_INTERVAL_NANOS), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for a worker");
+            }
+            if (worker != null) {
+                return worker;
+            }
+        }
+    }
+
+    private void release(ExecWorker worker) {
+        boolean stop;
+        synchronized (this) {
+            stop = closed;
+            if (stop) {
+                startedWorkers--;
+            }
+        }
+        if (stop) {
+            worker.stop();
+        } else {
+            idleWorkers.add(worker);
+        }
+    }
+
+    /**
+     * Stops all idle workers. Workers busy with a request are stopped as soon as the request completes.
+     */
+    void close() {
+        List<ExecWorker> workers = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            idleWorkers.drainTo(workers);
+            startedWorkers -= workers.size();
+        }
+        workers.forEach(ExecWorker::stop);
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.mockito.ArgumentCaptor;
+import org.openhab.core.transform.TransformationException;
+
+/**
+ * Tests the worker commands of the {@link ExecTransformationService}.
+ *
+ * @author Pauli Anttila - Initial contribution
+ */
+@NonNullByDefault
+@DisabledOnOs(OS.WINDOWS)
+public class ExecTransformationServiceTest {
+
+    private static final String WORKER_COMMAND = ExecTransformationService.WORKER_PREFIX + "sh "
+            + ExecWorkerTest.echoWorkerScript();
+
+    private final ExecTransformationWhitelistWatchService whitelist = mock(
+            ExecTransformationWhitelistWatchService.class);
+    private @NonNullByDefault({}) ExecTransformationService service;
+    private @NonNullByDefault({}) Runnable whitelistChangeListener;
+
+    @BeforeEach
+    public void setUp() {
+        service = new ExecTransformationService(whitelist, Map.of());
+        ArgumentCaptor<Runnable> listener = ArgumentCaptor.forClass(Runnable.class);
+        verify(whitelist).addChangeListener(listener.capture());
+        whitelistChangeListener = listener.getValue();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.deactivate();
+    }
+
+    @Test
+    public void whitelistedWorkerTransformsValues() throws TransformationException {
+        when(whitelist.isWhitelisted(WORKER_COMMAND)).thenReturn(true);
+
+        assertThat(service.transform(WORKER_COMMAND, "hello"), is("hello"));
+        assertThat(service.transform(WORKER_COMMAND, "world"), is("world"));
+    }
+
+    @Test
+    public void workerCommandMissingInWhitelistIsRejected() throws TransformationException {
+        when(whitelist.isWhitelisted(anyString())).thenReturn(false);
+
+        assertThat(service.transform(WORKER_COMMAND, "hello"), is(nullValue()));
+    }
+
+    @Test
+    public void workerIsStoppedWhenRemovedFromWhitelist() throws TransformationException {
+        when(whitelist.isWhitelisted(WORKER_COMMAND)).thenReturn(true);
+        String pid = service.transform(WORKER_COMMAND, "pid");
+        assertThat(service.transform(WORKER_COMMAND, "pid"), is(pid));
+
+        when(whitelist.isWhitelisted(WORKER_COMMAND)).thenReturn(false);
+        whitelistChangeListener.run();
+        assertThat(service.transform(WORKER_COMMAND, "hello"), is(nullValue()));
+
+        // a worker started after whitelisting the command again is a new process
+        when(whitelist.isWhitelisted(WORKER_COMMAND)).thenReturn(true);
+        whitelistChangeListener.run();
+        assertThat(service.transform(WORKER_COMMAND, "pid"), not(pid));
+    }
+}
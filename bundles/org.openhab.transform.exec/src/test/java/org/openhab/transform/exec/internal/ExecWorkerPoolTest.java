@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.openhab.transform.exec.internal.ExecWorkerTest.ECHO_WORKER;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+/**
+ * Tests the {@link ExecWorkerPool} with a shell script echoing the values it receives.
+ *
+ * @author Pauli Anttila - Initial contribution
+ */
+@NonNullByDefault
+@DisabledOnOs(OS.WINDOWS)
+public class ExecWorkerPoolTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    private final ExecWorkerPool pool = new ExecWorkerPool(ECHO_WORKER, 1, Duration.ofSeconds(2), scheduler);
+
+    @AfterEach
+    public void tearDown() {
+        pool.close();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void workerIsReusedBetweenRequests() throws IOException {
+        String pid = pool.transform("pid");
+
+        assertThat(pool.transform("hello"), is("hello"));
+        assertThat(pool.transform("pid"), is(pid));
+    }
+
+    @Test
+    public void workerIsRestartedAfterTimeout() throws IOException {
+        String pid = pool.transform("pid");
+
+        assertThrows(IOException.class, () -> pool.transform("block"));
+
+        assertThat(pool.transform("hello"), is("hello"));
+        assertThat(pool.transform("pid"), not(pid));
+    }
+
+    @Test
+    public void requestWaitsForBusyWorkerWhenPoolIsExhausted() throws Exception {
+        String pid = pool.transform("pid");
+        CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.transform("slow");
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+        Thread.sleep(100);
+
+        long start = System.nanoTime();
+        // no second process is started, the request waits until the only worker has answered "slow"
+        assertThat(pool.transform("pid"), is(pid));
+        assertThat(System.nanoTime() - start, greaterThan(TimeUnit.MILLISECONDS.toNanos(200)));
+        assertThat(slow.get(1, TimeUnit.SECONDS), is("slow"));
+    }
+
+    @Test
+    public void closedPoolRejectsRequests() throws IOException {
+        assertThat(pool.transform("hello"), is("hello"));
+
+        pool.close();
+
+        assertThrows(IOException.class, () -> pool.transform("hello"));
+    }
+}
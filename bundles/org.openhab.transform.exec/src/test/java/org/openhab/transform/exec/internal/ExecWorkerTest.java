@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+/**
+ * Tests the {@link ExecWorker} with a shell script echoing the values it receives.
+ *
+ * @author Pauli Anttila - Initial contribution
+ */
+@NonNullByDefault
+@DisabledOnOs(OS.WINDOWS)
+public class ExecWorkerTest {
+
+    static final List<String> ECHO_WORKER = List.of("sh", echoWorkerScript());
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    static String echoWorkerScript() {
+        try {
+            return Path.of(ExecWorkerTest.class.getResource("/echo-worker.sh").toURI()).toString();
+        } catch (Exception e) {
+            throw new IllegalStateException("Echo worker script not found", e);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void valuesAreFramedByTheirLength() throws IOException {
+        ExecWorker worker = new ExecWorker(ECHO_WORKER, scheduler);
+        try {
+            assertThat(worker.exchange("hello", Duration.ofSeconds(5)), is("hello"));
+            assertThat(worker.exchange("first line\nsecond line", Duration.ofSeconds(5)),
+                    is("first line\nsecond line"));
+            assertThat(worker.exchange("Temperatur 21 °C", Duration.ofSeconds(5)), is("Temperatur 21 °C"));
+            assertThat(worker.exchange("", Duration.ofSeconds(5)), is(""));
+            String large = "x".repeat(100_000);
+            assertThat(worker.exchange(large, Duration.ofSeconds(5)), is(large));
+        } finally {
+            worker.stop();
+        }
+    }
+
+    @Test
+    public void outputOnStandardErrorDoesNotDisturbResponses() throws IOException {
+        ExecWorker worker = new ExecWorker(ECHO_WORKER, scheduler);
+        try {
+            assertThat(worker.exchange("stderr", Duration.ofSeconds(5)), is("stderr"));
+            assertThat(worker.exchange("hello", Duration.ofSeconds(5)), is("hello"));
+        } finally {
+            worker.stop();
+        }
+    }
+
+    @Test
+    public void workerIsKilledWhenItDoesNotRespondInTime() throws IOException, InterruptedException {
+        ExecWorker worker = new ExecWorker(ECHO_WORKER, scheduler);
+
+        long start = System.nanoTime();
+        IOException e = assertThrows(IOException.class, () -> worker.exchange("block", Duration.ofMillis(300)));
+
+        assertThat(e.getMessage(), containsString("did not respond within 300 ms"));
+        // the script's sleep must be killed as well, otherwise the response stream stays open for 60 s
+        assertThat(Duration.ofNanos(System.nanoTime() - start), lessThan(Duration.ofSeconds(10)));
+        for (int i = 0; i < 50 && worker.isAlive(); i++) {
+            Thread.sleep(20);
+        }
+        assertThat(worker.isAlive(), is(false));
+    }
+}
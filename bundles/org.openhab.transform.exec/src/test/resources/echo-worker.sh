@@ -0,0 +1,14 @@
+#!/bin/sh
+# Worker used by the tests. It echoes every value, except for:
+# "slow" is answered after half a second, "block" is never answered, "pid" is answered with the process id and
+# "stderr" writes a line to the standard error stream before it is echoed.
+while read -r length; do
+    value=$(head -c "$length")
+    case "$value" in
+        slow) sleep 0.5 ;;
+        block) sleep 60 ;;
+        pid) value=$$ ;;
+        stderr) echo "message on stderr" >&2 ;;
+    esac
+    printf '%s\n%s' "$(printf '%s' "$value" | wc -c | tr -d ' ')" "$value"
+done
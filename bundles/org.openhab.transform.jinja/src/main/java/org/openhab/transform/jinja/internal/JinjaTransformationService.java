@@ -19,6 +19,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -32,7 +33,13 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hubspot.jinjava.Jinjava;
 import com.hubspot.jinjava.JinjavaConfig;
+import com.hubspot.jinjava.interpret.Context;
 import com.hubspot.jinjava.interpret.FatalTemplateErrorsException;
+import com.hubspot.jinjava.interpret.InterpretException;
+import com.hubspot.jinjava.interpret.JinjavaInterpreter;
+import com.hubspot.jinjava.interpret.TemplateError;
+import com.hubspot.jinjava.interpret.TemplateError.ErrorType;
+import com.hubspot.jinjava.tree.Node;
 
 /**
  * <p>
@@ -45,10 +52,15 @@ import com.hubspot.jinjava.interpret.FatalTemplateErrorsException;
 @Component(property = { "openhab.transform=JINJA" })
 public class JinjaTransformationService implements TransformationService {
 
+    private static final int MAX_CACHED_TEMPLATES = 256;
+    private static final String VALUE_JSON = "value_json";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private final Logger logger = LoggerFactory.getLogger(JinjaTransformationService.class);
 
     private final JinjavaConfig config = JinjavaConfig.newBuilder().withFailOnUnknownTokens(true).build();
     private final Jinjava jinjava = new Jinjava(config);
+    private final Map<String, Node> parsedTemplates = new ConcurrentHashMap<>();
 
     /**
      * Transforms the input <code>value</code> by Jinja template.
@@ -66,15 +78,18 @@ public class JinjaTransformationService implements TransformationService {
 
         bindings.put("value", value);
 
-        try {
-            JsonNode tree = new ObjectMapper().readTree(value);
-            bindings.put("value_json", toObject(tree));
-        } catch (IOException e) {
-            // ok, then value_json is null...
+        // templates not referring to value_json don't need the input to be parsed
+        if (template.contains(VALUE_JSON)) {
+            try {
+                JsonNode tree = OBJECT_MAPPER.readTree(value);
+                bindings.put(VALUE_JSON, toObject(tree));
+            } catch (IOException e) {
+                // ok, then value_json is null...
+            }
         }
 
         try {
-            transformationResult = jinjava.render(template, bindings);
+            transformationResult = render(template, bindings);
         } catch (FatalTemplateErrorsException e) {
             throw new TransformationException("An error occurred while transformation. " + e.getMessage(), e);
         }
@@ -84,6 +99,65 @@ public class JinjaTransformationService implements TransformationService {
         return transformationResult;
     }
 
+    /**
+     * Renders the template like {@link Jinjava#render(String, Map)}, but parses each template only once.
+     *
+     * A new interpreter and context are still created for every rendering, as they collect errors and variables set
+     * by the template. Both are cheap compared to lexing and parsing the template.
+     */
+    private String render(String template, Map<String, @Nullable Object> bindings)
+            throws FatalTemplateErrorsException {
+        Node root = getParsedTemplate(template);
+        JinjavaInterpreter interpreter = newInterpreter(bindings);
+        JinjavaInterpreter.pushCurrent(interpreter);
+        String result;
+        try {
+            result = interpreter.render(root, true);
+        } catch (InterpretException e) {
+            throw new FatalTemplateErrorsException(template, List.of(TemplateError.fromSyntaxError(e)));
+        } finally {
+            jinjava.getGlobalContext().reset();
+            JinjavaInterpreter.popCurrent();
+        }
+        checkErrors(template, interpreter);
+        return result;
+    }
+
+    private Node getParsedTemplate(String template) throws FatalTemplateErrorsException {
+        Node root = parsedTemplates.get(template);
+        if (root == null) {
+            JinjavaInterpreter interpreter = newInterpreter(Map.of());
+            JinjavaInterpreter.pushCurrent(interpreter);
+            try {
+                root = interpreter.parse(template);
+            } catch (InterpretException e) {
+                throw new FatalTemplateErrorsException(template, List.of(TemplateError.fromSyntaxError(e)));
+            } finally {
+                JinjavaInterpreter.popCurrent();
+            }
+            // templates with syntax errors are not cached, so the error is reported on every use
+            checkErrors(template, interpreter);
+            if (parsedTemplates.size() >= MAX_CACHED_TEMPLATES) {
+                parsedTemplates.clear();
+            }
+            parsedTemplates.put(template, root);
+        }
+        return root;
+    }
+
+    private JinjavaInterpreter newInterpreter(Map<String, @Nullable Object> bindings) {
+        return new JinjavaInterpreter(jinjava, new Context(jinjava.getGlobalContext(), bindings), config);
+    }
+
+    private static void checkErrors(String template, JinjavaInterpreter interpreter)
+            throws FatalTemplateErrorsException {
+        List<TemplateError> fatalErrors = interpreter.getErrorsCopy().stream()
+                .filter(error -> error.getSeverity() == ErrorType.FATAL).toList();
+        if (!fatalErrors.isEmpty()) {
+            throw new FatalTemplateErrorsException(template, fatalErrors);
+        }
+    }
+
     private static @Nullable Object toObject(JsonNode node) {
         switch (node.getNodeType()) {
             case ARRAY: {
@@ -115,4 +115,28 @@ public class JinjaTransformationServiceTest {
         // then map key is defined
         assertEquals("true", transformedResponse);
     }
+
+    @Test
+    public void testCachedTemplateIsRenderedWithNewBindings() throws TransformationException {
+        String template = "{{ value_json.temperature }}";
+
+        assertEquals("4.7", processor.transform(template, "{\"temperature\": 4.7}"));
+        assertEquals("5.2", processor.transform(template, "{\"temperature\": 5.2}"));
+    }
+
+    @Test
+    public void testVariablesSetByTemplateDoNotLeakIntoNextRendering() throws TransformationException {
+        String template = "{% if value == 'set' %}{% set result = 'first' %}{% endif %}{{ result is defined }}";
+
+        assertEquals("true", processor.transform(template, "set"));
+        assertEquals("false", processor.transform(template, "other"));
+    }
+
+    @Test
+    public void testTemplateErrorIsReportedOnEveryUse() {
+        String template = "Hello {{{ value_json.string }}!";
+
+        assertThrows(TransformationException.class, () -> processor.transform(template, "{\"string\": \"world\"}"));
+        assertThrows(TransformationException.class, () -> processor.transform(template, "{\"string\": \"world\"}"));
+    }
 }
@@ -127,4 +127,14 @@ public class JSonPathTransformationServiceTest {
         String transformedResponse = processor.transform("$.data", json);
         assertEquals(list, transformedResponse);
     }
+
+    @Test
+    public void testSamePayloadWithSeveralExpressions() throws TransformationException {
+        assertEquals("bob", processor.transform("$[0].name", jsonArray));
+        assertEquals("alice", processor.transform("$[1].name", jsonArray));
+        assertEquals("[1, 2]", processor.transform("$.*.id", jsonArray));
+        // an equal payload from another message reuses the parsed document
+        assertEquals("2", processor.transform("$[1].id", new String(jsonArray)));
+        assertEquals("carol", processor.transform("$[0].name", jsonArray.replace("bob", "carol")));
+    }
 }
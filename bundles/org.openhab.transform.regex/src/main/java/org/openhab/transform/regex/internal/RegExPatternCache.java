@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.regex.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link RegExPatternCache} keeps the compiled form of recently used regex transformation functions.
+ *
+ * A function is either a substitution of the form <code>s/regex/replacement/options</code> or an extraction regex,
+ * which has to match the whole input. The cache is bounded and evicts the least recently used function.
+ *
+ * @author Thomas Eichstaedt-Engelen - Initial contribution
+ */
+@NonNullByDefault
+public class RegExPatternCache {
+
+    private static final Pattern SUBSTR_PATTERN = Pattern.compile("^s/(.*?[^\\\\])/(.*?[^\\\\])/(.*)$");
+
+    /**
+     * A compiled regex transformation function.
+     */
+    public sealed interface CompiledRegEx permits Substitution, Extraction {
+    }
+
+    /**
+     * Replaces the first or, with option <code>g</code>, all matches of the pattern.
+     */
+    public record Substitution(Pattern pattern, String replacement, boolean global) implements CompiledRegEx {
+        public String apply(String source) {
+            Matcher matcher = pattern.matcher(source);
+            return global ? matcher.replaceAll(replacement) : matcher.replaceFirst(replacement);
+        }
+    }
+
+    /**
+     * Extracts the first group of a pattern anchored at both ends.
+     */
+    public record Extraction(Pattern pattern) implements CompiledRegEx {
+    }
+
+    private final Map<String, CompiledRegEx> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public RegExPatternCache(int maxSize) {
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledRegEx> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the compiled function, compiling it on first use.
+     *
+     * @param regExpression the transformation function
+     * @return the compiled function
+     * @throws java.util.regex.PatternSyntaxException if the regular expression is invalid
+     */
+    public CompiledRegEx get(String regExpression) {
+        CompiledRegEx compiled;
+        synchronized (cache) {
+            compiled = cache.get(regExpression);
+        }
+        if (compiled != null) {
+            hits.incrementAndGet();
+            return compiled;
+        }
+        misses.incrementAndGet();
+        compiled = compile(regExpression);
+        synchronized (cache) {
+            cache.put(regExpression, compiled);
+        }
+        return compiled;
+    }
+
+    private static CompiledRegEx compile(String regExpression) {
+        Matcher substMatcher = SUBSTR_PATTERN.matcher(regExpression);
+        if (substMatcher.matches()) {
+            return new Substitution(Pattern.compile(substMatcher.group(1)), substMatcher.group(2),
+                    "g".equals(substMatcher.group(3)));
+        }
+        return new Extraction(Pattern.compile("^" + regExpression + "$", Pattern.DOTALL));
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+}
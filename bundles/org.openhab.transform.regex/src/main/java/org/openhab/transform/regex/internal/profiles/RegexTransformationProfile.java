@@ -12,6 +12,8 @@
  */
 package org.openhab.transform.regex.internal.profiles;
 
+import java.util.regex.PatternSyntaxException;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.openhab.core.library.types.StringType;
 import org.openhab.core.thing.profiles.ProfileCallback;
@@ -24,6 +26,7 @@ import org.openhab.core.transform.TransformationService;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.State;
 import org.openhab.core.types.Type;
+import org.openhab.transform.regex.internal.RegExTransformationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -74,6 +77,15 @@ public class RegexTransformationProfile implements StateProfile {
             function = null;
             sourceFormat = null;
         }
+
+        // compile the function into the cache shared with the service before the first state arrives
+        if (function != null && service instanceof RegExTransformationService regExService) {
+            try {
+                regExService.getPatternCache().get(function);
+            } catch (PatternSyntaxException e) {
+                logger.warn("Parameter '{}' is not a valid regular expression: {}", FUNCTION_PARAM, e.getMessage());
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.regex.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.transform.regex.internal.RegExPatternCache.CompiledRegEx;
+import org.openhab.transform.regex.internal.RegExPatternCache.Extraction;
+import org.openhab.transform.regex.internal.RegExPatternCache.Substitution;
+
+/**
+ * @author Thomas Eichstaedt-Engelen - Initial contribution
+ */
+@NonNullByDefault
+public class RegExPatternCacheTest {
+
+    @Test
+    public void testCompiledFunctionIsReused() {
+        RegExPatternCache cache = new RegExPatternCache(4);
+
+        CompiledRegEx first = cache.get("temp=(.*)");
+        CompiledRegEx second = cache.get("temp=(.*)");
+
+        assertSame(first, second);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testFunctionForms() {
+        RegExPatternCache cache = new RegExPatternCache(4);
+
+        Extraction extraction = assertInstanceOf(Extraction.class, cache.get("temp=(.*)"));
+        assertEquals("^temp=(.*)$", extraction.pattern().pattern());
+
+        Substitution substitution = assertInstanceOf(Substitution.class, cache.get("s/a(.)/b$1/g"));
+        assertTrue(substitution.global());
+        assertEquals("bxby", substitution.apply("axay"));
+
+        substitution = assertInstanceOf(Substitution.class, cache.get("s/a(.)/b$1/"));
+        assertFalse(substitution.global());
+        assertEquals("bxay", substitution.apply("axay"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedFunctionIsEvicted() {
+        RegExPatternCache cache = new RegExPatternCache(2);
+        cache.get("a(.)");
+        cache.get("b(.)");
+        cache.get("a(.)");
+        cache.get("c(.)");
+
+        assertEquals(2, cache.size());
+        cache.get("a(.)");
+        assertEquals(2, cache.getHitCount());
+        cache.get("b(.)");
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    public void testInvalidExpressionIsNotCached() {
+        RegExPatternCache cache = new RegExPatternCache(2);
+
+        assertThrows(PatternSyntaxException.class, () -> cache.get("(unclosed"));
+        assertEquals(0, cache.size());
+    }
+}
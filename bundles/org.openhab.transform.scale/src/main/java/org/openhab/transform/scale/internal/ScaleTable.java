@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.scale.internal;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Immutable lookup table built from the content of a scale file.
+ *
+ * All range bounds are collected into a sorted array of breakpoints, which splits the number line into elementary
+ * intervals: the open gaps between two breakpoints and the breakpoints themselves. Every elementary interval is
+ * either fully inside or fully outside of each range, so the label of the first range in file order that covers it
+ * can be resolved once when the table is built. A value is then looked up with a binary search over the breakpoints.
+ *
+ * The output format is split into literal and placeholder segments, so formatting does not need regular expressions.
+ *
+ * @author Gaël L'hopital - Initial contribution
+ */
+@NonNullByDefault
+class ScaleTable {
+
+    static final String FORMAT_VALUE = "%value%";
+    static final String FORMAT_LABEL = "%label%";
+
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+    private final BigDecimal[] breakpoints;
+    /**
+     * Label of each elementary interval: index {@code 2 * i} is the gap below {@code breakpoints[i]} and index
+     * {@code 2 * i + 1} is {@code breakpoints[i]} itself. The last index is the gap above the highest breakpoint.
+     */
+    private final @Nullable String[] labels;
+    private final @Nullable String nonNumericLabel;
+    private final Segment[] format;
+
+    private ScaleTable(BigDecimal[] breakpoints, @Nullable String[] labels, @Nullable String nonNumericLabel,
+            Segment[] format) {
+        this.breakpoints = breakpoints;
+        this.labels = labels;
+        this.nonNumericLabel = nonNumericLabel;
+        this.format = format;
+    }
+
+    /**
+     * Returns the label of the first range containing the value.
+     *
+     * @param value the value to look up
+     * @return the label or {@code null} if no range contains the value
+     */
+    public @Nullable String lookup(BigDecimal value) {
+        int index = Arrays.binarySearch(breakpoints, value);
+        return labels[index >= 0 ? 2 * index + 1 : -2 * (index + 1)];
+    }
+
+    /**
+     * @return the label of the {@code NaN} entry or {@code null} if the scale file has none
+     */
+    public @Nullable String getNonNumericLabel() {
+        return nonNumericLabel;
+    }
+
+    /**
+     * Applies the format of the scale file.
+     *
+     * @param value the source value substituted for {@value #FORMAT_VALUE}
+     * @param label the label substituted for {@value #FORMAT_LABEL}
+     * @return the formatted result
+     */
+    public String format(String value, String label) {
+        if (format.length == 1) {
+            return format[0].resolve(value, label);
+        }
+        StringBuilder result = new StringBuilder();
+        for (Segment segment : format) {
+            result.append(segment.resolve(value, label));
+        }
+        return result.toString();
+    }
+
+    private static Segment[] parseFormat(String format) {
+        List<Segment> segments = new ArrayList<>();
+        int start = 0;
+        while (start < format.length()) {
+            int valueIndex = format.indexOf(FORMAT_VALUE, start);
+            int labelIndex = format.indexOf(FORMAT_LABEL, start);
+            int next = valueIndex < 0 ? labelIndex : labelIndex < 0 ? valueIndex : Math.min(valueIndex, labelIndex);
+            if (next < 0) {
+                segments.add(new Segment(SegmentType.LITERAL, format.substring(start)));
+                break;
+            }
+            if (next > start) {
+                segments.add(new Segment(SegmentType.LITERAL, format.substring(start, next)));
+            }
+            if (next == valueIndex) {
+                segments.add(new Segment(SegmentType.VALUE, FORMAT_VALUE));
+                start = next + FORMAT_VALUE.length();
+            } else {
+                segments.add(new Segment(SegmentType.LABEL, FORMAT_LABEL));
+                start = next + FORMAT_LABEL.length();
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.add(new Segment(SegmentType.LITERAL, ""));
+        }
+        return segments.toArray(Segment[]::new);
+    }
+
+    private enum SegmentType {
+        LITERAL,
+        VALUE,
+        LABEL
+    }
+
+    private record Segment(SegmentType type, String text) {
+        String resolve(String value, String label) {
+            return switch (type) {
+                case VALUE -> value;
+                case LABEL -> label;
+                default -> text;
+            };
+        }
+    }
+
+    /**
+     * Collects the entries of a scale file in file order and builds the {@link ScaleTable}.
+     */
+    static class Builder {
+        private final List<Range> ranges = new ArrayList<>();
+        private final List<String> rangeLabels = new ArrayList<>();
+        private @Nullable String nonNumericLabel;
+        private String format = FORMAT_LABEL;
+
+        /**
+         * Adds a range. Ranges added first take precedence when ranges overlap.
+         */
+        Builder addRange(Range range, String label) {
+            ranges.add(range);
+            rangeLabels.add(label);
+            return this;
+        }
+
+        Builder withNonNumericLabel(String label) {
+            nonNumericLabel = label;
+            return this;
+        }
+
+        Builder withFormat(String format) {
+            this.format = format;
+            return this;
+        }
+
+        ScaleTable build() {
+            TreeSet<BigDecimal> bounds = new TreeSet<>();
+            for (Range range : ranges) {
+                if (range.min != null) {
+                    bounds.add(range.min);
+                }
+                if (range.max != null) {
+                    bounds.add(range.max);
+                }
+            }
+            BigDecimal[] breakpoints = bounds.toArray(BigDecimal[]::new);
+
+            @Nullable
+            String[] labels = new String[2 * breakpoints.length + 1];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = firstMatch(representative(breakpoints, i));
+            }
+            return new ScaleTable(breakpoints, labels, nonNumericLabel, parseFormat(format));
+        }
+
+        /**
+         * Returns a value inside the elementary interval with the given index.
+         */
+        private static BigDecimal representative(BigDecimal[] breakpoints, int index) {
+            if (breakpoints.length == 0) {
+                return BigDecimal.ZERO;
+            }
+            int breakpoint = index / 2;
+            if (index % 2 == 1) {
+                return breakpoints[breakpoint];
+            } else if (breakpoint == 0) {
+                return breakpoints[0].subtract(BigDecimal.ONE);
+            } else if (breakpoint == breakpoints.length) {
+                return breakpoints[breakpoint - 1].add(BigDecimal.ONE);
+            }
+            return breakpoints[breakpoint - 1].add(breakpoints[breakpoint]).divide(TWO);
+        }
+
+        private @Nullable String firstMatch(BigDecimal value) {
+            for (int i = 0; i < ranges.size(); i++) {
+                if (ranges.get(i).contains(value)) {
+                    return rangeLabels.get(i);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.scale.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link ScaleTable}.
+ *
+ * @author Gaël L'hopital - Initial contribution
+ */
+@NonNullByDefault
+public class ScaleTableTest {
+
+    private static BigDecimal dec(String value) {
+        return new BigDecimal(value);
+    }
+
+    @Test
+    public void testBoundariesOfAdjacentRanges() {
+        ScaleTable table = new ScaleTable.Builder().addRange(Range.atMost(dec("3")), "1")
+                .addRange(Range.openClosed(dec("3"), dec("6")), "2")
+                .addRange(Range.openClosed(dec("6"), dec("10")), "3").build();
+
+        assertEquals("1", table.lookup(dec("-1000")));
+        assertEquals("1", table.lookup(dec("3")));
+        assertEquals("1", table.lookup(dec("3.00")));
+        assertEquals("2", table.lookup(dec("3.0001")));
+        assertEquals("2", table.lookup(dec("6")));
+        assertEquals("3", table.lookup(dec("6.5")));
+        assertEquals("3", table.lookup(dec("10")));
+        assertNull(table.lookup(dec("10.0001")));
+    }
+
+    @Test
+    public void testFirstRangeWinsWhenRangesOverlap() {
+        ScaleTable table = new ScaleTable.Builder().addRange(Range.lessThan(dec("15")), "first")
+                .addRange(Range.closedOpen(dec("10"), dec("17")), "second").addRange(Range.atLeast(dec("15")), "last")
+                .build();
+
+        assertEquals("first", table.lookup(dec("10")));
+        assertEquals("first", table.lookup(dec("14.99")));
+        assertEquals("last", table.lookup(dec("15")));
+        assertEquals("last", table.lookup(dec("16")));
+        assertEquals("last", table.lookup(dec("17")));
+    }
+
+    @Test
+    public void testLaterRangeFillsGapsOfEarlierRanges() {
+        ScaleTable table = new ScaleTable.Builder().addRange(Range.closed(dec("5"), dec("5")), "five")
+                .addRange(Range.open(dec("0"), dec("10")), "inner").addRange(Range.all(), "catchall").build();
+
+        assertEquals("catchall", table.lookup(dec("0")));
+        assertEquals("inner", table.lookup(dec("4.9")));
+        assertEquals("five", table.lookup(dec("5")));
+        assertEquals("inner", table.lookup(dec("5.1")));
+        assertEquals("catchall", table.lookup(dec("10")));
+        assertEquals("catchall", table.lookup(dec("1E+10")));
+    }
+
+    @Test
+    public void testEmptyTable() {
+        ScaleTable table = new ScaleTable.Builder().build();
+
+        assertNull(table.lookup(dec("1")));
+        assertNull(table.getNonNumericLabel());
+        assertEquals("label", table.format("1", "label"));
+    }
+
+    @Test
+    public void testFormat() {
+        ScaleTable table = new ScaleTable.Builder().withFormat("%label% (%value%) %label%!").build();
+
+        assertEquals("ok (42) ok!", table.format("42", "ok"));
+    }
+
+    @Test
+    public void testFormatDoesNotInterpretReplacementSyntax() {
+        ScaleTable table = new ScaleTable.Builder().withFormat("%value% $ %label%").build();
+
+        assertEquals("12 $ 1 \\ $2", table.format("12", "1 \\ $2"));
+    }
+}
@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.xpath.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link StreamingXPathEvaluator} evaluates simple location paths on a StAX stream, without building a DOM tree.
+ *
+ * Supported are absolute paths of element name tests or <code>*</code>, separated by <code>/</code> or
+ * <code>//</code>, optionally ending with <code>/@attribute</code> or <code>/text()</code>, e.g.
+ * <code>//current_conditions/temp_c/@data</code> or <code>/PTZStatus/AbsoluteHigh/azimuth/text()</code>. Like the
+ * string conversion of an XPath node-set, the result is the string value of the first matching node in document
+ * order. The rest of the document is still read, so a document that is not well-formed fails like with the DOM based
+ * implementation, but no tree is built. Prefixed names, predicates and functions are not supported and have to be
+ * evaluated by the DOM based implementation.
+ *
+ * Instances are immutable and can be shared between threads.
+ *
+ * @author Thomas Eichstaedt-Engelen - Initial contribution
+ */
+@NonNullByDefault
+final class StreamingXPathEvaluator {
+
+    private static final String NAME = "[A-Za-z_][A-Za-z0-9_.\\-]*";
+    private static final Pattern EXPRESSION = Pattern
+            .compile("((?://?(?:\\*|" + NAME + "))+)(?:/@(" + NAME + ")|/(text\\(\\)))?");
+    private static final Pattern STEP = Pattern.compile("(//?)(\\*|" + NAME + ")");
+
+    /**
+     * One location step; a <code>null</code> name matches any element.
+     */
+    private record Step(@Nullable String name, boolean descendant) {
+    }
+
+    private final Step[] steps;
+    private final @Nullable String attribute;
+    private final boolean text;
+
+    private StreamingXPathEvaluator(Step[] steps, @Nullable String attribute, boolean text) {
+        this.steps = steps;
+        this.attribute = attribute;
+        this.text = text;
+    }
+
+    /**
+     * Compiles the expression if it is supported by streaming evaluation.
+     *
+     * @param expression the XPath expression
+     * @return the evaluator, or <code>null</code> if the expression needs the DOM based implementation
+     */
+    static @Nullable StreamingXPathEvaluator compile(String expression) {
+        Matcher matcher = EXPRESSION.matcher(expression);
+        if (!matcher.matches()) {
+            return null;
+        }
+        List<Step> steps = new ArrayList<>();
+        Matcher stepMatcher = STEP.matcher(matcher.group(1));
+        while (stepMatcher.find()) {
+            String name = stepMatcher.group(2);
+            steps.add(new Step("*".equals(name) ? null : name, stepMatcher.group(1).length() == 2));
+        }
+        return new StreamingXPathEvaluator(steps.toArray(Step[]::new), matcher.group(2), matcher.group(3) != null);
+    }
+
+    /**
+     * Reads the document and returns the string value of the first matching node.
+     *
+     * @param reader a namespace aware reader positioned at the start of the document
+     * @return the string value of the first matching node, an empty string if there is none, or <code>null</code> if
+     *         the document has a DTD, which is only handled by the DOM based implementation
+     * @throws XMLStreamException if the document is not well-formed
+     */
+    @Nullable
+    String evaluate(XMLStreamReader reader) throws XMLStreamException {
+        // local names of the open elements, null for elements in a namespace
+        @Nullable String[] names = new @Nullable String[16];
+        boolean[] matched = new boolean[16];
+        int depth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.DTD:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    return null;
+                case XMLStreamConstants.START_ELEMENT:
+                    if (depth == names.length) {
+                        names = Arrays.copyOf(names, depth * 2);
+                        matched = Arrays.copyOf(matched, depth * 2);
+                    }
+                    String namespace = reader.getNamespaceURI();
+                    names[depth] = namespace == null || namespace.isEmpty() ? reader.getLocalName() : null;
+                    boolean match = matches(names, steps.length - 1, depth);
+                    matched[depth++] = match;
+                    if (match) {
+                        String localAttribute = attribute;
+                        if (localAttribute != null) {
+                            String value = getAttribute(reader, localAttribute);
+                            if (value != null) {
+                                return readToEnd(reader, value);
+                            }
+                        } else if (!text) {
+                            String value = readStringValue(reader);
+                            return value == null ? null : readToEnd(reader, value);
+                        }
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.CDATA:
+                    if (text && depth > 0 && matched[depth - 1]) {
+                        return readToEnd(reader, readTextNode(reader, event));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Reads the rest of the document, so the parser reports any error in it.
+     */
+    private static String readToEnd(XMLStreamReader reader, String result) throws XMLStreamException {
+        while (reader.hasNext()) {
+            reader.next();
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether the open element at <code>position</code> matches the steps up to <code>step</code>.
+     */
+    private boolean matches(@Nullable String[] names, int step, int position) {
+        String name = steps[step].name;
+        if (name != null && !name.equals(names[position])) {
+            return false;
+        }
+        if (step == 0) {
+            return steps[0].descendant || position == 0;
+        }
+        if (!steps[step].descendant) {
+            return position > 0 && matches(names, step - 1, position - 1);
+        }
+        for (int ancestor = position - 1; ancestor >= 0; ancestor--) {
+            if (matches(names, step - 1, ancestor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static @Nullable String getAttribute(XMLStreamReader reader, String localName) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespace = reader.getAttributeNamespace(i);
+            if ((namespace == null || namespace.isEmpty()) && localName.equals(reader.getAttributeLocalName(i))) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Concatenates all text below the current element, like the string value of an element node.
+     */
+    private static @Nullable String readStringValue(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder value = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.CDATA:
+                    value.append(reader.getText());
+                    break;
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    return null;
+                default:
+                    break;
+            }
+        }
+        return value.toString();
+    }
+
+    /**
+     * Reads one text node, which the parser may report as several consecutive events.
+     */
+    private static String readTextNode(XMLStreamReader reader, int firstEvent) throws XMLStreamException {
+        boolean cdata = firstEvent == XMLStreamConstants.CDATA;
+        StringBuilder value = new StringBuilder(reader.getText());
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (cdata ? event != XMLStreamConstants.CDATA
+                    : event != XMLStreamConstants.CHARACTERS && event != XMLStreamConstants.SPACE) {
+                break;
+            }
+            value.append(reader.getText());
+        }
+        return value.toString();
+    }
+}
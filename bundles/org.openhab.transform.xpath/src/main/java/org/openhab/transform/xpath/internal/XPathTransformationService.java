@@ -13,12 +13,21 @@
 package org.openhab.transform.xpath.internal;
 
 import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -35,14 +44,37 @@ import org.xml.sax.InputSource;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XPath Expressions.
  *
+ * Simple location paths are evaluated on a StAX stream by {@link StreamingXPathEvaluator}, which still reads the
+ * rest of the document after the node is found, so malformed XML fails as before, but builds no DOM tree. All other
+ * expressions are evaluated on a DOM tree. Document builders, XPath objects and compiled expressions are not
+ * thread-safe and therefore kept per thread.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
 @Component(property = { "openhab.transform=XPATH" })
 public class XPathTransformationService implements TransformationService {
 
+    private static final int MAX_CACHED_EXPRESSIONS = 64;
+
     private final Logger logger = LoggerFactory.getLogger(XPathTransformationService.class);
 
+    private final Map<String, Optional<StreamingXPathEvaluator>> streamingEvaluators = new ConcurrentHashMap<>();
+    private final ThreadLocal<XMLInputFactory> inputFactory = ThreadLocal
+            .withInitial(XPathTransformationService::createInputFactory);
+    private final ThreadLocal<DocumentBuilder> documentBuilder = ThreadLocal
+            .withInitial(XPathTransformationService::createDocumentBuilder);
+    private final ThreadLocal<XPath> xpath = ThreadLocal.withInitial(() -> XPathFactory.newInstance().newXPath());
+    private final ThreadLocal<Map<String, XPathExpression>> compiledExpressions = ThreadLocal
+            .withInitial(() -> new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+                    return size() > MAX_CACHED_EXPRESSIONS;
+                }
+            });
+
     @Override
     public @Nullable String transform(String xpathExpression, String source) throws TransformationException {
         if (xpathExpression == null || source == null) {
@@ -51,40 +83,108 @@ public class XPathTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, xpathExpression);
 
-        StringReader stringReader = null;
+        String transformationResult = null;
+        StreamingXPathEvaluator streamingEvaluator = getStreamingEvaluator(xpathExpression);
+        if (streamingEvaluator != null) {
+            transformationResult = evaluateStreaming(streamingEvaluator, source);
+        }
+        if (transformationResult == null) {
+            transformationResult = evaluateDom(xpathExpression, source);
+        }
+
+        logger.debug("transformation resulted in '{}'", transformationResult);
+
+        return transformationResult;
+    }
+
+    private @Nullable StreamingXPathEvaluator getStreamingEvaluator(String xpathExpression) {
+        Optional<StreamingXPathEvaluator> evaluator = streamingEvaluators.get(xpathExpression);
+        if (evaluator == null) {
+            if (streamingEvaluators.size() >= MAX_CACHED_EXPRESSIONS) {
+                streamingEvaluators.clear();
+            }
+            evaluator = Optional.ofNullable(StreamingXPathEvaluator.compile(xpathExpression));
+            streamingEvaluators.put(xpathExpression, evaluator);
+        }
+        return evaluator.orElse(null);
+    }
 
+    /**
+     * @return the result, or <code>null</code> if the document has to be evaluated on a DOM tree
+     */
+    private @Nullable String evaluateStreaming(StreamingXPathEvaluator evaluator, String source) {
+        XMLStreamReader reader = null;
         try {
-            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-            // see https://cheatsheetseries.owasp.org/cheatsheets/XML_External_Entity_Prevention_Cheat_Sheet.html
-            domFactory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-            domFactory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-            domFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-            domFactory.setXIncludeAware(false);
-            domFactory.setExpandEntityReferences(false);
-            domFactory.setNamespaceAware(true);
-            domFactory.setValidating(false);
-            DocumentBuilder builder = domFactory.newDocumentBuilder();
+            reader = inputFactory.get().createXMLStreamReader(new StringReader(source));
+            return evaluator.evaluate(reader);
+        } catch (XMLStreamException e) {
+            // let the DOM based evaluation report the error
+            logger.trace("streaming evaluation failed, using DOM", e);
+            return null;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // nothing to release for a string source
+                }
+            }
+        }
+    }
 
-            stringReader = new StringReader(source);
+    private String evaluateDom(String xpathExpression, String source) throws TransformationException {
+        DocumentBuilder builder = null;
+        try (StringReader stringReader = new StringReader(source)) {
+            builder = documentBuilder.get();
             InputSource inputSource = new InputSource(stringReader);
             inputSource.setEncoding("UTF-8");
 
             Document doc = builder.parse(inputSource);
 
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            XPathExpression expr = xpath.compile(xpathExpression);
-
-            String transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
-
-            logger.debug("transformation resulted in '{}'", transformationResult);
-
-            return transformationResult;
+            return (String) getCompiledExpression(xpathExpression).evaluate(doc, XPathConstants.STRING);
         } catch (Exception e) {
             throw new TransformationException("transformation throws exceptions", e);
         } finally {
-            if (stringReader != null) {
-                stringReader.close();
+            if (builder != null) {
+                builder.reset();
             }
         }
     }
+
+    private XPathExpression getCompiledExpression(String xpathExpression) throws XPathExpressionException {
+        Map<String, XPathExpression> expressions = compiledExpressions.get();
+        XPathExpression expr = expressions.get(xpathExpression);
+        if (expr == null) {
+            expr = xpath.get().compile(xpathExpression);
+            expressions.put(xpathExpression, expr);
+        }
+        return expr;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // see https://cheatsheetseries.owasp.org/cheatsheets/XML_External_Entity_Prevention_Cheat_Sheet.html
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
+    private static DocumentBuilder createDocumentBuilder() {
+        try {
+            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+            // see https://cheatsheetseries.owasp.org/cheatsheets/XML_External_Entity_Prevention_Cheat_Sheet.html
+            domFactory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            domFactory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            domFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            domFactory.setXIncludeAware(false);
+            domFactory.setExpandEntityReferences(false);
+            domFactory.setNamespaceAware(true);
+            domFactory.setValidating(false);
+            return domFactory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Unable to create document builder", e);
+        }
+    }
 }
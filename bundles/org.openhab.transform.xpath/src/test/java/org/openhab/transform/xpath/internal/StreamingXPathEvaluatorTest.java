@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2010-2023 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.xpath.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * Compares the {@link StreamingXPathEvaluator} with the DOM based XPath implementation.
+ *
+ * @author Thomas Eichstaedt-Engelen - Initial contribution
+ */
+@NonNullByDefault
+public class StreamingXPathEvaluatorTest {
+
+    private static final String DOCUMENT = """
+            <?xml version="1.0"?>
+            <root version="1">
+              <a x="1"><b>hello <i>big</i> world</b><b>2</b></a>
+              <a x="2" y="3"><a><b y="inner">nested</b></a></a>
+              <c><![CDATA[cdata]]>text</c>
+              <d>x &amp; y<e/>z</d>
+              <n:q xmlns:n="urn:test"><b>namespaced parent</b></n:q>
+            </root>
+            """;
+
+    private static final String NAMESPACED_DOCUMENT = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <PTZStatus version="2.0" xmlns="http://www.hikvision.com/ver20/XMLSchema">
+              <AbsoluteHigh><azimuth>450</azimuth></AbsoluteHigh>
+            </PTZStatus>
+            """;
+
+    private static Stream<String> expressions() {
+        return Stream.of("/root/a/b", "//b", "//b/@y", "/root/@version", "//a/@y", "//a//b", "/root/a/a/b/text()",
+                "//c/text()", "//d/text()", "//d", "/root/*/b", "//*/@x", "/root/missing", "//a/b/text()", "//a",
+                "/root", "//q/b", "/*/*/b", "//b/@missing");
+    }
+
+    @ParameterizedTest
+    @MethodSource("expressions")
+    public void testSameResultAsDom(String expression) throws Exception {
+        assertEquals(evaluateDom(expression, DOCUMENT), evaluateStreaming(expression, DOCUMENT));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/PTZStatus/AbsoluteHigh/azimuth", "//azimuth/text()", "/*/*/*", "/PTZStatus/@version" })
+    public void testSameResultAsDomWithDefaultNamespace(String expression) throws Exception {
+        assertEquals(evaluateDom(expression, NAMESPACED_DOCUMENT), evaluateStreaming(expression, NAMESPACED_DOCUMENT));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "//a[1]", "/n:q", "count(//a)", "//a/..", "a/b", "//b/@n:y", "//*[name()='azimuth']",
+            "/root/a/b/text()[1]" })
+    public void testUnsupportedExpressions(String expression) {
+        assertNull(StreamingXPathEvaluator.compile(expression));
+    }
+
+    @Test
+    public void testDocumentWithDtdIsLeftToDom() throws Exception {
+        assertNull(evaluateStreaming("//a", "<!DOCTYPE r [<!ENTITY e \"entity\">]><r><a>&e;</a></r>"));
+    }
+
+    @Test
+    public void testDocumentTruncatedAfterMatchFailsLikeDom() throws Exception {
+        String truncated = "<weather><temp_c data=\"8\"/><humidity";
+        assertThrows(SAXException.class, () -> evaluateDom("//temp_c/@data", truncated));
+        assertThrows(XMLStreamException.class, () -> evaluateStreaming("//temp_c/@data", truncated));
+        assertThrows(XMLStreamException.class, () -> evaluateStreaming("//temp_c", truncated));
+        assertThrows(XMLStreamException.class,
+                () -> evaluateStreaming("/weather/city/text()", "<weather><city>Berlin</city><humidity"));
+    }
+
+    private static String evaluateDom(String expression, String source) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(source)));
+        return (String) XPathFactory.newInstance().newXPath().compile(expression).evaluate(document,
+                XPathConstants.STRING);
+    }
+
+    private static @Nullable String evaluateStreaming(String expression, String source) throws Exception {
+        StreamingXPathEvaluator evaluator = Objects.requireNonNull(StreamingXPathEvaluator.compile(expression));
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        return evaluator.evaluate(factory.createXMLStreamReader(new StringReader(source)));
+    }
+}
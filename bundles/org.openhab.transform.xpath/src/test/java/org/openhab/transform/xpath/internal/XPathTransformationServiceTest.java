@@ -38,4 +38,11 @@ public class XPathTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("8", transformedResponse);
     }
+
+    @Test
+    public void testTransformFailsForDocumentTruncatedAfterMatch() {
+        String truncated = source.substring(0, source.length() - 20);
+        assertThrows(TransformationException.class,
+                () -> processor.transform("//current_conditions/temp_c/@data", truncated));
+    }
 }
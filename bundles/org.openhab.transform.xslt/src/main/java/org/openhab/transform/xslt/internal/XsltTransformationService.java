@@ -15,9 +15,13 @@ package org.openhab.transform.xslt.internal;
 import java.io.File;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
@@ -25,9 +29,13 @@ import javax.xml.transform.stream.StreamSource;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.OpenHAB;
+import org.openhab.core.service.WatchService;
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,14 +43,44 @@ import org.slf4j.LoggerFactory;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XSLT.
  *
+ * Stylesheets are compiled once into {@link Templates} and kept until the file changes in the transform folder. Each
+ * thread gets its own {@link Transformer} per stylesheet, because transformers are not thread-safe.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
 @Component(property = { "openhab.transform=XSLT" })
-public class XsltTransformationService implements TransformationService {
+public class XsltTransformationService implements TransformationService, WatchService.WatchEventListener {
+
+    private static final Path TRANSFORM_FOLDER = Path.of(TransformationService.TRANSFORM_FOLDER_NAME);
 
     private final Logger logger = LoggerFactory.getLogger(XsltTransformationService.class);
 
+    private final WatchService watchService;
+    private final TransformerFactory transformerFactory = TransformerFactory.newInstance();
+    private final Map<Path, CompiledStylesheet> stylesheetCache = new ConcurrentHashMap<>();
+
+    @Activate
+    public XsltTransformationService(
+            final @Reference(target = WatchService.CONFIG_WATCHER_FILTER) WatchService watchService) {
+        this.watchService = watchService;
+        watchService.registerListener(this, TRANSFORM_FOLDER);
+    }
+
+    @Deactivate
+    public void deactivate() {
+        watchService.unregisterListener(this);
+        stylesheetCache.clear();
+    }
+
+    @Override
+    public void processWatchEvent(WatchService.Kind kind, Path path) {
+        // path is relative to the config folder and may also denote a deleted subfolder
+        if (stylesheetCache.keySet().removeIf(key -> key.startsWith(path))) {
+            logger.debug("stylesheet '{}' changed, removed it from the cache", path);
+        }
+    }
+
     /**
      * Transforms the input <code>source</code> by XSLT.
      *
@@ -60,29 +98,20 @@ public class XsltTransformationService implements TransformationService {
             throw new TransformationException("the given parameters 'filename' and 'source' must not be null");
         }
 
-        Source xsl = null;
-
-        try {
-            String path = OpenHAB.getConfigFolder() + File.separator + TransformationService.TRANSFORM_FOLDER_NAME
-                    + File.separator + filename;
-            xsl = new StreamSource(new File(path));
-        } catch (Exception e) {
-            String message = "opening file '" + filename + "' throws exception";
-
-            logger.error("{}", message, e);
-            throw new TransformationException(message, e);
-        }
+        CompiledStylesheet stylesheet = getStylesheet(filename);
 
-        logger.debug("about to transform '{}' by the function '{}'", source, xsl);
+        logger.debug("about to transform '{}' by the function '{}'", source, filename);
 
         StringReader xml = new StringReader(source);
         StringWriter out = new StringWriter();
 
-        Transformer transformer;
-
         try {
-            transformer = TransformerFactory.newInstance().newTransformer(xsl);
-            transformer.transform(new StreamSource(xml), new StreamResult(out));
+            Transformer transformer = stylesheet.transformers.get();
+            try {
+                transformer.transform(new StreamSource(xml), new StreamResult(out));
+            } finally {
+                transformer.reset();
+            }
         } catch (Exception e) {
             logger.error("transformation throws exception", e);
             throw new TransformationException("transformation throws exception", e);
@@ -92,4 +121,46 @@ public class XsltTransformationService implements TransformationService {
 
         return out.toString();
     }
+
+    private CompiledStylesheet getStylesheet(String filename) throws TransformationException {
+        Path key = TRANSFORM_FOLDER.resolve(filename).normalize();
+        CompiledStylesheet stylesheet = stylesheetCache.get(key);
+        if (stylesheet != null) {
+            return stylesheet;
+        }
+
+        Templates templates;
+        try {
+            File file = new File(OpenHAB.getConfigFolder(), key.toString());
+            // TransformerFactory is not guaranteed to be thread-safe
+            synchronized (transformerFactory) {
+                templates = transformerFactory.newTemplates(new StreamSource(file));
+            }
+        } catch (Exception e) {
+            String message = "compiling file '" + filename + "' throws exception";
+
+            logger.error("{}", message, e);
+            throw new TransformationException(message, e);
+        }
+        stylesheet = new CompiledStylesheet(templates);
+        CompiledStylesheet previous = stylesheetCache.putIfAbsent(key, stylesheet);
+        return previous != null ? previous : stylesheet;
+    }
+
+    /**
+     * Holds the compiled stylesheet and the transformers created from it, one per thread.
+     */
+    private static class CompiledStylesheet {
+        private final ThreadLocal<Transformer> transformers;
+
+        CompiledStylesheet(Templates templates) {
+            transformers = ThreadLocal.withInitial(() -> {
+                try {
+                    return templates.newTransformer();
+                } catch (TransformerConfigurationException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            });
+        }
+    }
 }
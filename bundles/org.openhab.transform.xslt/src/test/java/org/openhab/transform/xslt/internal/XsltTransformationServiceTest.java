@@ -13,9 +13,18 @@
 package org.openhab.transform.xslt.internal;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openhab.core.OpenHAB;
+import org.openhab.core.service.WatchService;
 import org.openhab.core.transform.TransformationException;
 
 /**
@@ -23,11 +32,31 @@ import org.openhab.core.transform.TransformationException;
  */
 public class XsltTransformationServiceTest extends AbstractTransformationServiceTest {
 
+    private static final String STYLESHEET = """
+            <xsl:stylesheet version="1.0" xmlns:xsl="http://www.w3.org/1999/XSL/Transform">
+              <xsl:output method="text"/>
+              <xsl:template match="/">%s<xsl:value-of select="/root/@val"/></xsl:template>
+            </xsl:stylesheet>
+            """;
+
     private XsltTransformationService processor;
+    private WatchService watchService;
+    private String configFolder;
 
     @BeforeEach
     public void init() {
-        processor = new XsltTransformationService();
+        configFolder = System.getProperty(OpenHAB.CONFIG_DIR_PROG_ARGUMENT);
+        watchService = mock(WatchService.class);
+        processor = new XsltTransformationService(watchService);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (configFolder == null) {
+            System.clearProperty(OpenHAB.CONFIG_DIR_PROG_ARGUMENT);
+        } else {
+            System.setProperty(OpenHAB.CONFIG_DIR_PROG_ARGUMENT, configFolder);
+        }
     }
 
     @Test
@@ -38,4 +67,47 @@ public class XsltTransformationServiceTest extends AbstractTransformationService
         // Asserts
         assertEquals("8", transformedResponse);
     }
+
+    @Test
+    public void testRepeatedTransformUsesCompiledStylesheet() throws TransformationException {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("8", processor.transform("http/google_weather.xsl", source));
+        }
+    }
+
+    @Test
+    public void testListenerRegistration() {
+        verify(watchService).registerListener(processor, Path.of("transform"));
+
+        processor.deactivate();
+
+        verify(watchService).unregisterListener(processor);
+    }
+
+    @Test
+    public void testStylesheetChangeInvalidatesCache(@TempDir Path tempDir)
+            throws IOException, TransformationException {
+        System.setProperty(OpenHAB.CONFIG_DIR_PROG_ARGUMENT, tempDir.toString());
+        Path file = tempDir.resolve("transform").resolve("sub").resolve("test.xsl");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, STYLESHEET.formatted("old:"));
+
+        assertEquals("old:1", processor.transform("sub/test.xsl", "<root val=\"1\"/>"));
+
+        // the compiled stylesheet is kept until the watch service reports a change
+        Files.writeString(file, STYLESHEET.formatted("new:"));
+        assertEquals("old:2", processor.transform("sub/test.xsl", "<root val=\"2\"/>"));
+
+        processor.processWatchEvent(WatchService.Kind.MODIFY, Path.of("transform", "sub", "test.xsl"));
+        assertEquals("new:3", processor.transform("sub/test.xsl", "<root val=\"3\"/>"));
+
+        Files.writeString(file, STYLESHEET.formatted("newer:"));
+        processor.processWatchEvent(WatchService.Kind.DELETE, Path.of("transform", "sub"));
+        assertEquals("newer:4", processor.transform("sub/test.xsl", "<root val=\"4\"/>"));
+    }
+
+    @Test
+    public void testMissingStylesheet() {
+        assertThrows(TransformationException.class, () -> processor.transform("http/missing.xsl", source));
+    }
 }